@@ -249,6 +249,18 @@ public class Matrix extends ArrayBase {
         setValue(i * nCols + j, value);
     }
 
+    /**
+     * Sets all elements of the matrix to the given value.
+     * This method MODIFIES the current matrix.
+     *
+     * @param value the value to set
+     * @return this matrix (modified)
+     */
+    public Matrix fill(final double value) {
+        setAll(value);
+        return this;
+    }
+
     /**
      * Sets the i-th column in the matrix to the given vector.
      * This method MODIFIES the current matrix.
@@ -0,0 +1,141 @@
+package renderer.bench;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+import renderer.controller.Framebuffer;
+import renderer.controller.ImageWrapper;
+import renderer.core.shader.DepthBuffer;
+import renderer.core.shader.Fragment;
+
+/**
+ * Benchmark of the garbage collection pauses of very large frames, with the
+ * depth buffer in the heap or off heap. Each frame clears an 8K framebuffer,
+ * writes a depth per pixel while allocating a fragment per pixel, as the
+ * rasterizers do, reduces the depth range, and ends with a full collection,
+ * the one that compacts the heap.
+ *
+ * Usage: {@code java renderer.bench.OffHeapDepthBenchmark [frames [width height]]}
+ */
+public final class OffHeapDepthBenchmark {
+
+    /**
+     * The default width of the frames, of an 8K image.
+     */
+    private static final int DEFAULT_WIDTH = 7680;
+
+    /**
+     * The default height of the frames, of an 8K image.
+     */
+    private static final int DEFAULT_HEIGHT = 4320;
+
+    /**
+     * The default number of measured frames.
+     */
+    private static final int DEFAULT_FRAMES = 5;
+
+    /**
+     * The number of frames rendered before measuring.
+     */
+    private static final int WARMUP_FRAMES = 1;
+
+    /**
+     * The number of nanoseconds in a millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * The number of bytes in a mebibyte.
+     */
+    private static final long MEBIBYTE = 1L << 20;
+
+    private OffHeapDepthBenchmark() {
+    }
+
+    /**
+     * Renders one synthetic frame.
+     *
+     * @param framebuffer the framebuffer
+     * @param width       the width of the frame
+     * @param height      the height of the frame
+     * @return a value depending on the frame, so it is not optimized away
+     */
+    private static double renderFrame(Framebuffer framebuffer, int width, int height) {
+        framebuffer.clear(width, height, ImageWrapper.getDefaultBackgroundColor());
+        final DepthBuffer depth = framebuffer.getDepthBuffer();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final Fragment fragment = new Fragment(x, y);
+                depth.setDepth(fragment.getX(), fragment.getY(),
+                        1 + (double) (x + y) / (width + height));
+            }
+        }
+        final double[] range = depth.getDepthRange();
+        return range[1] - range[0];
+    }
+
+    /**
+     * Gets the number and the total time of the collections so far.
+     *
+     * @return the count and the time in milliseconds
+     */
+    private static long[] collections() {
+        final long[] res = new long[2];
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            res[0] += Math.max(0, gc.getCollectionCount());
+            res[1] += Math.max(0, gc.getCollectionTime());
+        }
+        return res;
+    }
+
+    /**
+     * Measures the frames of one variant.
+     *
+     * @param offHeap true to keep the depth buffer off heap
+     * @param frames  the number of measured frames
+     * @param width   the width of the frames
+     * @param height  the height of the frames
+     */
+    private static void measure(boolean offHeap, int frames, int width, int height) {
+        final Framebuffer framebuffer = new Framebuffer(width, height,
+                ImageWrapper.getDefaultBackgroundColor(), offHeap);
+        double check = 0;
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            check += renderFrame(framebuffer, width, height);
+        }
+        System.gc();
+        final long[] before = collections();
+        final long start = System.nanoTime();
+        for (int i = 0; i < frames; i++) {
+            check += renderFrame(framebuffer, width, height);
+            System.gc();
+        }
+        final double ms = (System.nanoTime() - start) / NANOS_PER_MILLI / frames;
+        final long[] after = collections();
+        final Runtime runtime = Runtime.getRuntime();
+        System.out.printf("%-10s %10.1f %8d %10d %10.1f %10d%n",
+                offHeap ? "off heap" : "heap", ms, after[0] - before[0],
+                after[1] - before[1], (double) (after[1] - before[1]) / frames,
+                (runtime.totalMemory() - runtime.freeMemory()) / MEBIBYTE);
+        if (Double.isNaN(check)) {
+            System.out.println();
+        }
+    }
+
+    /**
+     * The benchmark entry point.
+     *
+     * @param args the optional number of measured frames, width and height
+     */
+    public static void main(String[] args) {
+        final int frames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FRAMES;
+        final int width = args.length > 2 ? Integer.parseInt(args[1]) : DEFAULT_WIDTH;
+        final int height = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_HEIGHT;
+
+        System.out.printf("%dx%d, %d frames%n", width, height, frames);
+        System.out.printf("%-10s %10s %8s %10s %10s %10s%n", "depth", "ms/frame",
+                "GCs", "GC ms", "GC ms/fr", "heap MiB");
+        measure(false, frames, width, height);
+        measure(true, frames, width, height);
+    }
+}
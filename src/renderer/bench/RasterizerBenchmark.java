@@ -0,0 +1,107 @@
+package renderer.bench;
+
+import java.io.IOException;
+
+import renderer.controller.Renderer;
+
+/**
+ * Micro benchmark comparing the scalar fixed-point rasterizer with the
+ * vectorized one on the shipped scenes.
+ *
+ * Usage: {@code java renderer.bench.RasterizerBenchmark [iterations]}
+ */
+public final class RasterizerBenchmark {
+
+    /**
+     * The scenes rendered by the benchmark.
+     */
+    private static final String[] SCENES = {
+        "data/example0.scene",
+        "data/example1.scene",
+        "data/example2.scene"
+    };
+
+    /**
+     * The number of frames rendered before measuring.
+     */
+    private static final int WARMUP_FRAMES = 10;
+
+    /**
+     * The default number of measured frames.
+     */
+    private static final int DEFAULT_FRAMES = 30;
+
+    /**
+     * The number of nanoseconds in a millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private RasterizerBenchmark() {
+    }
+
+    /**
+     * The available rasterizer switches.
+     */
+    private enum Variant {
+        /** The scalar fixed-point rasterizer. */
+        SCALAR,
+        /** The block vectorized rasterizer. */
+        VECTORIZED;
+
+        /**
+         * Selects this rasterizer on the renderer.
+         *
+         * @param renderer the renderer to configure
+         */
+        void select(Renderer renderer) {
+            if (this == SCALAR) {
+                renderer.setFixedPointRasterizer();
+            } else {
+                renderer.setVectorizedRasterizer();
+            }
+        }
+    }
+
+    /**
+     * Renders the given number of frames and returns the mean frame time.
+     *
+     * @param renderer the configured renderer
+     * @param frames   the number of frames
+     * @return the mean frame time in milliseconds
+     */
+    private static double measure(Renderer renderer, int frames) {
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            renderer.render();
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < frames; i++) {
+            renderer.render();
+        }
+        return (System.nanoTime() - start) / NANOS_PER_MILLI / frames;
+    }
+
+    /**
+     * The benchmark entry point.
+     *
+     * @param args the optional number of measured frames
+     * @throws IOException if a scene cannot be loaded
+     */
+    public static void main(String[] args) throws IOException {
+        final int frames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FRAMES;
+
+        final Renderer renderer = new Renderer();
+        renderer.setShader("SimpleShader");
+        renderer.setSolidRendered(true);
+
+        System.out.println();
+        System.out.printf("%-24s %-12s %12s%n", "scene", "rasterizer", "ms/frame");
+        for (String scene : SCENES) {
+            renderer.setScene(scene);
+            for (Variant variant : Variant.values()) {
+                variant.select(renderer);
+                final double ms = measure(renderer, frames);
+                System.out.printf("%-24s %-12s %12.3f%n", scene, variant, ms);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package renderer.controller;
+
+import renderer.core.shader.Fragment;
+import renderer.core.shader.Quad;
+import renderer.core.shader.Shader;
+
+/**
+ * Shader counting the fragments a rasterizer generates before handing them
+ * to the shader it wraps. The renderer puts it between the rasterizer and
+ * the shader only while the frames are profiled.
+ */
+final class CountingShader extends Shader {
+
+    /**
+     * The shader the fragments are handed to.
+     */
+    private Shader target;
+
+    /**
+     * The number of fragments generated since the last reset of the count.
+     */
+    private long fragments;
+
+    /**
+     * Sets the shader the fragments are handed to.
+     *
+     * @param target the wrapped shader
+     */
+    void setTarget(final Shader target) {
+        this.target = target;
+    }
+
+    /**
+     * Gets the number of fragments generated since the last reset of the
+     * count.
+     *
+     * @return the number of fragments
+     */
+    long getFragments() {
+        return fragments;
+    }
+
+    /**
+     * Resets the count of fragments.
+     */
+    void resetCount() {
+        fragments = 0;
+    }
+
+    @Override
+    public void shade(final Fragment fragment) {
+        fragments++;
+        target.shade(fragment);
+    }
+
+    @Override
+    public int computeColor(final Fragment fragment) {
+        fragments++;
+        return target.computeColor(fragment);
+    }
+
+    @Override
+    public void shadeQuad(final Quad quad) {
+        fragments += Integer.bitCount(quad.getCoverage());
+        target.shadeQuad(quad);
+    }
+
+    @Override
+    public boolean isClipped(final Fragment fragment) {
+        return target.isClipped(fragment);
+    }
+
+    @Override
+    public void reset() {
+        target.reset();
+    }
+}
@@ -0,0 +1,117 @@
+package renderer.controller;
+
+import renderer.core.shader.DepthBuffer;
+
+/**
+ * The FrameCache class keeps the result of the passes of a frame that depend
+ * on the scene, the camera and the rasterization settings: the image of the
+ * faces, edges and vertices, and its depth buffer. While none of those
+ * settings change, the next frames restore it instead of rasterizing again,
+ * and only run the passes drawn over it: the resolve of the shader, the
+ * overlay of the normals and the post-processing.
+ */
+final class FrameCache {
+
+    /**
+     * The pixels of the image, in the layout of ImageWrapper.
+     */
+    private byte[] pixels;
+
+    /**
+     * The depth buffer of the image.
+     */
+    private DepthBuffer depth;
+
+    /**
+     * The width of the image.
+     */
+    private int width;
+
+    /**
+     * The height of the image.
+     */
+    private int height;
+
+    /**
+     * Tells whether the content matches the current settings.
+     */
+    private boolean valid;
+
+    /**
+     * The number of frames restored from the cache.
+     */
+    private long hits;
+
+    /**
+     * The number of frames rasterized since the last invalidation or because
+     * the cache was invalid.
+     */
+    private long misses;
+
+    /**
+     * Forgets the cached frame, after a change of the settings it depends on.
+     */
+    void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Restores the cached frame, if it is valid and of the same size.
+     *
+     * @param image  the image to restore into
+     * @param target the depth buffer to restore into
+     * @return true if the frame was restored, false if it must be rendered
+     */
+    boolean restore(final ImageWrapper image, final DepthBuffer target) {
+        if (!valid || image.getWidth() != width || image.getHeight() != height) {
+            misses++;
+            return false;
+        }
+        System.arraycopy(pixels, 0, image.getPixelData(), 0, pixels.length);
+        target.copyFrom(depth);
+        hits++;
+        return true;
+    }
+
+    /**
+     * Keeps a frame just rendered.
+     *
+     * @param image  the image
+     * @param source the depth buffer of the image
+     */
+    void store(final ImageWrapper image, final DepthBuffer source) {
+        final byte[] data = image.getPixelData();
+        if (pixels == null || pixels.length != data.length) {
+            pixels = new byte[data.length];
+        }
+        System.arraycopy(data, 0, pixels, 0, data.length);
+        width = image.getWidth();
+        height = image.getHeight();
+        if (depth == null || depth.isOffHeap() != source.isOffHeap()) {
+            // a copy of a depth buffer kept off heap stays off heap
+            depth = new DepthBuffer(width, height, source.isOffHeap());
+        } else {
+            depth.resize(width, height);
+        }
+        depth.copyFrom(source);
+        valid = true;
+    }
+
+    /**
+     * Gets the number of frames restored from the cache.
+     *
+     * @return the number of hits
+     */
+    long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of frames that could not be restored.
+     *
+     * @return the number of misses
+     */
+    long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,328 @@
+package renderer.controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The FrameStatistics class records where the time of a frame is spent and
+ * how much work the pipeline did: the triangles submitted and rasterized,
+ * the fragments generated, the depth tests passed and failed and the pixels
+ * written, from which the overdraw is derived.
+ *
+ * The stage timings are exclusive: entering a stage pauses the enclosing
+ * one, so the vertices projected for the solid are charged to the vertex
+ * stage only. An instance is filled by a single render thread; the renderer
+ * publishes a copy once the frame is completed.
+ */
+public class FrameStatistics {
+
+    /**
+     * The stages of the rendering pipeline.
+     */
+    public enum Stage {
+        /** The update of the shadow maps. */
+        SHADOWS,
+        /** The projection and lighting of the vertices. */
+        VERTICES,
+        /** The rasterization of the vertices as points. */
+        POINTS,
+        /** The rasterization of the edges. */
+        WIREFRAME,
+        /** The rasterization and shading of the faces. */
+        SOLID,
+        /** The rendering of the normals. */
+        NORMALS,
+        /** The screen-space passes. */
+        POST_PROCESS
+    }
+
+    /**
+     * The number of nanoseconds in a millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * The time spent in each stage, in nanoseconds.
+     */
+    private final long[] stageNanos = new long[Stage.values().length];
+
+    /**
+     * The stage being timed, or null between the stages.
+     */
+    private Stage current;
+
+    /**
+     * The time the current stage was entered or resumed.
+     */
+    private long mark;
+
+    /**
+     * The time the frame started.
+     */
+    private long frameStart;
+
+    /**
+     * The duration of the frame.
+     */
+    private long frameNanos;
+
+    /**
+     * The number of pixels of the frame.
+     */
+    private int pixels;
+
+    /**
+     * The number of triangles submitted to the rasterizer.
+     */
+    private long trianglesIn;
+
+    /**
+     * The number of triangles that generated at least one fragment.
+     */
+    private long trianglesOut;
+
+    /**
+     * The number of fragments generated by the rasterizer.
+     */
+    private long fragments;
+
+    /**
+     * The number of depth tests passed.
+     */
+    private long depthPassed;
+
+    /**
+     * The number of depth tests failed.
+     */
+    private long depthFailed;
+
+    /**
+     * The number of pixels written to the image.
+     */
+    private long pixelsWritten;
+
+    /**
+     * Resets the statistics for a new frame.
+     *
+     * @param width  the width of the frame
+     * @param height the height of the frame
+     */
+    public void beginFrame(int width, int height) {
+        Arrays.fill(stageNanos, 0);
+        pixels = width * height;
+        trianglesIn = 0;
+        trianglesOut = 0;
+        fragments = 0;
+        depthPassed = 0;
+        depthFailed = 0;
+        pixelsWritten = 0;
+        current = null;
+        frameStart = System.nanoTime();
+        mark = frameStart;
+    }
+
+    /**
+     * Ends the frame.
+     *
+     * @param written the number of pixels written to the image
+     */
+    public void endFrame(long written) {
+        final long now = System.nanoTime();
+        charge(now);
+        current = null;
+        pixelsWritten = written;
+        frameNanos = now - frameStart;
+    }
+
+    /**
+     * Enters a stage, pausing the current one.
+     *
+     * @param stage the stage entered
+     * @return the stage paused, to give to leave
+     */
+    public Stage enter(Stage stage) {
+        charge(System.nanoTime());
+        final Stage previous = current;
+        current = stage;
+        return previous;
+    }
+
+    /**
+     * Leaves the current stage, resuming the one paused when it was entered.
+     *
+     * @param previous the stage returned by enter
+     */
+    public void leave(Stage previous) {
+        charge(System.nanoTime());
+        current = previous;
+    }
+
+    /**
+     * Charges the time elapsed since the mark to the current stage.
+     *
+     * @param now the current time
+     */
+    private void charge(long now) {
+        if (current != null) {
+            stageNanos[current.ordinal()] += now - mark;
+        }
+        mark = now;
+    }
+
+    /**
+     * Counts triangles submitted to the rasterizer.
+     *
+     * @param in  the number of triangles submitted
+     * @param out the number of them that generated fragments
+     */
+    public void addTriangles(long in, long out) {
+        trianglesIn += in;
+        trianglesOut += out;
+    }
+
+    /**
+     * Counts fragments generated by the rasterizer.
+     *
+     * @param count the number of fragments
+     */
+    public void addFragments(long count) {
+        fragments += count;
+    }
+
+    /**
+     * Counts a depth test.
+     *
+     * @param passed the result of the test
+     * @return the result of the test
+     */
+    public boolean countDepthTest(boolean passed) {
+        if (passed) {
+            depthPassed++;
+        } else {
+            depthFailed++;
+        }
+        return passed;
+    }
+
+    /**
+     * Copies the statistics.
+     *
+     * @return a snapshot of the statistics
+     */
+    public FrameStatistics copy() {
+        final FrameStatistics copy = new FrameStatistics();
+        System.arraycopy(stageNanos, 0, copy.stageNanos, 0, stageNanos.length);
+        copy.frameNanos = frameNanos;
+        copy.pixels = pixels;
+        copy.trianglesIn = trianglesIn;
+        copy.trianglesOut = trianglesOut;
+        copy.fragments = fragments;
+        copy.depthPassed = depthPassed;
+        copy.depthFailed = depthFailed;
+        copy.pixelsWritten = pixelsWritten;
+        return copy;
+    }
+
+    /**
+     * Gets the time spent in a stage.
+     *
+     * @param stage the stage
+     * @return the time in nanoseconds
+     */
+    public long getStageNanos(Stage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+
+    /**
+     * Gets the duration of the frame, including the time between the stages.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getFrameNanos() {
+        return frameNanos;
+    }
+
+    /**
+     * Gets the number of triangles submitted to the rasterizer.
+     *
+     * @return the number of triangles
+     */
+    public long getTrianglesIn() {
+        return trianglesIn;
+    }
+
+    /**
+     * Gets the number of triangles that generated at least one fragment.
+     *
+     * @return the number of triangles
+     */
+    public long getTrianglesOut() {
+        return trianglesOut;
+    }
+
+    /**
+     * Gets the number of fragments generated by the rasterizer.
+     *
+     * @return the number of fragments
+     */
+    public long getFragments() {
+        return fragments;
+    }
+
+    /**
+     * Gets the number of depth tests passed.
+     *
+     * @return the number of tests
+     */
+    public long getDepthTestsPassed() {
+        return depthPassed;
+    }
+
+    /**
+     * Gets the number of depth tests failed.
+     *
+     * @return the number of tests
+     */
+    public long getDepthTestsFailed() {
+        return depthFailed;
+    }
+
+    /**
+     * Gets the number of pixels written to the image by the shaders.
+     *
+     * @return the number of writes
+     */
+    public long getPixelsWritten() {
+        return pixelsWritten;
+    }
+
+    /**
+     * Gets the overdraw: the average number of writes per pixel of the frame.
+     *
+     * @return the overdraw, 0 for an empty frame
+     */
+    public double getOverdraw() {
+        return pixels == 0 ? 0 : (double) pixelsWritten / pixels;
+    }
+
+    /**
+     * Describes the statistics, one line per stage or counter.
+     *
+     * @return the lines of the description
+     */
+    public List<String> describe() {
+        final List<String> lines = new ArrayList<>();
+        lines.add(String.format("frame %.2f ms", frameNanos / NANOS_PER_MILLI));
+        for (Stage stage : Stage.values()) {
+            lines.add(String.format("  %s %.2f ms", stage.name().toLowerCase(),
+                    getStageNanos(stage) / NANOS_PER_MILLI));
+        }
+        lines.add("triangles " + trianglesIn + " in, " + trianglesOut + " out");
+        lines.add("fragments " + fragments);
+        lines.add("depth " + depthPassed + " passed, " + depthFailed + " failed");
+        lines.add(String.format("pixels written %d (overdraw %.2f)", pixelsWritten,
+                getOverdraw()));
+        return lines;
+    }
+}
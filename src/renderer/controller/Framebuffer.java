@@ -0,0 +1,88 @@
+package renderer.controller;
+
+import renderer.core.shader.DepthBuffer;
+import renderer.event.CacheEvictionEvent;
+
+/**
+ * The Framebuffer class pairs the image a frame is rendered into with the
+ * depth buffer of the frame, so both can be reused by the next frames.
+ */
+public class Framebuffer {
+
+    /**
+     * The number of bytes per pixel of a frame: the color and the depth.
+     */
+    private static final int BYTES_PER_PIXEL = 3 + Double.BYTES;
+
+    /**
+     * The color of the frame.
+     */
+    private ImageWrapper image;
+
+    /**
+     * The depth of the frame.
+     */
+    private final DepthBuffer depth;
+
+    /**
+     * Creates a framebuffer cleared to the given background.
+     *
+     * @param width      the width of the frame
+     * @param height     the height of the frame
+     * @param background the packed RGB background color
+     */
+    public Framebuffer(int width, int height, int background) {
+        this(width, height, background, false);
+    }
+
+    /**
+     * Creates a framebuffer cleared to the given background, with its depth
+     * buffer in the heap or off heap.
+     *
+     * @param width        the width of the frame
+     * @param height       the height of the frame
+     * @param background   the packed RGB background color
+     * @param offHeapDepth true to keep the depth buffer off heap
+     */
+    public Framebuffer(int width, int height, int background, boolean offHeapDepth) {
+        image = new ImageWrapper(width, height, background);
+        depth = new DepthBuffer(width, height, offHeapDepth);
+    }
+
+    /**
+     * Clears the framebuffer for a new frame, reallocating it only if the size
+     * changed.
+     *
+     * @param width      the width of the frame
+     * @param height     the height of the frame
+     * @param background the packed RGB background color
+     */
+    public void clear(int width, int height, int background) {
+        if (image.getWidth() != width || image.getHeight() != height) {
+            CacheEvictionEvent.emit("framebuffer", this, "resized",
+                    (long) image.getWidth() * image.getHeight() * BYTES_PER_PIXEL);
+            image = new ImageWrapper(width, height, background);
+        } else {
+            image.clear(background);
+        }
+        depth.resize(width, height);
+    }
+
+    /**
+     * Gets the image of the frame.
+     *
+     * @return the image
+     */
+    public ImageWrapper getImage() {
+        return image;
+    }
+
+    /**
+     * Gets the depth buffer of the frame.
+     *
+     * @return the depth buffer
+     */
+    public DepthBuffer getDepthBuffer() {
+        return depth;
+    }
+}
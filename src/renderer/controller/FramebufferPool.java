@@ -0,0 +1,188 @@
+package renderer.controller;
+
+/**
+ * The FramebufferPool class recycles a few framebuffers across frames, so
+ * continuous rendering does not allocate an image and a depth buffer per
+ * frame.
+ *
+ * A framebuffer goes from free to rendered, then to pending once its frame is
+ * completed, and to the front once its image is presented; presenting an
+ * image frees the previous front framebuffer. The front and pending images
+ * are never handed out again, so the image on screen is not drawn over. When
+ * every framebuffer is in use, a temporary one is allocated.
+ *
+ * The methods are synchronized, since frames are rendered on one thread and
+ * presented on another.
+ */
+public class FramebufferPool {
+
+    /**
+     * The state of a framebuffer that can be handed out.
+     */
+    private static final int FREE = 0;
+
+    /**
+     * The state of a framebuffer being rendered.
+     */
+    private static final int RENDERING = 1;
+
+    /**
+     * The state of a framebuffer completed but not presented yet.
+     */
+    private static final int PENDING = 2;
+
+    /**
+     * The state of the framebuffer on screen.
+     */
+    private static final int FRONT = 3;
+
+    /**
+     * The smallest pool allowing to render while a frame is shown.
+     */
+    private static final int MIN_SIZE = 2;
+
+    /**
+     * The framebuffers.
+     */
+    private final Framebuffer[] buffers;
+
+    /**
+     * The state of each framebuffer.
+     */
+    private final int[] states;
+
+    /**
+     * The number of temporary framebuffers allocated because the pool was
+     * exhausted.
+     */
+    private int overflows;
+
+    /**
+     * Tells whether the depth buffers of the framebuffers are off heap.
+     */
+    private final boolean offHeapDepth;
+
+    /**
+     * Creates a pool, whose framebuffers are allocated on first use.
+     *
+     * @param size the number of framebuffers, 2 for double buffering or 3 for
+     *             triple buffering
+     * @throws IllegalArgumentException if the size is smaller than 2
+     */
+    public FramebufferPool(int size) {
+        this(size, false);
+    }
+
+    /**
+     * Creates a pool, whose framebuffers are allocated on first use, with
+     * their depth buffers in the heap or off heap.
+     *
+     * @param size         the number of framebuffers, 2 for double buffering
+     *                     or 3 for triple buffering
+     * @param offHeapDepth true to keep the depth buffers off heap, for very
+     *                     large frames
+     * @throws IllegalArgumentException if the size is smaller than 2
+     */
+    public FramebufferPool(int size, boolean offHeapDepth) {
+        this.offHeapDepth = offHeapDepth;
+        if (size < MIN_SIZE) {
+            throw new IllegalArgumentException(
+                    "A framebuffer pool needs at least " + MIN_SIZE + " buffers.");
+        }
+        buffers = new Framebuffer[size];
+        states = new int[size];
+    }
+
+    /**
+     * Hands out a cleared framebuffer to render a frame into.
+     *
+     * @param width      the width of the frame
+     * @param height     the height of the frame
+     * @param background the packed RGB background color
+     * @return the framebuffer
+     */
+    public synchronized Framebuffer acquire(int width, int height, int background) {
+        for (int i = 0; i < buffers.length; i++) {
+            if (states[i] != FREE) {
+                continue;
+            }
+            if (buffers[i] == null) {
+                buffers[i] = new Framebuffer(width, height, background, offHeapDepth);
+            } else {
+                buffers[i].clear(width, height, background);
+            }
+            states[i] = RENDERING;
+            return buffers[i];
+        }
+        overflows++;
+        return new Framebuffer(width, height, background, offHeapDepth);
+    }
+
+    /**
+     * Marks the framebuffer of an image as completed.
+     *
+     * @param image the image of the completed frame
+     */
+    public synchronized void complete(ImageWrapper image) {
+        final int i = indexOf(image);
+        if (i >= 0) {
+            states[i] = PENDING;
+        }
+    }
+
+    /**
+     * Marks the framebuffer of an image as shown, and frees the framebuffer
+     * shown before.
+     *
+     * @param image the image presented
+     */
+    public synchronized void present(ImageWrapper image) {
+        final int i = indexOf(image);
+        if (i < 0 || states[i] == FRONT) {
+            return;
+        }
+        for (int j = 0; j < states.length; j++) {
+            if (states[j] == FRONT) {
+                states[j] = FREE;
+            }
+        }
+        states[i] = FRONT;
+    }
+
+    /**
+     * Gives back the framebuffer of an image that will not be presented.
+     *
+     * @param image the image of the discarded frame
+     */
+    public synchronized void release(ImageWrapper image) {
+        final int i = indexOf(image);
+        if (i >= 0 && states[i] != FRONT) {
+            states[i] = FREE;
+        }
+    }
+
+    /**
+     * Gets the number of temporary framebuffers allocated because every
+     * framebuffer of the pool was in use.
+     *
+     * @return the number of allocations outside the pool
+     */
+    public synchronized int getOverflows() {
+        return overflows;
+    }
+
+    /**
+     * Finds the framebuffer of an image.
+     *
+     * @param image the image
+     * @return the index of the framebuffer, or -1 if it is not from the pool
+     */
+    private int indexOf(ImageWrapper image) {
+        for (int i = 0; i < buffers.length; i++) {
+            if (buffers[i] != null && buffers[i].getImage() == image) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
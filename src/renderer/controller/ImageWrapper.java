@@ -2,6 +2,7 @@ package renderer.controller;
 
 import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
 
 import renderer.core.shader.Fragment;
 import renderer.core.mesh.Scene;
@@ -23,6 +24,26 @@ public class ImageWrapper extends BufferedImage {
      */
     private static final int DEFAULT_BACKGROUND_COLOR = 0x5C5C5C;
 
+    /**
+     * The number of bytes per pixel of the image (blue, green, red).
+     */
+    private static final int BYTES_PER_PIXEL = 3;
+
+    /**
+     * The shift of the red channel in a packed RGB color.
+     */
+    private static final int RED_SHIFT = 16;
+
+    /**
+     * The shift of the green channel in a packed RGB color.
+     */
+    private static final int GREEN_SHIFT = 8;
+
+    /**
+     * The number of pixels written with setRGB since the last clear.
+     */
+    private long pixelWrites;
+
     /**
      * Creates a default ImageWrapper for test with the default width and height.
      */
@@ -83,6 +104,32 @@ public class ImageWrapper extends BufferedImage {
         this.setRGB(x, y, rgb.getRGB());
     }
 
+    @Override
+    public void setRGB(int x, int y, int rgb) {
+        pixelWrites++;
+        super.setRGB(x, y, rgb);
+    }
+
+    /**
+     * Gets the number of pixels written with setRGB since the image was
+     * cleared, for the overdraw statistics.
+     *
+     * @return the number of pixel writes
+     */
+    public long getPixelWrites() {
+        return pixelWrites;
+    }
+
+    /**
+     * Gets the pixel data of the image, in row order with 3 bytes per pixel
+     * (blue, green, red). Writing to the array writes to the image.
+     *
+     * @return the backing array of the image
+     */
+    public byte[] getPixelData() {
+        return ((DataBufferByte) getRaster().getDataBuffer()).getData();
+    }
+
     /**
      * Test whether the fragment falls onto the screen.
      *
@@ -99,10 +146,30 @@ public class ImageWrapper extends BufferedImage {
      * @param backgroundColorRgb the background color
      */
     private void init(int backgroundColorRgb) {
-        java.awt.Graphics2D g2d = createGraphics();
-        g2d.setColor(new Color(backgroundColorRgb));
-        g2d.fillRect(0, 0, getWidth(), getHeight());
-        g2d.dispose();
+        clear(backgroundColorRgb);
+    }
+
+    /**
+     * Fills the whole image with a color. The first pixel is written, then
+     * the filled part is copied over the rest by doubling blocks. The count
+     * of pixel writes is reset.
+     *
+     * @param rgb the packed RGB color
+     */
+    public void clear(int rgb) {
+        pixelWrites = 0;
+        final byte[] data = getPixelData();
+        if (data.length == 0) {
+            return;
+        }
+        // TYPE_3BYTE_BGR layout
+        data[0] = (byte) rgb;
+        data[1] = (byte) (rgb >> GREEN_SHIFT);
+        data[2] = (byte) (rgb >> RED_SHIFT);
+        for (int filled = BYTES_PER_PIXEL; filled < data.length; filled *= 2) {
+            System.arraycopy(data, 0, data, filled,
+                    Math.min(filled, data.length - filled));
+        }
     }
 
     /**
@@ -0,0 +1,272 @@
+package renderer.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import renderer.algebra.Vector;
+import renderer.core.camera.CameraPose;
+import renderer.core.camera.Transformation;
+import renderer.core.light.Lighting;
+import renderer.core.mesh.Mesh;
+
+/**
+ * The MultiViewRenderer class renders one scene from many cameras, for
+ * turntables and multi-camera shots. The work on the vertices is shared by
+ * the views instead of being done once per frame:
+ * - the scene and its mesh are loaded once, in a SceneState;
+ * - the terms of the lighting that do not depend on the camera are computed
+ *   once per vertex for the whole batch;
+ * - the vertices are projected for a group of views in one pass over chunks
+ *   of vertices, each vertex being read once for all the views of the group.
+ * The views of a group are then rasterized in parallel, each by a renderer
+ * of its own into a framebuffer of its own.
+ */
+public final class MultiViewRenderer {
+
+    /**
+     * The number of vertices of a chunk of the vertex passes.
+     */
+    private static final int CHUNK = 1024;
+
+    /**
+     * The largest number of views whose vertices are kept at the same time.
+     */
+    private static final int VIEWS_PER_GROUP = 16;
+
+    /**
+     * The number of components of a color and of a projected vertex.
+     */
+    private static final int COMPONENTS = 3;
+
+    /**
+     * The scene rendered.
+     */
+    private final SceneState state;
+
+    /**
+     * The renderers of the views, rendering at the same time.
+     */
+    private final Renderer[] renderers;
+
+    /**
+     * Creates a renderer of views of a scene.
+     *
+     * @param state     the scene and its mesh
+     * @param renderers the number of views rendered at the same time
+     * @param setup     sets each renderer up (passes, shader, rasterizer),
+     *                  the same way for all of them
+     * @throws IllegalArgumentException if the number of renderers is not
+     *                                  positive
+     */
+    public MultiViewRenderer(final SceneState state, final int renderers,
+            final Consumer<Renderer> setup) {
+        if (renderers < 1) {
+            throw new IllegalArgumentException("Invalid renderer count " + renderers);
+        }
+        this.state = state;
+        this.renderers = new Renderer[renderers];
+        for (int i = 0; i < renderers; i++) {
+            this.renderers[i] = new Renderer(state);
+            setup.accept(this.renderers[i]);
+        }
+    }
+
+    /**
+     * Renders the scene from each camera.
+     *
+     * @param views the poses of the camera
+     * @return the images, in the order of the views
+     */
+    public List<ImageWrapper> render(final List<CameraPose> views) {
+        final Renderer first = renderers[0];
+        // the lit colors depend on shadow maps rendered with each frame
+        final boolean lit = first.isVertexLightingUsed() && !first.isShadowed();
+        final double[] terms =
+                lit ? computeViewIndependentTerms(first.getLighting()) : null;
+
+        final ImageWrapper[] images = new ImageWrapper[views.size()];
+        for (int from = 0; from < views.size(); from += VIEWS_PER_GROUP) {
+            final List<CameraPose> group =
+                    views.subList(from, Math.min(views.size(), from + VIEWS_PER_GROUP));
+            renderGroup(group, terms, images, from);
+        }
+        final List<ImageWrapper> result = new ArrayList<>(images.length);
+        for (ImageWrapper image : images) {
+            result.add(image);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the terms of the lighting of the vertices that do not depend
+     * on the camera.
+     *
+     * @param lighting the lights of the scene
+     * @return the terms, one per light for each vertex
+     */
+    private double[] computeViewIndependentTerms(final Lighting lighting) {
+        final Mesh mesh = state.getMesh();
+        final Vector[] vertices = mesh.getVertices();
+        final Vector[] normals = mesh.getNormals();
+        final double[] colors = mesh.getColors();
+        final double[] material = state.getScene().getMaterial();
+        final int lights = lighting.getNumLights();
+        final double[] terms = new double[vertices.length * lights];
+
+        IntStream.range(0, chunks(vertices.length)).parallel().forEach(chunk -> {
+            final double[] color = new double[COMPONENTS];
+            final int end = Math.min(vertices.length, (chunk + 1) * CHUNK);
+            for (int i = chunk * CHUNK; i < end; i++) {
+                System.arraycopy(colors, COMPONENTS * i, color, 0, COMPONENTS);
+                lighting.computeViewIndependentTerms(vertices[i].getSubVector(0, 3),
+                        normals[i], color, material[0], material[1], material[2],
+                        material[3], terms, i * lights);
+            }
+        });
+        return terms;
+    }
+
+    /**
+     * Renders a group of views: projects and lights the vertices for all of
+     * them, then rasterizes them in parallel.
+     *
+     * @param group  the poses of the camera
+     * @param terms  the terms of the lighting computed once, or null if the
+     *               vertices are not lit before rasterization
+     * @param images the array receiving the images of all the views
+     * @param offset the index of the first view of the group in the images
+     */
+    private void renderGroup(final List<CameraPose> group, final double[] terms,
+            final ImageWrapper[] images, final int offset) {
+        final Renderer first = renderers[0];
+        final double[][] matrices = new double[group.size()][];
+        final Vector[] eyes = new Vector[group.size()];
+        for (int v = 0; v < group.size(); v++) {
+            final CameraPose pose = group.get(v);
+            first.setCamera(pose.getEye(), pose.getLookAt(), pose.getUp());
+            matrices[v] = first.getTransformation().getProjectionMatrix();
+            eyes[v] = pose.getEye();
+        }
+
+        final int count = state.getMesh().getVertices().length;
+        final float[][] projections = new float[group.size()][COMPONENTS * count];
+        final double[][] colors = terms == null ? null : new double[group.size()][];
+        if (colors != null) {
+            for (int v = 0; v < group.size(); v++) {
+                colors[v] = new double[COMPONENTS * count];
+            }
+        }
+        prepareViews(matrices, eyes, terms, projections, colors);
+
+        final AtomicInteger next = new AtomicInteger();
+        IntStream.range(0, Math.min(renderers.length, group.size())).parallel()
+                .forEach(r -> {
+                    final Renderer renderer = renderers[r];
+                    for (int v = next.getAndIncrement(); v < group.size();
+                            v = next.getAndIncrement()) {
+                        final CameraPose pose = group.get(v);
+                        renderer.setCamera(pose.getEye(), pose.getLookAt(), pose.getUp());
+                        renderer.prepareVertices(projections[v],
+                                colors == null ? null : colors[v]);
+                        try {
+                            images[offset + v] = renderer.render();
+                        } finally {
+                            renderer.prepareVertices(null, null);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Projects and lights the vertices of the mesh for several views, in one
+     * pass over chunks of vertices: this is the work the views share before
+     * being rasterized, each vertex being read once for all of them.
+     *
+     * @param matrices    the products K.P.W of the views, row-major
+     * @param eyes        the positions of the cameras of the views
+     * @param projections the arrays receiving, for each view, the pixel
+     *                    coordinates and the depth of the vertices
+     * @param colors      the arrays receiving, for each view, the lit colors of
+     *                    the vertices, or null to only project them
+     */
+    public void prepareViews(final double[][] matrices, final Vector[] eyes,
+            final float[][] projections, final double[][] colors) {
+        prepareViews(matrices, eyes, colors == null ? null
+                : computeViewIndependentTerms(renderers[0].getLighting()),
+                projections, colors);
+    }
+
+    /**
+     * Projects and lights the vertices of the mesh for several views, from
+     * the terms of the lighting computed once.
+     *
+     * @param matrices    the products K.P.W of the views, row-major
+     * @param eyes        the positions of the cameras of the views
+     * @param terms       the terms of the lighting, or null if colors is null
+     * @param projections the arrays receiving the projected vertices
+     * @param colors      the arrays receiving the lit colors, or null
+     */
+    private void prepareViews(final double[][] matrices, final Vector[] eyes,
+            final double[] terms, final float[][] projections,
+            final double[][] colors) {
+        final Mesh mesh = state.getMesh();
+        final int count = mesh.getVertices().length;
+        final double[] positions = mesh.getVertexArray();
+        final double[] material = state.getScene().getMaterial();
+        IntStream.range(0, chunks(count)).parallel().forEach(chunk -> {
+            final int from = chunk * CHUNK;
+            final int to = Math.min(count, from + CHUNK);
+            Transformation.projectPoints(matrices, positions, projections, from, to);
+            if (colors != null) {
+                lightChunk(eyes, material, terms, colors, from, to);
+            }
+        });
+    }
+
+    /**
+     * Lights a chunk of vertices for every view of a group, from the terms
+     * computed once.
+     *
+     * @param eyes     the positions of the cameras of the views
+     * @param material the material of the scene (Ka, Kd, Ks, s)
+     * @param terms    the terms of the lighting of the vertices
+     * @param colors   the arrays receiving the lit colors of each view
+     * @param from     the index of the first vertex of the chunk
+     * @param to       the index following the last vertex of the chunk
+     */
+    private void lightChunk(final Vector[] eyes, final double[] material,
+            final double[] terms, final double[][] colors, final int from,
+            final int to) {
+        final Lighting lighting = renderers[0].getLighting();
+        final Mesh mesh = state.getMesh();
+        final Vector[] vertices = mesh.getVertices();
+        final Vector[] normals = mesh.getNormals();
+        final double[] meshColors = mesh.getColors();
+        final int lights = lighting.getNumLights();
+        final double[] color = new double[COMPONENTS];
+        final double[] lit = new double[COMPONENTS];
+        for (int i = from; i < to; i++) {
+            final Vector position = vertices[i].getSubVector(0, 3);
+            System.arraycopy(meshColors, COMPONENTS * i, color, 0, COMPONENTS);
+            for (int v = 0; v < eyes.length; v++) {
+                lighting.applyLights(position, normals[i], color, eyes[v],
+                        material[0], material[1], material[2], material[3],
+                        terms, i * lights, lit);
+                System.arraycopy(lit, 0, colors[v], COMPONENTS * i, COMPONENTS);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of chunks of a number of vertices.
+     *
+     * @param count the number of vertices
+     * @return the number of chunks
+     */
+    private static int chunks(final int count) {
+        return (count + CHUNK - 1) / CHUNK;
+    }
+}
@@ -0,0 +1,19 @@
+package renderer.controller;
+
+/**
+ * Thrown by a render given up because its image is no longer needed.
+ */
+public class RenderCancelledException extends RuntimeException {
+
+    /**
+     * The version of the serialized form.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates the exception.
+     */
+    public RenderCancelledException() {
+        super("The render was cancelled.");
+    }
+}
@@ -0,0 +1,189 @@
+package renderer.controller;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * The RenderExecutor class runs the renders of a Renderer on a dedicated
+ * thread, so the user interface stays responsive while an image is computed.
+ *
+ * The Renderer is owned by that thread: every change of its settings must be
+ * submitted with update, and is applied in order with the renders. Requesting
+ * a frame cancels the frame still pending or in flight, which gives up at the
+ * next face; a frame is only published when it completed without a newer
+ * frame being requested, so the images shown never go back in time.
+ *
+ * The frames are rendered into a pool of three framebuffers: publishing a
+ * frame presents its framebuffer and frees the one shown before, and the
+ * framebuffers of the frames discarded are freed right away.
+ */
+public class RenderExecutor {
+
+    /**
+     * The renderer, only used from the render thread.
+     */
+    private final Renderer renderer;
+
+    /**
+     * The single thread running the updates and the renders.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The number of framebuffers: one shown, one waiting to be shown and one
+     * being rendered.
+     */
+    private static final int FRAMEBUFFERS = 3;
+
+    /**
+     * The framebuffers the frames are rendered into.
+     */
+    private final FramebufferPool framebuffers = new FramebufferPool(FRAMEBUFFERS);
+
+    /**
+     * The runner of the publications, the Swing event thread by default.
+     */
+    private final Consumer<Runnable> publisher;
+
+    /**
+     * Receives the statistics of the frames published, or null.
+     */
+    private volatile Consumer<FrameStatistics> statisticsDisplay;
+
+    /**
+     * The last frame requested.
+     */
+    private CompletableFuture<ImageWrapper> latest;
+
+    /**
+     * The duration of the last frame completed, in nanoseconds.
+     */
+    private volatile long lastFrameNanos;
+
+    /**
+     * Creates an executor publishing the frames on the Swing event thread.
+     *
+     * @param renderer the renderer, which must not be used directly anymore
+     */
+    public RenderExecutor(final Renderer renderer) {
+        this(renderer, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Creates an executor publishing the frames with the given runner.
+     *
+     * @param renderer  the renderer, which must not be used directly anymore
+     * @param publisher runs the publication of the completed frames
+     */
+    public RenderExecutor(final Renderer renderer, final Consumer<Runnable> publisher) {
+        this.renderer = renderer;
+        this.publisher = publisher;
+        if (renderer != null) {
+            renderer.setFramebufferPool(framebuffers);
+        }
+        this.executor = Executors.newSingleThreadExecutor(task -> {
+            final Thread thread = new Thread(task, "renderer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Changes the settings of the renderer on the render thread, after the
+     * changes and frames already submitted.
+     *
+     * @param change the change to apply to the renderer
+     * @return a future completed once the change is applied
+     */
+    public CompletableFuture<Void> update(final Consumer<Renderer> change) {
+        return CompletableFuture.runAsync(() -> change.accept(renderer), executor);
+    }
+
+    /**
+     * Requests a frame with the current settings, cancelling the previous
+     * frame if it is not completed yet.
+     *
+     * @param display receives the image once completed, if no newer frame was
+     *                requested meanwhile; the image is only valid until the
+     *                next one is displayed
+     * @return the frame, cancelled if a newer frame is requested before its
+     *         completion
+     */
+    public synchronized CompletableFuture<ImageWrapper> submit(
+            final Consumer<ImageWrapper> display) {
+        if (latest != null) {
+            latest.cancel(false);
+        }
+        final CompletableFuture<ImageWrapper> frame = new CompletableFuture<>();
+        latest = frame;
+        executor.execute(() -> run(frame, display));
+        return frame;
+    }
+
+    /**
+     * Renders a frame, unless it has been cancelled, and publishes it.
+     *
+     * @param frame   the frame
+     * @param display receives the completed image
+     */
+    private void run(final CompletableFuture<ImageWrapper> frame,
+            final Consumer<ImageWrapper> display) {
+        if (frame.isDone()) {
+            return;
+        }
+        try {
+            final long start = System.nanoTime();
+            final ImageWrapper image = renderer.render(frame::isCancelled);
+            lastFrameNanos = System.nanoTime() - start;
+            final FrameStatistics statistics = renderer.getFrameStatistics();
+            final Consumer<FrameStatistics> showStatistics = statisticsDisplay;
+            // fails if the frame was cancelled after the last check
+            if (frame.complete(image)) {
+                publisher.accept(() -> {
+                    framebuffers.present(image);
+                    display.accept(image);
+                    if (showStatistics != null) {
+                        showStatistics.accept(statistics);
+                    }
+                });
+            } else {
+                framebuffers.release(image);
+            }
+        } catch (RenderCancelledException e) {
+            frame.cancel(false);
+        } catch (RuntimeException e) {
+            frame.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Sets the receiver of the statistics of the frames published, called
+     * along with the display of the frame.
+     *
+     * @param display receives the statistics, null if the frame was not
+     *                profiled; null to stop receiving them
+     */
+    public void setStatisticsDisplay(final Consumer<FrameStatistics> display) {
+        statisticsDisplay = display;
+    }
+
+    /**
+     * Gets the duration of the last frame completed.
+     *
+     * @return the render time in nanoseconds
+     */
+    public long getLastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    /**
+     * Stops the render thread once the submitted tasks are done.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -2,25 +2,50 @@ package renderer.controller;
 
 import java.awt.Color;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
 
 import renderer.algebra.SizeMismatchException;
 import renderer.algebra.Vector;
 import renderer.controller.ColorMapFactory.Maps;
+import renderer.controller.FrameStatistics.Stage;
+import renderer.core.shader.DepthBuffer;
 import renderer.core.shader.Fragment;
+import renderer.core.shader.MultisampleBuffer;
 import renderer.core.camera.Transformation;
+import renderer.core.deferred.DeferredShadingPass;
+import renderer.core.deferred.GBufferShader;
+import renderer.core.light.Light;
 import renderer.core.light.Lighting;
+import renderer.core.light.PointLight;
 import renderer.core.mesh.Mesh;
+import renderer.core.mesh.ResourceCache;
 import renderer.core.mesh.Scene;
+import renderer.core.mesh.Texture;
+import renderer.core.postprocess.PostProcess;
+import renderer.core.rasterizer.FixedPointRasterizer;
+import renderer.core.rasterizer.MultisampleRasterizer;
 import renderer.core.rasterizer.PerspectiveCorrectRasterizer;
+import renderer.core.rasterizer.QuadRasterizer;
 import renderer.core.rasterizer.Rasterizer;
+import renderer.core.rasterizer.VectorizedRasterizer;
 import renderer.core.shader.Shader;
 import renderer.core.shader.TextureShader;
+import renderer.core.shader.colormap.ColorMap;
+import renderer.core.shadow.ShadowMap;
+import renderer.event.FrameEvent;
 
 /**
  * The Renderer class drives the rendering pipeline: read in a scene, projects
  * the vertices and rasterizes every faces / edges.
  *
+ * A renderer holds the context of its frames (camera, shader, rasterizer and
+ * buffers) and is used by one thread at a time. The scene and its mesh are
+ * held by a SceneState that is only read, so several renderers sharing one
+ * may render frames at the same time.
+ *
  * @author cdehais
  */
 public final class Renderer {
@@ -30,18 +55,45 @@ public final class Renderer {
      */
     private static final String DEFAULT_FILENAME = "data/example0.scene";
 
-    /** The divider of the normal length. */
-    private static final double DIVIDER = 100;
+    /**
+     * The largest number of point lights casting shadows: the others light
+     * the scene without shadows.
+     */
+    public static final int MAX_SHADOW_LIGHTS = 4;
+
+    /** The rasterized result of the last frame, reused while still valid. */
+    private final FrameCache frameCache = new FrameCache();
 
-    /** The length of the normal. */
-    private static double normalLength;
+    /** Tells whether the frames reuse the rasterized result of the previous one. */
+    private boolean incrementalRendering;
 
-    /** The scene. */
+    /** The cancellation request of the renders that cannot be cancelled. */
+    private static final BooleanSupplier NEVER_CANCELLED = () -> false;
+
+    /** Tells whether the current render is no longer needed. */
+    private BooleanSupplier cancellation = NEVER_CANCELLED;
+
+    /** The scene and its mesh, possibly shared with other renderers. */
+    private SceneState state;
+
+    /** The scene, from the scene state. */
     private Scene scene;
 
-    /** The mesh. */
+    /** The mesh, from the scene state. */
     private Mesh mesh;
 
+    /** The cache the meshes and textures are loaded from, or null. */
+    private ResourceCache resources;
+
+    /** The projected vertices of the mesh, 3 per vertex, reused across frames. */
+    private float[] projectedVertices = new float[0];
+
+    /** The vertices projected by a batch of views for the next frame, or null. */
+    private float[] preparedProjection;
+
+    /** The lit colors of the vertices computed by a batch for the next frame, or null. */
+    private double[] preparedColors;
+
     /** The rasterizer. */
     private Rasterizer rasterizer;
 
@@ -51,6 +103,105 @@ public final class Renderer {
     /** The transformation. */
     private Transformation xform;
 
+    /** The position of the camera, initially the one of the scene. */
+    private Vector cameraPosition;
+
+    /** The point the camera looks at. */
+    private Vector cameraLookAt;
+
+    /** The up direction of the camera. */
+    private Vector cameraUp;
+
+    /** The divisor of the resolution of the scene for the rendered images. */
+    private int resolutionDivisor = 1;
+
+    /** The x-coordinate of the rendered viewport in the whole image. */
+    private int viewportX;
+
+    /** The y-coordinate of the rendered viewport in the whole image. */
+    private int viewportY;
+
+    /** The width of the rendered viewport, 0 to render the whole image. */
+    private int viewportWidth;
+
+    /** The height of the rendered viewport, 0 to render the whole image. */
+    private int viewportHeight;
+
+    /** The index of the partition of the faces of the mesh loaded. */
+    private int meshPartition;
+
+    /** The number of partitions of the faces of the mesh, 1 for the whole mesh. */
+    private int meshPartitions = 1;
+
+    /** The post-processing passes, applied in order after each render. */
+    private final List<PostProcess> postProcesses = new ArrayList<>();
+
+    /** The duration of the post-processing of the last render, in nanoseconds. */
+    private long lastPostProcessNanos;
+
+    /** The sample buffer of the multisample rasterizer, kept across frames. */
+    private MultisampleBuffer multisampleBuffer;
+
+    /** Whether the faces are rendered through a G-buffer, then lit once per pixel. */
+    private boolean deferredShading;
+
+    /** The shader of the geometry pass of deferred shading, kept across frames. */
+    private final GBufferShader gbufferShader = new GBufferShader();
+
+    /** The lighting pass of deferred shading. */
+    private final DeferredShadingPass deferredPass = new DeferredShadingPass();
+
+    /** Whether the point lights cast shadows. */
+    private boolean shadowsEnabled;
+
+    /** The radius of the filter of the shadow lookups, 0 for hard shadows. */
+    private int shadowPcfRadius;
+
+    /** The shadow maps of the point lights, in their order, kept across frames. */
+    private final List<ShadowMap> shadowMaps = new ArrayList<>();
+
+    /** The depths of all the shadow maps, one slot per map, or null. */
+    private DepthBuffer shadowStorage;
+
+    /** The mesh whose bounds are cached for the shadows, or null. */
+    private Mesh shadowBoundsMesh;
+
+    /** The bounding box of the mesh, as the minimum then maximum x, y and z. */
+    private final double[] shadowBounds = new double[6];
+
+    /** The framebuffers the frames are rendered into, or null to allocate images. */
+    private FramebufferPool framebuffers;
+
+    /** The depth buffer reused by the frames rendered without a pool. */
+    private DepthBuffer depthBuffer;
+
+    /** Tells whether the depth buffer reused without a pool is off heap. */
+    private boolean offHeapDepth;
+
+    /** The depth buffer of the current frame. */
+    private DepthBuffer frameDepth;
+
+    /** Whether the statistics of the frames are published. */
+    private boolean profilingEnabled;
+
+    /** The statistics filled by the profiled frames. */
+    private final FrameStatistics statistics = new FrameStatistics();
+
+    /** The statistics of the frame being rendered, or null when not timed. */
+    private FrameStatistics profiler;
+
+    /**
+     * Whether the frame being rendered counts its fragments, triangles and
+     * depth tests, only when profiling and not for the flight recorder alone.
+     */
+    private boolean countingFrame;
+
+    /** The statistics of the last frame completed while profiling. */
+    private volatile FrameStatistics lastStatistics;
+
+    /** The shader counting the fragments while profiling. */
+    private final CountingShader countingShader = new CountingShader();
+
     /** The lighting. */
     private final Lighting lighting;
 
@@ -106,14 +257,24 @@ public final class Renderer {
      * @throws IOException if files doesn't exist
      */
     public Renderer() throws IOException {
+        // set default scene : cube
+        this(SceneState.load(DEFAULT_FILENAME));
+    }
+
+    /**
+     * Creates a renderer of a loaded scene. Renderers sharing a scene state
+     * may render at the same time from different threads.
+     *
+     * @param sceneState the scene and its mesh
+     */
+    public Renderer(final SceneState sceneState) {
         // set the shader Factory up
         ShaderFactory.init();
 
         // creates a lighting
         lighting = new Lighting();
 
-        // set default scene : cube
-        setScene(DEFAULT_FILENAME);
+        setSceneState(sceneState);
 
         // set a default shader that shouldn't been used.
         shader = new DefaultShader();
@@ -132,26 +293,24 @@ public final class Renderer {
     public void renderNormal() {
         final Vector[] vertices = mesh.getVertices();
         final Fragment[] fragments = projectVertices();
+        final double length = state.getNormalLength();
+        final double[] dest = new double[3];
 
         for (int i = 0; i < vertices.length; i++) {
             final Vector vertex = vertices[i];
             final Fragment fragment = fragments[i];
             final Vector normal = fragment.getNormal();
 
-            final Vector destVector = new Vector(
-                    vertex.get(0) + normalLength * normal.get(0),
-                    vertex.get(1) + normalLength * normal.get(1),
-                    vertex.get(2) + normalLength * normal.get(2));
-
-            final Vector destVectorPoint = xform.projectPoint(destVector);
+            // projected through K.P.W as the start points, in the viewport
+            xform.projectPoint(vertex.get(0) + length * normal.get(0),
+                    vertex.get(1) + length * normal.get(1),
+                    vertex.get(2) + length * normal.get(2), dest);
 
-            int x = (int) Math.round(destVectorPoint.get(0));
-            int y = (int) Math.round(destVectorPoint.get(1));
-
-            final Fragment destFragment = new Fragment(x, y);
+            final Fragment destFragment = new Fragment((int) Math.round(dest[0]),
+                    (int) Math.round(dest[1]));
             destFragment.setColor(Color.RED);
             destFragment.setNormal(normal);
-            destFragment.setDepth(destVectorPoint.get(2));
+            destFragment.setDepth(dest[2]);
 
             final Fragment originFragment = fragment.clone();
             originFragment.setColor(Color.RED);
@@ -167,9 +326,72 @@ public final class Renderer {
      * @param enabled true to enable lighting, false to disable it
      */
     public void setLightingEnabled(final boolean enabled) {
+        frameCache.invalidate();
         lightingEnabled = enabled;
     }
 
+    /**
+     * Gets whether lighting is enabled.
+     *
+     * @return true if lighting is enabled
+     */
+    public boolean isLightingEnabled() {
+        return lightingEnabled;
+    }
+
+    /**
+     * Gets the lighting environment of the scene.
+     *
+     * @return the lighting
+     */
+    public Lighting getLighting() {
+        return lighting;
+    }
+
+    /**
+     * Gets the current scene.
+     *
+     * @return the scene
+     */
+    public Scene getScene() {
+        return scene;
+    }
+
+    /**
+     * Enables or disables the shadows of the point lights. The shadow maps are
+     * rendered when lighting is enabled, and kept until the light or the mesh
+     * changes. Only the first {@link #MAX_SHADOW_LIGHTS} lights reaching the
+     * mesh cast shadows.
+     *
+     * @param enabled true to enable shadows
+     */
+    public void setShadowsEnabled(final boolean enabled) {
+        frameCache.invalidate();
+        shadowsEnabled = enabled;
+    }
+
+    /**
+     * Sets the radius of the percentage-closer filter of the shadow lookups.
+     *
+     * @param radius the radius in shadow map pixels, 0 for hard shadows
+     */
+    public void setShadowPcfRadius(final int radius) {
+        frameCache.invalidate();
+        shadowPcfRadius = radius;
+    }
+
+    /**
+     * Enables or disables deferred shading. When enabled, the faces are first
+     * rasterized into a G-buffer keeping the nearest fragment of each pixel,
+     * then lighting and texturing are computed once per visible pixel.
+     *
+     * @param enabled true to enable deferred shading
+     */
+    public void setDeferredShading(final boolean enabled) {
+        frameCache.invalidate();
+        deferredShading = enabled;
+    }
+
     /**
      * Sets the scene with the given filename.
      *
@@ -177,56 +399,326 @@ public final class Renderer {
      * @throws IOException if the file doesn't exist
      */
     public void setScene(final String fileName) throws IOException {
-        scene = new Scene(fileName);
-        // update mesh
-        mesh = new Mesh(this.scene.getMeshFileName());
-        // update transformation
+        setSceneState(
+                SceneState.load(fileName, resources, meshPartition, meshPartitions));
+    }
+
+    /**
+     * Renders the next frames from a loaded scene, which may be shared with
+     * other renderers rendering at the same time. The camera and the lights
+     * are reset to the ones of the scene.
+     *
+     * @param sceneState the scene and its mesh
+     */
+    public void setSceneState(final SceneState sceneState) {
+        frameCache.invalidate();
+        state = sceneState;
+        scene = sceneState.getScene();
+        mesh = sceneState.getMesh();
+        // update transformation, with vectors of its own as the scene is shared
+        cameraPosition = new Vector(scene.getCameraPosition());
+        cameraLookAt = new Vector(scene.getCameraLookAt());
+        cameraUp = new Vector(scene.getCameraUp());
         xform = new Transformation();
-        xform.setLookAt(scene.getCameraPosition(),
-                scene.getCameraLookAt(),
-                scene.getCameraUp());
+        xform.setLookAt(cameraPosition, cameraLookAt, cameraUp);
         xform.setProjection();
-        xform.setCalibration(scene.getCameraFocal(),
-                scene.getScreenW(),
-                scene.getScreenH());
+        xform.setCalibration(getFocal(), getImageWidth(), getImageHeight());
+        xform.setViewportOffset(viewportX, viewportY);
 
         // add lights of the scene
         lighting.reset();
         lighting.addAmbientLight(scene.getAmbientI());
-        final double[] lightCoord = scene.getSourceCoord();
-        lighting.addPointLight(lightCoord[0],
-                lightCoord[1],
-                lightCoord[2],
-                scene.getSourceI());
+        for (double[] light : scene.getPointLights()) {
+            lighting.addPointLight(light[0], light[1], light[2], light[3], light[4]);
+        }
+    }
+
+    /**
+     * Gets the scene rendered and its mesh.
+     *
+     * @return the scene state, which may be shared with other renderers
+     */
+    public SceneState getSceneState() {
+        return state;
+    }
+
+    /**
+     * Loads the meshes and the textures of the next scenes through a cache,
+     * shared with other renderers, instead of reading their files each time.
+     * The partitions of meshes are always read from their files.
+     *
+     * @param cache the cache, or null to read the files each time
+     */
+    public void setResourceCache(final ResourceCache cache) {
+        resources = cache;
+    }
+
+    /**
+     * Keeps only one partition of the faces of the meshes loaded by the next
+     * calls to setScene, for sort-last rendering of a mesh split across
+     * processes.
+     *
+     * @param partition  the index of the partition, from 0
+     * @param partitions the number of partitions, 1 for the whole mesh
+     * @throws IllegalArgumentException if the partition does not exist
+     */
+    public void setMeshPartition(final int partition, final int partitions) {
+        if (partitions < 1 || partition < 0 || partition >= partitions) {
+            throw new IllegalArgumentException(
+                    "Invalid partition " + partition + " of " + partitions);
+        }
+        meshPartition = partition;
+        meshPartitions = partitions;
+    }
+
+    /**
+     * Moves the camera, without reloading the scene nor the mesh.
+     *
+     * @param eye         the position of the camera
+     * @param lookAtPoint the point to look at
+     * @param up          the up direction
+     */
+    public void setCamera(final Vector eye, final Vector lookAtPoint, final Vector up) {
+        frameCache.invalidate();
+        cameraPosition = eye;
+        cameraLookAt = lookAtPoint;
+        cameraUp = up;
+        xform.setLookAt(eye, lookAtPoint, up);
+    }
+
+    /**
+     * Gets the position of the camera.
+     *
+     * @return the camera position
+     */
+    public Vector getCameraPosition() {
+        return cameraPosition;
+    }
+
+    /**
+     * Gets the point the camera looks at.
+     *
+     * @return the look at point
+     */
+    public Vector getCameraLookAt() {
+        return cameraLookAt;
+    }
+
+    /**
+     * Gets the up direction of the camera.
+     *
+     * @return the up vector
+     */
+    public Vector getCameraUp() {
+        return cameraUp;
+    }
+
+    /**
+     * Renders the next images at a fraction of the resolution of the scene,
+     * for fast previews. The viewport is given in pixels of the whole image,
+     * so the resolution cannot change while one is set.
+     *
+     * @param divisor the divisor of the width, the height and the focal
+     *                length, 1 for the full resolution
+     * @throws IllegalArgumentException if the divisor is below one
+     * @throws IllegalStateException    if the divisor changes while a
+     *                                  viewport is set
+     */
+    public void setResolutionDivisor(final int divisor) {
+        if (divisor < 1) {
+            throw new IllegalArgumentException("Invalid resolution divisor " + divisor);
+        }
+        if (divisor == resolutionDivisor) {
+            return;
+        }
+        if (viewportWidth > 0) {
+            throw new IllegalStateException("Cannot change the resolution divisor to "
+                    + divisor + " while a viewport is set; reset it first.");
+        }
+        frameCache.invalidate();
+        resolutionDivisor = divisor;
+        xform.setCalibration(getFocal(), getImageWidth(), getImageHeight());
+    }
+
+    /**
+     * Gets the divisor of the resolution of the rendered images.
+     *
+     * @return the divisor, 1 for the full resolution
+     */
+    public int getResolutionDivisor() {
+        return resolutionDivisor;
+    }
+
+    /**
+     * Renders the next images as a tile of the whole image: only the pixels of
+     * the viewport are rendered, into an image of the size of the viewport.
+     *
+     * @param x      the x-coordinate of the top left pixel of the viewport
+     * @param y      the y-coordinate of the top left pixel of the viewport
+     * @param width  the width of the viewport
+     * @param height the height of the viewport
+     * @throws IllegalArgumentException if the viewport is empty or out of the
+     *                                  whole image
+     */
+    public void setViewport(final int x, final int y, final int width, final int height) {
+        frameCache.invalidate();
+        if (width < 1 || height < 1 || x < 0 || y < 0
+                || x + width > getImageWidth() || y + height > getImageHeight()) {
+            throw new IllegalArgumentException("Invalid viewport " + width + "x" + height
+                    + " at (" + x + ", " + y + ")");
+        }
+        viewportX = x;
+        viewportY = y;
+        viewportWidth = width;
+        viewportHeight = height;
+        xform.setViewportOffset(x, y);
+    }
+
+    /**
+     * Renders the next images whole again.
+     */
+    public void resetViewport() {
+        frameCache.invalidate();
+        viewportX = 0;
+        viewportY = 0;
+        viewportWidth = 0;
+        viewportHeight = 0;
+        xform.setViewportOffset(0, 0);
+    }
 
-        // determine the normal length
-        initNormalLength();
+    /**
+     * Gets the width of the whole image.
+     *
+     * @return the width in pixels
+     */
+    public int getImageWidth() {
+        return Math.max(1, scene.getScreenW() / resolutionDivisor);
+    }
+
+    /**
+     * Gets the height of the whole image.
+     *
+     * @return the height in pixels
+     */
+    public int getImageHeight() {
+        return Math.max(1, scene.getScreenH() / resolutionDivisor);
+    }
+
+    /**
+     * Gets the width of the rendered images: the width of the viewport, or of
+     * the whole image.
+     *
+     * @return the width in pixels
+     */
+    public int getScreenWidth() {
+        return viewportWidth > 0 ? viewportWidth : getImageWidth();
+    }
+
+    /**
+     * Gets the height of the rendered images: the height of the viewport, or
+     * of the whole image.
+     *
+     * @return the height in pixels
+     */
+    public int getScreenHeight() {
+        return viewportHeight > 0 ? viewportHeight : getImageHeight();
+    }
+
+    /**
+     * Gets the focal length of the rendered images.
+     *
+     * @return the focal length in pixels
+     */
+    public double getFocal() {
+        return scene.getCameraFocal() / resolutionDivisor;
     }
 
     /**
      * Sets the rasterizer with a Rasterizer.
      */
     public void setRasterizer() {
-        if (this.rasterizer instanceof PerspectiveCorrectRasterizer) {
+        frameCache.invalidate();
+        if (this.rasterizer.getClass() != Rasterizer.class) {
             this.rasterizer = new Rasterizer(shader);
         }
     }
 
+    /**
+     * Sets the rasterizer with a FixedPointRasterizer, which keeps the
+     * projected vertices in sub-pixel precision and applies a top-left fill rule.
+     */
+    public void setFixedPointRasterizer() {
+        frameCache.invalidate();
+        if (this.rasterizer.getClass() != FixedPointRasterizer.class) {
+            this.rasterizer = new FixedPointRasterizer(shader);
+        }
+    }
+
+    /**
+     * Sets the rasterizer with a VectorizedRasterizer, which tests the coverage
+     * and interpolates the attributes of several pixels at once.
+     */
+    public void setVectorizedRasterizer() {
+        frameCache.invalidate();
+        if (!(this.rasterizer instanceof VectorizedRasterizer)) {
+            this.rasterizer = new VectorizedRasterizer(shader);
+        }
+    }
+
     /**
      * Sets the rasterizer with a PerspectiveCorrectRasterizer.
      */
     public void setPerspectiveCorrectRasterizer() {
+        frameCache.invalidate();
         if (!(this.rasterizer instanceof PerspectiveCorrectRasterizer)) {
             this.rasterizer = new PerspectiveCorrectRasterizer(shader);
         }
     }
 
+    /**
+     * Sets the rasterizer with a MultisampleRasterizer: faces are anti-aliased
+     * with the given number of coverage samples per pixel, shaded once per
+     * pixel, and resolved into the rendered image.
+     *
+     * @param samples the number of samples per pixel: 2, 4 or 8
+     */
+    public void setMultisampleRasterizer(final int samples) {
+        frameCache.invalidate();
+        if (!(this.rasterizer instanceof MultisampleRasterizer)
+                || ((MultisampleRasterizer) this.rasterizer).getSamples() != samples) {
+            this.rasterizer = new MultisampleRasterizer(shader, samples);
+        }
+    }
+
+    /**
+     * Tells whether multisampling is selected with a shader that does not
+     * support it, the faces being then rasterized with one sample per pixel.
+     *
+     * @return true if the multisample rasterizer falls back to one sample
+     */
+    public boolean isMultisampleFallback() {
+        return rasterizer instanceof MultisampleRasterizer
+                && !shader.supportsMultisampling();
+    }
+
+    /**
+     * Sets the rasterizer with a QuadRasterizer, which generates fragments by
+     * 2x2 quads carrying the derivatives of their texture coordinates.
+     */
+    public void setQuadRasterizer() {
+        frameCache.invalidate();
+        if (!(this.rasterizer instanceof QuadRasterizer)) {
+            this.rasterizer = new QuadRasterizer(shader, true);
+        }
+    }
+
     /**
      * Sets the shader to the given values.
      *
      * @param shader the new shader.
      */
     public void setShader(final Shader shader) {
+        frameCache.invalidate();
         this.shader = shader;
         rasterizer.setShader(shader);
     }
@@ -239,13 +731,191 @@ public final class Renderer {
      */
     public ImageWrapper render()
             throws SizeMismatchException {
+        return render(NEVER_CANCELLED);
+    }
+
+    /**
+     * Render an image from the current parameters, giving up as soon as the
+     * image is no longer needed. The request is polled between the faces and
+     * between the passes, so a frame is abandoned within one face.
+     *
+     * @param cancelled tells whether the image is no longer needed
+     * @return the rendered image.
+     * @throws SizeMismatchException if the size of the fragments do not match
+     * @throws RenderCancelledException if the render was cancelled
+     */
+    public ImageWrapper render(final BooleanSupplier cancelled)
+            throws SizeMismatchException {
+        cancellation = cancelled;
+        try {
+            return renderFrame();
+        } finally {
+            cancellation = NEVER_CANCELLED;
+        }
+    }
+
+    /**
+     * Gives up the current render if it was cancelled.
+     *
+     * @throws RenderCancelledException if the render was cancelled
+     */
+    private void checkCancelled() {
+        if (cancellation.getAsBoolean()) {
+            throw new RenderCancelledException();
+        }
+    }
+
+    /**
+     * Renders an image from the current parameters.
+     *
+     * @return the rendered image.
+     * @throws SizeMismatchException if the size of the fragments do not match
+     */
+    private ImageWrapper renderFrame()
+            throws SizeMismatchException {
 
         // returned image
-        final ImageWrapper res = new ImageWrapper(scene);
+        final ImageWrapper res;
+        if (framebuffers != null) {
+            final Framebuffer target = framebuffers.acquire(getScreenWidth(),
+                    getScreenHeight(), ImageWrapper.getDefaultBackgroundColor());
+            res = target.getImage();
+            frameDepth = target.getDepthBuffer();
+        } else {
+            res = new ImageWrapper(getScreenWidth(), getScreenHeight());
+            if (depthBuffer == null || depthBuffer.isOffHeap() != offHeapDepth) {
+                depthBuffer = new DepthBuffer(res.getWidth(), res.getHeight(),
+                        offHeapDepth);
+            } else {
+                depthBuffer.resize(res.getWidth(), res.getHeight());
+            }
+            frameDepth = depthBuffer;
+        }
+        // the stages are also timed for the flight recorder, whose events stay
+        // cheap: the per-fragment counters are only filled while profiling
+        final FrameEvent event = new FrameEvent();
+        event.begin();
+        profiler = profilingEnabled || event.isEnabled() ? statistics : null;
+        countingFrame = profilingEnabled;
+        frameDepth.setStatistics(countingFrame ? statistics : null);
+        if (profiler != null) {
+            profiler.beginFrame(res.getWidth(), res.getHeight());
+            countingShader.resetCount();
+        }
+        try {
+            renderInto(res);
+        } catch (RuntimeException e) {
+            if (framebuffers != null) {
+                framebuffers.release(res);
+            }
+            throw e;
+        }
+        if (framebuffers != null) {
+            framebuffers.complete(res);
+        }
+        if (profiler != null) {
+            profiler.addFragments(countingShader.getFragments());
+            profiler.endFrame(res.getPixelWrites());
+            if (countingFrame) {
+                lastStatistics = profiler.copy();
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            commitFrameEvent(event, res);
+        }
+        return res;
+    }
+
+    /**
+     * Fills and records the flight recorder event of a frame.
+     *
+     * @param event the event, ended
+     * @param res   the rendered image
+     */
+    private void commitFrameEvent(final FrameEvent event, final ImageWrapper res) {
+        event.scene = state.getSceneFile();
+        event.shader = shader.getClass().getSimpleName();
+        event.rasterizer = rasterizer.getClass().getSimpleName();
+        event.width = res.getWidth();
+        event.height = res.getHeight();
+        event.imageBytes = res.getPixelData().length;
+        event.shadowsTime = statistics.getStageNanos(Stage.SHADOWS);
+        event.verticesTime = statistics.getStageNanos(Stage.VERTICES);
+        event.pointsTime = statistics.getStageNanos(Stage.POINTS);
+        event.wireframeTime = statistics.getStageNanos(Stage.WIREFRAME);
+        event.solidTime = statistics.getStageNanos(Stage.SOLID);
+        event.normalsTime = statistics.getStageNanos(Stage.NORMALS);
+        event.postProcessTime = statistics.getStageNanos(Stage.POST_PROCESS);
+        event.triangles = statistics.getTrianglesIn();
+        event.commit();
+    }
+
+    /**
+     * Renders the current parameters into a cleared image.
+     *
+     * @param res the image
+     * @throws SizeMismatchException if the size of the fragments do not match
+     */
+    private void renderInto(final ImageWrapper res)
+            throws SizeMismatchException {
+
+        Stage previous;
+        final boolean restored =
+                incrementalRendering && frameCache.restore(res, frameDepth);
+        if (!restored) {
+            // the shadow maps are needed by the lighting of the vertices and shaders
+            previous = enterStage(Stage.SHADOWS);
+            updateShadowMaps();
+            leaveStage(previous);
+            checkCancelled();
+        }
 
         // initialize the shader with the Image Wrapper
         shader.init(this, res);
+        rasterizer.setShader(counted(shader));
+
+        if (!restored) {
+            rasterize(res);
+            if (incrementalRendering) {
+                frameCache.store(res, frameDepth);
+            }
+        }
+
+        // color the image from the depth buffer, for the shaders that do
+        checkCancelled();
+        previous = enterStage(Stage.SOLID);
+        shader.resolve(res, frameDepth);
+        leaveStage(previous);
+
+        // render the normals if needed
+        if (normalsRendered) {
+            previous = enterStage(Stage.NORMALS);
+            renderNormal();
+            leaveStage(previous);
+        }
+        rasterizer.setShader(shader);
+
+        // apply the screen-space passes
+        checkCancelled();
+        previous = enterStage(Stage.POST_PROCESS);
+        final long postProcessStart = System.nanoTime();
+        for (PostProcess postProcess : postProcesses) {
+            postProcess.apply(res);
+        }
+        lastPostProcessNanos = System.nanoTime() - postProcessStart;
+        leaveStage(previous);
+    }
 
+    /**
+     * Runs the passes that depend on the scene, the camera and the
+     * rasterization settings: vertices, edges and faces.
+     *
+     * @param res the image
+     * @throws SizeMismatchException if the size of the fragments do not match
+     */
+    private void rasterize(final ImageWrapper res)
+            throws SizeMismatchException {
         if (vertexRendered) {
             // render vertices if needed
             renderVertices();
@@ -258,15 +928,282 @@ public final class Renderer {
         }
         if (solidRendered) {
             // render faces if needed
-            renderSolid();
+            final Stage previous = enterStage(Stage.SOLID);
+            if (deferredShading) {
+                renderSolidDeferred(res);
+            } else if (rasterizer instanceof MultisampleRasterizer
+                    && shader.supportsMultisampling()) {
+                renderSolidMultisampled(res);
+            } else {
+                renderSolid();
+            }
+            leaveStage(previous);
         }
+    }
 
-        // render the normals if needed
-        if (normalsRendered) {
-            renderNormal();
+    /**
+     * Sets whether the frames reuse the faces, edges and vertices rasterized
+     * for the previous frame while the settings they depend on are unchanged.
+     * A change of the color map, of the normals overlay or of the
+     * post-processing then only runs the passes drawn over them. The settings
+     * changed through the setters of the renderer are tracked; changes made
+     * through the objects it exposes, such as its lighting, must be followed
+     * by invalidateFrameCache.
+     *
+     * @param enabled true to reuse the rasterized frame
+     */
+    public void setIncrementalRendering(final boolean enabled) {
+        incrementalRendering = enabled;
+        frameCache.invalidate();
+    }
+
+    /**
+     * Tells whether the frames reuse the rasterized result of the previous one.
+     *
+     * @return true if the rendering is incremental
+     */
+    public boolean isIncrementalRendering() {
+        return incrementalRendering;
+    }
+
+    /**
+     * Rasterizes the next frame again, after a change of a setting the
+     * renderer does not track.
+     */
+    public void invalidateFrameCache() {
+        frameCache.invalidate();
+    }
+
+    /**
+     * Gets the number of frames that reused the rasterized previous frame.
+     *
+     * @return the number of frames only running the passes drawn over it
+     */
+    public long getReusedFrameCount() {
+        return frameCache.getHits();
+    }
+
+    /**
+     * Enters a stage of the frame statistics, if profiling.
+     *
+     * @param stage the stage entered
+     * @return the stage paused, to give to leaveStage
+     */
+    private Stage enterStage(final Stage stage) {
+        return profiler == null ? null : profiler.enter(stage);
+    }
+
+    /**
+     * Leaves a stage of the frame statistics, if profiling.
+     *
+     * @param previous the stage returned by enterStage
+     */
+    private void leaveStage(final Stage previous) {
+        if (profiler != null) {
+            profiler.leave(previous);
         }
+    }
 
-        return res;
+    /**
+     * Gets the shader to give to the rasterizer: the shader itself, or while
+     * profiling, the shader counting its fragments.
+     *
+     * @param target the shader shading the fragments
+     * @return the shader for the rasterizer
+     */
+    private Shader counted(final Shader target) {
+        if (!countingFrame) {
+            return target;
+        }
+        countingShader.setTarget(target);
+        return countingShader;
+    }
+
+    /**
+     * Enables the per-stage timings and counters of the frames. When disabled,
+     * the frames only pay a few null checks, unless the flight recorder
+     * records the frame events, which then only time the stages.
+     *
+     * @param enabled whether the frames are profiled
+     */
+    public void setProfilingEnabled(final boolean enabled) {
+        profilingEnabled = enabled;
+        if (!enabled) {
+            lastStatistics = null;
+        }
+    }
+
+    /**
+     * Gets whether the frames are profiled.
+     *
+     * @return true if the frames are profiled
+     */
+    public boolean isProfilingEnabled() {
+        return profilingEnabled;
+    }
+
+    /**
+     * Gets the statistics of the last frame completed while profiling. They
+     * can be read from any thread.
+     *
+     * @return a snapshot of the statistics, or null if no frame was profiled
+     */
+    public FrameStatistics getFrameStatistics() {
+        return lastStatistics;
+    }
+
+    /**
+     * Sets whether the depth buffer of the frames rendered without a pool is
+     * kept off heap, so the garbage collector neither scans nor moves it. It
+     * is meant for very large frames; the pools choose for their own
+     * framebuffers.
+     *
+     * @param offHeap true to keep the depth buffer off heap
+     */
+    public void setOffHeapDepthBuffer(final boolean offHeap) {
+        offHeapDepth = offHeap;
+    }
+
+    /**
+     * Tells whether the depth buffer of the frames rendered without a pool is
+     * kept off heap.
+     *
+     * @return true if the depth buffer is off heap
+     */
+    public boolean isOffHeapDepthBuffer() {
+        return offHeapDepth;
+    }
+
+    /**
+     * Renders the next frames into the framebuffers of a pool instead of new
+     * images. The images returned by render then belong to the pool: each
+     * must be presented or released to it once used.
+     *
+     * @param pool the pool, or null to render each frame into a new image
+     */
+    public void setFramebufferPool(final FramebufferPool pool) {
+        framebuffers = pool;
+    }
+
+    /**
+     * Gets the pool the frames are rendered into.
+     *
+     * @return the pool, or null if each frame gets a new image
+     */
+    public FramebufferPool getFramebufferPool() {
+        return framebuffers;
+    }
+
+    /**
+     * Gets the depth buffer of the frame being rendered, cleared at the start
+     * of the frame, for the shaders to test their fragments against.
+     *
+     * @return the depth buffer, or null before the first frame
+     */
+    public DepthBuffer getDepthBuffer() {
+        return frameDepth;
+    }
+
+    /**
+     * Renders the shadow maps of the point lights that moved, and attaches
+     * them to the lights, or detaches them when shadows are disabled. Only the
+     * first {@link #MAX_SHADOW_LIGHTS} lights whose radius reaches the mesh
+     * get a map, and all the maps share one storage.
+     */
+    private void updateShadowMaps() {
+        final boolean enabled = shadowsEnabled && lightingEnabled;
+        final List<PointLight> casters = new ArrayList<>();
+        for (Light light : lighting.getLights()) {
+            if (!(light instanceof PointLight)) {
+                continue;
+            }
+            final PointLight point = (PointLight) light;
+            point.setShadowMap(null);
+            if (enabled && casters.size() < MAX_SHADOW_LIGHTS && reachesMesh(point)) {
+                casters.add(point);
+            }
+        }
+        if (!enabled) {
+            return;
+        }
+        if (!casters.isEmpty() && (shadowStorage == null
+                || ShadowMap.getSlotCount(shadowStorage) < casters.size())) {
+            // the maps of the previous storage are rendered again in the new one
+            shadowStorage = ShadowMap.createStorage(ShadowMap.DEFAULT_SIZE,
+                    casters.size());
+            shadowMaps.clear();
+        }
+        for (int index = 0; index < casters.size(); index++) {
+            final PointLight point = casters.get(index);
+            if (shadowMaps.size() <= index) {
+                shadowMaps.add(new ShadowMap(shadowStorage, index));
+            }
+            final ShadowMap map = shadowMaps.get(index);
+            map.setPcfRadius(shadowPcfRadius);
+            map.update(mesh, point.getX(), point.getY(), point.getZ());
+            point.setShadowMap(map);
+        }
+        // forget the maps of the lights of a previous scene
+        shadowMaps.subList(casters.size(), shadowMaps.size()).clear();
+    }
+
+    /**
+     * Tells whether the radius of a light reaches the bounding box of the
+     * mesh, the only geometry its shadow map could hold.
+     *
+     * @param light the light
+     * @return false if the light has no contribution on the mesh
+     */
+    private boolean reachesMesh(final PointLight light) {
+        if (shadowBoundsMesh != mesh) {
+            final double[] vertices = mesh.getVertexArray();
+            for (int k = 0; k < 3; k++) {
+                shadowBounds[k] = Double.POSITIVE_INFINITY;
+                shadowBounds[k + 3] = Double.NEGATIVE_INFINITY;
+            }
+            for (int i = 0; i < 3 * mesh.getNumVertices(); i++) {
+                shadowBounds[i % 3] = Math.min(shadowBounds[i % 3], vertices[i]);
+                shadowBounds[i % 3 + 3] = Math.max(shadowBounds[i % 3 + 3], vertices[i]);
+            }
+            shadowBoundsMesh = mesh;
+        }
+        final double[] position = {light.getX(), light.getY(), light.getZ()};
+        double distance2 = 0;
+        for (int k = 0; k < 3; k++) {
+            final double d = Math.max(0, Math.max(shadowBounds[k] - position[k],
+                    position[k] - shadowBounds[k + 3]));
+            distance2 += d * d;
+        }
+        return distance2 < light.getRadius() * light.getRadius();
+    }
+
+    /**
+     * Adds a post-processing pass, applied to every rendered image after the
+     * passes already added.
+     *
+     * @param postProcess the pass to add
+     */
+    public void addPostProcess(final PostProcess postProcess) {
+        postProcesses.add(postProcess);
+    }
+
+    /**
+     * Removes a post-processing pass.
+     *
+     * @param postProcess the pass to remove
+     * @return whether the pass was applied until now
+     */
+    public boolean removePostProcess(final PostProcess postProcess) {
+        return postProcesses.remove(postProcess);
+    }
+
+    /**
+     * Gets the time spent in the post-processing passes of the last render.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getLastPostProcessNanos() {
+        return lastPostProcessNanos;
     }
 
     /**
@@ -275,30 +1212,62 @@ public final class Renderer {
      * @return an array of fragments
      */
     public Fragment[] projectVertices() {
+        return projectVertices(lightingEnabled && !shader.computesLighting());
+    }
+
+    /**
+     * Projects the vertices of the mesh into the screen space.
+     *
+     * @param lit whether the colors of the vertices are lit
+     * @return an array of fragments
+     */
+    private Fragment[] projectVertices(final boolean lit) {
+        final Stage previous = enterStage(Stage.VERTICES);
         final Vector[] vertices = mesh.getVertices();
         final Vector[] normals = mesh.getNormals();
         final double[] colors = mesh.getColors();
 
+        final double[] texCoords = mesh.getTextureCoordinates();
+        final double[] material = scene.getMaterial();
+
         final Fragment[] fragments = new Fragment[vertices.length];
 
+        final float[] projected;
+        if (preparedProjection != null) {
+            projected = preparedProjection;
+        } else {
+            final double[] positions = mesh.getVertexArray();
+            if (projectedVertices.length != positions.length) {
+                projectedVertices = new float[positions.length];
+            }
+            xform.projectPoints(positions, projectedVertices, vertices.length);
+            projected = projectedVertices;
+        }
+
         for (int i = 0; i < vertices.length; i++) {
-            final Vector pVertex = xform.projectPoint(vertices[i]);
+            final double px = projected[3 * i];
+            final double py = projected[3 * i + 1];
             // Vector pNormal = xform.transformVector (normals[i]);
             final Vector pNormal = normals[i];
 
-            final int x = (int) Math.round(pVertex.get(0));
-            final int y = (int) Math.round(pVertex.get(1));
+            final int x = (int) Math.round(px);
+            final int y = (int) Math.round(py);
             fragments[i] = new Fragment(x, y);
-            fragments[i].setDepth(pVertex.get(2));
+            fragments[i].setSubPixelPosition(px, py);
+            fragments[i].setDepth(projected[3 * i + 2]);
             fragments[i].setNormal(pNormal);
 
-            final double[] texCoords = mesh.getTextureCoordinates();
             if (texCoords != null) {
                 fragments[i].setAttribute(7, texCoords[2 * i]);
                 fragments[i].setAttribute(8, texCoords[2 * i + 1]);
             }
 
-            if (!lightingEnabled) {
+            if (lit && preparedColors != null) {
+                fragments[i].setColor(
+                        preparedColors[3 * i],
+                        preparedColors[3 * i + 1],
+                        preparedColors[3 * i + 2]);
+            } else if (!lit) {
                 fragments[i].setColor(
                         colors[3 * i],
                         colors[3 * i + 1],
@@ -308,18 +1277,52 @@ public final class Renderer {
                 color[0] = colors[3 * i];
                 color[1] = colors[3 * i + 1];
                 color[2] = colors[3 * i + 2];
-                final double[] material = scene.getMaterial();
                 final double[] litColor = lighting.applyLights(
                         vertices[i].getSubVector(0, 3), pNormal, color,
-                        scene.getCameraPosition(),
+                        cameraPosition,
                         material[0], material[1], material[2], material[3]);
                 fragments[i].setColor(litColor[0], litColor[1], litColor[2]);
             }
         }
 
+        leaveStage(previous);
         return fragments;
     }
 
+    /**
+     * Gives the vertices of the next frames, projected and lit by a batch of
+     * views sharing the work on the vertices, instead of computing them.
+     *
+     * @param projection the pixel coordinates and the depth of each vertex
+     *                   for the current camera, or null to project them
+     * @param litColors  the lit colors of the vertices for the current
+     *                   camera, or null to light them
+     */
+    void prepareVertices(final float[] projection, final double[] litColors) {
+        frameCache.invalidate();
+        preparedProjection = projection;
+        preparedColors = litColors;
+    }
+
+    /**
+     * Tells whether the colors of the vertices are lit before rasterization.
+     *
+     * @return true if the lighting is enabled and not computed by the shader
+     */
+    boolean isVertexLightingUsed() {
+        return lightingEnabled && !shader.computesLighting();
+    }
+
+    /**
+     * Tells whether the lighting of the vertices depends on the shadow maps
+     * rendered with each frame.
+     *
+     * @return true if the point lights cast shadows
+     */
+    boolean isShadowed() {
+        return shadowsEnabled && lightingEnabled;
+    }
+
     /**
      * Gets the transformation to convert the world reference to the camera
      * reference.
@@ -345,6 +1348,7 @@ public final class Renderer {
      * @param wiredRendered the new value
      */
     public void setWiredRendered(final boolean wiredRendered) {
+        frameCache.invalidate();
         this.wiredRendered = wiredRendered;
     }
 
@@ -354,70 +1358,39 @@ public final class Renderer {
      * @param solidRendered the new value
      */
     public void setSolidRendered(final boolean solidRendered) {
+        frameCache.invalidate();
         this.solidRendered = solidRendered;
     }
 
-    /**
-     * Computes the length of the normals for the rendering.
-     */
-    private void initNormalLength() {
-        double minX = Double.POSITIVE_INFINITY;
-        double maxX = Double.NEGATIVE_INFINITY;
-        double minY = Double.POSITIVE_INFINITY;
-        double maxY = Double.NEGATIVE_INFINITY;
-        double minZ = Double.POSITIVE_INFINITY;
-        double maxZ = Double.NEGATIVE_INFINITY;
-
-        for (Vector vertex : mesh.getVertices()) {
-            if (vertex.get(0) < minX) {
-                minX = vertex.get(0);
-            }
-            if (vertex.get(0) > maxX) {
-                maxX = vertex.get(0);
-            }
-            if (vertex.get(1) < minY) {
-                minY = vertex.get(1);
-            }
-            if (vertex.get(1) > maxY) {
-                maxY = vertex.get(1);
-            }
-            if (vertex.get(2) < minZ) {
-                minZ = vertex.get(2);
-            }
-            if (vertex.get(2) > maxZ) {
-                maxZ = vertex.get(2);
-            }
-        }
-
-        // The length of the normal is approximately equal to 1/100 of the diagonal
-        // length of the bounding box
-        normalLength = (new Vector(maxX - minX, maxY - minY, maxZ - minZ)).norm() / DIVIDER;
-    }
-
     /**
      * Renders the wireframe of the mesh.
      */
     private void renderWireframe() {
+        final Stage previous = enterStage(Stage.WIREFRAME);
         final Fragment[] fragment = projectVertices();
         final int[] faces = mesh.getFaces();
 
         for (int i = 0; i < 3 * mesh.getNumFaces(); i += 3) {
+            checkCancelled();
             for (int j = 0; j < 3; j++) {
                 final Fragment v1 = fragment[faces[i + j]];
                 final Fragment v2 = fragment[faces[i + ((j + 1) % 3)]];
                 rasterizer.rasterizeEdge(v1, v2);
             }
         }
+        leaveStage(previous);
     }
 
     /**
      * Renders the vertices of the mesh.
      */
     private void renderVertices() {
+        final Stage previous = enterStage(Stage.POINTS);
         final Fragment[] fragment = projectVertices();
         for (Fragment vertex : fragment) {
             rasterizer.rasterizeVertex(vertex);
         }
+        leaveStage(previous);
     }
 
     /**
@@ -427,16 +1400,94 @@ public final class Renderer {
      */
     private void renderSolid()
             throws SizeMismatchException {
-        final Fragment[] fragments = projectVertices();
+        renderFaces(projectVertices());
+    }
+
+    /**
+     * Rasterizes the faces of the mesh from their projected vertices.
+     *
+     * @param fragments the projected vertices
+     */
+    private void renderFaces(final Fragment[] fragments) {
         final int[] faces = mesh.getFaces();
+        long rasterized = 0;
 
         for (int i = 0; i < 3 * mesh.getNumFaces(); i += 3) {
             final Fragment v1 = fragments[faces[i]];
             final Fragment v2 = fragments[faces[i + 1]];
             final Fragment v3 = fragments[faces[i + 2]];
 
+            checkCancelled();
+            if (!countingFrame) {
+                rasterizer.rasterizeFace(v1, v2, v3);
+                continue;
+            }
+            final long before = countingShader.getFragments();
             rasterizer.rasterizeFace(v1, v2, v3);
+            if (countingShader.getFragments() > before) {
+                rasterized++;
+            }
+        }
+        if (profiler != null) {
+            profiler.addTriangles(mesh.getNumFaces(), rasterized);
+        }
+    }
+
+    /**
+     * Renders the solid of the mesh into the multisample buffer, then resolves
+     * the samples into the image and the nearest samples into the depth
+     * buffer of the frame.
+     *
+     * @param res the rendered image
+     */
+    private void renderSolidMultisampled(final ImageWrapper res) {
+        final MultisampleRasterizer msaa = (MultisampleRasterizer) rasterizer;
+        if (multisampleBuffer == null
+                || multisampleBuffer.getSamples() != msaa.getSamples()) {
+            multisampleBuffer = new MultisampleBuffer(res.getWidth(), res.getHeight(),
+                    msaa.getSamples());
+        }
+        multisampleBuffer.resize(res.getWidth(), res.getHeight(),
+                ImageWrapper.getDefaultBackgroundColor());
+
+        msaa.setTarget(multisampleBuffer);
+        try {
+            renderSolid();
+        } finally {
+            msaa.setTarget(null);
         }
+        multisampleBuffer.resolve(res);
+        multisampleBuffer.resolveDepth(frameDepth);
+    }
+
+    /**
+     * Renders the solid of the mesh with deferred shading: the faces are
+     * rasterized into the G-buffer with unlit vertex colors, then the visible
+     * pixels are lit and textured into the image.
+     *
+     * @param res the rendered image
+     */
+    private void renderSolidDeferred(final ImageWrapper res) {
+        gbufferShader.init(this, res);
+        rasterizer.setShader(counted(gbufferShader));
+        try {
+            renderFaces(projectVertices(false));
+        } finally {
+            rasterizer.setShader(counted(shader));
+        }
+        checkCancelled();
+
+        deferredPass.setLighting(lightingEnabled ? lighting : null);
+        deferredPass.setCameraPosition(cameraPosition);
+        deferredPass.setMaterial(scene.getMaterial());
+        if (shader instanceof TextureShader) {
+            final TextureShader textureShader = (TextureShader) shader;
+            deferredPass.setTexture(textureShader.getTexture());
+            deferredPass.setCombineWithBaseColor(textureShader.getCombineWithBaseColor());
+        } else {
+            deferredPass.setTexture(null);
+        }
+        deferredPass.apply(gbufferShader.getGBuffer(), xform, res);
     }
 
     /**
@@ -464,6 +1515,7 @@ public final class Renderer {
      * @param selected the new value
      */
     public void setCombineWithBaseColor(final boolean selected) {
+        frameCache.invalidate();
         if (!(shader instanceof TextureShader)) {
             return;
         }
@@ -477,6 +1529,7 @@ public final class Renderer {
      * @return whether the operation as been correctly made.
      */
     public boolean setTexture(final String path) {
+        frameCache.invalidate();
         if (path == null) {
             return true;
         }
@@ -484,7 +1537,17 @@ public final class Renderer {
         if (!(shader instanceof TextureShader)) {
             return true;
         }
-        return ((TextureShader) shader).setTexture(path);
+        if (resources == null) {
+            return ((TextureShader) shader).setTexture(path);
+        }
+        try {
+            ((TextureShader) shader).setTexture(resources.getTexture(path));
+            return true;
+        } catch (IOException e) {
+            System.out.println("Could not load texture " + path);
+            ((TextureShader) shader).setTexture((Texture) null);
+            return false;
+        }
     }
 
     /**
@@ -493,6 +1556,7 @@ public final class Renderer {
      * @param selected the new value.
      */
     public void setVertexRendered(boolean selected) {
+        frameCache.invalidate();
         vertexRendered = selected;
     }
 
@@ -506,4 +1570,15 @@ public final class Renderer {
             shader.setColorMap(map);
         }
     }
+
+    /**
+     * Sets a color map for depth shader, such as one loaded from a file.
+     *
+     * @param map the new colormap to use.
+     */
+    public void setColorMap(ColorMap map) {
+        if (shader.supportsColorMap()) {
+            shader.setColorMap(map);
+        }
+    }
 }
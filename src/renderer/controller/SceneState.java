@@ -0,0 +1,145 @@
+package renderer.controller;
+
+import java.io.IOException;
+
+import renderer.algebra.Vector;
+import renderer.core.mesh.Mesh;
+import renderer.core.mesh.ResourceCache;
+import renderer.core.mesh.Scene;
+
+/**
+ * The SceneState class holds what a Renderer loads from a scene file: the
+ * scene, its mesh, and what is derived from the mesh once. It is never
+ * modified once loaded, so several renderers can share it and render
+ * frames of the same scene at the same time from different threads, each
+ * with its own camera, shader and buffers.
+ */
+public final class SceneState {
+
+    /** The divider of the diagonal of the mesh giving the normal length. */
+    private static final double DIVIDER = 100;
+
+    /** The path of the scene file. */
+    private final String sceneFile;
+
+    /** The scene. */
+    private final Scene scene;
+
+    /** The mesh, with its normals computed. */
+    private final Mesh mesh;
+
+    /** The length of the normals drawn. */
+    private final double normalLength;
+
+    /**
+     * Creates a state from loaded resources.
+     *
+     * @param sceneFile the path of the scene file
+     * @param scene     the scene
+     * @param mesh      the mesh of the scene
+     */
+    private SceneState(final String sceneFile, final Scene scene, final Mesh mesh) {
+        this.sceneFile = sceneFile;
+        this.scene = scene;
+        this.mesh = mesh;
+        // computed now, so that the renderers sharing the mesh only read it
+        mesh.getNormals();
+        this.normalLength = computeNormalLength(mesh);
+    }
+
+    /**
+     * Loads a scene and its whole mesh.
+     *
+     * @param fileName the path of the scene file
+     * @return the state
+     * @throws IOException if the scene or its mesh cannot be read
+     */
+    public static SceneState load(final String fileName) throws IOException {
+        return load(fileName, null, 0, 1);
+    }
+
+    /**
+     * Loads a scene and a partition of its mesh.
+     *
+     * @param fileName   the path of the scene file
+     * @param cache      the cache the whole meshes are loaded from, or null to
+     *                   read the mesh file
+     * @param partition  the index of the partition of the faces kept
+     * @param partitions the number of partitions, 1 for the whole mesh
+     * @return the state
+     * @throws IOException if the scene or its mesh cannot be read
+     */
+    public static SceneState load(final String fileName, final ResourceCache cache,
+            final int partition, final int partitions) throws IOException {
+        final Scene scene = new Scene(fileName);
+        final Mesh mesh;
+        if (cache != null && partitions == 1) {
+            mesh = cache.getMesh(scene.getMeshFileName());
+        } else {
+            mesh = new Mesh(scene.getMeshFileName(), partition, partitions);
+        }
+        return new SceneState(fileName, scene, mesh);
+    }
+
+    /**
+     * Computes the length of the normals drawn: about 1/100 of the diagonal
+     * of the bounding box of the mesh.
+     *
+     * @param mesh the mesh
+     * @return the length
+     */
+    private static double computeNormalLength(final Mesh mesh) {
+        double minX = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        double minZ = Double.POSITIVE_INFINITY;
+        double maxZ = Double.NEGATIVE_INFINITY;
+
+        for (Vector vertex : mesh.getVertices()) {
+            minX = Math.min(minX, vertex.get(0));
+            maxX = Math.max(maxX, vertex.get(0));
+            minY = Math.min(minY, vertex.get(1));
+            maxY = Math.max(maxY, vertex.get(1));
+            minZ = Math.min(minZ, vertex.get(2));
+            maxZ = Math.max(maxZ, vertex.get(2));
+        }
+        return new Vector(maxX - minX, maxY - minY, maxZ - minZ).norm() / DIVIDER;
+    }
+
+    /**
+     * Gets the path of the scene file.
+     *
+     * @return the path
+     */
+    public String getSceneFile() {
+        return sceneFile;
+    }
+
+    /**
+     * Gets the scene.
+     *
+     * @return the scene, not to be modified
+     */
+    public Scene getScene() {
+        return scene;
+    }
+
+    /**
+     * Gets the mesh of the scene.
+     *
+     * @return the mesh, not to be modified
+     */
+    public Mesh getMesh() {
+        return mesh;
+    }
+
+    /**
+     * Gets the length of the normals drawn.
+     *
+     * @return the length, in the units of the mesh
+     */
+    public double getNormalLength() {
+        return normalLength;
+    }
+}
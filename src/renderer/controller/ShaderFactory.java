@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -19,8 +20,14 @@ public final class ShaderFactory {
 
     /**
      * The set of Class in Shader Package that implements Shader abstract class.
+     * It is replaced as a whole once scanned, so that renderers created on other
+     * threads only read a complete set.
      */
-    private static final Set<Class<? extends Shader>> SHADER_SET = new HashSet<>();
+    private static volatile Set<Class<? extends Shader>> shaderSet =
+            Collections.emptySet();
+
+    /** Tells whether the shader package was scanned. */
+    private static boolean initialized;
 
     private ShaderFactory() {
     }
@@ -28,9 +35,13 @@ public final class ShaderFactory {
     /**
      * Initialize the shader factory : launch classes in shader package which
      * implements
-     * Shader abstract class.
+     * Shader abstract class. The package is scanned once, whatever the number
+     * of calls and of threads calling.
      */
-    public static void init() {
+    public static synchronized void init() {
+        if (initialized) {
+            return;
+        }
         // Get the classloader
         ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
         // the package name in which the ShadeFactory is
@@ -46,6 +57,7 @@ public final class ShaderFactory {
             return;
         }
 
+        final Set<Class<? extends Shader>> found = new HashSet<>();
         // some annoying boilerplate code
         List<File> dirs = new ArrayList<>();
 
@@ -71,7 +83,7 @@ public final class ShaderFactory {
                 final String fullClassName = shaderPackageName + "." + classname;
                 shader = (Class<Shader>) Class.forName(fullClassName);
                 if (shader.getSuperclass() == Shader.class) {
-                    SHADER_SET.add(shader);
+                    found.add(shader);
                     System.out.println("Found Shader implementation: " + classname);
                 } else {
                     System.out.println("Class " + classname + " does not extend Shader");
@@ -81,16 +93,18 @@ public final class ShaderFactory {
                 shader = null;
             }
         }
+        shaderSet = Collections.unmodifiableSet(found);
+        initialized = true;
     }
 
     /**
      * Returns the set of Class in Shader Package that implements Shader abstract
      * class.
      *
-     * @return a set
+     * @return a set, not modifiable
      */
     public static Set<Class<? extends Shader>> getShaderSet() {
-        return SHADER_SET;
+        return shaderSet;
     }
 
     /**
@@ -101,7 +115,7 @@ public final class ShaderFactory {
      * @return a optional of Shader
      */
     public static Optional<Shader> create(String shaderName) {
-        for (Class<? extends Shader> class1 : SHADER_SET) {
+        for (Class<? extends Shader> class1 : shaderSet) {
             if (class1.getSimpleName().equals(shaderName)) {
                 try {
                     return Optional.of(class1.getConstructor().newInstance());
@@ -121,9 +135,10 @@ public final class ShaderFactory {
      * @return a array of String
      */
     public static String[] getShaderSetAsStringArray() {
-        final String[] res = new String[SHADER_SET.size()];
+        final Set<Class<? extends Shader>> shaders = shaderSet;
+        final String[] res = new String[shaders.size()];
         int i = 0;
-        Iterator<Class<? extends Shader>> iterator = SHADER_SET.iterator();
+        Iterator<Class<? extends Shader>> iterator = shaders.iterator();
         while (iterator.hasNext()) {
             res[i++] = iterator.next().getSimpleName();
         }
@@ -0,0 +1,105 @@
+package renderer.core.camera;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The CameraPath class moves a camera through keyframes spread evenly over a
+ * sequence of frames, interpolating the poses between them. An open path
+ * starts at the first keyframe and ends at the last one; a closed path comes
+ * back from the last keyframe to the first one, so that a sequence can be
+ * looped without showing the same frame twice.
+ */
+public final class CameraPath {
+
+    /**
+     * The angle of a whole turn, in radians.
+     */
+    private static final double TURN = 2 * Math.PI;
+
+    /**
+     * The poses of the keyframes.
+     */
+    private final List<CameraPose> keyframes;
+
+    /**
+     * Tells whether the path comes back to the first keyframe.
+     */
+    private final boolean closed;
+
+    /**
+     * Creates a path through keyframes.
+     * @param keyframes the poses of the keyframes, in order
+     * @param closed whether the path comes back to the first keyframe
+     * @throws IllegalArgumentException if there is no keyframe
+     */
+    public CameraPath(List<CameraPose> keyframes, boolean closed) {
+        if (keyframes.isEmpty()) {
+            throw new IllegalArgumentException("A camera path needs a keyframe.");
+        }
+        this.keyframes = Collections.unmodifiableList(new ArrayList<>(keyframes));
+        this.closed = closed;
+    }
+
+    /**
+     * Creates the closed path of a turntable: the camera turns once around
+     * the point it looks at, about its up direction. The keyframes are close
+     * enough for the straight interpolation between them to follow the
+     * circle.
+     * @param start the pose of the first frame
+     * @param keyframes the number of keyframes of the turn
+     * @return the path
+     * @throws IllegalArgumentException if there is no keyframe
+     */
+    public static CameraPath turntable(CameraPose start, int keyframes) {
+        if (keyframes < 1) {
+            throw new IllegalArgumentException("Invalid keyframe count " + keyframes);
+        }
+        final List<CameraPose> poses = new ArrayList<>(keyframes);
+        for (int i = 0; i < keyframes; i++) {
+            poses.add(start.orbit(TURN * i / keyframes));
+        }
+        return new CameraPath(poses, true);
+    }
+
+    /**
+     * Gets the pose of the camera at a frame of a sequence.
+     * @param frame the index of the frame, from 0
+     * @param frames the number of frames of the sequence
+     * @return the pose
+     * @throws IllegalArgumentException if the frame is not in the sequence
+     */
+    public CameraPose getPose(int frame, int frames) {
+        if (frame < 0 || frame >= frames) {
+            throw new IllegalArgumentException("No frame " + frame + " of " + frames);
+        }
+        final int segments = closed ? keyframes.size() : keyframes.size() - 1;
+        if (segments == 0) {
+            return keyframes.get(0);
+        }
+        // an open path reaches its last keyframe on the last frame
+        final int steps = closed || frames == 1 ? frames : frames - 1;
+        final double position = (double) frame * segments / steps;
+        final int segment = Math.min((int) position, segments - 1);
+        final CameraPose from = keyframes.get(segment);
+        final CameraPose to = keyframes.get((segment + 1) % keyframes.size());
+        return CameraPose.interpolate(from, to, position - segment);
+    }
+
+    /**
+     * Gets the keyframes.
+     * @return the poses of the keyframes, not modifiable
+     */
+    public List<CameraPose> getKeyframes() {
+        return keyframes;
+    }
+
+    /**
+     * Tells whether the path comes back to the first keyframe.
+     * @return true for a closed path
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,155 @@
+package renderer.core.camera;
+
+import renderer.algebra.Vector;
+
+/**
+ * The CameraPose class describes where a camera is and where it looks: its
+ * position, the point it looks at and its up direction. A pose is never
+ * modified, so the same pose can be given to renderers on several threads.
+ */
+public final class CameraPose {
+
+    /**
+     * The number of coordinates of a vector of the pose.
+     */
+    private static final int DIMENSION = 3;
+
+    /**
+     * The position of the camera.
+     */
+    private final double[] eye;
+
+    /**
+     * The point the camera looks at.
+     */
+    private final double[] lookAt;
+
+    /**
+     * The up direction of the camera.
+     */
+    private final double[] up;
+
+    /**
+     * Creates a pose.
+     * @param eye the position of the camera
+     * @param lookAt the point the camera looks at
+     * @param up the up direction of the camera
+     */
+    public CameraPose(Vector eye, Vector lookAt, Vector up) {
+        this.eye = coordinates(eye);
+        this.lookAt = coordinates(lookAt);
+        this.up = coordinates(up);
+    }
+
+    /**
+     * Creates a pose from its coordinates.
+     * @param eye the position of the camera
+     * @param lookAt the point the camera looks at
+     * @param up the up direction of the camera
+     */
+    private CameraPose(double[] eye, double[] lookAt, double[] up) {
+        this.eye = eye;
+        this.lookAt = lookAt;
+        this.up = up;
+    }
+
+    /**
+     * Interpolates linearly between two poses: the position, the point looked
+     * at and the up direction move along straight lines.
+     * @param from the pose at t = 0
+     * @param to the pose at t = 1
+     * @param t the position between the poses
+     * @return the interpolated pose
+     */
+    public static CameraPose interpolate(CameraPose from, CameraPose to, double t) {
+        return new CameraPose(lerp(from.eye, to.eye, t), lerp(from.lookAt, to.lookAt, t),
+                lerp(from.up, to.up, t));
+    }
+
+    /**
+     * Interpolates linearly between two points.
+     * @param a the point at t = 0
+     * @param b the point at t = 1
+     * @param t the position between the points
+     * @return the interpolated point
+     */
+    private static double[] lerp(double[] a, double[] b, double t) {
+        final double[] res = new double[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            res[i] = a[i] + (b[i] - a[i]) * t;
+        }
+        return res;
+    }
+
+    /**
+     * Rotates the camera around the axis going through the point looked at
+     * along the up direction, as on a turntable.
+     * @param angle the angle of the rotation, in radians
+     * @return the rotated pose
+     */
+    public CameraPose orbit(double angle) {
+        final double norm = Math.sqrt(up[0] * up[0] + up[1] * up[1] + up[2] * up[2]);
+        final double ax = up[0] / norm;
+        final double ay = up[1] / norm;
+        final double az = up[2] / norm;
+        final double x = eye[0] - lookAt[0];
+        final double y = eye[1] - lookAt[1];
+        final double z = eye[2] - lookAt[2];
+        // Rodrigues' rotation of the offset of the eye around the axis
+        final double cos = Math.cos(angle);
+        final double sin = Math.sin(angle);
+        final double dot = (ax * x + ay * y + az * z) * (1 - cos);
+        final double[] rotated = {
+            lookAt[0] + x * cos + (ay * z - az * y) * sin + ax * dot,
+            lookAt[1] + y * cos + (az * x - ax * z) * sin + ay * dot,
+            lookAt[2] + z * cos + (ax * y - ay * x) * sin + az * dot,
+        };
+        return new CameraPose(rotated, lookAt, up);
+    }
+
+    /**
+     * Copies the 3 first coordinates of a vector.
+     * @param v the vector
+     * @return the coordinates
+     */
+    private static double[] coordinates(Vector v) {
+        return new double[] {v.get(0), v.get(1), v.get(2)};
+    }
+
+    /**
+     * Gets the position of the camera.
+     * @return a new vector
+     */
+    public Vector getEye() {
+        return new Vector(eye.clone());
+    }
+
+    /**
+     * Gets the point the camera looks at.
+     * @return a new vector
+     */
+    public Vector getLookAt() {
+        return new Vector(lookAt.clone());
+    }
+
+    /**
+     * Gets the up direction of the camera.
+     * @return a new vector
+     */
+    public Vector getUp() {
+        return new Vector(up.clone());
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("CameraPose[");
+        for (int i = 0; i < DIMENSION; i++) {
+            sb.append(i == 0 ? "" : ", ").append(eye[i]);
+        }
+        sb.append(" -> ");
+        for (int i = 0; i < DIMENSION; i++) {
+            sb.append(i == 0 ? "" : ", ").append(lookAt[i]);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -11,6 +11,14 @@ import renderer.algebra.Vector;
  */
 public class Transformation {
 
+    /**
+     * The number of coefficients of the 3x4 matrix K.P.W.
+     */
+    private static final int COMBINED_SIZE = 12;
+    /**
+     * The number of columns of the 3x4 matrix K.P.W.
+     */
+    private static final int COMBINED_COLS = 4;
     /**
      * The world to camera matrix.
      */
@@ -23,6 +31,31 @@ public class Transformation {
      * The 3x3 calibration matrix.
      */
     private Matrix calibration;
+    /**
+     * The product K.P.W, row-major, updated by each setter.
+     */
+    private final double[] combined = new double[COMBINED_SIZE];
+    /**
+     * The rotation part of the world to camera matrix, row-major, updated by
+     * each setter.
+     */
+    private final double[] rotation = new double[3 * 3];
+    /**
+     * The inverse of the projection, as a 3x3 inverse matrix (row-major)
+     * followed by the translation column of K.P.W; null when it has to be
+     * recomputed.
+     */
+    private double[] unprojection;
+    /**
+     * The x-coordinate, in the whole image, of the top left pixel of the
+     * rendered viewport.
+     */
+    private double viewportX;
+    /**
+     * The y-coordinate, in the whole image, of the top left pixel of the
+     * rendered viewport.
+     */
+    private double viewportY;
 
     /**
      * Creates a new Transformation object.
@@ -35,6 +68,91 @@ public class Transformation {
         projection = new Matrix("P", projRows, projCols);
         final int calibDim = 3;
         calibration = Matrix.createIdentity("K", calibDim);
+        updateCache();
+    }
+
+    /**
+     * Caches the product K.P.W and the rotation of the world to camera
+     * matrix, after one of them changed.
+     */
+    private void updateCache() {
+        final Matrix m = calibration.multiply(projection).multiply(worldToCamera);
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < COMBINED_COLS; j++) {
+                combined[COMBINED_COLS * i + j] = m.get(i, j);
+            }
+            for (int j = 0; j < 3; j++) {
+                rotation[3 * i + j] = worldToCamera.get(i, j);
+            }
+        }
+        // shift the pixel coordinates to the viewport: u' = u - x.w
+        for (int j = 0; j < COMBINED_COLS; j++) {
+            final double w = combined[2 * COMBINED_COLS + j];
+            combined[j] -= viewportX * w;
+            combined[COMBINED_COLS + j] -= viewportY * w;
+        }
+        unprojection = null;
+    }
+
+    /**
+     * Sets the position of the rendered viewport in the whole image, so that
+     * a tile of an image is rendered by projecting into the tile only. The
+     * calibration is kept for the whole image; the offset applies to the
+     * projections using the cached product K.P.W.
+     * @param x the x-coordinate of the top left pixel of the viewport
+     * @param y the y-coordinate of the top left pixel of the viewport
+     */
+    public void setViewportOffset(double x, double y) {
+        viewportX = x;
+        viewportY = y;
+        updateCache();
+    }
+
+    /**
+     * Gets the x-coordinate of the viewport in the whole image.
+     * @return the x-coordinate of the top left pixel of the viewport
+     */
+    public double getViewportOffsetX() {
+        return viewportX;
+    }
+
+    /**
+     * Gets the y-coordinate of the viewport in the whole image.
+     * @return the y-coordinate of the top left pixel of the viewport
+     */
+    public double getViewportOffsetY() {
+        return viewportY;
+    }
+
+    /**
+     * Sets the three matrices at once, for a camera computed elsewhere. The
+     * matrices are copied, and the viewport offset is kept.
+     * @param w2c the 4x4 world to camera matrix
+     * @param proj the 3x4 projection matrix
+     * @param calib the 3x3 calibration matrix
+     * @throws SizeMismatchException if a matrix does not have its size
+     */
+    public void setMatrices(final Matrix w2c, final Matrix proj, final Matrix calib) {
+        worldToCamera = copy(w2c, worldToCamera);
+        projection = copy(proj, projection);
+        calibration = copy(calib, calibration);
+        updateCache();
+    }
+
+    /**
+     * Copies a matrix into a new matrix of the size and name of another.
+     * @param m the matrix copied
+     * @param like the matrix replaced
+     * @return the copy
+     * @throws SizeMismatchException if the sizes differ
+     */
+    private static Matrix copy(final Matrix m, final Matrix like) {
+        if (m.getNRows() != like.getNRows() || m.getNCols() != like.getNCols()) {
+            throw new SizeMismatchException(m, like);
+        }
+        final Matrix res = m.getSubMatrix(0, 0, m.getNRows(), m.getNCols());
+        res.setName(like.getName());
+        return res;
     }
 
     /**
@@ -83,6 +201,7 @@ public class Transformation {
             e.printStackTrace();
         }
 
+        updateCache();
         System.out.println("Modelview matrix:\n" + worldToCamera);
     }
 
@@ -95,6 +214,7 @@ public class Transformation {
 
 
 
+        updateCache();
         System.out.println("Projection matrix:\n" + projection);
     }
 
@@ -112,6 +232,7 @@ public class Transformation {
 
 
 
+        updateCache();
         System.out.println("Calibration matrix:\n" + calibration);
     }
 
@@ -142,8 +263,152 @@ public class Transformation {
      */
     public Vector transformVector(final Vector v) {
         // Doing nothing special here because there is no scaling
-        final Matrix m = worldToCamera.getSubMatrix(0, 0, 3, 3);
-        return m.multiply(v);
+        final double x = v.get(0);
+        final double y = v.get(1);
+        final double z = v.get(2);
+        return new Vector(
+                rotation[0] * x + rotation[1] * y + rotation[2] * z,
+                rotation[3] * x + rotation[4] * y + rotation[5] * z,
+                rotation[6] * x + rotation[7] * y + rotation[8] * z);
+    }
+
+    /**
+     * Projects the point (x, y, z) onto the screen without allocating, with the
+     * cached product K.P.W.
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param z the z coordinate of the point
+     * @param out the array receiving the pixel coordinates and the depth
+     */
+    public void projectPoint(double x, double y, double z, double[] out) {
+        final double[] m = combined;
+        final double u = m[0] * x + m[1] * y + m[2] * z + m[3];
+        final double v = m[4] * x + m[5] * y + m[6] * z + m[7];
+        final double w = m[8] * x + m[9] * y + m[10] * z + m[11];
+        out[0] = u / w;
+        out[1] = v / w;
+        out[2] = w;
+    }
+
+    /**
+     * Projects an array of points onto the screen without allocating, with
+     * the cached product K.P.W.
+     * @param in the points, 3 coordinates each
+     * @param out the array receiving, for each point, its pixel coordinates
+     * and its depth
+     * @param count the number of points
+     */
+    public void projectPoints(double[] in, float[] out, int count) {
+        final double[] m = combined;
+        final double m00 = m[0];
+        final double m01 = m[1];
+        final double m02 = m[2];
+        final double m03 = m[3];
+        final double m10 = m[4];
+        final double m11 = m[5];
+        final double m12 = m[6];
+        final double m13 = m[7];
+        final double m20 = m[8];
+        final double m21 = m[9];
+        final double m22 = m[10];
+        final double m23 = m[11];
+        for (int i = 0, end = 3 * count; i < end; i += 3) {
+            final double x = in[i];
+            final double y = in[i + 1];
+            final double z = in[i + 2];
+            final double w = m20 * x + m21 * y + m22 * z + m23;
+            final double invW = 1.0 / w;
+            out[i] = (float) ((m00 * x + m01 * y + m02 * z + m03) * invW);
+            out[i + 1] = (float) ((m10 * x + m11 * y + m12 * z + m13) * invW);
+            out[i + 2] = (float) w;
+        }
+    }
+
+    /**
+     * Projects a range of points for several cameras in one pass: each point
+     * is read once and projected by every camera, so that a chunk of points
+     * stays in the cache while the cameras are applied. The projection of
+     * each camera is the one of projectPoints.
+     * @param matrices the products K.P.W of the cameras, as given by
+     * getProjectionMatrix
+     * @param in the points, 3 coordinates each
+     * @param out the arrays receiving, for each camera and each point, its
+     * pixel coordinates and its depth
+     * @param from the index of the first point projected
+     * @param to the index following the last point projected
+     */
+    public static void projectPoints(double[][] matrices, double[] in, float[][] out,
+            int from, int to) {
+        for (int i = 3 * from, end = 3 * to; i < end; i += 3) {
+            final double x = in[i];
+            final double y = in[i + 1];
+            final double z = in[i + 2];
+            for (int view = 0; view < matrices.length; view++) {
+                final double[] m = matrices[view];
+                final float[] o = out[view];
+                final double w = m[8] * x + m[9] * y + m[10] * z + m[11];
+                final double invW = 1.0 / w;
+                o[i] = (float) ((m[0] * x + m[1] * y + m[2] * z + m[3]) * invW);
+                o[i + 1] = (float) ((m[4] * x + m[5] * y + m[6] * z + m[7]) * invW);
+                o[i + 2] = (float) w;
+            }
+        }
     }
 
+    /**
+     * Gets the product K.P.W.
+     * @return a copy of the 3x4 matrix, row-major
+     */
+    public double[] getProjectionMatrix() {
+        return combined.clone();
+    }
+
+
+    /**
+     * Computes the world point that projects onto the pixel (x, y) with the
+     * given depth: the inverse of projectPoint.
+     * @param x the x pixel coordinate
+     * @param y the y pixel coordinate
+     * @param depth the depth of the point, as given by projectPoint
+     * @param out the array receiving the 3 world coordinates
+     */
+    public void unprojectPoint(double x, double y, double depth, double[] out) {
+        double[] inv = unprojection;
+        if (inv == null) {
+            inv = computeUnprojection();
+            unprojection = inv;
+        }
+        final int t = 9;
+        final double hx = x * depth - inv[t];
+        final double hy = y * depth - inv[t + 1];
+        final double hz = depth - inv[t + 2];
+        for (int i = 0; i < 3; i++) {
+            out[i] = inv[3 * i] * hx + inv[3 * i + 1] * hy + inv[3 * i + 2] * hz;
+        }
+    }
+
+    /**
+     * Computes the inverse of the left 3x3 block of K.P.W and its last column.
+     * @return the 3x3 inverse (row-major) followed by the last column
+     */
+    private double[] computeUnprojection() {
+        final double[] m = combined;
+        final double a = m[0];
+        final double b = m[1];
+        final double c = m[2];
+        final double d = m[4];
+        final double e = m[5];
+        final double f = m[6];
+        final double g = m[8];
+        final double h = m[9];
+        final double k = m[10];
+        final double det = a * (e * k - f * h) - b * (d * k - f * g) + c * (d * h - e * g);
+        final double id = 1.0 / det;
+        return new double[] {
+            (e * k - f * h) * id, (c * h - b * k) * id, (b * f - c * e) * id,
+            (f * g - d * k) * id, (a * k - c * g) * id, (c * d - a * f) * id,
+            (d * h - e * g) * id, (b * g - a * h) * id, (a * e - b * d) * id,
+            m[3], m[7], m[11]
+        };
+    }
 }
@@ -0,0 +1,215 @@
+package renderer.core.deferred;
+
+import java.awt.Color;
+import java.util.stream.IntStream;
+
+import renderer.algebra.Vector;
+import renderer.controller.ImageWrapper;
+import renderer.core.camera.Transformation;
+import renderer.core.light.Lighting;
+import renderer.core.mesh.Texture;
+
+/**
+ * The DeferredShadingPass class is the lighting pass of deferred shading: it
+ * computes the color of each visible pixel of a GBuffer once, from its stored
+ * normal, base color and texture coordinates, and writes it to the image.
+ * The world position of a pixel is rebuilt from its depth by unprojection.
+ *
+ * The image is processed by square tiles in parallel. Pixels that no fragment
+ * covered are left untouched.
+ */
+public class DeferredShadingPass {
+
+    /**
+     * The size of a tile, in pixels.
+     */
+    private static final int TILE_SIZE = 32;
+
+    /**
+     * The number of bytes per pixel of the image (blue, green, red).
+     */
+    private static final int BYTES_PER_PIXEL = 3;
+
+    /**
+     * The mask of a color channel.
+     */
+    private static final int CHANNEL_MASK = 0xFF;
+
+    /**
+     * The shift of the red channel in a packed RGB color.
+     */
+    private static final int RED_SHIFT = 16;
+
+    /**
+     * The shift of the green channel in a packed RGB color.
+     */
+    private static final int GREEN_SHIFT = 8;
+
+    /**
+     * The maximal value of a color channel.
+     */
+    private static final double MAX_PIX_VAL = 255;
+
+    /**
+     * The number of material coefficients (ka, kd, ks, shininess).
+     */
+    private static final int MATERIAL_SIZE = 4;
+
+    /**
+     * The lighting environment, or null to use the base colors unlit.
+     */
+    private Lighting lighting;
+
+    /**
+     * The position of the camera in world coordinates.
+     */
+    private Vector cameraPosition;
+
+    /**
+     * The material coefficients: ka, kd, ks and shininess.
+     */
+    private double[] material = new double[MATERIAL_SIZE];
+
+    /**
+     * The texture applied to the pixels, or null.
+     */
+    private Texture texture;
+
+    /**
+     * Whether the texture color is modulated by the base color.
+     */
+    private boolean combineWithBaseColor;
+
+    /**
+     * Sets the lighting environment.
+     *
+     * @param lighting the lighting, or null to disable lighting
+     */
+    public void setLighting(Lighting lighting) {
+        this.lighting = lighting;
+    }
+
+    /**
+     * Sets the position of the camera, used by the specular terms.
+     *
+     * @param cameraPosition the camera position in world coordinates
+     */
+    public void setCameraPosition(Vector cameraPosition) {
+        this.cameraPosition = cameraPosition;
+    }
+
+    /**
+     * Sets the material coefficients.
+     *
+     * @param material the ka, kd, ks and shininess coefficients
+     */
+    public void setMaterial(double[] material) {
+        this.material = material.clone();
+    }
+
+    /**
+     * Sets the texture applied to the pixels.
+     *
+     * @param texture the texture, or null for no texture
+     */
+    public void setTexture(Texture texture) {
+        this.texture = texture;
+    }
+
+    /**
+     * Sets whether the texture color is modulated by the base color.
+     *
+     * @param combineWithBaseColor true to combine the texture with the base color
+     */
+    public void setCombineWithBaseColor(boolean combineWithBaseColor) {
+        this.combineWithBaseColor = combineWithBaseColor;
+    }
+
+    /**
+     * Shades the visible pixels of the G-buffer into the image.
+     *
+     * @param gbuffer the G-buffer filled by the geometry pass
+     * @param xform   the transformation the G-buffer was rendered with
+     * @param image   the image to write, of the size of the G-buffer
+     */
+    public void apply(GBuffer gbuffer, Transformation xform, ImageWrapper image) {
+        final int width = gbuffer.getWidth();
+        final int height = gbuffer.getHeight();
+        final int tilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+        final int tilesY = (height + TILE_SIZE - 1) / TILE_SIZE;
+        final byte[] data = image.getPixelData();
+
+        IntStream.range(0, tilesX * tilesY).parallel().forEach(tile -> {
+            final int x0 = (tile % tilesX) * TILE_SIZE;
+            final int y0 = (tile / tilesX) * TILE_SIZE;
+            shadeTile(gbuffer, xform, data, x0, y0,
+                    Math.min(width, x0 + TILE_SIZE), Math.min(height, y0 + TILE_SIZE));
+        });
+    }
+
+    /**
+     * Shades the visible pixels of a tile.
+     *
+     * @param gbuffer the G-buffer
+     * @param xform   the transformation
+     * @param data    the bytes of the image
+     * @param x0      the first column of the tile
+     * @param y0      the first row of the tile
+     * @param x1      the column after the tile
+     * @param y1      the row after the tile
+     */
+    private void shadeTile(GBuffer gbuffer, Transformation xform, byte[] data,
+            int x0, int y0, int x1, int y1) {
+        final int width = gbuffer.getWidth();
+        final double[] normal = new double[3];
+        final double[] position = new double[3];
+        final double[] color = new double[3];
+
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0, i = y * width + x0; x < x1; x++, i++) {
+                if (!gbuffer.isCovered(i)) {
+                    continue;
+                }
+                final int base = gbuffer.getBaseColor(i);
+                color[0] = ((base >> RED_SHIFT) & CHANNEL_MASK) / MAX_PIX_VAL;
+                color[1] = ((base >> GREEN_SHIFT) & CHANNEL_MASK) / MAX_PIX_VAL;
+                color[2] = (base & CHANNEL_MASK) / MAX_PIX_VAL;
+
+                if (texture != null) {
+                    final Color texel = texture.sample(gbuffer.getU(i), gbuffer.getV(i));
+                    final float[] rgb = texel.getRGBColorComponents(null);
+                    for (int c = 0; c < 3; c++) {
+                        color[c] = combineWithBaseColor ? color[c] * rgb[c] : rgb[c];
+                    }
+                }
+
+                double[] lit = color;
+                if (lighting != null) {
+                    gbuffer.getNormal(i, normal);
+                    xform.unprojectPoint(x, y, gbuffer.getDepth(i), position);
+                    lit = lighting.applyLights(
+                            new Vector(position[0], position[1], position[2]),
+                            new Vector(normal[0], normal[1], normal[2]), color,
+                            cameraPosition, material[0], material[1], material[2],
+                            material[3]);
+                }
+
+                // TYPE_3BYTE_BGR layout
+                final int offset = i * BYTES_PER_PIXEL;
+                data[offset] = toByte(lit[2]);
+                data[offset + 1] = toByte(lit[1]);
+                data[offset + 2] = toByte(lit[0]);
+            }
+        }
+    }
+
+    /**
+     * Converts a color channel from [0, 1] to a byte.
+     *
+     * @param c the channel value
+     * @return the channel byte
+     */
+    private static byte toByte(double c) {
+        return (byte) Math.round(Math.max(0, Math.min(1, c)) * MAX_PIX_VAL);
+    }
+}
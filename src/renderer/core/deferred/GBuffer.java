@@ -0,0 +1,296 @@
+package renderer.core.deferred;
+
+import java.util.Arrays;
+
+import renderer.core.shader.Fragment;
+
+/**
+ * The GBuffer class stores, for each pixel, the attributes of the nearest
+ * fragment written so far: depth, normal, base color and texture coordinates.
+ * It is packed to stay small: the normal is octahedron encoded in two 16 bits
+ * values and the base color is a packed RGB int, for 20 bytes per pixel.
+ */
+public class GBuffer {
+
+    /**
+     * The scale of a signed 16 bits normalized value.
+     */
+    private static final double SNORM16 = 32767.0;
+
+    /**
+     * The mask of 16 bits.
+     */
+    private static final int SHORT_MASK = 0xFFFF;
+
+    /**
+     * The shift of the high 16 bits.
+     */
+    private static final int SHORT_SHIFT = 16;
+
+    /**
+     * The maximal value of a color channel.
+     */
+    private static final double MAX_PIX_VAL = 255;
+
+    /**
+     * The shift of the red channel in a packed RGB color.
+     */
+    private static final int RED_SHIFT = 16;
+
+    /**
+     * The shift of the green channel in a packed RGB color.
+     */
+    private static final int GREEN_SHIFT = 8;
+
+    /**
+     * The width of the buffer.
+     */
+    private int width;
+
+    /**
+     * The height of the buffer.
+     */
+    private int height;
+
+    /**
+     * The depth of each pixel, infinite where nothing was written.
+     */
+    private float[] depth;
+
+    /**
+     * The octahedron encoded normal of each pixel.
+     */
+    private int[] normal;
+
+    /**
+     * The packed RGB base color of each pixel.
+     */
+    private int[] baseColor;
+
+    /**
+     * The (u, v) texture coordinates of each pixel.
+     */
+    private float[] uv;
+
+    /**
+     * Constructs a cleared GBuffer of size width x height.
+     *
+     * @param width  the width of the buffer
+     * @param height the height of the buffer
+     */
+    public GBuffer(int width, int height) {
+        allocate(width, height);
+        clear();
+    }
+
+    /**
+     * Allocates the storage for the given size.
+     *
+     * @param nWidth  the width
+     * @param nHeight the height
+     */
+    private void allocate(int nWidth, int nHeight) {
+        width = nWidth;
+        height = nHeight;
+        depth = new float[width * height];
+        normal = new int[width * height];
+        baseColor = new int[width * height];
+        uv = new float[2 * width * height];
+    }
+
+    /**
+     * Clears the buffer to infinite depth.
+     */
+    public void clear() {
+        Arrays.fill(depth, Float.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Resizes the buffer if needed, and clears it.
+     *
+     * @param nWidth  the new width
+     * @param nHeight the new height
+     */
+    public void resize(int nWidth, int nHeight) {
+        if (width != nWidth || height != nHeight) {
+            allocate(nWidth, nHeight);
+        }
+        clear();
+    }
+
+    /**
+     * Gets the width of the buffer.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the buffer.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Writes the attributes of the fragment if it is the nearest at its pixel.
+     *
+     * @param f the fragment
+     * @return whether the fragment passed the depth test
+     */
+    public boolean write(Fragment f) {
+        final int x = f.getX();
+        final int y = f.getY();
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return false;
+        }
+        final int i = y * width + x;
+        final float z = (float) f.getDepth();
+        if (!(z < depth[i])) {
+            return false;
+        }
+        depth[i] = z;
+        normal[i] = encodeNormal(f.getAttribute(Fragment.NORMAL_X),
+                f.getAttribute(Fragment.NORMAL_Y),
+                f.getAttribute(Fragment.NORMAL_Z));
+        baseColor[i] = (toChannel(f.getAttribute(Fragment.COLOR_R)) << RED_SHIFT)
+                | (toChannel(f.getAttribute(Fragment.COLOR_G)) << GREEN_SHIFT)
+                | toChannel(f.getAttribute(Fragment.COLOR_B));
+        uv[2 * i] = (float) f.getAttribute(Fragment.TEXTURE_U);
+        uv[2 * i + 1] = (float) f.getAttribute(Fragment.TEXTURE_V);
+        return true;
+    }
+
+    /**
+     * Converts a color channel from [0, 1] to [0, 255].
+     *
+     * @param c the channel value
+     * @return the channel byte
+     */
+    private static int toChannel(double c) {
+        return (int) Math.round(Math.max(0, Math.min(1, c)) * MAX_PIX_VAL);
+    }
+
+    /**
+     * Tests whether a fragment was written at the pixel.
+     *
+     * @param index the pixel index (y * width + x)
+     * @return true if the pixel is covered
+     */
+    public boolean isCovered(int index) {
+        return depth[index] != Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Gets the depth of a pixel.
+     *
+     * @param index the pixel index
+     * @return the depth, infinite if not covered
+     */
+    public double getDepth(int index) {
+        return depth[index];
+    }
+
+    /**
+     * Gets the base color of a pixel.
+     *
+     * @param index the pixel index
+     * @return the packed RGB color
+     */
+    public int getBaseColor(int index) {
+        return baseColor[index];
+    }
+
+    /**
+     * Gets the u texture coordinate of a pixel.
+     *
+     * @param index the pixel index
+     * @return the u coordinate
+     */
+    public double getU(int index) {
+        return uv[2 * index];
+    }
+
+    /**
+     * Gets the v texture coordinate of a pixel.
+     *
+     * @param index the pixel index
+     * @return the v coordinate
+     */
+    public double getV(int index) {
+        return uv[2 * index + 1];
+    }
+
+    /**
+     * Decodes the normal of a pixel.
+     *
+     * @param index the pixel index
+     * @param out   the array receiving the 3 components of the unit normal
+     */
+    public void getNormal(int index, double[] out) {
+        decodeNormal(normal[index], out);
+    }
+
+    /**
+     * Encodes a normal on the octahedron, in two signed 16 bits values.
+     *
+     * @param nx the x component
+     * @param ny the y component
+     * @param nz the z component
+     * @return the encoded normal
+     */
+    static int encodeNormal(double nx, double ny, double nz) {
+        final double l1 = Math.abs(nx) + Math.abs(ny) + Math.abs(nz);
+        if (l1 == 0) {
+            return 0;
+        }
+        double px = nx / l1;
+        double py = ny / l1;
+        if (nz < 0) {
+            final double fx = (1 - Math.abs(py)) * signNotZero(px);
+            final double fy = (1 - Math.abs(px)) * signNotZero(py);
+            px = fx;
+            py = fy;
+        }
+        final int ex = (int) Math.round(px * SNORM16) & SHORT_MASK;
+        final int ey = (int) Math.round(py * SNORM16) & SHORT_MASK;
+        return (ex << SHORT_SHIFT) | ey;
+    }
+
+    /**
+     * Gets the sign of a value, zero being positive, so that the poles fold
+     * onto a corner of the octahedron.
+     *
+     * @param v the value
+     * @return 1 or -1
+     */
+    private static double signNotZero(double v) {
+        return v >= 0 ? 1 : -1;
+    }
+
+    /**
+     * Decodes an octahedron encoded normal.
+     *
+     * @param encoded the encoded normal
+     * @param out     the array receiving the 3 components of the unit normal
+     */
+    static void decodeNormal(int encoded, double[] out) {
+        double px = (short) (encoded >>> SHORT_SHIFT) / SNORM16;
+        double py = (short) (encoded & SHORT_MASK) / SNORM16;
+        final double pz = 1 - Math.abs(px) - Math.abs(py);
+        if (pz < 0) {
+            final double fx = (1 - Math.abs(py)) * signNotZero(px);
+            final double fy = (1 - Math.abs(px)) * signNotZero(py);
+            px = fx;
+            py = fy;
+        }
+        final double norm = Math.sqrt(px * px + py * py + pz * pz);
+        out[0] = px / norm;
+        out[1] = py / norm;
+        out[2] = pz / norm;
+    }
+}
@@ -0,0 +1,64 @@
+package renderer.core.deferred;
+
+import renderer.controller.ImageWrapper;
+import renderer.controller.Renderer;
+import renderer.core.shader.Fragment;
+import renderer.core.shader.Shader;
+
+/**
+ * The GBufferShader class is the shader of the geometry pass of deferred
+ * shading: instead of computing a color, it stores the attributes of the
+ * nearest fragment of each pixel in a GBuffer, which is shaded afterwards by
+ * a DeferredShadingPass. Overdraw thus only costs a buffer write.
+ */
+public class GBufferShader extends Shader {
+
+    /**
+     * The buffer the fragments are written to.
+     */
+    private GBuffer gbuffer;
+
+    /**
+     * Creates a GBufferShader; its buffer is allocated on initialization.
+     */
+    public GBufferShader() {
+        super();
+    }
+
+    /**
+     * Gets the buffer the fragments are written to.
+     *
+     * @return the G-buffer, null before the first initialization
+     */
+    public GBuffer getGBuffer() {
+        return gbuffer;
+    }
+
+    /**
+     * Writes the fragment to the G-buffer if it is the nearest so far.
+     *
+     * @param fragment the fragment to write
+     */
+    @Override
+    public void shade(Fragment fragment) {
+        gbuffer.write(fragment);
+    }
+
+    /**
+     * Reset the shader, clearing the G-buffer.
+     */
+    @Override
+    public void reset() {
+        gbuffer.clear();
+    }
+
+    @Override
+    public void init(final Renderer renderer, final ImageWrapper screen) {
+        super.init(renderer, screen);
+        if (gbuffer == null) {
+            gbuffer = new GBuffer(screen.getWidth(), screen.getHeight());
+        } else {
+            gbuffer.resize(screen.getWidth(), screen.getHeight());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package renderer.core.light;
+
+/**
+ * The BlinnPhong class evaluates the diffuse and specular terms of the
+ * Blinn-Phong model for point lights, on primitive arrays and without
+ * allocation, so that it can be called for every fragment. The specular
+ * power is read from a table built once for the shininess of the material.
+ */
+public class BlinnPhong {
+
+    /**
+     * The number of values describing a light: x, y, z and radius.
+     */
+    public static final int LIGHT_STRIDE = 4;
+
+    /**
+     * The number of entries of the specular power table.
+     */
+    private static final int TABLE_SIZE = 1024;
+
+    /**
+     * The diffuse reflection coefficient.
+     */
+    private final double kd;
+
+    /**
+     * The specular reflection coefficient.
+     */
+    private final double ks;
+
+    /**
+     * The shininess coefficient.
+     */
+    private final double shininess;
+
+    /**
+     * The values of pow(x, shininess) for x regularly spaced in [0, 1].
+     */
+    private final double[] powTable;
+
+    /**
+     * Creates the model of a material.
+     *
+     * @param kd        the diffuse reflection coefficient
+     * @param ks        the specular reflection coefficient
+     * @param shininess the shininess coefficient
+     */
+    public BlinnPhong(double kd, double ks, double shininess) {
+        this.kd = kd;
+        this.ks = ks;
+        this.shininess = shininess;
+        powTable = new double[TABLE_SIZE + 1];
+        for (int i = 0; i <= TABLE_SIZE; i++) {
+            powTable[i] = Math.pow((double) i / TABLE_SIZE, shininess);
+        }
+    }
+
+    /**
+     * Tests whether this model was built for the given material.
+     *
+     * @param nKd        the diffuse reflection coefficient
+     * @param nKs        the specular reflection coefficient
+     * @param nShininess the shininess coefficient
+     * @return true if the coefficients are the same
+     */
+    public boolean isFor(double nKd, double nKs, double nShininess) {
+        return kd == nKd && ks == nKs && shininess == nShininess;
+    }
+
+    /**
+     * Computes pow(x, shininess) from the table, by linear interpolation.
+     *
+     * @param x the value, clamped to [0, 1]
+     * @return the specular power of x
+     */
+    public double specularPower(double x) {
+        if (x <= 0) {
+            return 0;
+        }
+        if (x >= 1) {
+            return powTable[TABLE_SIZE];
+        }
+        final double t = x * TABLE_SIZE;
+        final int i = (int) t;
+        return powTable[i] + (powTable[i + 1] - powTable[i]) * (t - i);
+    }
+
+    /**
+     * Computes the factor fading a point light out with the distance, which
+     * falls smoothly from 1 at the light to 0 at its radius of influence.
+     *
+     * @param distance the distance to the light
+     * @param radius   the radius of influence, possibly infinite
+     * @return the attenuation factor in [0, 1]
+     */
+    public static double attenuation(double distance, double radius) {
+        if (radius == Double.POSITIVE_INFINITY) {
+            return 1;
+        }
+        if (distance >= radius) {
+            return 0;
+        }
+        final double t = distance / radius;
+        final double f = 1 - t * t;
+        return f * f;
+    }
+
+    /**
+     * Computes the intensity received from a point light, as the sum of the
+     * diffuse term kd (n.l) and the specular term ks (n.h)^s, faded out by
+     * the attenuation of the light.
+     *
+     * @param position  the position of the point
+     * @param normal    the unit normal at the point
+     * @param eye       the position of the camera
+     * @param lights    the lights, as their 3 coordinates followed by their
+     *                  radius of influence
+     * @param offset    the index of the first coordinate of the light
+     * @param intensity the intensity of the light
+     * @return the intensity of the light at the point
+     */
+    public double pointLight(double[] position, double[] normal, double[] eye,
+            double[] lights, int offset, double intensity) {
+        // vector from point to light
+        double lx = lights[offset] - position[0];
+        double ly = lights[offset + 1] - position[1];
+        double lz = lights[offset + 2] - position[2];
+        final double lNorm = Math.sqrt(lx * lx + ly * ly + lz * lz);
+        final double fade = attenuation(lNorm, lights[offset + LIGHT_STRIDE - 1]);
+        if (lNorm == 0 || fade == 0) {
+            return 0;
+        }
+        lx /= lNorm;
+        ly /= lNorm;
+        lz /= lNorm;
+
+        final double nDotL = normal[0] * lx + normal[1] * ly + normal[2] * lz;
+        if (nDotL <= 0) {
+            return 0;
+        }
+
+        // half-vector between the directions to the eye and to the light
+        double ex = eye[0] - position[0];
+        double ey = eye[1] - position[1];
+        double ez = eye[2] - position[2];
+        final double eNorm = Math.sqrt(ex * ex + ey * ey + ez * ez);
+        if (eNorm > 0) {
+            ex /= eNorm;
+            ey /= eNorm;
+            ez /= eNorm;
+        }
+        final double hx = ex + lx;
+        final double hy = ey + ly;
+        final double hz = ez + lz;
+        final double hNorm = Math.sqrt(hx * hx + hy * hy + hz * hz);
+
+        double specular = 0;
+        if (hNorm > 0) {
+            final double nDotH = (normal[0] * hx + normal[1] * hy + normal[2] * hz) / hNorm;
+            specular = ks * specularPower(nDotH);
+        }
+        return fade * intensity * (kd * nDotL + specular);
+    }
+}
@@ -1,6 +1,7 @@
 package renderer.core.light;
 
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import renderer.algebra.MathUtils;
@@ -13,14 +14,32 @@ import renderer.algebra.Vector;
  */
 public class Lighting {
 
-    /** List of light sources. */
-    private final List<Light> lights;
+    /** The initial capacity of the light array. */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /** Array of light sources, the first numLights being used. */
+    private Light[] lights;
+
+    /** The number of light sources. */
+    private int numLights;
 
     /**
      * Creates a new Lighting environment.
      */
     public Lighting() {
-        lights = new LinkedList<>();
+        lights = new Light[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds a light source to the environment.
+     *
+     * @param light the light to add
+     */
+    private void addLight(final Light light) {
+        if (numLights == lights.length) {
+            lights = Arrays.copyOf(lights, 2 * lights.length);
+        }
+        lights[numLights++] = light;
     }
 
     /**
@@ -29,7 +48,7 @@ public class Lighting {
      * @param ia the intensity of the ambient light
      */
     public void addAmbientLight(final double ia) {
-        lights.add(new AmbientLight(ia));
+        addLight(new AmbientLight(ia));
     }
 
     /**
@@ -43,7 +62,22 @@ public class Lighting {
      */
     public void addPointLight(final double x, final double y,
             final double z, final double id) {
-        lights.add(new PointLight(x, y, z, id));
+        addLight(new PointLight(x, y, z, id));
+    }
+
+    /**
+     * Adds a new point light source of intensity @id at position (x, y, z),
+     * reaching up to the given radius, to the environment.
+     *
+     * @param x      the x coordinate of the light source
+     * @param y      the y coordinate of the light source
+     * @param z      the z coordinate of the light source
+     * @param id     the intensity of the light source
+     * @param radius the radius of influence of the light source
+     */
+    public void addPointLight(final double x, final double y,
+            final double z, final double id, final double radius) {
+        addLight(new PointLight(x, y, z, id, radius));
     }
 
     /**
@@ -67,8 +101,18 @@ public class Lighting {
         // total light intensity
         double I = 0.0;
 
-        for (final Light light : lights) {
-            I += light.getContribution(position, normal, color,
+        for (int i = 0; i < numLights; i++) {
+            final Light light = lights[i];
+            double attenuation = 1.0;
+            if (light instanceof PointLight) {
+                final PointLight point = (PointLight) light;
+                attenuation = point.getAttenuation(position);
+                if (attenuation == 0) {
+                    continue;
+                }
+                attenuation *= point.getVisibility(position);
+            }
+            I += attenuation * light.getContribution(position, normal, color,
                     cameraPosition, ka, kd, ks, s);
         }
 
@@ -79,16 +123,126 @@ public class Lighting {
         };
     }
 
+    /**
+     * Computes the terms of the illumination of a 3D point that do not depend
+     * on the camera, so that the point can be lit for many cameras with
+     * applyLights(position, normal, color, cameraPosition, ka, kd, ks, s,
+     * terms, offset). The term of each light is its whole contribution for
+     * an ambient light, the fading of its intensity (attenuation and shadow)
+     * for a point light, and NaN for a light computed for each camera.
+     *
+     * @param position the position of the point in 3 coordinates
+     * @param normal   the normal at the point
+     * @param color    the color of the point
+     * @param ka       the ambient reflection coefficient
+     * @param kd       the diffuse reflection coefficient
+     * @param ks       the specular reflection coefficient
+     * @param s        the shininess coefficient
+     * @param terms    the array receiving one term per light
+     * @param offset   the index of the term of the first light
+     */
+    public void computeViewIndependentTerms(final Vector position, final Vector normal,
+            final double[] color, final double ka, final double kd, final double ks,
+            final double s, final double[] terms, final int offset) {
+        for (int i = 0; i < numLights; i++) {
+            final Light light = lights[i];
+            if (light instanceof AmbientLight) {
+                terms[offset + i] = light.getContribution(position, normal, color,
+                        null, ka, kd, ks, s);
+            } else if (light instanceof PointLight) {
+                final PointLight point = (PointLight) light;
+                final double attenuation = point.getAttenuation(position);
+                terms[offset + i] = attenuation == 0
+                        ? 0 : attenuation * point.getVisibility(position);
+            } else {
+                terms[offset + i] = Double.NaN;
+            }
+        }
+    }
+
+    /**
+     * Computes the illuminated color of a 3D point from the terms computed
+     * once for every camera by computeViewIndependentTerms.
+     *
+     * @param position       the position of the point in 3 coordinates
+     * @param normal         the normal at the point
+     * @param color          the color of the point
+     * @param cameraPosition the position of the camera
+     * @param ka             the ambient reflection coefficient
+     * @param kd             the diffuse reflection coefficient
+     * @param ks             the specular reflection coefficient
+     * @param s              the shininess coefficient
+     * @param terms          the terms of the lights at the point
+     * @param offset         the index of the term of the first light
+     * @param out            the array receiving the 3 components of the
+     *                       illuminated color
+     */
+    public void applyLights(final Vector position, final Vector normal,
+            final double[] color, final Vector cameraPosition,
+            final double ka, final double kd, final double ks, final double s,
+            final double[] terms, final int offset, final double[] out) {
+        // total light intensity
+        double I = 0.0;
+        for (int i = 0; i < numLights; i++) {
+            final Light light = lights[i];
+            final double term = terms[offset + i];
+            if (light instanceof AmbientLight) {
+                I += term;
+            } else if (Double.isNaN(term)) {
+                I += light.getContribution(position, normal, color,
+                        cameraPosition, ka, kd, ks, s);
+            } else if (term != 0) {
+                I += term * light.getContribution(position, normal, color,
+                        cameraPosition, ka, kd, ks, s);
+            }
+        }
+        out[0] = clampColor(color[0] * I);
+        out[1] = clampColor(color[1] * I);
+        out[2] = clampColor(color[2] * I);
+    }
+
     private static double clampColor(final double value) {
         final double min = 0.0;
         final double max = 1.0;
         return MathUtils.clamp(value, min, max);
     }
 
+    /**
+     * Gets the light sources of the environment.
+     *
+     * @return a read-only view of the lights
+     */
+    public List<Light> getLights() {
+        return Collections.unmodifiableList(Arrays.asList(lights).subList(0, numLights));
+    }
+
+    /**
+     * Gets the number of light sources.
+     *
+     * @return the number of lights
+     */
+    public int getNumLights() {
+        return numLights;
+    }
+
+    /**
+     * Gets a light source.
+     *
+     * @param index the index of the light, in the order they were added
+     * @return the light
+     */
+    public Light getLight(final int index) {
+        if (index < 0 || index >= numLights) {
+            throw new IndexOutOfBoundsException("No light at index " + index);
+        }
+        return lights[index];
+    }
+
     /**
      * Reset the list of lights.
      */
     public void reset() {
-        lights.clear();
+        Arrays.fill(lights, 0, numLights, null);
+        numLights = 0;
     }
 }
@@ -1,6 +1,7 @@
 package renderer.core.light;
 
 import renderer.algebra.Vector;
+import renderer.core.shadow.ShadowMap;
 
 public class PointLight extends Light {
 
@@ -19,6 +20,16 @@ public class PointLight extends Light {
      */
     private double z;
 
+    /**
+     * The radius of influence, beyond which the light has no contribution.
+     */
+    private double radius;
+
+    /**
+     * The shadow map of the light, null when the light casts no shadow.
+     */
+    private ShadowMap shadowMap;
+
     /**
      * Adds a new point light source of intensity @id at position (x, y, z)
      * to the environment.
@@ -29,10 +40,26 @@ public class PointLight extends Light {
      * @param id the intensity of the light source
      */
     public PointLight(double x, double y, double z, double id) {
+        this(x, y, z, id, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Adds a new point light source of intensity @id at position (x, y, z),
+     * whose contribution fades out to zero at the given radius.
+     *
+     * @param x      the x coordinate of the light source
+     * @param y      the y coordinate of the light source
+     * @param z      the z coordinate of the light source
+     * @param id     the intensity of the light source
+     * @param radius the radius of influence, infinite for a light reaching
+     *               the whole scene
+     */
+    public PointLight(double x, double y, double z, double id, double radius) {
         super(id);
         this.x = x;
         this.y = y;
         this.z = z;
+        this.radius = radius;
     }
 
     @Override
@@ -64,6 +91,87 @@ public class PointLight extends Light {
         return I;
     }
 
+    /**
+     * Gets the x coordinate of the light source.
+     *
+     * @return the x coordinate
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Gets the y coordinate of the light source.
+     *
+     * @return the y coordinate
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Gets the z coordinate of the light source.
+     *
+     * @return the z coordinate
+     */
+    public double getZ() {
+        return z;
+    }
+
+    /**
+     * Gets the radius of influence of the light source.
+     *
+     * @return the radius, infinite if the light reaches the whole scene
+     */
+    public double getRadius() {
+        return radius;
+    }
+
+    /**
+     * Gets the factor fading the contribution out with the distance, from 1
+     * at the light position to 0 at the radius of influence.
+     *
+     * @param position the position of the point
+     * @return the attenuation factor in [0, 1]
+     */
+    public double getAttenuation(Vector position) {
+        final double dx = position.get(0) - x;
+        final double dy = position.get(1) - y;
+        final double dz = position.get(2) - z;
+        return BlinnPhong.attenuation(Math.sqrt(dx * dx + dy * dy + dz * dz), radius);
+    }
+
+    /**
+     * Sets the shadow map of the light.
+     *
+     * @param shadowMap the shadow map, or null for a light casting no shadow
+     */
+    public void setShadowMap(ShadowMap shadowMap) {
+        this.shadowMap = shadowMap;
+    }
+
+    /**
+     * Gets the shadow map of the light.
+     *
+     * @return the shadow map, null when the light casts no shadow
+     */
+    public ShadowMap getShadowMap() {
+        return shadowMap;
+    }
+
+    /**
+     * Gets the fraction of the light reaching a point, from the shadow map.
+     *
+     * @param position the position of the point
+     * @return the visibility in [0, 1], 1 without a shadow map
+     */
+    public double getVisibility(Vector position) {
+        if (shadowMap == null) {
+            return 1;
+        }
+        return shadowMap.visibility(position.get(0), position.get(1), position.get(2));
+    }
+
     private Vector getPositionAsVector() {
         return new Vector(x, y, z);
     }
@@ -0,0 +1,312 @@
+package renderer.core.light;
+
+import java.util.Arrays;
+
+import renderer.core.camera.Transformation;
+
+/**
+ * The TiledLightCulling class splits the screen into square tiles and lists,
+ * for each tile, the lights whose sphere of influence may cover some of its
+ * pixels, so that a fragment only evaluates the lights of its tile.
+ *
+ * The lists are built once per frame from the screen-space bounds of the
+ * lights, and stored contiguously: the lights of a tile are the entries
+ * getStart(tile) to getEnd(tile) - 1.
+ */
+public class TiledLightCulling {
+
+    /**
+     * The size of a tile, in pixels.
+     */
+    public static final int TILE_SIZE = 16;
+
+    /**
+     * The number of values of the screen bounds of a light.
+     */
+    public static final int BOUNDS_STRIDE = 4;
+
+    /**
+     * The number of tiles along x.
+     */
+    private int tilesX;
+
+    /**
+     * The number of tiles along y.
+     */
+    private int tilesY;
+
+    /**
+     * The width of the screen, in pixels.
+     */
+    private int width;
+
+    /**
+     * The height of the screen, in pixels.
+     */
+    private int height;
+
+    /**
+     * The index of the first entry of each tile, followed by the total
+     * number of entries.
+     */
+    private int[] tileStart = new int[1];
+
+    /**
+     * The write position of each tile while building the lists.
+     */
+    private int[] cursor = new int[0];
+
+    /**
+     * The light indices of all the tiles.
+     */
+    private int[] entries = new int[0];
+
+    /**
+     * Sets the size of the screen.
+     *
+     * @param width  the width of the screen
+     * @param height the height of the screen
+     */
+    public void resize(int width, int height) {
+        this.width = width;
+        this.height = height;
+        tilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+        tilesY = (height + TILE_SIZE - 1) / TILE_SIZE;
+        if (cursor.length != tilesX * tilesY) {
+            tileStart = new int[tilesX * tilesY + 1];
+            cursor = new int[tilesX * tilesY];
+        }
+    }
+
+    /**
+     * Builds the light list of every tile.
+     *
+     * @param bounds the screen bounds of each light, as (xmin, ymin, xmax, ymax)
+     *               in pixels, a light with xmin greater than xmax covering
+     *               nothing
+     * @param count  the number of lights
+     */
+    public void build(double[] bounds, int count) {
+        Arrays.fill(cursor, 0);
+        for (int l = 0; l < count; l++) {
+            final int o = BOUNDS_STRIDE * l;
+            if (!isOnScreen(bounds, o)) {
+                continue;
+            }
+            final int tx0 = tileX(bounds[o]);
+            final int ty0 = tileY(bounds[o + 1]);
+            final int tx1 = tileX(bounds[o + 2]);
+            final int ty1 = tileY(bounds[o + 3]);
+            for (int ty = ty0; ty <= ty1; ty++) {
+                for (int tx = tx0; tx <= tx1; tx++) {
+                    cursor[ty * tilesX + tx]++;
+                }
+            }
+        }
+
+        // prefix sum of the counts, the cursors becoming the write positions
+        int total = 0;
+        for (int t = 0; t < cursor.length; t++) {
+            tileStart[t] = total;
+            total += cursor[t];
+            cursor[t] = tileStart[t];
+        }
+        tileStart[cursor.length] = total;
+        if (entries.length < total) {
+            entries = new int[total];
+        }
+
+        for (int l = 0; l < count; l++) {
+            final int o = BOUNDS_STRIDE * l;
+            if (!isOnScreen(bounds, o)) {
+                continue;
+            }
+            for (int ty = tileY(bounds[o + 1]); ty <= tileY(bounds[o + 3]); ty++) {
+                for (int tx = tileX(bounds[o]); tx <= tileX(bounds[o + 2]); tx++) {
+                    entries[cursor[ty * tilesX + tx]++] = l;
+                }
+            }
+        }
+    }
+
+    /**
+     * Tells whether the bounds of a light overlap the screen, before they are
+     * clamped to its border tiles.
+     *
+     * @param bounds the screen bounds of the lights
+     * @param o      the index of the bounds of the light
+     * @return false if the light covers nothing or only pixels off screen
+     */
+    private boolean isOnScreen(double[] bounds, int o) {
+        final double x0 = bounds[o];
+        final double y0 = bounds[o + 1];
+        final double x1 = bounds[o + 2];
+        final double y1 = bounds[o + 3];
+        return x0 <= x1 && y0 <= y1
+                && !(x1 < 0 || y1 < 0 || x0 >= width || y0 >= height);
+    }
+
+    /**
+     * Gets the tile column of an x-coordinate, clamped to the screen.
+     *
+     * @param x the x-coordinate in pixels
+     * @return the tile column
+     */
+    private int tileX(double x) {
+        return (int) Math.max(0, Math.min(tilesX - 1, Math.floor(x / TILE_SIZE)));
+    }
+
+    /**
+     * Gets the tile row of a y-coordinate, clamped to the screen.
+     *
+     * @param y the y-coordinate in pixels
+     * @return the tile row
+     */
+    private int tileY(double y) {
+        return (int) Math.max(0, Math.min(tilesY - 1, Math.floor(y / TILE_SIZE)));
+    }
+
+    /**
+     * Gets the tile of a pixel.
+     *
+     * @param x the x-coordinate of the pixel
+     * @param y the y-coordinate of the pixel
+     * @return the index of the tile
+     */
+    public int getTile(int x, int y) {
+        return tileY(y) * tilesX + tileX(x);
+    }
+
+    /**
+     * Gets the index of the first entry of a tile.
+     *
+     * @param tile the tile
+     * @return the first entry
+     */
+    public int getStart(int tile) {
+        return tileStart[tile];
+    }
+
+    /**
+     * Gets the index after the last entry of a tile.
+     *
+     * @param tile the tile
+     * @return the end of the entries of the tile
+     */
+    public int getEnd(int tile) {
+        return tileStart[tile + 1];
+    }
+
+    /**
+     * Gets the light of an entry.
+     *
+     * @param entry the entry
+     * @return the index of the light
+     */
+    public int getLight(int entry) {
+        return entries[entry];
+    }
+
+    /**
+     * Gets the number of tiles.
+     *
+     * @return the number of tiles
+     */
+    public int getNumTiles() {
+        return tilesX * tilesY;
+    }
+
+    /**
+     * Gets the largest number of lights of a tile.
+     *
+     * @return the maximal number of lights per tile
+     */
+    public int getMaxLightsPerTile() {
+        int max = 0;
+        for (int t = 0; t < tilesX * tilesY; t++) {
+            max = Math.max(max, tileStart[t + 1] - tileStart[t]);
+        }
+        return max;
+    }
+
+    /**
+     * Gets the average number of lights of a tile.
+     *
+     * @return the average number of lights per tile
+     */
+    public double getAverageLightsPerTile() {
+        final int tiles = tilesX * tilesY;
+        return tiles == 0 ? 0 : (double) tileStart[tiles] / tiles;
+    }
+
+    /**
+     * Computes the screen bounds of the sphere of influence of a light. The
+     * bounds are conservative: a sphere containing the camera, or with an
+     * infinite radius, covers the whole screen, and a sphere behind the
+     * camera covers nothing. The bounds are in the pixels of the viewport of
+     * the transformation, where the tiles are.
+     *
+     * @param xform  the transformation of the camera
+     * @param focal  the focal length of the camera, in pixels
+     * @param width  the width of the whole image, the principal point being
+     *               its center
+     * @param height the height of the whole image
+     * @param lights the lights, as (x, y, z, radius)
+     * @param light  the index of the light
+     * @param bounds the array receiving the bounds (xmin, ymin, xmax, ymax)
+     */
+    public static void computeBounds(Transformation xform, double focal, int width,
+            int height, double[] lights, int light, double[] bounds) {
+        final int i = BlinnPhong.LIGHT_STRIDE * light;
+        final int o = BOUNDS_STRIDE * light;
+        final double radius = lights[i + BlinnPhong.LIGHT_STRIDE - 1];
+        if (radius == Double.POSITIVE_INFINITY) {
+            coverAll(bounds, o);
+            return;
+        }
+        final double[] center = new double[3];
+        xform.projectPoint(lights[i], lights[i + 1], lights[i + 2], center);
+        final double depth = center[2];
+
+        if (depth + radius <= 0) {
+            // entirely behind the camera
+            bounds[o] = 0;
+            bounds[o + 1] = 0;
+            bounds[o + 2] = -1;
+            bounds[o + 3] = -1;
+            return;
+        }
+        if (depth <= radius) {
+            coverAll(bounds, o);
+            return;
+        }
+        // a point of the sphere is at most r away from the center and at a
+        // depth of at least d - r, which bounds its offset on the screen by
+        // (f + |offset of the center from the principal point|) r / (d - r)
+        final double scale = radius / (depth - radius);
+        final double sx = center[0];
+        final double sy = center[1];
+        // the principal point is placed in the whole image, the center in the viewport
+        final double px = width / 2.0 - xform.getViewportOffsetX();
+        final double py = height / 2.0 - xform.getViewportOffsetY();
+        final double rx = (focal + Math.abs(sx - px)) * scale;
+        final double ry = (focal + Math.abs(sy - py)) * scale;
+        bounds[o] = sx - rx;
+        bounds[o + 1] = sy - ry;
+        bounds[o + 2] = sx + rx;
+        bounds[o + 3] = sy + ry;
+    }
+
+    /**
+     * Sets bounds covering the whole screen.
+     *
+     * @param bounds the bounds array
+     * @param o      the index of the bounds of the light
+     */
+    private static void coverAll(double[] bounds, int o) {
+        bounds[o] = Double.NEGATIVE_INFINITY;
+        bounds[o + 1] = Double.NEGATIVE_INFINITY;
+        bounds[o + 2] = Double.POSITIVE_INFINITY;
+        bounds[o + 3] = Double.POSITIVE_INFINITY;
+    }
+}
@@ -1,10 +1,12 @@
 package renderer.core.mesh;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 
 import renderer.algebra.Vector;
+import renderer.event.ResourceLoadEvent;
 
 /**
  * Defines a triangle based mesh.
@@ -29,6 +31,10 @@ public class Mesh {
      * The vertices of the mesh.
      */
     private Vector[] vertices;
+    /**
+     * The coordinates of the vertices, 3 per vertex, for bulk processing.
+     */
+    private double[] vertexArray;
     /**
      * The faces of the mesh.
      */
@@ -62,6 +68,27 @@ public class Mesh {
      * @throws IOException if the file cannot be read.
      */
     public Mesh(String filename) throws IOException  {
+        this(filename, 0, 1);
+    }
+
+    /**
+     * Builds a Mesh object keeping one partition of the faces of an OFF file,
+     * for renderers that only draw part of a mesh too large for one process.
+     * The faces are split into contiguous ranges of equal size; every vertex
+     * is kept, so the face indices are unchanged. The normals of the vertices
+     * shared with other partitions are only averaged over the faces kept.
+     * @param filename path to OFF file.
+     * @param partition the index of the partition kept, from 0
+     * @param partitions the number of partitions
+     * @throws IOException if the file cannot be read.
+     */
+    public Mesh(String filename, int partition, int partitions) throws IOException  {
+        if (partitions < 1 || partition < 0 || partition >= partitions) {
+            throw new IllegalArgumentException(
+                    "Invalid partition " + partition + " of " + partitions);
+        }
+        final ResourceLoadEvent event = new ResourceLoadEvent();
+        event.begin();
         BufferedReader in = new BufferedReader(new FileReader(filename));
 
         String r = nextLine(in);
@@ -76,10 +103,13 @@ public class Mesh {
         // Parse object properties
         int nbVert = Integer.parseInt(sar[0]);
         int nbFaces = Integer.parseInt(sar[1]);
+        final int firstFace = (int) ((long) nbFaces * partition / partitions);
+        final int endFace = (int) ((long) nbFaces * (partition + 1) / partitions);
 
         // Parse vertices and attributes
         vertices = new Vector[nbVert];
-        faces = new int[VERTICES_PER_FACE * nbFaces];
+        vertexArray = new double[VERTEX_DIMENSION * nbVert];
+        faces = new int[VERTICES_PER_FACE * (endFace - firstFace)];
         colors = new double[COLOR_COMPONENTS_PER_VERTEX * nbVert];
         for (int i = 0; i < nbVert; i++) {
 
@@ -90,6 +120,9 @@ public class Mesh {
             vertices[i].set(0, Double.parseDouble(sar[0]));
             vertices[i].set(1, Double.parseDouble(sar[1]));
             vertices[i].set(2, Double.parseDouble(sar[2]));
+            for (int c = 0; c < VERTEX_DIMENSION; c++) {
+                vertexArray[VERTEX_DIMENSION * i + c] = vertices[i].get(c);
+            }
             colors[COLOR_COMPONENTS_PER_VERTEX * i + 0] = Double.parseDouble(sar[3]);
             colors[COLOR_COMPONENTS_PER_VERTEX * i + 1] = Double.parseDouble(sar[4]);
             colors[COLOR_COMPONENTS_PER_VERTEX * i + 2] = Double.parseDouble(sar[5]);
@@ -104,10 +137,13 @@ public class Mesh {
             }
         }
 
-        // Parse faces
-        for (int i = 0; i < nbFaces; i++) {
+        // Parse faces, skipping the ones of the other partitions
+        for (int i = 0; i < endFace; i++) {
 
             r = nextLine(in);
+            if (i < firstFace) {
+                continue;
+            }
             sar = r.split("\\s+");
 
             final int en = Integer.parseInt(sar[0]);
@@ -115,11 +151,21 @@ public class Mesh {
                 throw new IOException("Non-triangular meshes not supported.");
             }
             for (int j = 0; j < en; j++) {
-                faces[VERTICES_PER_FACE * i + j] = Integer.parseInt(sar[j + 1]);
+                faces[VERTICES_PER_FACE * (i - firstFace) + j] =
+                        Integer.parseInt(sar[j + 1]);
             }
 
         }
         in.close();
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = ResourceLoadEvent.MESH;
+            event.path = filename;
+            event.bytes = new File(filename).length();
+            event.elements = nbVert;
+            event.commit();
+        }
     }
 
     /**
@@ -198,6 +244,15 @@ public class Mesh {
         return vertices;
     }
 
+    /**
+     * Returns the coordinates of the vertices in a single array of 3*n
+     * doubles, with n the number of vertices, for bulk processing.
+     * @return an array of double containing the vertices of the mesh
+     */
+    public double[] getVertexArray() {
+        return vertexArray;
+    }
+
     /**
      * Return the normals associated to the vertices.
      * If the normals have not been computed yet, they are computed.
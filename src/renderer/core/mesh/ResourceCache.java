@@ -0,0 +1,276 @@
+package renderer.core.mesh;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import renderer.event.CacheEvictionEvent;
+
+/**
+ * The ResourceCache class keeps the meshes and the textures loaded, so that
+ * renderers loading the same files share them instead of parsing them
+ * again. Each kind of resource is kept in its own least recently used
+ * cache of bounded size.
+ *
+ * A file is loaded once even when requested by several threads at the same
+ * time: the first one loads it while the others wait for it. The resources
+ * are shared between renderers, so they are fully built before being
+ * handed out, the normals of the meshes included.
+ */
+public class ResourceCache {
+
+    /**
+     * The name of the cache of the meshes, for the flight recorder.
+     */
+    public static final String MESH_CACHE = "mesh cache";
+
+    /**
+     * The name of the cache of the textures, for the flight recorder.
+     */
+    public static final String TEXTURE_CACHE = "texture cache";
+
+    /**
+     * The estimated memory of a vertex: position, color and normal.
+     */
+    private static final long BYTES_PER_VERTEX = 3 * 3 * Double.BYTES;
+
+    /**
+     * The estimated memory of a face.
+     */
+    private static final long BYTES_PER_FACE = 3 * Integer.BYTES;
+
+    /**
+     * The estimated memory of a texel and its mip levels.
+     */
+    private static final long BYTES_PER_TEXEL = 2 * Integer.BYTES;
+
+    /**
+     * The load factor of the maps of the caches.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Loads a resource from its file.
+     *
+     * @param <T> the type of the resource
+     */
+    @FunctionalInterface
+    private interface Loader<T> {
+
+        /**
+         * Loads a resource.
+         *
+         * @param path the path of the file
+         * @return the resource
+         * @throws IOException if the file cannot be read
+         */
+        T load(String path) throws IOException;
+    }
+
+    /**
+     * Estimates the memory held by a resource.
+     *
+     * @param <T> the type of the resource
+     */
+    @FunctionalInterface
+    private interface Sizer<T> {
+
+        /**
+         * Estimates the memory held by a resource.
+         *
+         * @param resource the resource
+         * @return the number of bytes
+         */
+        long bytes(T resource);
+    }
+
+    /**
+     * A least recently used cache of one kind of resource.
+     *
+     * @param <T> the type of the resources
+     */
+    private static final class Lru<T> {
+
+        /** The name of the cache. */
+        private final String name;
+
+        /** The loader of the resources. */
+        private final Loader<T> loader;
+
+        /** The memory estimate of the resources. */
+        private final Sizer<T> sizer;
+
+        /** The resources, loaded or being loaded, by path. */
+        private final LinkedHashMap<String, CompletableFuture<T>> entries;
+
+        /** The number of requests served from the cache. */
+        private long hits;
+
+        /** The number of requests that loaded a file. */
+        private long misses;
+
+        /**
+         * Creates a cache.
+         *
+         * @param name     the name of the cache
+         * @param capacity the number of resources kept
+         * @param loader   the loader of the resources
+         * @param sizer    the memory estimate of the resources
+         */
+        Lru(String name, int capacity, Loader<T> loader, Sizer<T> sizer) {
+            this.name = name;
+            this.loader = loader;
+            this.sizer = sizer;
+            entries = new LinkedHashMap<>(capacity, LOAD_FACTOR, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<String, CompletableFuture<T>> eldest) {
+                    if (size() <= capacity) {
+                        return false;
+                    }
+                    final T evicted = eldest.getValue().getNow(null);
+                    CacheEvictionEvent.emit(Lru.this.name, eldest.getKey(), "capacity",
+                            evicted == null ? 0 : Lru.this.sizer.bytes(evicted));
+                    return true;
+                }
+            };
+        }
+
+        /**
+         * Gets the number of requests served from the cache.
+         *
+         * @return the number of hits
+         */
+        synchronized long getHits() {
+            return hits;
+        }
+
+        /**
+         * Gets the number of requests that loaded a file.
+         *
+         * @return the number of misses
+         */
+        synchronized long getMisses() {
+            return misses;
+        }
+
+        /**
+         * Gets a resource, loading it if it is not in the cache.
+         *
+         * @param path the path of the file
+         * @return the resource
+         * @throws IOException if the file cannot be read
+         */
+        T get(String path) throws IOException {
+            final CompletableFuture<T> future;
+            final boolean owner;
+            synchronized (this) {
+                final CompletableFuture<T> cached = entries.get(path);
+                owner = cached == null;
+                if (owner) {
+                    misses++;
+                    future = new CompletableFuture<>();
+                    entries.put(path, future);
+                } else {
+                    hits++;
+                    future = cached;
+                }
+            }
+            if (owner) {
+                try {
+                    future.complete(loader.load(path));
+                } catch (IOException | RuntimeException e) {
+                    synchronized (this) {
+                        entries.remove(path, future);
+                    }
+                    future.completeExceptionally(e);
+                    throw e;
+                }
+            }
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading " + path, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException("Could not load " + path, e.getCause());
+            }
+        }
+    }
+
+    /**
+     * The meshes.
+     */
+    private final Lru<Mesh> meshes;
+
+    /**
+     * The textures.
+     */
+    private final Lru<Texture> textures;
+
+    /**
+     * Creates a cache.
+     *
+     * @param capacity the number of meshes, and of textures, kept
+     */
+    public ResourceCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid cache capacity " + capacity);
+        }
+        meshes = new Lru<>(MESH_CACHE, capacity, path -> {
+            final Mesh mesh = new Mesh(path);
+            mesh.getNormals();
+            return mesh;
+        }, mesh -> mesh.getNumVertices() * BYTES_PER_VERTEX
+                + mesh.getNumFaces() * BYTES_PER_FACE);
+        textures = new Lru<>(TEXTURE_CACHE, capacity, Texture::new,
+                texture -> BYTES_PER_TEXEL * texture.getWidth() * texture.getHeight());
+    }
+
+    /**
+     * Gets a mesh, loading it if it is not in the cache.
+     *
+     * @param path the path of the OFF file
+     * @return the mesh, shared with the other users of the cache
+     * @throws IOException if the file cannot be read
+     */
+    public Mesh getMesh(String path) throws IOException {
+        return meshes.get(path);
+    }
+
+    /**
+     * Gets a texture, loading it if it is not in the cache.
+     *
+     * @param path the path of the image file
+     * @return the texture, shared with the other users of the cache
+     * @throws IOException if the file cannot be read
+     */
+    public Texture getTexture(String path) throws IOException {
+        return textures.get(path);
+    }
+
+    /**
+     * Gets the number of requests served from the cache.
+     *
+     * @return the number of hits, meshes and textures
+     */
+    public long getHits() {
+        return meshes.getHits() + textures.getHits();
+    }
+
+    /**
+     * Gets the number of requests that loaded a file.
+     *
+     * @return the number of misses, meshes and textures
+     */
+    public long getMisses() {
+        return meshes.getMisses() + textures.getMisses();
+    }
+}
@@ -3,6 +3,9 @@ package renderer.core.mesh;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import renderer.algebra.Vector;
 
@@ -13,6 +16,10 @@ import renderer.algebra.Vector;
  * * the Lights and their parameters
  * This description is meant to be read form a scene description file (.scene
  * extension).
+ * After the material line, the file may list any number of additional point
+ * lights, one per line as "x y z Id radius". The radius of influence is
+ * optional on every point light line, lights without one reaching the whole
+ * scene.
  *
  * @author cdehais based on smondet, gmorin
  */
@@ -58,6 +65,10 @@ public class Scene {
      * The material of the object.
      */
     private double[] material = new double[4];
+    /**
+     * The point lights, the main source first, as (x, y, z, Id, radius).
+     */
+    private final List<double[]> pointLights = new ArrayList<>();
 
     /**
      * Creates a new Scene object by reading in a scene description file.
@@ -106,24 +117,49 @@ public class Scene {
             sourceCoord[i] = Double.parseDouble(sar[i]);
         }
         sourceI = Double.parseDouble(sar[3]);
+        pointLights.add(parsePointLight(sar));
 
         r = nextLine(in);
         sar = r.split("\\s+");
         for (int i = 0; i < material.length; i++) {
             material[i] = Double.parseDouble(sar[i]);
         }
+
+        r = nextLine(in);
+        while (r != null) {
+            pointLights.add(parsePointLight(r.trim().split("\\s+")));
+            r = nextLine(in);
+        }
+    }
+
+    /**
+     * Parses a point light line: its position, its intensity and optionally
+     * its radius of influence.
+     * @param sar the values of the line
+     * @return the light as (x, y, z, Id, radius)
+     */
+    private static double[] parsePointLight(String[] sar) {
+        final int radiusIndex = 4;
+        final double[] light = new double[radiusIndex + 1];
+        for (int i = 0; i < radiusIndex; i++) {
+            light[i] = Double.parseDouble(sar[i]);
+        }
+        light[radiusIndex] = sar.length > radiusIndex
+                ? Double.parseDouble(sar[radiusIndex])
+                : Double.POSITIVE_INFINITY;
+        return light;
     }
 
     /**
      * Parses a line of the files.
      * @param in the input reader
-     * @return the next lines
+     * @return the next lines, or null at the end of the file
      * @throws IOException
      */
     private static String nextLine(BufferedReader in) throws IOException {
         String r = in.readLine();
 
-        while (r.matches("(\\s*#.*)|(\\s*$)")) {
+        while (r != null && r.matches("(\\s*#.*)|(\\s*$)")) {
             r = in.readLine();
         }
         return r;
@@ -210,10 +246,26 @@ public class Scene {
     }
 
     /**
-     * Gets the material.
-     * @return the material.
+     * Gets the point lights of the scene, the main source first. A scene may
+     * be shared by several renderers, so the lights are copied.
+     * @return an unmodifiable list of copies of the lights, each as
+     * (x, y, z, Id, radius), the radius being infinite when the file does not
+     * give one.
+     */
+    public List<double[]> getPointLights() {
+        final List<double[]> copies = new ArrayList<>(pointLights.size());
+        for (double[] light : pointLights) {
+            copies.add(light.clone());
+        }
+        return Collections.unmodifiableList(copies);
+    }
+
+    /**
+     * Gets the material. A scene may be shared by several renderers, so the
+     * material is copied.
+     * @return a copy of the material (Ka, Kd, Ks, s).
      */
     public double[] getMaterial() {
-        return material;
+        return material.clone();
     }
 }
@@ -4,9 +4,13 @@ import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.imageio.ImageIO;
 
+import renderer.event.ResourceLoadEvent;
+
 /**
  * 2D Texture class.
  */
@@ -24,6 +28,12 @@ public class Texture {
      * The image of the texture.
      */
     private final BufferedImage image;
+    /**
+     * The mip levels of the texture, level 0 being the image itself.
+     * Built on the first minified sample, and volatile so that the samples
+     * read it without taking the lock once it is published.
+     */
+    private volatile BufferedImage[] mipLevels;
 
     /**
      * Constructs a new Texture with the content of the image at @path.
@@ -31,9 +41,21 @@ public class Texture {
      * @throws IOException if the image file is not found
      */
     public Texture(String path) throws IOException {
-        image = ImageIO.read(new File(path));
+        final ResourceLoadEvent event = new ResourceLoadEvent();
+        event.begin();
+        final File file = new File(path);
+        image = ImageIO.read(file);
         width = image.getWidth();
         height = image.getHeight();
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = ResourceLoadEvent.TEXTURE;
+            event.path = path;
+            event.bytes = file.length();
+            event.elements = (long) width * height;
+            event.commit();
+        }
     }
 
     /**
@@ -53,4 +75,122 @@ public class Texture {
 
         return new Color (0,0,0);
     }
+
+    /**
+     * Gets the width of the texture.
+     * @return the width in texels
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the texture.
+     * @return the height in texels
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Samples the texture at texture coordinates (u,v) at the given level of
+     * detail, using nearest neighbor interpolation in the closest mip level.
+     * A level of detail of 0 or less samples the full resolution image.
+     * @param u the u texture coordinate
+     * @param v the v texture coordinate
+     * @param lod the level of detail, as computed from the pixel footprint
+     * @return the color of the texture at (u,v)
+     */
+    public Color sample(double u, double v, double lod) {
+        final int level = (int) Math.round(lod);
+        if (level <= 0) {
+            return sample(u, v);
+        }
+        final BufferedImage[] levels = getMipLevels();
+        final BufferedImage mip = levels[Math.min(level, levels.length - 1)];
+        final int x = wrap(u, mip.getWidth());
+        final int y = wrap(v, mip.getHeight());
+        return new Color(mip.getRGB(x, y));
+    }
+
+    /**
+     * Converts a repeated normalized texture coordinate to a texel index.
+     * @param t the texture coordinate
+     * @param size the size of the level along the coordinate
+     * @return the texel index in [0, size - 1]
+     */
+    private static int wrap(double t, int size) {
+        final double fract = t - Math.floor(t);
+        return Math.min(size - 1, (int) (fract * size));
+    }
+
+    /**
+     * Gets the mip chain of the texture, building it on first use.
+     * Only the first call locks; later ones read the published chain.
+     * @return the mip levels
+     */
+    private BufferedImage[] getMipLevels() {
+        final BufferedImage[] built = mipLevels;
+        if (built != null) {
+            return built;
+        }
+        return buildMipLevels();
+    }
+
+    /**
+     * Builds the mip chain once, if no other thread has built it yet.
+     * Each level halves the previous one with a 2x2 box filter, down to 1x1.
+     * @return the mip levels
+     */
+    private synchronized BufferedImage[] buildMipLevels() {
+        if (mipLevels != null) {
+            return mipLevels;
+        }
+        final List<BufferedImage> levels = new ArrayList<>();
+        BufferedImage current = image;
+        levels.add(current);
+        while (current.getWidth() > 1 || current.getHeight() > 1) {
+            current = downsample(current);
+            levels.add(current);
+        }
+        final BufferedImage[] built = levels.toArray(new BufferedImage[0]);
+        mipLevels = built;
+        return built;
+    }
+
+    /**
+     * Halves an image with a 2x2 box filter.
+     * @param src the image to downsample
+     * @return the downsampled image
+     */
+    private static BufferedImage downsample(BufferedImage src) {
+        final int w = Math.max(1, src.getWidth() / 2);
+        final int h = Math.max(1, src.getHeight() / 2);
+        final BufferedImage dst = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        final int byteMask = 0xFF;
+        final int redShift = 16;
+        final int greenShift = 8;
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int r = 0;
+                int g = 0;
+                int b = 0;
+                int n = 0;
+                for (int dy = 0; dy < 2; dy++) {
+                    for (int dx = 0; dx < 2; dx++) {
+                        final int sx = Math.min(2 * x + dx, src.getWidth() - 1);
+                        final int sy = Math.min(2 * y + dy, src.getHeight() - 1);
+                        final int rgb = src.getRGB(sx, sy);
+                        r += (rgb >> redShift) & byteMask;
+                        g += (rgb >> greenShift) & byteMask;
+                        b += rgb & byteMask;
+                        n++;
+                    }
+                }
+                dst.setRGB(x, y,
+                        ((r / n) << redShift) | ((g / n) << greenShift) | (b / n));
+            }
+        }
+        return dst;
+    }
 }
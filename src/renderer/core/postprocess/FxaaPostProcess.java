@@ -0,0 +1,195 @@
+package renderer.core.postprocess;
+
+import java.util.stream.IntStream;
+
+import renderer.controller.ImageWrapper;
+
+/**
+ * Screen-space anti-aliasing in the spirit of FXAA: edges are detected from
+ * the local luminance contrast, and the pixels on an edge are blended with
+ * their neighbor across the edge, by an amount depending on how much the
+ * pixel stands out of its neighborhood. It is much cheaper than multisampling
+ * but has no edge-end search, so long near-horizontal edges are only softened.
+ *
+ * The pass works directly on the bytes of the image and processes the rows
+ * by bands in parallel. Its scratch buffers are reused across frames, so an
+ * instance must not be applied to two images at the same time.
+ */
+public class FxaaPostProcess implements PostProcess {
+
+    /**
+     * The minimal contrast, out of 255, for a pixel to be processed.
+     */
+    private static final int MIN_CONTRAST = 8;
+
+    /**
+     * The minimal contrast relative to the local maximal luminance.
+     */
+    private static final double RELATIVE_CONTRAST = 0.125;
+
+    /**
+     * The amount of sub-pixel aliasing removal.
+     */
+    private static final double SUBPIXEL_QUALITY = 0.75;
+
+    /**
+     * The minimal blend of a pixel detected on an edge.
+     */
+    private static final double EDGE_BLEND = 0.25;
+
+    /**
+     * The number of bytes per pixel of the image (blue, green, red).
+     */
+    private static final int BYTES_PER_PIXEL = 3;
+
+    /**
+     * The luminance weights of the red, green and blue channels, out of 256.
+     */
+    private static final int[] LUMA_WEIGHTS = {77, 150, 29};
+
+    /**
+     * The shift normalizing the luminance weights.
+     */
+    private static final int LUMA_SHIFT = 8;
+
+    /**
+     * The mask of an unsigned byte.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * The weight of the direct neighbors in the neighborhood average.
+     */
+    private static final int DIRECT_WEIGHT = 2;
+
+    /**
+     * The total weight of the neighborhood average.
+     */
+    private static final double NEIGHBORHOOD_WEIGHT = 12;
+
+    /**
+     * The number of bands per available processor.
+     */
+    private static final int BANDS_PER_PROCESSOR = 4;
+
+    /**
+     * A copy of the image bytes, read while the image is written.
+     */
+    private byte[] source = new byte[0];
+
+    /**
+     * The luminance of each pixel.
+     */
+    private int[] luma = new int[0];
+
+    @Override
+    public void apply(ImageWrapper image) {
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final byte[] data = image.getPixelData();
+        if (source.length != data.length) {
+            source = new byte[data.length];
+            luma = new int[width * height];
+        }
+        System.arraycopy(data, 0, source, 0, data.length);
+
+        final int bands = Math.min(height,
+                Runtime.getRuntime().availableProcessors() * BANDS_PER_PROCESSOR);
+        final int rowsPerBand = (height + bands - 1) / bands;
+
+        IntStream.range(0, bands).parallel().forEach(band -> {
+            final int end = Math.min(height, (band + 1) * rowsPerBand);
+            for (int y = band * rowsPerBand; y < end; y++) {
+                computeLuma(y, width);
+            }
+        });
+        IntStream.range(0, bands).parallel().forEach(band -> {
+            final int end = Math.min(height, (band + 1) * rowsPerBand);
+            for (int y = band * rowsPerBand; y < end; y++) {
+                filterRow(data, y, width, height);
+            }
+        });
+    }
+
+    /**
+     * Computes the luminance of a row of the source.
+     *
+     * @param y     the row
+     * @param width the width of the image
+     */
+    private void computeLuma(int y, int width) {
+        for (int x = 0, p = y * width; x < width; x++, p++) {
+            final int o = p * BYTES_PER_PIXEL;
+            final int b = source[o] & BYTE_MASK;
+            final int g = source[o + 1] & BYTE_MASK;
+            final int r = source[o + 2] & BYTE_MASK;
+            luma[p] = (LUMA_WEIGHTS[0] * r + LUMA_WEIGHTS[1] * g
+                    + LUMA_WEIGHTS[2] * b) >> LUMA_SHIFT;
+        }
+    }
+
+    /**
+     * Anti-aliases a row of the image.
+     *
+     * @param data   the bytes of the image, written
+     * @param y      the row
+     * @param width  the width of the image
+     * @param height the height of the image
+     */
+    private void filterRow(byte[] data, int y, int width, int height) {
+        final int up = Math.max(0, y - 1) * width;
+        final int row = y * width;
+        final int down = Math.min(height - 1, y + 1) * width;
+
+        for (int x = 0; x < width; x++) {
+            final int left = Math.max(0, x - 1);
+            final int right = Math.min(width - 1, x + 1);
+
+            final int m = luma[row + x];
+            final int n = luma[up + x];
+            final int s = luma[down + x];
+            final int w = luma[row + left];
+            final int e = luma[row + right];
+
+            final int max = Math.max(m, Math.max(Math.max(n, s), Math.max(w, e)));
+            final int min = Math.min(m, Math.min(Math.min(n, s), Math.min(w, e)));
+            final int range = max - min;
+            if (range < Math.max(MIN_CONTRAST, max * RELATIVE_CONTRAST)) {
+                continue;
+            }
+
+            final int nw = luma[up + left];
+            final int ne = luma[up + right];
+            final int sw = luma[down + left];
+            final int se = luma[down + right];
+
+            // an edge along the rows varies most along the columns
+            final int edgeHorizontal = Math.abs(nw + sw - 2 * w)
+                    + 2 * Math.abs(n + s - 2 * m) + Math.abs(ne + se - 2 * e);
+            final int edgeVertical = Math.abs(nw + ne - 2 * n)
+                    + 2 * Math.abs(w + e - 2 * m) + Math.abs(sw + se - 2 * s);
+
+            final int other;
+            if (edgeHorizontal >= edgeVertical) {
+                other = Math.abs(n - m) >= Math.abs(s - m) ? up + x : down + x;
+            } else {
+                other = Math.abs(w - m) >= Math.abs(e - m) ? row + left : row + right;
+            }
+
+            // sub-pixel aliasing: how much the pixel differs from its neighborhood
+            final double average = (DIRECT_WEIGHT * (n + s + w + e) + nw + ne + sw + se)
+                    / NEIGHBORHOOD_WEIGHT;
+            final double t = Math.min(1.0, Math.abs(average - m) / range);
+            final double smooth = t * t * (3 - 2 * t);
+            final double blend = Math.max(EDGE_BLEND, smooth * smooth * SUBPIXEL_QUALITY);
+
+            final int o = (row + x) * BYTES_PER_PIXEL;
+            final int q = other * BYTES_PER_PIXEL;
+            for (int c = 0; c < BYTES_PER_PIXEL; c++) {
+                final int a = source[o + c] & BYTE_MASK;
+                final int b = source[q + c] & BYTE_MASK;
+                data[o + c] = (byte) Math.round(a + (b - a) * blend);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package renderer.core.postprocess;
+
+import renderer.controller.ImageWrapper;
+
+/**
+ * A PostProcess is a screen-space pass applied to the finished image of a
+ * render, after every geometric pass.
+ */
+public interface PostProcess {
+
+    /**
+     * Applies the pass to the image, in place.
+     *
+     * @param image the rendered image
+     */
+    void apply(ImageWrapper image);
+}
@@ -0,0 +1,162 @@
+package renderer.core.rasterizer;
+
+import renderer.algebra.MathUtils;
+import renderer.core.shader.Fragment;
+import renderer.core.shader.Shader;
+
+/**
+ * The FixedPointRasterizer class extends Rasterizer to rasterize faces from
+ * the sub-pixel projected vertices instead of the rounded ones.
+ * Vertex positions are kept in 28.4 fixed point and the coverage test uses
+ * exact integer edge functions with a strict top-left fill rule, so each
+ * pixel on an edge shared by two faces is shaded exactly once: no seams
+ * and no double shading.
+ */
+public class FixedPointRasterizer extends Rasterizer {
+
+    /**
+     * Whether attributes are interpolated in a perspective correct way.
+     */
+    private final boolean perspectiveCorrect;
+
+    /**
+     * The width of the viewport the face walk is restricted to.
+     */
+    private int viewportWidth = Integer.MAX_VALUE;
+
+    /**
+     * The height of the viewport the face walk is restricted to.
+     */
+    private int viewportHeight = Integer.MAX_VALUE;
+
+    /**
+     * Creates a FixedPointRasterizer with linear interpolation of attributes.
+     *
+     * @param shader the shader to use
+     */
+    public FixedPointRasterizer(Shader shader) {
+        this(shader, false);
+    }
+
+    /**
+     * Creates a FixedPointRasterizer with the given shader.
+     *
+     * @param shader             the shader to use
+     * @param perspectiveCorrect whether attributes are interpolated in a
+     *                           perspective correct way
+     */
+    public FixedPointRasterizer(Shader shader, boolean perspectiveCorrect) {
+        super(shader);
+        this.perspectiveCorrect = perspectiveCorrect;
+    }
+
+    /**
+     * Gets whether the attributes are interpolated in a perspective correct way.
+     *
+     * @return true for perspective correct interpolation
+     */
+    public boolean isPerspectiveCorrect() {
+        return perspectiveCorrect;
+    }
+
+    /**
+     * Restricts the pixels walked by rasterizeFace to a viewport, so that
+     * faces projecting far outside the screen cost only their visible part.
+     * By default the whole bounding box of a face is walked, and the pixels
+     * are clipped by the shader.
+     *
+     * @param width  the width of the viewport
+     * @param height the height of the viewport
+     */
+    public void setViewport(int width, int height) {
+        this.viewportWidth = width;
+        this.viewportHeight = height;
+    }
+
+    /**
+     * Rasterizes the triangular face made of the Fragment v1, v2 and v3.
+     *
+     * @param v1 the first vertex of the triangle
+     * @param v2 the second vertex of the triangle
+     * @param v3 the third vertex of the triangle
+     */
+    @Override
+    public void rasterizeFace(final Fragment v1, final Fragment v2, final Fragment v3) {
+        final TriangleSetup setup = new TriangleSetup();
+        if (!setup.setup(v1, v2, v3)) {
+            return;
+        }
+
+        final Fragment fragment = new Fragment(0, 0);
+        final double invArea = 1.0 / setup.getArea2();
+        final int xmin = Math.max(setup.getXmin(), 0);
+        final int xmax = Math.min(setup.getXmax(), viewportWidth - 1);
+        final int ymax = Math.min(setup.getYmax(), viewportHeight - 1);
+
+        for (int y = Math.max(setup.getYmin(), 0); y <= ymax; y++) {
+            // edge values at the first pixel of the row, then stepped along x
+            long e0 = setup.edgeAtPixel(0, xmin, y);
+            long e1 = setup.edgeAtPixel(1, xmin, y);
+            long e2 = setup.edgeAtPixel(2, xmin, y);
+            final long s0 = setup.pixelStepX(0);
+            final long s1 = setup.pixelStepX(1);
+            final long s2 = setup.pixelStepX(2);
+
+            for (int x = xmin; x <= xmax; x++, e0 += s0, e1 += s1, e2 += s2) {
+                if (!setup.isInside(0, e0) || !setup.isInside(1, e1)
+                        || !setup.isInside(2, e2)) {
+                    continue;
+                }
+                fragment.setPosition(x, y);
+                if (shader.isClipped(fragment)) {
+                    continue;
+                }
+                interpolate(setup, e0 * invArea, e1 * invArea, e2 * invArea, fragment);
+                shader.shade(fragment);
+            }
+        }
+    }
+
+    /**
+     * Interpolates the vertex attributes of the setup triangle into the
+     * fragment, from its barycentric coordinates.
+     *
+     * @param setup the triangle
+     * @param w0    the barycentric coordinate of the first vertex
+     * @param w1    the barycentric coordinate of the second vertex
+     * @param w2    the barycentric coordinate of the third vertex
+     * @param f     the fragment to fill
+     */
+    void interpolate(TriangleSetup setup, double w0, double w1, double w2,
+            Fragment f) {
+        final Fragment a = setup.getVertex(0);
+        final Fragment b = setup.getVertex(1);
+        final Fragment c = setup.getVertex(2);
+
+        double b0 = w0;
+        double b1 = w1;
+        double b2 = w2;
+        if (perspectiveCorrect) {
+            // weighting factor for perspective correct interpolation
+            b0 = w0 / a.getDepth();
+            b1 = w1 / b.getDepth();
+            b2 = w2 / c.getDepth();
+            final double z = 1.0 / (b0 + b1 + b2);
+            b0 *= z;
+            b1 *= z;
+            b2 *= z;
+        }
+
+        final int numAttributes = f.getNumAttributes();
+        for (int i = 0; i < numAttributes; i++) {
+            double interpolated = b0 * a.getAttribute(i)
+                    + b1 * b.getAttribute(i)
+                    + b2 * c.getAttribute(i);
+            if (i >= Fragment.COLOR_R && i <= Fragment.COLOR_B) {
+                // clamp the color between 0 and 1;
+                interpolated = MathUtils.clamp(interpolated, 0., 1.);
+            }
+            f.setAttribute(i, interpolated);
+        }
+    }
+}
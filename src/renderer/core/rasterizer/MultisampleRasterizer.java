@@ -0,0 +1,204 @@
+package renderer.core.rasterizer;
+
+import renderer.core.shader.Fragment;
+import renderer.core.shader.MultisampleBuffer;
+import renderer.core.shader.Shader;
+
+/**
+ * The MultisampleRasterizer class extends FixedPointRasterizer to perform
+ * multisample anti-aliasing. The coverage of a face is evaluated at several
+ * sample positions per pixel, each sample being depth tested on its own in a
+ * MultisampleBuffer, while the shader is called at most once per pixel and
+ * per face. The buffer is then resolved into the screen.
+ *
+ * Without a target buffer, faces are rasterized with one sample per pixel.
+ */
+public class MultisampleRasterizer extends FixedPointRasterizer {
+
+    /**
+     * The sample offsets for 2 samples, in 1/16 pixel, as (x, y) pairs.
+     */
+    private static final int[] PATTERN_2 = {4, 4, -4, -4};
+
+    /**
+     * The sample offsets for 4 samples (rotated grid), in 1/16 pixel.
+     */
+    private static final int[] PATTERN_4 = {-2, -6, 6, -2, -6, 2, 2, 6};
+
+    /**
+     * The sample offsets for 8 samples, in 1/16 pixel.
+     */
+    private static final int[] PATTERN_8 = {
+        1, -3, -1, 3, 5, 1, -3, -5, -5, 5, -7, -1, 3, 7, 7, -7
+    };
+
+    /**
+     * The sample offsets used by this rasterizer.
+     */
+    private final int[] pattern;
+
+    /**
+     * The number of samples per pixel.
+     */
+    private final int samples;
+
+    /**
+     * The buffer the samples are written to.
+     */
+    private MultisampleBuffer target;
+
+    /**
+     * The depth of the current face at each sample of the current pixel.
+     */
+    private final double[] sampleDepths;
+
+    /**
+     * Creates a MultisampleRasterizer with the given shader.
+     *
+     * @param shader  the shader to use
+     * @param samples the number of samples per pixel: 2, 4 or 8
+     */
+    public MultisampleRasterizer(Shader shader, int samples) {
+        super(shader);
+        this.pattern = patternFor(samples);
+        this.samples = samples;
+        this.sampleDepths = new double[samples];
+    }
+
+    /**
+     * Gets the sample pattern for a number of samples.
+     *
+     * @param samples the number of samples
+     * @return the sample offsets
+     */
+    private static int[] patternFor(int samples) {
+        switch (samples) {
+            case 2:
+                return PATTERN_2;
+            case 4:
+                return PATTERN_4;
+            case 8:
+                return PATTERN_8;
+            default:
+                throw new IllegalArgumentException(
+                        samples + " samples per pixel is not supported.");
+        }
+    }
+
+    /**
+     * Gets the number of samples per pixel.
+     *
+     * @return the number of samples
+     */
+    public int getSamples() {
+        return samples;
+    }
+
+    /**
+     * Sets the buffer the samples are written to.
+     *
+     * @param target the multisample buffer, or null to rasterize with one
+     *               sample per pixel directly through the shader
+     */
+    public void setTarget(MultisampleBuffer target) {
+        this.target = target;
+    }
+
+    /**
+     * Rasterizes the triangular face made of the Fragment v1, v2 and v3.
+     *
+     * @param v1 the first vertex of the triangle
+     * @param v2 the second vertex of the triangle
+     * @param v3 the third vertex of the triangle
+     */
+    @Override
+    public void rasterizeFace(final Fragment v1, final Fragment v2, final Fragment v3) {
+        if (target == null) {
+            super.rasterizeFace(v1, v2, v3);
+            return;
+        }
+        final TriangleSetup setup = new TriangleSetup();
+        // a face covering no pixel center may still cover some samples
+        if (!setup.setup(v1, v2, v3) && setup.getArea2() == 0) {
+            return;
+        }
+
+        final Fragment fragment = new Fragment(0, 0);
+        final double invArea = 1.0 / setup.getArea2();
+        final double depth0 = setup.getVertex(0).getDepth();
+        final double depth1 = setup.getVertex(1).getDepth();
+        final double depth2 = setup.getVertex(2).getDepth();
+
+        // samples lie within half a pixel of the centers
+        final int xmin = Math.max(0, setup.getXmin() - 1);
+        final int ymin = Math.max(0, setup.getYmin() - 1);
+        final int xmax = Math.min(target.getWidth() - 1, setup.getXmax() + 1);
+        final int ymax = Math.min(target.getHeight() - 1, setup.getYmax() + 1);
+
+        for (int y = ymin; y <= ymax; y++) {
+            for (int x = xmin; x <= xmax; x++) {
+                final long px = (long) x << TriangleSetup.SUBPIXEL_BITS;
+                final long py = (long) y << TriangleSetup.SUBPIXEL_BITS;
+
+                int coverage = 0;
+                int firstSample = -1;
+                for (int s = 0; s < samples; s++) {
+                    final long sx = px + pattern[2 * s];
+                    final long sy = py + pattern[2 * s + 1];
+                    final long e0 = setup.edge(0, sx, sy);
+                    final long e1 = setup.edge(1, sx, sy);
+                    final long e2 = setup.edge(2, sx, sy);
+                    if (setup.isInside(0, e0) && setup.isInside(1, e1)
+                            && setup.isInside(2, e2)) {
+                        coverage |= 1 << s;
+                        sampleDepths[s] = (e0 * depth0 + e1 * depth1 + e2 * depth2)
+                                * invArea;
+                        if (firstSample < 0) {
+                            firstSample = s;
+                        }
+                    }
+                }
+                if (coverage == 0) {
+                    continue;
+                }
+                final int passed = target.testAndWriteDepth(x, y, coverage, sampleDepths);
+                if (passed == 0) {
+                    continue;
+                }
+
+                // shade once, at the pixel center if it is inside the face,
+                // otherwise at the first covered sample
+                long sx = px;
+                long sy = py;
+                if (!isCenterInside(setup, px, py)) {
+                    sx += pattern[2 * firstSample];
+                    sy += pattern[2 * firstSample + 1];
+                }
+                fragment.setPosition(x, y);
+                interpolate(setup,
+                        setup.edge(0, sx, sy) * invArea,
+                        setup.edge(1, sx, sy) * invArea,
+                        setup.edge(2, sx, sy) * invArea,
+                        fragment);
+                target.writeColor(x, y, passed, shader.computeColor(fragment));
+            }
+        }
+    }
+
+    /**
+     * Tests whether the center of a pixel is inside the face.
+     *
+     * @param setup the triangle
+     * @param px    the fixed-point x-coordinate of the center
+     * @param py    the fixed-point y-coordinate of the center
+     * @return true if the center is covered
+     */
+    private static boolean isCenterInside(TriangleSetup setup, long px, long py) {
+        for (int e = 0; e < 3; e++) {
+            if (!setup.isInside(e, setup.edge(e, px, py))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
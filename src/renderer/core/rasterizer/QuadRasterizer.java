@@ -0,0 +1,92 @@
+package renderer.core.rasterizer;
+
+import renderer.core.shader.Fragment;
+import renderer.core.shader.Quad;
+import renderer.core.shader.Shader;
+
+/**
+ * The QuadRasterizer class extends FixedPointRasterizer to generate the
+ * fragments of a face by blocks of 2x2 pixels aligned on even coordinates.
+ * Every lane of a quad touching the face is interpolated, including the
+ * helper lanes outside of it, so that the quad carries the screen-space
+ * derivatives of the texture coordinates and of the depth. Quads fully
+ * outside the face are skipped. The quads are passed to Shader::shadeQuad().
+ */
+public class QuadRasterizer extends FixedPointRasterizer {
+
+    /**
+     * Creates a QuadRasterizer with the given shader.
+     *
+     * @param shader the shader to use
+     */
+    public QuadRasterizer(Shader shader) {
+        super(shader);
+    }
+
+    /**
+     * Creates a QuadRasterizer with the given shader.
+     *
+     * @param shader             the shader to use
+     * @param perspectiveCorrect whether attributes are interpolated in a
+     *                           perspective correct way
+     */
+    public QuadRasterizer(Shader shader, boolean perspectiveCorrect) {
+        super(shader, perspectiveCorrect);
+    }
+
+    /**
+     * Rasterizes the triangular face made of the Fragment v1, v2 and v3.
+     *
+     * @param v1 the first vertex of the triangle
+     * @param v2 the second vertex of the triangle
+     * @param v3 the third vertex of the triangle
+     */
+    @Override
+    public void rasterizeFace(final Fragment v1, final Fragment v2, final Fragment v3) {
+        final TriangleSetup setup = new TriangleSetup();
+        if (!setup.setup(v1, v2, v3)) {
+            return;
+        }
+
+        final Quad quad = new Quad();
+        final double invArea = 1.0 / setup.getArea2();
+        // align the quads on even pixel coordinates
+        final int xstart = setup.getXmin() & ~1;
+        final int ystart = setup.getYmin() & ~1;
+        final long[] edges = new long[3 * Quad.SIZE];
+
+        for (int y = ystart; y <= setup.getYmax(); y += 2) {
+            for (int x = xstart; x <= setup.getXmax(); x += 2) {
+                int mask = 0;
+                for (int lane = 0; lane < Quad.SIZE; lane++) {
+                    final int lx = x + (lane & 1);
+                    final int ly = y + (lane >> 1);
+                    boolean inside = true;
+                    for (int e = 0; e < 3; e++) {
+                        final long value = setup.edgeAtPixel(e, lx, ly);
+                        edges[3 * lane + e] = value;
+                        inside &= setup.isInside(e, value);
+                    }
+                    if (inside) {
+                        mask |= 1 << lane;
+                    }
+                }
+                if (mask == 0) {
+                    continue;
+                }
+
+                quad.setPosition(x, y);
+                quad.setCoverage(mask);
+                for (int lane = 0; lane < Quad.SIZE; lane++) {
+                    interpolate(setup,
+                            edges[3 * lane] * invArea,
+                            edges[3 * lane + 1] * invArea,
+                            edges[3 * lane + 2] * invArea,
+                            quad.getFragment(lane));
+                }
+                quad.computeDerivatives();
+                shader.shadeQuad(quad);
+            }
+        }
+    }
+}
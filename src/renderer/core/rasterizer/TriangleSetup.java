@@ -0,0 +1,300 @@
+package renderer.core.rasterizer;
+
+import renderer.core.shader.Fragment;
+
+/**
+ * The TriangleSetup class holds the fixed-point edge equations of a triangle.
+ * Vertex positions are snapped to a 28.4 fixed-point grid and the edge
+ * functions are evaluated in exact integer arithmetic, following a strict
+ * top-left fill rule: a pixel center lying exactly on an edge shared by two
+ * triangles is covered by exactly one of them.
+ *
+ * Pixel centers are located at integer pixel coordinates, as in the rest of
+ * the pipeline.
+ */
+final class TriangleSetup {
+
+    /**
+     * The number of fractional bits of the fixed-point coordinates.
+     */
+    static final int SUBPIXEL_BITS = 4;
+
+    /**
+     * The fixed-point value of one pixel.
+     */
+    static final int SUBPIXEL_ONE = 1 << SUBPIXEL_BITS;
+
+    /**
+     * The vertices of the triangle, in counter-clockwise order
+     * (positive signed area).
+     */
+    private final Fragment[] vertices = new Fragment[3];
+
+    /**
+     * The fixed-point x-coordinates of the vertices.
+     */
+    private final long[] fx = new long[3];
+
+    /**
+     * The fixed-point y-coordinates of the vertices.
+     */
+    private final long[] fy = new long[3];
+
+    /**
+     * For edge i (opposite to vertex i): the increment of the edge function
+     * for a step of one fixed-point unit along x.
+     */
+    private final long[] stepX = new long[3];
+
+    /**
+     * For edge i (opposite to vertex i): the increment of the edge function
+     * for a step of one fixed-point unit along y.
+     */
+    private final long[] stepY = new long[3];
+
+    /**
+     * For edge i: the bias implementing the top-left fill rule
+     * (0 for top or left edges, -1 otherwise).
+     */
+    private final long[] bias = new long[3];
+
+    /**
+     * Twice the signed area of the triangle, in squared fixed-point units.
+     */
+    private long area2;
+
+    /**
+     * The pixel bounding box of the triangle.
+     */
+    private int xmin;
+    /** The pixel bounding box of the triangle. */
+    private int ymin;
+    /** The pixel bounding box of the triangle. */
+    private int xmax;
+    /** The pixel bounding box of the triangle. */
+    private int ymax;
+
+    /**
+     * Creates an empty setup, to be filled by {@link #setup}.
+     */
+    TriangleSetup() {
+    }
+
+    /**
+     * Converts a sub-pixel coordinate to fixed point.
+     *
+     * @param value the coordinate in pixels
+     * @return the coordinate in fixed-point units
+     */
+    static long toFixed(double value) {
+        return Math.round(value * SUBPIXEL_ONE);
+    }
+
+    /**
+     * Computes the edge equations of the triangle v1, v2, v3.
+     *
+     * @param v1 the first vertex of the triangle
+     * @param v2 the second vertex of the triangle
+     * @param v3 the third vertex of the triangle
+     * @return false if the triangle is degenerate and covers no pixel
+     */
+    boolean setup(Fragment v1, Fragment v2, Fragment v3) {
+        vertices[0] = v1;
+        vertices[1] = v2;
+        vertices[2] = v3;
+        for (int i = 0; i < 3; i++) {
+            fx[i] = toFixed(vertices[i].getSubPixelX());
+            fy[i] = toFixed(vertices[i].getSubPixelY());
+        }
+
+        area2 = (fx[1] - fx[0]) * (fy[2] - fy[0]) - (fy[1] - fy[0]) * (fx[2] - fx[0]);
+        if (area2 == 0) {
+            return false;
+        }
+        if (area2 < 0) {
+            // enforce a single winding so that the fill rule is consistent
+            swap(1, 2);
+            area2 = -area2;
+        }
+
+        for (int i = 0; i < 3; i++) {
+            final int a = (i + 1) % 3;
+            final int b = (i + 2) % 3;
+            final long dx = fx[b] - fx[a];
+            final long dy = fy[b] - fy[a];
+            stepX[i] = -dy;
+            stepY[i] = dx;
+            // y points down the screen: the interior is below a top edge
+            // and on the right of a left edge
+            final boolean topLeft = (dy == 0 && dx > 0) || dy < 0;
+            bias[i] = topLeft ? 0 : -1;
+        }
+
+        xmin = ceilToPixel(Math.min(fx[0], Math.min(fx[1], fx[2])));
+        ymin = ceilToPixel(Math.min(fy[0], Math.min(fy[1], fy[2])));
+        xmax = floorToPixel(Math.max(fx[0], Math.max(fx[1], fx[2])));
+        ymax = floorToPixel(Math.max(fy[0], Math.max(fy[1], fy[2])));
+        return xmin <= xmax && ymin <= ymax;
+    }
+
+    /**
+     * Swaps two vertices of the triangle.
+     *
+     * @param i the first vertex index
+     * @param j the second vertex index
+     */
+    private void swap(int i, int j) {
+        final Fragment f = vertices[i];
+        vertices[i] = vertices[j];
+        vertices[j] = f;
+        long t = fx[i];
+        fx[i] = fx[j];
+        fx[j] = t;
+        t = fy[i];
+        fy[i] = fy[j];
+        fy[j] = t;
+    }
+
+    /**
+     * Rounds a fixed-point coordinate up to the next pixel center.
+     *
+     * @param value the fixed-point coordinate
+     * @return the pixel coordinate
+     */
+    private static int ceilToPixel(long value) {
+        return (int) -Math.floorDiv(-value, (long) SUBPIXEL_ONE);
+    }
+
+    /**
+     * Rounds a fixed-point coordinate down to the previous pixel center.
+     *
+     * @param value the fixed-point coordinate
+     * @return the pixel coordinate
+     */
+    private static int floorToPixel(long value) {
+        return (int) Math.floorDiv(value, (long) SUBPIXEL_ONE);
+    }
+
+    /**
+     * Evaluates the edge function of edge i at a fixed-point position,
+     * without the fill rule bias.
+     *
+     * @param i the edge index (opposite to vertex i)
+     * @param px the fixed-point x-coordinate
+     * @param py the fixed-point y-coordinate
+     * @return the edge function value, positive inside the triangle
+     */
+    long edge(int i, long px, long py) {
+        final int a = (i + 1) % 3;
+        return stepX[i] * (px - fx[a]) + stepY[i] * (py - fy[a]);
+    }
+
+    /**
+     * Evaluates the edge function of edge i at the center of a pixel,
+     * without the fill rule bias.
+     *
+     * @param i the edge index
+     * @param x the pixel x-coordinate
+     * @param y the pixel y-coordinate
+     * @return the edge function value
+     */
+    long edgeAtPixel(int i, int x, int y) {
+        return edge(i, (long) x << SUBPIXEL_BITS, (long) y << SUBPIXEL_BITS);
+    }
+
+    /**
+     * Tests whether an edge value is inside edge i with the top-left rule.
+     *
+     * @param i the edge index
+     * @param value the edge function value
+     * @return true if the sample is covered by the edge
+     */
+    boolean isInside(int i, long value) {
+        return value + bias[i] >= 0;
+    }
+
+    /**
+     * Gets the increment of edge i for a one-pixel step along x.
+     *
+     * @param i the edge index
+     * @return the increment
+     */
+    long pixelStepX(int i) {
+        return stepX[i] << SUBPIXEL_BITS;
+    }
+
+    /**
+     * Gets the increment of edge i for a one-pixel step along y.
+     *
+     * @param i the edge index
+     * @return the increment
+     */
+    long pixelStepY(int i) {
+        return stepY[i] << SUBPIXEL_BITS;
+    }
+
+    /**
+     * Gets the fill rule bias of edge i.
+     *
+     * @param i the edge index
+     * @return 0 for a top or left edge, -1 otherwise
+     */
+    long getBias(int i) {
+        return bias[i];
+    }
+
+    /**
+     * Gets twice the area of the triangle, in squared fixed-point units.
+     *
+     * @return twice the area, strictly positive
+     */
+    long getArea2() {
+        return area2;
+    }
+
+    /**
+     * Gets the vertex i, in the winding order of the setup.
+     *
+     * @param i the vertex index
+     * @return the vertex
+     */
+    Fragment getVertex(int i) {
+        return vertices[i];
+    }
+
+    /**
+     * Gets the first pixel column of the bounding box.
+     *
+     * @return the minimal x
+     */
+    int getXmin() {
+        return xmin;
+    }
+
+    /**
+     * Gets the first pixel row of the bounding box.
+     *
+     * @return the minimal y
+     */
+    int getYmin() {
+        return ymin;
+    }
+
+    /**
+     * Gets the last pixel column of the bounding box.
+     *
+     * @return the maximal x
+     */
+    int getXmax() {
+        return xmax;
+    }
+
+    /**
+     * Gets the last pixel row of the bounding box.
+     *
+     * @return the maximal y
+     */
+    int getYmax() {
+        return ymax;
+    }
+}
@@ -0,0 +1,208 @@
+package renderer.core.rasterizer;
+
+import renderer.algebra.MathUtils;
+import renderer.core.shader.Fragment;
+import renderer.core.shader.Shader;
+
+/**
+ * The VectorizedRasterizer class extends FixedPointRasterizer to process the
+ * pixels of a row by blocks of {@link #LANES} pixels.
+ * For each block, the three edge functions are evaluated for all the lanes at
+ * once into a coverage mask, and the attributes (depth, color, normal, uv)
+ * are interpolated lane-wise from their screen-space plane equations.
+ * The lane loops are straight-line arithmetic over primitive arrays, which the
+ * JIT compiles to SIMD instructions, and blocks with an empty coverage mask
+ * are skipped without touching any attribute.
+ *
+ * Faces narrower than a block, and perspective correct interpolation, fall
+ * back to the scalar FixedPointRasterizer.
+ */
+public class VectorizedRasterizer extends FixedPointRasterizer {
+
+    /**
+     * The number of pixels processed per block.
+     */
+    public static final int LANES = 8;
+
+    /**
+     * The coverage mask of a block where all lanes are covered.
+     */
+    private static final int FULL_MASK = (1 << LANES) - 1;
+
+    /**
+     * The edge function values of the lanes of the current block.
+     */
+    private final long[][] edges = new long[3][LANES];
+
+    /**
+     * The interpolated attributes of the lanes of the current block.
+     */
+    private final double[][] lanes;
+
+    /**
+     * The value of each attribute at the first pixel of the current block.
+     */
+    private final double[] base;
+
+    /**
+     * The increment of each attribute for a one-pixel step along x.
+     */
+    private final double[] gradientX;
+
+    /**
+     * The increment of each attribute for a one-pixel step along y.
+     */
+    private final double[] gradientY;
+
+    /**
+     * Creates a VectorizedRasterizer with the given shader.
+     *
+     * @param shader the shader to use
+     */
+    public VectorizedRasterizer(Shader shader) {
+        super(shader);
+        final int numAttributes = new Fragment(0, 0).getNumAttributes();
+        lanes = new double[numAttributes][LANES];
+        base = new double[numAttributes];
+        gradientX = new double[numAttributes];
+        gradientY = new double[numAttributes];
+    }
+
+    /**
+     * Rasterizes the triangular face made of the Fragment v1, v2 and v3.
+     *
+     * @param v1 the first vertex of the triangle
+     * @param v2 the second vertex of the triangle
+     * @param v3 the third vertex of the triangle
+     */
+    @Override
+    public void rasterizeFace(final Fragment v1, final Fragment v2, final Fragment v3) {
+        final TriangleSetup setup = new TriangleSetup();
+        if (!setup.setup(v1, v2, v3)) {
+            return;
+        }
+        if (isPerspectiveCorrect() || setup.getXmax() - setup.getXmin() + 1 < LANES) {
+            // not worth a block: use the scalar path
+            super.rasterizeFace(v1, v2, v3);
+            return;
+        }
+
+        final int xmin = setup.getXmin();
+        final int ymin = setup.getYmin();
+        setupPlanes(setup, xmin, ymin);
+
+        final Fragment fragment = new Fragment(0, 0);
+        final int numAttributes = base.length;
+
+        for (int y = ymin; y <= setup.getYmax(); y++) {
+            for (int x = xmin; x <= setup.getXmax(); x += LANES) {
+                int mask = coverage(setup, x, y);
+                if (x + LANES - 1 > setup.getXmax()) {
+                    // discard the lanes past the bounding box
+                    mask &= FULL_MASK >>> (x + LANES - 1 - setup.getXmax());
+                }
+                if (mask == 0) {
+                    continue;
+                }
+                interpolateBlock(x - xmin, y - ymin);
+
+                for (int k = 0; k < LANES; k++) {
+                    if ((mask & (1 << k)) == 0) {
+                        continue;
+                    }
+                    fragment.setPosition(x + k, y);
+                    if (shader.isClipped(fragment)) {
+                        continue;
+                    }
+                    for (int i = 0; i < numAttributes; i++) {
+                        double value = lanes[i][k];
+                        if (i >= Fragment.COLOR_R && i <= Fragment.COLOR_B) {
+                            // clamp the color between 0 and 1;
+                            value = MathUtils.clamp(value, 0., 1.);
+                        }
+                        fragment.setAttribute(i, value);
+                    }
+                    shader.shade(fragment);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the coverage mask of the block starting at pixel (x, y).
+     * Bit k of the mask is set if the pixel (x + k, y) is inside the face.
+     *
+     * @param setup the triangle
+     * @param x     the first pixel column of the block
+     * @param y     the pixel row of the block
+     * @return the coverage mask of the block
+     */
+    private int coverage(TriangleSetup setup, int x, int y) {
+        for (int e = 0; e < 3; e++) {
+            final long start = setup.edgeAtPixel(e, x, y) + setup.getBias(e);
+            final long step = setup.pixelStepX(e);
+            final long[] lane = edges[e];
+            for (int k = 0; k < LANES; k++) {
+                lane[k] = start + k * step;
+            }
+        }
+        final long[] e0 = edges[0];
+        final long[] e1 = edges[1];
+        final long[] e2 = edges[2];
+        int mask = 0;
+        for (int k = 0; k < LANES; k++) {
+            // the sign bit is set for the lanes outside at least one edge
+            final long outside = (e0[k] | e1[k] | e2[k]) >>> (Long.SIZE - 1);
+            mask |= (int) (outside ^ 1) << k;
+        }
+        return mask;
+    }
+
+    /**
+     * Computes the screen-space plane equation of every attribute, relative
+     * to the pixel (x0, y0).
+     *
+     * @param setup the triangle
+     * @param x0    the origin pixel column
+     * @param y0    the origin pixel row
+     */
+    private void setupPlanes(TriangleSetup setup, int x0, int y0) {
+        final double invArea = 1.0 / setup.getArea2();
+        final double[] w = new double[3];
+        final double[] wx = new double[3];
+        final double[] wy = new double[3];
+        for (int e = 0; e < 3; e++) {
+            w[e] = setup.edgeAtPixel(e, x0, y0) * invArea;
+            wx[e] = setup.pixelStepX(e) * invArea;
+            wy[e] = setup.pixelStepY(e) * invArea;
+        }
+        final Fragment a = setup.getVertex(0);
+        final Fragment b = setup.getVertex(1);
+        final Fragment c = setup.getVertex(2);
+        for (int i = 0; i < base.length; i++) {
+            final double va = a.getAttribute(i);
+            final double vb = b.getAttribute(i);
+            final double vc = c.getAttribute(i);
+            base[i] = w[0] * va + w[1] * vb + w[2] * vc;
+            gradientX[i] = wx[0] * va + wx[1] * vb + wx[2] * vc;
+            gradientY[i] = wy[0] * va + wy[1] * vb + wy[2] * vc;
+        }
+    }
+
+    /**
+     * Interpolates every attribute for the lanes of a block.
+     *
+     * @param dx the column of the block relative to the plane origin
+     * @param dy the row of the block relative to the plane origin
+     */
+    private void interpolateBlock(int dx, int dy) {
+        for (int i = 0; i < base.length; i++) {
+            final double start = base[i] + dx * gradientX[i] + dy * gradientY[i];
+            final double step = gradientX[i];
+            final double[] lane = lanes[i];
+            for (int k = 0; k < LANES; k++) {
+                lane[k] = start + k * step;
+            }
+        }
+    }
+}
@@ -1,16 +1,51 @@
 package renderer.core.shader;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
 import renderer.algebra.Matrix;
+import renderer.controller.FrameStatistics;
 
 /**
  * The DepthBuffer class implements a DepthBuffer and its pass test.
+ *
+ * The depths are kept either in the heap, or off heap in a direct buffer for
+ * very large frames: the garbage collector then never scans nor moves them,
+ * and their memory is given back once the buffer is unreachable.
  */
 public class DepthBuffer {
     /**
-     * The buffer of depth values.
+     * The number of bands of rows per available processor of the parallel
+     * passes over the buffer.
+     */
+    private static final int BANDS_PER_PROCESSOR = 4;
+
+    /**
+     * The number of depths of the block copied in bulk to clear the depths
+     * off heap.
+     */
+    private static final int CLEAR_BLOCK = 4096;
+
+    /**
+     * A block of infinite depths, copied in bulk to clear the depths off
+     * heap. It is never modified.
+     */
+    private static final double[] INFINITIES = createInfinities();
+
+    /**
+     * The buffer of depth values, or null when they are off heap.
      */
     private Matrix buffer;
 
+    /**
+     * The depth values off heap, row after row, or null when they are in the
+     * heap.
+     */
+    private DoubleBuffer direct;
+
     /**
      * The width the buffer.
      */
@@ -20,6 +55,11 @@ public class DepthBuffer {
      */
     private int height;
 
+    /**
+     * The statistics counting the tests, or null when they are not counted.
+     */
+    private FrameStatistics statistics;
+
     /**
      * Constructs a DepthBuffer of size width x height.
      * The buffer is initially cleared.
@@ -28,22 +68,116 @@ public class DepthBuffer {
      * @param height the height of the buffer
      */
     public DepthBuffer(int width, int height) {
-        buffer = new Matrix(height, width);
+        this(width, height, false);
+    }
+
+    /**
+     * Constructs a DepthBuffer of size width x height, in the heap or off
+     * heap. The buffer is initially cleared.
+     *
+     * @param width   the width of the buffer
+     * @param height  the height of the buffer
+     * @param offHeap true to keep the depths off heap
+     * @throws IllegalArgumentException if an off heap buffer of this size
+     *                                  cannot be allocated
+     */
+    public DepthBuffer(int width, int height, boolean offHeap) {
         this.width = width;
         this.height = height;
+        allocate(offHeap);
         clear();
     }
 
+    /**
+     * Allocates the depth values for the current size.
+     *
+     * @param offHeap true to allocate them off heap
+     * @throws IllegalArgumentException if an off heap buffer of this size
+     *                                  cannot be allocated
+     */
+    private void allocate(boolean offHeap) {
+        if (!offHeap) {
+            buffer = new Matrix(height, width);
+            direct = null;
+            return;
+        }
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Invalid depth buffer size "
+                    + width + "x" + height);
+        }
+        final int bytes;
+        try {
+            bytes = Math.multiplyExact(Math.multiplyExact(width, height), Double.BYTES);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Depth buffer of " + width + "x"
+                    + height + " too large to be kept off heap", e);
+        }
+        direct = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder())
+                .asDoubleBuffer();
+        buffer = null;
+    }
+
+    /**
+     * Tells whether the depths are kept off heap.
+     *
+     * @return true if the depths are in a direct buffer
+     */
+    public boolean isOffHeap() {
+        return direct != null;
+    }
+
     /**
      * Clears the buffer to infinite depth for all fragments.
      */
     public void clear() {
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                buffer.set(i, j, Double.POSITIVE_INFINITY);
+        if (direct != null) {
+            clearDirect(0, direct.capacity());
+        } else {
+            buffer.fill(Double.POSITIVE_INFINITY);
+        }
+    }
+
+    /**
+     * Clears a band of rows to infinite depth.
+     *
+     * @param firstRow the first row of the band
+     * @param rows     the number of rows of the band
+     */
+    public void clearRows(int firstRow, int rows) {
+        if (direct != null) {
+            clearDirect(firstRow * width, rows * width);
+            return;
+        }
+        for (int y = firstRow; y < firstRow + rows; y++) {
+            for (int x = 0; x < width; x++) {
+                setDepth(x, y, Double.POSITIVE_INFINITY);
             }
         }
+    }
+
+    /**
+     * Creates the block of infinite depths.
+     *
+     * @return the block
+     */
+    private static double[] createInfinities() {
+        final double[] block = new double[CLEAR_BLOCK];
+        Arrays.fill(block, Double.POSITIVE_INFINITY);
+        return block;
+    }
 
+    /**
+     * Clears a range of the depths off heap, copying blocks of infinite
+     * depths in bulk rather than writing the depths one by one.
+     *
+     * @param from  the index of the first depth
+     * @param count the number of depths
+     */
+    private void clearDirect(int from, int count) {
+        final int end = from + count;
+        for (int i = from; i < end; i += CLEAR_BLOCK) {
+            direct.put(i, INFINITIES, 0, Math.min(CLEAR_BLOCK, end - i));
+        }
     }
 
     /**
@@ -57,6 +191,15 @@ public class DepthBuffer {
             && f.getY() >= 0 && f.getY() < height;
     }
 
+    /**
+     * Sets the statistics counting the depth tests.
+     *
+     * @param frameStatistics the statistics, or null to stop counting
+     */
+    public void setStatistics(FrameStatistics frameStatistics) {
+        statistics = frameStatistics;
+    }
+
     /**
      * Test if a fragment passes the DepthBuffer test, i.e. is the fragment the
      * closest at its position.
@@ -65,6 +208,19 @@ public class DepthBuffer {
      * @return true if the fragment passes the test, false otherwise
      */
     public boolean testFragment(Fragment f) {
+        if (statistics != null) {
+            return statistics.countDepthTest(passesTest(f));
+        }
+        return passesTest(f);
+    }
+
+    /**
+     * Test if a fragment is the closest at its position.
+     *
+     * @param f the fragment to test
+     * @return true if the fragment passes the test, false otherwise
+     */
+    private boolean passesTest(Fragment f) {
         if (isWithinBounds(f)) {
             // TODO
             return false;
@@ -85,7 +241,125 @@ public class DepthBuffer {
     }
 
     /**
-     * Resize the buffer if it's needed.
+     * Gets the depth stored at a position.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the depth, infinite if nothing was written
+     */
+    public double getDepth(int x, int y) {
+        if (direct != null) {
+            return direct.get(y * width + x);
+        }
+        return buffer.get(y, x);
+    }
+
+    /**
+     * Stores a depth at a position.
+     *
+     * @param x     the x coordinate
+     * @param y     the y coordinate
+     * @param value the depth
+     */
+    public void setDepth(int x, int y, double value) {
+        if (direct != null) {
+            direct.put(y * width + x, value);
+        } else {
+            buffer.set(y, x, value);
+        }
+    }
+
+    /**
+     * Copies the depths of a buffer of the same size.
+     *
+     * @param source the buffer copied
+     * @throws IllegalArgumentException if the sizes differ
+     */
+    public void copyFrom(DepthBuffer source) {
+        if (source.width != width || source.height != height) {
+            throw new IllegalArgumentException("Cannot copy a depth buffer of "
+                    + source.width + "x" + source.height + " into "
+                    + width + "x" + height);
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                setDepth(x, y, source.getDepth(x, y));
+            }
+        }
+    }
+
+    /**
+     * Computes the range of the depths written since the buffer was cleared,
+     * ignoring the cleared positions at infinite depth. The bands of rows are
+     * reduced in parallel, then their ranges are merged.
+     *
+     * @return the nearest and the farthest depths, or null if no depth was
+     *         written
+     */
+    public double[] getDepthRange() {
+        final int bands = getBandCount(height);
+        final int rowsPerBand = bands == 0 ? 0 : (height + bands - 1) / bands;
+        final double[] mins = new double[bands];
+        final double[] maxs = new double[bands];
+        IntStream.range(0, bands).parallel().forEach(band -> {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            final int end = Math.min(height, (band + 1) * rowsPerBand);
+            for (int y = band * rowsPerBand; y < end; y++) {
+                for (int x = 0; x < width; x++) {
+                    final double d = getDepth(x, y);
+                    // also skips NaN
+                    if (d < Double.POSITIVE_INFINITY) {
+                        min = Math.min(min, d);
+                        max = Math.max(max, d);
+                    }
+                }
+            }
+            mins[band] = min;
+            maxs[band] = max;
+        });
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int band = 0; band < bands; band++) {
+            min = Math.min(min, mins[band]);
+            max = Math.max(max, maxs[band]);
+        }
+        return min > max ? null : new double[] {min, max};
+    }
+
+    /**
+     * Gets the number of bands of rows the parallel passes over a buffer
+     * split its rows into.
+     *
+     * @param rows the number of rows
+     * @return the number of bands, at most the number of rows
+     */
+    public static int getBandCount(int rows) {
+        return Math.min(rows, Runtime.getRuntime().availableProcessors()
+                * BANDS_PER_PROCESSOR);
+    }
+
+    /**
+     * Gets the width of the buffer.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the buffer.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Resize the buffer if it's needed, keeping it in the heap or off heap.
      *
      * @param nWidth  the new width
      * @param nHeight the new height
@@ -97,7 +371,7 @@ public class DepthBuffer {
         }
         width = nWidth;
         height = nHeight;
-        buffer = new Matrix(height, width);
+        allocate(isOffHeap());
         clear();
     }
 
@@ -0,0 +1,117 @@
+package renderer.core.shader;
+
+import java.util.stream.IntStream;
+
+import renderer.controller.ColorMapFactory;
+import renderer.controller.ColorMapFactory.Maps;
+import renderer.controller.ImageWrapper;
+import renderer.controller.Renderer;
+import renderer.core.shader.colormap.ColorMap;
+
+/**
+ * Shader that shows the depth of the visible faces through a color map: the
+ * faces only fill the depth buffer, and the resolve pass colors each covered
+ * pixel from its depth, the nearest depth of the image taking the first color
+ * of the map and the farthest the last one.
+ */
+public class DepthShader extends Shader {
+
+    /**
+     * The number of bytes per pixel of the image (blue, green, red).
+     */
+    private static final int BYTES_PER_PIXEL = 3;
+
+    /**
+     * The depth buffer.
+     */
+    private DepthBuffer depth;
+
+    /**
+     * The color map of the depths.
+     */
+    private ColorMap colorMap = ColorMapFactory.create(Maps.VERIDIS);
+
+    /**
+     * Keeps the fragment depth if it is the nearest at its position.
+     * @param fragment the fragment to shade
+     */
+    @Override
+    public void shade(Fragment fragment) {
+        if (depth.testFragment(fragment)) {
+            depth.writeFragment(fragment);
+        }
+    }
+
+    @Override
+    public void reset() {
+        depth.clear();
+    }
+
+    @Override
+    public boolean supportsMultisampling() {
+        return true;
+    }
+
+    @Override
+    public void init(Renderer renderer, ImageWrapper newScreen) {
+        super.init(renderer, newScreen);
+        this.depth = frameDepthBuffer(renderer, depth);
+    }
+
+    /**
+     * Colors the covered pixels from their depth, after a parallel reduction
+     * of the range of the depths: the bands of rows are then colored in
+     * parallel, straight into the pixels of the image.
+     * @param image the rendered image
+     * @param buffer the depth buffer of the image
+     */
+    @Override
+    public void resolve(ImageWrapper image, DepthBuffer buffer) {
+        final double[] range = buffer.getDepthRange();
+        if (range == null) {
+            return;
+        }
+        final double min = range[0];
+        final double scale = range[1] > min ? 1 / (range[1] - min) : 0;
+        final ColorMap map = colorMap;
+        final byte[] data = image.getPixelData();
+        final int stride = image.getWidth();
+        final int width = Math.min(stride, buffer.getWidth());
+        final int height = Math.min(image.getHeight(), buffer.getHeight());
+        final int bands = DepthBuffer.getBandCount(height);
+        if (bands == 0) {
+            return;
+        }
+        final int rowsPerBand = (height + bands - 1) / bands;
+        IntStream.range(0, bands).parallel().forEach(band -> {
+            final int end = Math.min(height, (band + 1) * rowsPerBand);
+            for (int y = band * rowsPerBand; y < end; y++) {
+                for (int x = 0; x < width; x++) {
+                    final double d = buffer.getDepth(x, y);
+                    if (d < Double.POSITIVE_INFINITY) {
+                        final int rgb = map.getRGB((d - min) * scale);
+                        final int o = (y * stride + x) * BYTES_PER_PIXEL;
+                        data[o] = (byte) rgb;
+                        data[o + 1] = (byte) (rgb >> Byte.SIZE);
+                        data[o + 2] = (byte) (rgb >> (2 * Byte.SIZE));
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void setColorMap(Maps map) {
+        colorMap = ColorMapFactory.create(map);
+    }
+
+    @Override
+    public void setColorMap(ColorMap map) {
+        colorMap = map;
+    }
+
+    @Override
+    public boolean supportsColorMap() {
+        return true;
+    }
+}
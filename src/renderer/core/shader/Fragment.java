@@ -20,6 +20,14 @@ public class Fragment {
      * The pixel y-coordinate of the Fragment.
      */
     private int y;
+    /**
+     * The sub-pixel x-coordinate of the Fragment, as projected.
+     */
+    private double subX;
+    /**
+     * The sub-pixel y-coordinate of the Fragment, as projected.
+     */
+    private double subY;
     /**
      * The number of attributes of the Fragment.
      */
@@ -68,6 +76,8 @@ public class Fragment {
     public Fragment(int x, int y) {
         this.x = x;
         this.y = y;
+        this.subX = x;
+        this.subY = y;
         numAttributes = NUM_ATTRIBUTES;
         attributes = new double[numAttributes];
     }
@@ -141,6 +151,36 @@ public class Fragment {
     public void setPosition(int xc, int yc) {
         this.x = xc;
         this.y = yc;
+        this.subX = xc;
+        this.subY = yc;
+    }
+
+    /**
+     * Sets the sub-pixel coordinates of the Fragment, keeping its pixel
+     * coordinates unchanged. Used by rasterizers that do not round the
+     * projected vertices.
+     * @param sx the sub-pixel x-coordinate of the Fragment
+     * @param sy the sub-pixel y-coordinate of the Fragment
+     */
+    public void setSubPixelPosition(double sx, double sy) {
+        this.subX = sx;
+        this.subY = sy;
+    }
+
+    /**
+     * Gets the sub-pixel x-coordinate of the Fragment.
+     * @return the sub-pixel x-coordinate, equal to getX() unless set
+     */
+    public double getSubPixelX() {
+        return subX;
+    }
+
+    /**
+     * Gets the sub-pixel y-coordinate of the Fragment.
+     * @return the sub-pixel y-coordinate, equal to getY() unless set
+     */
+    public double getSubPixelY() {
+        return subY;
     }
 
     /**
@@ -275,6 +315,8 @@ public class Fragment {
     @Override
     public Fragment clone() {
         final Fragment res = new Fragment(x, y);
+        res.subX = subX;
+        res.subY = subY;
         for (int i = 0; i < attributes.length; i++) {
             res.attributes[i] = attributes[i];
         }
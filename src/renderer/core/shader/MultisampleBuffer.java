@@ -0,0 +1,259 @@
+package renderer.core.shader;
+
+import java.util.Arrays;
+
+import renderer.controller.ImageWrapper;
+
+/**
+ * The MultisampleBuffer class stores a depth and a color for several samples
+ * per pixel, as written by a multisampling rasterizer, and resolves them into
+ * an image by averaging the samples of each pixel.
+ */
+public class MultisampleBuffer {
+
+    /**
+     * The mask of a color channel.
+     */
+    private static final int CHANNEL_MASK = 0xFF;
+
+    /**
+     * The shift of the red channel in a packed RGB color.
+     */
+    private static final int RED_SHIFT = 16;
+
+    /**
+     * The shift of the green channel in a packed RGB color.
+     */
+    private static final int GREEN_SHIFT = 8;
+
+    /**
+     * The number of bytes per pixel of the resolved image.
+     */
+    private static final int BYTES_PER_PIXEL = 3;
+
+    /**
+     * The number of samples per pixel.
+     */
+    private final int samples;
+
+    /**
+     * The width of the buffer.
+     */
+    private int width;
+
+    /**
+     * The height of the buffer.
+     */
+    private int height;
+
+    /**
+     * The depth of each sample, samples of a pixel being contiguous.
+     */
+    private double[] depth;
+
+    /**
+     * The packed RGB color of each sample.
+     */
+    private int[] color;
+
+    /**
+     * Whether each pixel has been written since the last clear.
+     */
+    private boolean[] written;
+
+    /**
+     * The color the samples are cleared to.
+     */
+    private int background;
+
+    /**
+     * Constructs a MultisampleBuffer of size width x height.
+     * The buffer is initially cleared to a black background.
+     *
+     * @param width   the width of the buffer
+     * @param height  the height of the buffer
+     * @param samples the number of samples per pixel
+     */
+    public MultisampleBuffer(int width, int height, int samples) {
+        this.samples = samples;
+        allocate(width, height);
+        clear(0);
+    }
+
+    /**
+     * Allocates the storage for the given size.
+     *
+     * @param nWidth  the width
+     * @param nHeight the height
+     */
+    private void allocate(int nWidth, int nHeight) {
+        width = nWidth;
+        height = nHeight;
+        depth = new double[width * height * samples];
+        color = new int[width * height * samples];
+        written = new boolean[width * height];
+    }
+
+    /**
+     * Clears every sample to infinite depth and the given background color.
+     *
+     * @param backgroundRgb the packed RGB background color
+     */
+    public void clear(int backgroundRgb) {
+        background = backgroundRgb;
+        Arrays.fill(depth, Double.POSITIVE_INFINITY);
+        Arrays.fill(color, backgroundRgb);
+        Arrays.fill(written, false);
+    }
+
+    /**
+     * Resizes the buffer if needed, and clears it.
+     *
+     * @param nWidth        the new width
+     * @param nHeight       the new height
+     * @param backgroundRgb the packed RGB background color
+     */
+    public void resize(int nWidth, int nHeight, int backgroundRgb) {
+        if (width != nWidth || height != nHeight) {
+            allocate(nWidth, nHeight);
+        }
+        clear(backgroundRgb);
+    }
+
+    /**
+     * Gets the number of samples per pixel.
+     *
+     * @return the number of samples
+     */
+    public int getSamples() {
+        return samples;
+    }
+
+    /**
+     * Gets the width of the buffer.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the buffer.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Depth tests the covered samples of a pixel and writes the depth of the
+     * samples that pass.
+     *
+     * @param x            the pixel x coordinate
+     * @param y            the pixel y coordinate
+     * @param coverage     the mask of the samples covered by the face
+     * @param sampleDepths the depth of the face at each sample
+     * @return the mask of the samples that passed the test
+     */
+    public int testAndWriteDepth(int x, int y, int coverage, double[] sampleDepths) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return 0;
+        }
+        final int base = (y * width + x) * samples;
+        int passed = 0;
+        for (int s = 0; s < samples; s++) {
+            if ((coverage & (1 << s)) != 0 && sampleDepths[s] < depth[base + s]) {
+                depth[base + s] = sampleDepths[s];
+                passed |= 1 << s;
+            }
+        }
+        return passed;
+    }
+
+    /**
+     * Writes a color to the given samples of a pixel.
+     *
+     * @param x    the pixel x coordinate
+     * @param y    the pixel y coordinate
+     * @param mask the mask of the samples to write
+     * @param rgb  the packed RGB color
+     */
+    public void writeColor(int x, int y, int mask, int rgb) {
+        final int pixel = y * width + x;
+        final int base = pixel * samples;
+        for (int s = 0; s < samples; s++) {
+            if ((mask & (1 << s)) != 0) {
+                color[base + s] = rgb;
+            }
+        }
+        written[pixel] = true;
+    }
+
+    /**
+     * Resolves the samples into the image, averaging the samples of each
+     * pixel. Pixels that were not written since the last clear are left
+     * untouched in the image.
+     *
+     * @param image the image to resolve into, of the size of the buffer
+     */
+    public void resolve(ImageWrapper image) {
+        final byte[] data = image.getPixelData();
+        for (int pixel = 0; pixel < written.length; pixel++) {
+            if (!written[pixel]) {
+                continue;
+            }
+            int r = 0;
+            int g = 0;
+            int b = 0;
+            final int base = pixel * samples;
+            for (int s = 0; s < samples; s++) {
+                final int rgb = color[base + s];
+                r += (rgb >> RED_SHIFT) & CHANNEL_MASK;
+                g += (rgb >> GREEN_SHIFT) & CHANNEL_MASK;
+                b += rgb & CHANNEL_MASK;
+            }
+            // TYPE_3BYTE_BGR layout
+            final int offset = pixel * BYTES_PER_PIXEL;
+            data[offset] = (byte) (b / samples);
+            data[offset + 1] = (byte) (g / samples);
+            data[offset + 2] = (byte) (r / samples);
+        }
+    }
+
+    /**
+     * Resolves the samples into a depth buffer, keeping for each written
+     * pixel the nearest of its samples when it is nearer than the depth
+     * already in the buffer, so that the passes reading the depth buffer see
+     * the multisampled faces.
+     *
+     * @param target the depth buffer, of the size of the buffer
+     */
+    public void resolveDepth(DepthBuffer target) {
+        for (int pixel = 0; pixel < written.length; pixel++) {
+            if (!written[pixel]) {
+                continue;
+            }
+            final int base = pixel * samples;
+            double nearest = Double.POSITIVE_INFINITY;
+            for (int s = 0; s < samples; s++) {
+                nearest = Math.min(nearest, depth[base + s]);
+            }
+            final int x = pixel % width;
+            final int y = pixel / width;
+            if (nearest < target.getDepth(x, y)) {
+                target.setDepth(x, y, nearest);
+            }
+        }
+    }
+
+    /**
+     * Gets the color the samples are cleared to.
+     *
+     * @return the packed RGB background color
+     */
+    public int getBackground() {
+        return background;
+    }
+}
@@ -31,9 +31,14 @@ public class PainterShader extends Shader {
         depth.clear();
     }
 
+    @Override
+    public boolean supportsMultisampling() {
+        return true;
+    }
+
     @Override
     public void init(Renderer renderer, ImageWrapper screen) {
         super.init(renderer, screen);
-        this.depth = new DepthBuffer(screen.getWidth(), screen.getHeight());
+        this.depth = frameDepthBuffer(renderer, depth);
     }
 }
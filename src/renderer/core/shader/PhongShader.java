@@ -0,0 +1,298 @@
+package renderer.core.shader;
+
+import renderer.algebra.Vector;
+import renderer.controller.ImageWrapper;
+import renderer.controller.Renderer;
+import renderer.core.camera.Transformation;
+import renderer.core.light.AmbientLight;
+import renderer.core.light.BlinnPhong;
+import renderer.core.light.Light;
+import renderer.core.light.PointLight;
+import renderer.core.light.TiledLightCulling;
+import renderer.core.mesh.Scene;
+import renderer.core.shadow.ShadowMap;
+
+/**
+ * Shader that lights each fragment with the Blinn-Phong model, from its
+ * interpolated normal, taking the depth of the fragment into account.
+ *
+ * The lights, the eye and the material are gathered once per frame, on
+ * initialization, into primitive arrays, and the position of a fragment is
+ * rebuilt from its depth, so that shading a fragment does not allocate.
+ * The point lights are culled per screen tile, so that a fragment only
+ * evaluates the lights whose radius of influence may reach it.
+ * Without lighting, the interpolated color is written as is.
+ */
+public class PhongShader extends Shader {
+
+    /**
+     * The maximal value of a color channel.
+     */
+    private static final double MAX_PIX_VAL = 255;
+
+    /**
+     * The shift of the red channel in a packed RGB color.
+     */
+    private static final int RED_SHIFT = 16;
+
+    /**
+     * The shift of the green channel in a packed RGB color.
+     */
+    private static final int GREEN_SHIFT = 8;
+
+    /**
+     * The index of the diffuse coefficient in the material.
+     */
+    private static final int KD = 1;
+
+    /**
+     * The index of the specular coefficient in the material.
+     */
+    private static final int KS = 2;
+
+    /**
+     * The index of the shininess in the material.
+     */
+    private static final int SHININESS = 3;
+
+    /** The depth buffer. */
+    private DepthBuffer depth;
+
+    /** The transformation used to rebuild the fragment positions. */
+    private Transformation xform;
+
+    /** Whether the fragments are lit in the current frame. */
+    private boolean lit;
+
+    /** The lighting model of the material, kept while the material is unchanged. */
+    private BlinnPhong model;
+
+    /** The sum of the ambient intensities. */
+    private double ambient;
+
+    /** The point lights, as their 3 coordinates and their radius. */
+    private double[] lightPositions = new double[0];
+
+    /** The screen bounds of the point lights. */
+    private double[] lightBounds = new double[0];
+
+    /** The lights of each screen tile. */
+    private final TiledLightCulling culling = new TiledLightCulling();
+
+    /** The number of lights evaluated since the initialization. */
+    private long lightsEvaluated;
+
+    /** The number of fragments lit since the initialization. */
+    private long fragmentsLit;
+
+    /** The shadow maps of the point lights, null for lights casting no shadow. */
+    private ShadowMap[] lightShadows = new ShadowMap[0];
+
+    /** The intensities of the point lights. */
+    private double[] lightIntensities = new double[0];
+
+    /** The number of point lights. */
+    private int lightCount;
+
+    /** The position of the eye. */
+    private final double[] eye = new double[3];
+
+    /** The position of the fragment being shaded. */
+    private final double[] position = new double[3];
+
+    /** The unit normal of the fragment being shaded. */
+    private final double[] normal = new double[3];
+
+    /**
+     * Creates a PhongShader.
+     */
+    public PhongShader() {
+        super();
+    }
+
+    /**
+     * Shade the fragment, taking the depth of the fragment into account.
+     *
+     * @param fragment the fragment to shade
+     */
+    @Override
+    public void shade(Fragment fragment) {
+        if (depth.testFragment(fragment)) {
+            screen.setRGB(fragment.getX(), fragment.getY(), computeColor(fragment));
+            depth.writeFragment(fragment);
+        }
+    }
+
+    @Override
+    public boolean supportsMultisampling() {
+        return true;
+    }
+
+    /**
+     * Computes the lit color of the fragment.
+     *
+     * @param fragment the fragment to shade
+     * @return the packed RGB color of the fragment
+     */
+    @Override
+    public int computeColor(Fragment fragment) {
+        final double r = fragment.getAttribute(Fragment.COLOR_R);
+        final double g = fragment.getAttribute(Fragment.COLOR_G);
+        final double b = fragment.getAttribute(Fragment.COLOR_B);
+        if (!lit) {
+            return pack(r, g, b);
+        }
+
+        xform.unprojectPoint(fragment.getX(), fragment.getY(), fragment.getDepth(),
+                position);
+        final double nx = fragment.getAttribute(Fragment.NORMAL_X);
+        final double ny = fragment.getAttribute(Fragment.NORMAL_Y);
+        final double nz = fragment.getAttribute(Fragment.NORMAL_Z);
+        final double norm = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (norm > 0) {
+            normal[0] = nx / norm;
+            normal[1] = ny / norm;
+            normal[2] = nz / norm;
+        }
+
+        double intensity = ambient;
+        final int tile = culling.getTile(fragment.getX(), fragment.getY());
+        final int end = culling.getEnd(tile);
+        for (int entry = culling.getStart(tile); entry < end; entry++) {
+            final int i = culling.getLight(entry);
+            final double received = model.pointLight(position, normal, eye,
+                    lightPositions, BlinnPhong.LIGHT_STRIDE * i, lightIntensities[i]);
+            if (received > 0 && lightShadows[i] != null) {
+                intensity += received
+                        * lightShadows[i].visibility(position[0], position[1], position[2]);
+            } else {
+                intensity += received;
+            }
+        }
+        lightsEvaluated += end - culling.getStart(tile);
+        fragmentsLit++;
+        return pack(r * intensity, g * intensity, b * intensity);
+    }
+
+    /**
+     * Packs a color into an RGB int, clamping its channels to [0, 1].
+     *
+     * @param r the red channel
+     * @param g the green channel
+     * @param b the blue channel
+     * @return the packed RGB color
+     */
+    private static int pack(double r, double g, double b) {
+        return (toChannel(r) << RED_SHIFT) | (toChannel(g) << GREEN_SHIFT) | toChannel(b);
+    }
+
+    /**
+     * Converts a color channel from [0, 1] to [0, 255].
+     *
+     * @param c the channel value
+     * @return the channel byte
+     */
+    private static int toChannel(double c) {
+        return (int) Math.round(Math.max(0, Math.min(1, c)) * MAX_PIX_VAL);
+    }
+
+    /**
+     * Gets the number of point lights evaluated since the last initialization.
+     *
+     * @return the number of light evaluations
+     */
+    public long getLightsEvaluated() {
+        return lightsEvaluated;
+    }
+
+    /**
+     * Gets the number of fragments lit since the last initialization.
+     *
+     * @return the number of lit fragments
+     */
+    public long getFragmentsLit() {
+        return fragmentsLit;
+    }
+
+    /**
+     * Gets the average number of point lights evaluated per lit fragment since
+     * the last initialization.
+     *
+     * @return the average number of lights per fragment
+     */
+    public double getLightsPerFragment() {
+        return fragmentsLit == 0 ? 0 : (double) lightsEvaluated / fragmentsLit;
+    }
+
+    /**
+     * Gets the light culling of the current frame.
+     *
+     * @return the per-tile light lists
+     */
+    public TiledLightCulling getCulling() {
+        return culling;
+    }
+
+    @Override
+    public boolean computesLighting() {
+        return true;
+    }
+
+    @Override
+    public void reset() {
+        depth.clear();
+    }
+
+    @Override
+    public void init(final Renderer renderer, final ImageWrapper screen) {
+        super.init(renderer, screen);
+        depth = frameDepthBuffer(renderer, depth);
+
+        lightsEvaluated = 0;
+        fragmentsLit = 0;
+        lit = renderer != null && renderer.isLightingEnabled();
+        if (!lit) {
+            return;
+        }
+        xform = renderer.getTransformation();
+        final Scene scene = renderer.getScene();
+        final double[] material = scene.getMaterial();
+        if (model == null || !model.isFor(material[KD], material[KS], material[SHININESS])) {
+            model = new BlinnPhong(material[KD], material[KS], material[SHININESS]);
+        }
+        final Vector eyePosition = renderer.getCameraPosition();
+        for (int i = 0; i < 3; i++) {
+            eye[i] = eyePosition.get(i);
+        }
+
+        final int maxLights = renderer.getLighting().getLights().size();
+        if (lightIntensities.length < maxLights) {
+            lightPositions = new double[BlinnPhong.LIGHT_STRIDE * maxLights];
+            lightBounds = new double[TiledLightCulling.BOUNDS_STRIDE * maxLights];
+            lightIntensities = new double[maxLights];
+            lightShadows = new ShadowMap[maxLights];
+        }
+        ambient = 0;
+        lightCount = 0;
+        for (Light light : renderer.getLighting().getLights()) {
+            if (light instanceof AmbientLight) {
+                ambient += light.getIntensity();
+            } else if (light instanceof PointLight) {
+                final PointLight point = (PointLight) light;
+                final int o = BlinnPhong.LIGHT_STRIDE * lightCount;
+                lightPositions[o] = point.getX();
+                lightPositions[o + 1] = point.getY();
+                lightPositions[o + 2] = point.getZ();
+                lightPositions[o + BlinnPhong.LIGHT_STRIDE - 1] = point.getRadius();
+                lightIntensities[lightCount] = point.getIntensity();
+                lightShadows[lightCount] = point.getShadowMap();
+                TiledLightCulling.computeBounds(xform, renderer.getFocal(),
+                        renderer.getImageWidth(), renderer.getImageHeight(),
+                        lightPositions, lightCount, lightBounds);
+                lightCount++;
+            }
+        }
+        culling.resize(screen.getWidth(), screen.getHeight());
+        culling.build(lightBounds, lightCount);
+    }
+}
@@ -0,0 +1,205 @@
+package renderer.core.shader;
+
+/**
+ * The Quad class represents a block of 2x2 Fragment's generated together by
+ * a Rasterizer, with the screen-space derivatives of their attributes.
+ * Lanes are numbered in row order: 0 is (x, y), 1 is (x + 1, y), 2 is
+ * (x, y + 1) and 3 is (x + 1, y + 1). Lanes outside the face are helper
+ * lanes: their attributes are extrapolated so that derivatives are defined,
+ * but they must not be written to the screen.
+ */
+public class Quad {
+
+    /**
+     * The number of fragments in a quad.
+     */
+    public static final int SIZE = 4;
+
+    /**
+     * The coverage mask of a quad whose four lanes are covered.
+     */
+    public static final int FULL_MASK = (1 << SIZE) - 1;
+
+    /**
+     * The lane at (x + 1, y).
+     */
+    private static final int RIGHT = 1;
+
+    /**
+     * The lane at (x, y + 1).
+     */
+    private static final int BELOW = 2;
+
+    /**
+     * The fragments of the quad.
+     */
+    private final Fragment[] fragments = new Fragment[SIZE];
+
+    /**
+     * The coverage mask: bit i is set if lane i is inside the face.
+     */
+    private int coverage;
+
+    /** The derivative of u along x. */
+    private double dudx;
+    /** The derivative of u along y. */
+    private double dudy;
+    /** The derivative of v along x. */
+    private double dvdx;
+    /** The derivative of v along y. */
+    private double dvdy;
+    /** The derivative of the depth along x. */
+    private double dzdx;
+    /** The derivative of the depth along y. */
+    private double dzdy;
+
+    /**
+     * Creates an empty quad.
+     */
+    public Quad() {
+        for (int i = 0; i < SIZE; i++) {
+            fragments[i] = new Fragment(0, 0);
+        }
+    }
+
+    /**
+     * Sets the position of the top left lane of the quad; the other lanes
+     * are placed accordingly.
+     *
+     * @param x the x pixel coordinate of the top left lane
+     * @param y the y pixel coordinate of the top left lane
+     */
+    public void setPosition(int x, int y) {
+        for (int i = 0; i < SIZE; i++) {
+            fragments[i].setPosition(x + (i & RIGHT), y + (i >> 1));
+        }
+    }
+
+    /**
+     * Gets the fragment of a lane.
+     *
+     * @param lane the lane index in [0, 3]
+     * @return the fragment
+     */
+    public Fragment getFragment(int lane) {
+        return fragments[lane];
+    }
+
+    /**
+     * Gets the coverage mask of the quad.
+     *
+     * @return the coverage mask, bit i set if lane i is inside the face
+     */
+    public int getCoverage() {
+        return coverage;
+    }
+
+    /**
+     * Sets the coverage mask of the quad.
+     *
+     * @param coverage the coverage mask
+     */
+    public void setCoverage(int coverage) {
+        this.coverage = coverage;
+    }
+
+    /**
+     * Tests whether a lane is inside the face (i.e. is not a helper lane).
+     *
+     * @param lane the lane index
+     * @return true if the lane is covered
+     */
+    public boolean isCovered(int lane) {
+        return (coverage & (1 << lane)) != 0;
+    }
+
+    /**
+     * Computes the derivatives of the texture coordinates and of the depth
+     * from the lanes of the quad (coarse derivatives: the same for all lanes).
+     */
+    public void computeDerivatives() {
+        final Fragment origin = fragments[0];
+        final Fragment right = fragments[RIGHT];
+        final Fragment below = fragments[BELOW];
+        final double u = origin.getAttribute(Fragment.TEXTURE_U);
+        final double v = origin.getAttribute(Fragment.TEXTURE_V);
+        dudx = right.getAttribute(Fragment.TEXTURE_U) - u;
+        dudy = below.getAttribute(Fragment.TEXTURE_U) - u;
+        dvdx = right.getAttribute(Fragment.TEXTURE_V) - v;
+        dvdy = below.getAttribute(Fragment.TEXTURE_V) - v;
+        dzdx = right.getDepth() - origin.getDepth();
+        dzdy = below.getDepth() - origin.getDepth();
+    }
+
+    /**
+     * Gets the derivative of the u texture coordinate along x.
+     *
+     * @return du/dx
+     */
+    public double getDuDx() {
+        return dudx;
+    }
+
+    /**
+     * Gets the derivative of the u texture coordinate along y.
+     *
+     * @return du/dy
+     */
+    public double getDuDy() {
+        return dudy;
+    }
+
+    /**
+     * Gets the derivative of the v texture coordinate along x.
+     *
+     * @return dv/dx
+     */
+    public double getDvDx() {
+        return dvdx;
+    }
+
+    /**
+     * Gets the derivative of the v texture coordinate along y.
+     *
+     * @return dv/dy
+     */
+    public double getDvDy() {
+        return dvdy;
+    }
+
+    /**
+     * Gets the derivative of the depth along x.
+     *
+     * @return dz/dx
+     */
+    public double getDepthDx() {
+        return dzdx;
+    }
+
+    /**
+     * Gets the derivative of the depth along y.
+     *
+     * @return dz/dy
+     */
+    public double getDepthDy() {
+        return dzdy;
+    }
+
+    /**
+     * Computes the mip level of detail of a texture of the given size for
+     * this quad: the log2 of the longest texel footprint of a pixel.
+     *
+     * @param width  the texture width in texels
+     * @param height the texture height in texels
+     * @return the level of detail, 0 or less when magnifying
+     */
+    public double getTextureLod(int width, int height) {
+        final double fx = Math.hypot(dudx * width, dvdx * height);
+        final double fy = Math.hypot(dudy * width, dvdy * height);
+        final double footprint = Math.max(fx, fy);
+        if (footprint <= 0) {
+            return 0;
+        }
+        return Math.log(footprint) / Math.log(2);
+    }
+}
@@ -3,6 +3,7 @@ package renderer.core.shader;
 import renderer.controller.ColorMapFactory.Maps;
 import renderer.controller.ImageWrapper;
 import renderer.controller.Renderer;
+import renderer.core.shader.colormap.ColorMap;
 
 /**
  * The Shader class is responsible for writing final pixel color
@@ -35,6 +36,45 @@ public abstract class Shader {
      */
     public abstract void shade(Fragment fragment);
 
+    /**
+     * Computes the color of the fragment without writing it to the screen.
+     * Used by the passes that test the depth and store the colors themselves,
+     * such as multisampling. The default is the interpolated color.
+     * @param fragment the fragment to shade
+     * @return the packed RGB color of the fragment
+     */
+    public int computeColor(Fragment fragment) {
+        return fragment.getColor().getRGB();
+    }
+
+    /**
+     * Indicates whether the faces shaded by this shader can be multisampled:
+     * whether computeColor gives the color shade would write, or the colors
+     * come from the depth buffer in the resolve pass. The renderer rasterizes
+     * with one sample per pixel for the other shaders.
+     *
+     * @return true if the shader supports multisampling, false otherwise
+     */
+    public boolean supportsMultisampling() {
+        return false;
+    }
+
+    /**
+     * Computes the color of the covered fragments of a 2x2 quad and writes
+     * them to the screen. Shaders may override it to share work across the
+     * quad, or to use its derivatives; the default shades each covered,
+     * unclipped lane on its own.
+     * @param quad the quad to shade
+     */
+    public void shadeQuad(Quad quad) {
+        for (int lane = 0; lane < Quad.SIZE; lane++) {
+            final Fragment fragment = quad.getFragment(lane);
+            if (quad.isCovered(lane) && !isClipped(fragment)) {
+                shade(fragment);
+            }
+        }
+    }
+
     /**
      * Test whether the fragment falls onto the screen.
      * @param fragment the fragment to test
@@ -53,6 +93,41 @@ public abstract class Shader {
         screen = newScreen;
     }
 
+    /**
+     * Gets the depth buffer to test the fragments against: the one of the
+     * frame being rendered, cleared by the renderer, or without a renderer,
+     * a buffer of the size of the screen.
+     *
+     * @param renderer the renderer, possibly null
+     * @param previous the buffer used by the previous frame, possibly null
+     * @return the cleared depth buffer of the frame
+     */
+    protected final DepthBuffer frameDepthBuffer(final Renderer renderer,
+            final DepthBuffer previous) {
+        if (renderer != null && renderer.getDepthBuffer() != null) {
+            return renderer.getDepthBuffer();
+        }
+        if (previous == null) {
+            return new DepthBuffer(screen.getWidth(), screen.getHeight());
+        }
+        previous.resize(screen.getWidth(), screen.getHeight());
+        return previous;
+    }
+
+    /**
+     * Computes the colors of the pixels once every face is rasterized, for
+     * shaders that color the image from the whole depth buffer. The pass only
+     * depends on the depth buffer and on the settings of the shader, so the
+     * renderer may run it again over a cached depth buffer when only those
+     * settings changed. Default implementation does nothing.
+     *
+     * @param image the rendered image
+     * @param depth the depth buffer of the image
+     */
+    public void resolve(ImageWrapper image, DepthBuffer depth) {
+        // Default: do nothing
+    }
+
     /**
      * Sets the color map for shaders that support it.
      * Default implementation does nothing.
@@ -63,6 +138,26 @@ public abstract class Shader {
         // Default: do nothing
     }
 
+    /**
+     * Sets a color map, such as one loaded from a file, for shaders that
+     * support it. Default implementation does nothing.
+     *
+     * @param map the color map to use
+     */
+    public void setColorMap(ColorMap map) {
+        // Default: do nothing
+    }
+
+    /**
+     * Indicates whether this shader lights the fragments itself, in which
+     * case the renderer does not light the vertices.
+     *
+     * @return true if the shader computes the lighting, false otherwise
+     */
+    public boolean computesLighting() {
+        return false;
+    }
+
     /**
      * Indicates whether this shader supports color mapping.
      *
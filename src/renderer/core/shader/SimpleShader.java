@@ -22,4 +22,9 @@ public class SimpleShader extends Shader {
     public void reset() {
         // Nothing to reset
     }
+
+    @Override
+    public boolean supportsMultisampling() {
+        return true;
+    }
 }
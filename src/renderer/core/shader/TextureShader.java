@@ -34,6 +34,11 @@ public class TextureShader extends Shader {
      * the original color of the fragment.
      */
     private boolean combineWithBaseColor;
+    /**
+     * The texture level of detail of the quad being shaded,
+     * 0 when fragments are shaded one by one.
+     */
+    private double lod;
 
     /**
      * Creates a PainterShader.
@@ -61,6 +66,24 @@ public class TextureShader extends Shader {
         }
     }
 
+    /**
+     * Set the texture to use for shading, already loaded.
+     *
+     * @param loaded the texture, or null to shade without texture
+     */
+    public void setTexture(Texture loaded) {
+        texture = loaded;
+    }
+
+    /**
+     * Gets the texture used for shading.
+     *
+     * @return the texture, or null if none is loaded
+     */
+    public Texture getTexture() {
+        return texture;
+    }
+
     /**
      * Set whether the texture should be combined with the base color.
      *
@@ -73,6 +96,8 @@ public class TextureShader extends Shader {
 
     /**
      * Shade the fragment, taking the depth of the fragment into account.
+     * The texture must be read through {@link #sampleTexture}, so that the
+     * fragments of a quad use the mip level of the quad.
      *
      * @param fragment the fragment to shade
      */
@@ -84,7 +109,7 @@ public class TextureShader extends Shader {
         // The Fragment may not have texture coordinates
         try {
             // TODO
-
+            // read the texture with sampleTexture(u, v), not texture.sample
 
 
 
@@ -111,6 +136,35 @@ public class TextureShader extends Shader {
         depth.writeFragment(fragment);
     }
 
+    /**
+     * Shade the covered fragments of a quad, selecting the texture mip level
+     * from the texture footprint of the quad.
+     *
+     * @param quad the quad to shade
+     */
+    @Override
+    public void shadeQuad(Quad quad) {
+        if (texture != null) {
+            lod = quad.getTextureLod(texture.getWidth(), texture.getHeight());
+        }
+        super.shadeQuad(quad);
+        lod = 0;
+    }
+
+    /**
+     * Samples the texture at (u, v) in the mip level of the quad being shaded,
+     * or at full resolution when fragments are shaded one by one. This is the
+     * lookup shade has to use: shadeQuad selects the level, then shades the
+     * fragments of the quad one by one with it.
+     *
+     * @param u the u texture coordinate
+     * @param v the v texture coordinate
+     * @return the color of the texture
+     */
+    protected Color sampleTexture(double u, double v) {
+        return texture.sample(u, v, lod);
+    }
+
     /**
      * Reset the shader.
      */
@@ -131,10 +185,6 @@ public class TextureShader extends Shader {
     @Override
     public void init(final Renderer renderer, final ImageWrapper screen) {
         super.init(renderer, screen);
-        if (depth == null) {
-            depth = new DepthBuffer(screen.getWidth(), screen.getHeight());
-        } else {
-            depth.resize(screen.getWidth(), screen.getHeight());
-        }
+        depth = frameDepthBuffer(renderer, depth);
     }
 }
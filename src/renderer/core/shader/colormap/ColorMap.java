@@ -4,20 +4,66 @@ import java.awt.Color;
 
 /**
  * A ColorMap provide a list of Colors to do a color gradient.
+ * The colors are kept packed as ARGB integers, so that looking a color up
+ * allocates nothing: a ColorMap is never modified, and one instance can be
+ * shared by every shader and thread.
  */
 public class ColorMap {
 
     /**
-     * The array of Color for the ColorMap.
+     * The mask of the opaque alpha of a packed color.
      */
-    private final Color[] lut;
+    private static final int OPAQUE = 0xFF000000;
+
+    /**
+     * The mask of a component of a packed color.
+     */
+    private static final int COMPONENT = 0xFF;
+
+    /**
+     * The shift of the red component of a packed color.
+     */
+    private static final int RED_SHIFT = 16;
+
+    /**
+     * The shift of the green component of a packed color.
+     */
+    private static final int GREEN_SHIFT = 8;
+
+    /**
+     * The offset rounding an interpolated component to the nearest integer.
+     */
+    private static final double ROUNDING = 0.5;
+
+    /**
+     * The packed ARGB colors of the ColorMap.
+     */
+    private final int[] lut;
 
     /**
      * Creates a ColorMap.
      * @param lut the list of color.
      */
     public ColorMap(final Color[] lut) {
-        this.lut = lut;
+        this.lut = new int[lut.length];
+        for (int i = 0; i < lut.length; i++) {
+            this.lut[i] = lut[i].getRGB();
+        }
+    }
+
+    /**
+     * Creates a ColorMap from packed colors.
+     * @param rgb the colors, packed as ARGB integers, the alpha being ignored
+     * @throws IllegalArgumentException if there is no color
+     */
+    public ColorMap(final int[] rgb) {
+        if (rgb.length == 0) {
+            throw new IllegalArgumentException("A color map needs a color.");
+        }
+        lut = new int[rgb.length];
+        for (int i = 0; i < rgb.length; i++) {
+            lut[i] = rgb[i] | OPAQUE;
+        }
     }
 
     /**
@@ -26,9 +72,60 @@ public class ColorMap {
      * @return the color of the value
      */
     public Color getColor(int value) {
+        return new Color(lut[value]);
+    }
+
+    /**
+     * Gets a color of the palette, packed.
+     * @param value the id of the color.
+     * @return the ARGB color of the value
+     */
+    public int getRGB(int value) {
         return lut[value];
     }
 
+    /**
+     * Gets the color at a position along the gradient, interpolated linearly
+     * between the two nearest colors of the palette.
+     * @param normalized the position, from 0 for the first color to 1 for the
+     *                   last one, clamped to this range
+     * @return the ARGB color of the position
+     */
+    public int getRGB(double normalized) {
+        final int last = lut.length - 1;
+        if (!(normalized > 0)) {
+            return lut[0];
+        }
+        if (normalized >= 1) {
+            return lut[last];
+        }
+        final double position = normalized * last;
+        final int i = (int) position;
+        if (i >= last) {
+            return lut[last];
+        }
+        final double t = position - i;
+        final int a = lut[i];
+        final int b = lut[i + 1];
+        return OPAQUE
+                | lerp(a >> RED_SHIFT, b >> RED_SHIFT, t) << RED_SHIFT
+                | lerp(a >> GREEN_SHIFT, b >> GREEN_SHIFT, t) << GREEN_SHIFT
+                | lerp(a, b, t);
+    }
+
+    /**
+     * Interpolates between the lowest components of two packed colors.
+     * @param a the color at t = 0, shifted
+     * @param b the color at t = 1, shifted
+     * @param t the position between the colors
+     * @return the interpolated component
+     */
+    private static int lerp(int a, int b, double t) {
+        final int ca = a & COMPONENT;
+        final int cb = b & COMPONENT;
+        return (int) (ca + (cb - ca) * t + ROUNDING);
+    }
+
     /**
      * Gets the number of colors the color Map contains.
      * @return the number of colors
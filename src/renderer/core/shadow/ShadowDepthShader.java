@@ -0,0 +1,76 @@
+package renderer.core.shadow;
+
+import renderer.core.shader.DepthBuffer;
+import renderer.core.shader.Fragment;
+import renderer.core.shader.Shader;
+
+/**
+ * Shader that only keeps the nearest depth of each pixel in a DepthBuffer,
+ * used to render the faces of a shadow map. It needs no screen: fragments
+ * are clipped against the bounds of the target face, a band of rows of the
+ * target buffer.
+ */
+public class ShadowDepthShader extends Shader {
+
+    /**
+     * The buffer the depths are written to.
+     */
+    private DepthBuffer target;
+
+    /**
+     * The first row of the target face in the buffer.
+     */
+    private int firstRow;
+
+    /**
+     * The number of rows of the target face.
+     */
+    private int rows;
+
+    /**
+     * Sets the buffer the depths are written to, as a whole.
+     *
+     * @param target the depth buffer
+     */
+    public void setTarget(DepthBuffer target) {
+        setTarget(target, 0, target.getHeight());
+    }
+
+    /**
+     * Sets the band of rows of a buffer the depths are written to.
+     *
+     * @param target   the depth buffer
+     * @param firstRow the first row of the band
+     * @param rows     the number of rows of the band
+     */
+    public void setTarget(DepthBuffer target, int firstRow, int rows) {
+        this.target = target;
+        this.firstRow = firstRow;
+        this.rows = rows;
+    }
+
+    /**
+     * Writes the depth of the fragment if it is the nearest so far.
+     *
+     * @param fragment the fragment to write
+     */
+    @Override
+    public void shade(Fragment fragment) {
+        final int x = fragment.getX();
+        final int y = firstRow + fragment.getY();
+        if (fragment.getDepth() < target.getDepth(x, y)) {
+            target.setDepth(x, y, fragment.getDepth());
+        }
+    }
+
+    @Override
+    public boolean isClipped(Fragment fragment) {
+        return fragment.getX() < 0 || fragment.getX() >= target.getWidth()
+                || fragment.getY() < 0 || fragment.getY() >= rows;
+    }
+
+    @Override
+    public void reset() {
+        target.clearRows(firstRow, rows);
+    }
+}
@@ -0,0 +1,406 @@
+package renderer.core.shadow;
+
+import renderer.algebra.Vector;
+import renderer.core.camera.Transformation;
+import renderer.core.mesh.Mesh;
+import renderer.core.rasterizer.FixedPointRasterizer;
+import renderer.core.shader.DepthBuffer;
+import renderer.core.shader.Fragment;
+import renderer.event.CacheEvictionEvent;
+
+/**
+ * The ShadowMap class stores the depth of the scene seen from a point light,
+ * as a cube map: six square faces, each rendered with a Transformation
+ * looking along one axis with a 90 degrees field of view. A point is in the
+ * shadow of the light when it is farther than the depth stored in the
+ * direction of the light.
+ *
+ * The faces are stacked vertically in a DepthBuffer, which several maps may
+ * share: each map then owns the rows of its slot, so the maps of all the
+ * lights are a single allocation.
+ *
+ * The cube map is only rendered again when the light moves or when the mesh
+ * changes. Lookups only read the map, so they may run in parallel.
+ */
+public class ShadowMap {
+
+    /**
+     * The number of faces of the cube map.
+     */
+    public static final int FACES = 6;
+
+    /**
+     * The default size of a face, in pixels.
+     */
+    public static final int DEFAULT_SIZE = 512;
+
+    /**
+     * The name of the cache of the maps in the eviction events.
+     */
+    private static final String CACHE_NAME = "shadow map";
+
+    /**
+     * The default depth bias, relative to the depth of the point.
+     */
+    private static final double DEFAULT_BIAS = 0.02;
+
+    /**
+     * The depth of the near plane the faces are clipped against, so that no
+     * vertex is projected from behind the light. It keeps the projections of
+     * the clipped vertices within the range of the fixed-point rasterizer.
+     */
+    private static final double NEAR = 1e-3;
+
+    /**
+     * The largest number of vertices of a triangle clipped by one plane.
+     */
+    private static final int MAX_CLIPPED_VERTICES = 4;
+
+    /**
+     * The viewing directions of the faces: +x, -x, +y, -y, +z, -z.
+     */
+    private static final double[][] DIRECTIONS = {
+        {1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}
+    };
+
+    /**
+     * The up vectors of the faces.
+     */
+    private static final double[][] UPS = {
+        {0, 1, 0}, {0, 1, 0}, {0, 0, 1}, {0, 0, 1}, {0, 1, 0}, {0, 1, 0}
+    };
+
+    /**
+     * The size of a face, in pixels.
+     */
+    private final int size;
+
+    /**
+     * The depths of the faces, possibly shared with other maps.
+     */
+    private final DepthBuffer storage;
+
+    /**
+     * The first row of the faces of the map in the storage.
+     */
+    private final int firstRow;
+
+    /**
+     * The projection matrices K.P.W of the faces, row-major.
+     */
+    private final double[][] projections = new double[FACES][];
+
+    /**
+     * The depth bias, relative to the depth of the point.
+     */
+    private double bias = DEFAULT_BIAS;
+
+    /**
+     * The radius of the percentage-closer filter, 0 for a single sample.
+     */
+    private int pcfRadius;
+
+    /**
+     * The position of the light the map was rendered from.
+     */
+    private final double[] light = new double[3];
+
+    /**
+     * The mesh the map was rendered from, null if it was never rendered.
+     */
+    private Mesh mesh;
+
+    /**
+     * Creates a shadow map whose faces have the given size.
+     *
+     * @param size the size of a face, in pixels
+     */
+    public ShadowMap(int size) {
+        this(createStorage(size, 1), 0);
+    }
+
+    /**
+     * Creates a shadow map whose faces are stored in a slot of a shared
+     * storage.
+     *
+     * @param storage the storage, created by {@link #createStorage}
+     * @param slot    the slot of the map in the storage
+     * @throws IllegalArgumentException if the storage has no such slot
+     */
+    public ShadowMap(DepthBuffer storage, int slot) {
+        this.size = storage.getWidth();
+        if (slot < 0 || slot >= getSlotCount(storage)) {
+            throw new IllegalArgumentException("No slot " + slot
+                    + " in a shadow map storage of " + getSlotCount(storage));
+        }
+        this.storage = storage;
+        this.firstRow = slot * FACES * size;
+    }
+
+    /**
+     * Creates the storage shared by several maps.
+     *
+     * @param size  the size of a face, in pixels
+     * @param slots the number of maps
+     * @return the cleared storage
+     */
+    public static DepthBuffer createStorage(int size, int slots) {
+        return new DepthBuffer(size, slots * FACES * size);
+    }
+
+    /**
+     * Gets the number of maps a storage holds.
+     *
+     * @param storage the storage
+     * @return the number of slots
+     */
+    public static int getSlotCount(DepthBuffer storage) {
+        return storage.getHeight() / (FACES * storage.getWidth());
+    }
+
+    /**
+     * Gets the size of a face.
+     *
+     * @return the size in pixels
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the storage of the faces.
+     *
+     * @return the depth buffer the faces are stacked in
+     */
+    public DepthBuffer getStorage() {
+        return storage;
+    }
+
+    /**
+     * Gets the row of the storage where a face starts.
+     *
+     * @param face the face, in the order +x, -x, +y, -y, +z, -z
+     * @return the first row of the face
+     */
+    public int getFaceRow(int face) {
+        return firstRow + face * size;
+    }
+
+    /**
+     * Sets the radius of the percentage-closer filter: the visibility is the
+     * fraction of the (2r+1)x(2r+1) depths around the point that are lit.
+     *
+     * @param pcfRadius the radius, 0 for a single hard sample
+     */
+    public void setPcfRadius(int pcfRadius) {
+        this.pcfRadius = pcfRadius;
+    }
+
+    /**
+     * Sets the depth bias, which avoids surfaces shadowing themselves.
+     *
+     * @param bias the bias, relative to the depth of the point
+     */
+    public void setBias(double bias) {
+        this.bias = bias;
+    }
+
+    /**
+     * Renders the map from a light, unless it is already rendered for the
+     * same light position and mesh.
+     *
+     * @param newMesh the mesh casting the shadows
+     * @param x       the x coordinate of the light
+     * @param y       the y coordinate of the light
+     * @param z       the z coordinate of the light
+     * @return whether the map was rendered again
+     */
+    public boolean update(Mesh newMesh, double x, double y, double z) {
+        if (newMesh == mesh && light[0] == x && light[1] == y && light[2] == z) {
+            return false;
+        }
+        if (mesh != null) {
+            CacheEvictionEvent.emit(CACHE_NAME, this,
+                    newMesh == mesh ? "light moved" : "mesh changed",
+                    (long) FACES * size * size * Double.BYTES);
+        }
+        mesh = newMesh;
+        light[0] = x;
+        light[1] = y;
+        light[2] = z;
+
+        final ShadowDepthShader shader = new ShadowDepthShader();
+        final FixedPointRasterizer rasterizer = new FixedPointRasterizer(shader);
+        rasterizer.setViewport(size, size);
+        final Vector eye = new Vector(x, y, z);
+        for (int f = 0; f < FACES; f++) {
+            final double[] d = DIRECTIONS[f];
+            final double[] u = UPS[f];
+            final Transformation xform = new Transformation();
+            xform.setLookAt(eye, new Vector(x + d[0], y + d[1], z + d[2]),
+                    new Vector(u[0], u[1], u[2]));
+            xform.setProjection();
+            xform.setCalibration(size / 2.0, size, size);
+            projections[f] = xform.getProjectionMatrix();
+
+            shader.setTarget(storage, getFaceRow(f), size);
+            shader.reset();
+            renderFace(projections[f], rasterizer);
+        }
+        return true;
+    }
+
+    /**
+     * Rasterizes the mesh into a face of the cube map.
+     *
+     * @param m          the projection matrix K.P.W of the face, row-major
+     * @param rasterizer the rasterizer writing into the face
+     */
+    private void renderFace(double[] m, FixedPointRasterizer rasterizer) {
+        final int count = mesh.getNumVertices();
+        final double[] vertices = mesh.getVertexArray();
+        final double[] projected = new double[3 * count];
+        for (int i = 0; i < 3 * count; i += 3) {
+            final double x = vertices[i];
+            final double y = vertices[i + 1];
+            final double z = vertices[i + 2];
+            projected[i] = m[0] * x + m[1] * y + m[2] * z + m[3];
+            projected[i + 1] = m[4] * x + m[5] * y + m[6] * z + m[7];
+            projected[i + 2] = m[8] * x + m[9] * y + m[10] * z + m[11];
+        }
+
+        final int[] meshFaces = mesh.getFaces();
+        final double[] a = new double[3];
+        final double[] b = new double[3];
+        final double[] c = new double[3];
+        for (int i = 0; i < 3 * mesh.getNumFaces(); i += 3) {
+            System.arraycopy(projected, 3 * meshFaces[i], a, 0, 3);
+            System.arraycopy(projected, 3 * meshFaces[i + 1], b, 0, 3);
+            System.arraycopy(projected, 3 * meshFaces[i + 2], c, 0, 3);
+            rasterizeClipped(rasterizer, a, b, c);
+        }
+    }
+
+    /**
+     * Rasterizes a triangle clipped against the near plane of a face. The
+     * part of the triangle behind the plane is cut off, and the remaining
+     * triangle or quad is rasterized as a fan.
+     *
+     * @param rasterizer the rasterizer writing into the face
+     * @param a          the first vertex, as (x.w, y.w, w) with w its depth
+     * @param b          the second vertex, in the same coordinates
+     * @param c          the third vertex, in the same coordinates
+     */
+    public static void rasterizeClipped(FixedPointRasterizer rasterizer,
+            double[] a, double[] b, double[] c) {
+        if (a[2] > NEAR && b[2] > NEAR && c[2] > NEAR) {
+            rasterizer.rasterizeFace(toFragment(a), toFragment(b), toFragment(c));
+            return;
+        }
+        final double[][] triangle = {a, b, c};
+        final double[][] clipped = new double[MAX_CLIPPED_VERTICES][];
+        int n = 0;
+        for (int i = 0; i < triangle.length; i++) {
+            final double[] p = triangle[i];
+            final double[] q = triangle[(i + 1) % triangle.length];
+            if (p[2] > NEAR) {
+                clipped[n++] = p;
+            }
+            if (p[2] > NEAR != q[2] > NEAR) {
+                // the coordinates before the division are linear along the edge
+                final double t = (NEAR - p[2]) / (q[2] - p[2]);
+                clipped[n++] = new double[] {p[0] + t * (q[0] - p[0]),
+                    p[1] + t * (q[1] - p[1]), NEAR};
+            }
+        }
+        for (int i = 1; i + 1 < n; i++) {
+            rasterizer.rasterizeFace(toFragment(clipped[0]), toFragment(clipped[i]),
+                    toFragment(clipped[i + 1]));
+        }
+    }
+
+    /**
+     * Creates the fragment of a vertex in front of the near plane.
+     *
+     * @param h the vertex, as (x.w, y.w, w)
+     * @return the fragment at (x, y) with the depth w
+     */
+    private static Fragment toFragment(double[] h) {
+        final double x = h[0] / h[2];
+        final double y = h[1] / h[2];
+        final Fragment f = new Fragment((int) Math.round(x), (int) Math.round(y));
+        f.setSubPixelPosition(x, y);
+        f.setDepth(h[2]);
+        return f;
+    }
+
+    /**
+     * Gets the face of the cube map looking toward a direction.
+     *
+     * @param dx the x component of the direction
+     * @param dy the y component of the direction
+     * @param dz the z component of the direction
+     * @return the face index
+     */
+    private static int faceOf(double dx, double dy, double dz) {
+        final double ax = Math.abs(dx);
+        final double ay = Math.abs(dy);
+        final double az = Math.abs(dz);
+        if (ax >= ay && ax >= az) {
+            return dx >= 0 ? 0 : 1;
+        }
+        if (ay >= az) {
+            return dy >= 0 ? 2 : 3;
+        }
+        return dz >= 0 ? 4 : 5;
+    }
+
+    /**
+     * Computes how much a point is lit by the light of the map.
+     *
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param z the z coordinate of the point
+     * @return the fraction of the filter samples that are lit, in [0, 1]
+     */
+    public double visibility(double x, double y, double z) {
+        if (mesh == null) {
+            return 1;
+        }
+        final int face = faceOf(x - light[0], y - light[1], z - light[2]);
+        final double[] m = projections[face];
+        final double w = m[8] * x + m[9] * y + m[10] * z + m[11];
+        return visibility(face, (m[0] * x + m[1] * y + m[2] * z + m[3]) / w,
+                (m[4] * x + m[5] * y + m[6] * z + m[7]) / w, w);
+    }
+
+    /**
+     * Computes how much a point projected onto a face is lit, by comparing its
+     * depth with the depths stored around it.
+     *
+     * @param face  the face
+     * @param px    the x coordinate of the point on the face, in pixels
+     * @param py    the y coordinate of the point on the face, in pixels
+     * @param depth the depth of the point from the light
+     * @return the fraction of the filter samples that are lit, in [0, 1]
+     */
+    public double visibility(int face, double px, double py, double depth) {
+        final int row = getFaceRow(face);
+        final int cx = (int) Math.round(px);
+        final int cy = (int) Math.round(py);
+        final double limit = depth * (1 - bias);
+        int lit = 0;
+        int samples = 0;
+        for (int sy = cy - pcfRadius; sy <= cy + pcfRadius; sy++) {
+            for (int sx = cx - pcfRadius; sx <= cx + pcfRadius; sx++) {
+                final int mx = Math.max(0, Math.min(size - 1, sx));
+                final int my = Math.max(0, Math.min(size - 1, sy));
+                if (limit <= storage.getDepth(mx, row + my)) {
+                    lit++;
+                }
+                samples++;
+            }
+        }
+        return (double) lit / samples;
+    }
+}
@@ -0,0 +1,330 @@
+package renderer.distributed;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import renderer.controller.ImageWrapper;
+import renderer.core.shader.DepthBuffer;
+
+/**
+ * The DepthLayer class holds the color and the depth of the pixels of an
+ * image rendered from part of a mesh, for sort-last compositing: the layers
+ * of the partitions are merged by keeping the nearest pixel of each, which
+ * gives the image of the whole mesh.
+ *
+ * A pixel is covered when something was drawn on it. The pixels left to the
+ * background, usually most of them, are not sent: a layer is written as
+ * runs of uncovered pixels, only counted, each followed by a run of covered
+ * pixels with their color and depth. The depths are sent in single
+ * precision, which is plenty to order the fragments of the partitions.
+ */
+public final class DepthLayer {
+
+    /**
+     * The number of bytes of a covered pixel in a written layer: its blue,
+     * green and red bytes, then its depth as a float.
+     */
+    static final int BYTES_PER_COVERED_PIXEL = TileProtocol.BYTES_PER_PIXEL
+            + Float.BYTES;
+
+    /**
+     * The number of bytes of a pair of runs in a written layer.
+     */
+    static final int BYTES_PER_RUNS = 2 * Integer.BYTES;
+
+    /**
+     * The mask of a color channel.
+     */
+    private static final int CHANNEL_MASK = 0xFF;
+
+    /**
+     * The shift of the red channel in a packed RGB color.
+     */
+    private static final int RED_SHIFT = 16;
+
+    /**
+     * The shift of the green channel in a packed RGB color.
+     */
+    private static final int GREEN_SHIFT = 8;
+
+    /**
+     * The width of the layer.
+     */
+    private final int width;
+
+    /**
+     * The height of the layer.
+     */
+    private final int height;
+
+    /**
+     * The colors of the pixels, in the TYPE_3BYTE_BGR layout.
+     */
+    private final byte[] color;
+
+    /**
+     * The depth of each pixel.
+     */
+    private final float[] depth;
+
+    /**
+     * Whether each pixel is covered.
+     */
+    private final boolean[] covered;
+
+    /**
+     * Creates a layer with no pixel covered.
+     *
+     * @param width  the width of the layer
+     * @param height the height of the layer
+     */
+    public DepthLayer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        color = new byte[width * height * TileProtocol.BYTES_PER_PIXEL];
+        depth = new float[width * height];
+        covered = new boolean[width * height];
+    }
+
+    /**
+     * Creates the layer of a rendered image. A pixel is covered if a depth
+     * was written to it, or if its color is not the background, as the
+     * vertices and edges are drawn without depth.
+     *
+     * @param image       the rendered image
+     * @param depthBuffer the depth buffer of the image
+     * @param background  the packed RGB background color of the image
+     * @return the layer
+     */
+    public static DepthLayer capture(ImageWrapper image, DepthBuffer depthBuffer,
+            int background) {
+        final DepthLayer layer = new DepthLayer(image.getWidth(), image.getHeight());
+        final byte[] data = image.getPixelData();
+        System.arraycopy(data, 0, layer.color, 0, data.length);
+        final byte blue = (byte) background;
+        final byte green = (byte) (background >> GREEN_SHIFT);
+        final byte red = (byte) (background >> RED_SHIFT);
+        for (int y = 0, p = 0; y < layer.height; y++) {
+            for (int x = 0; x < layer.width; x++, p++) {
+                final double z = depthBuffer.getDepth(x, y);
+                final int o = p * TileProtocol.BYTES_PER_PIXEL;
+                layer.covered[p] = z != Double.POSITIVE_INFINITY || data[o] != blue
+                        || data[o + 1] != green || data[o + 2] != red;
+                layer.depth[p] = (float) z;
+            }
+        }
+        return layer;
+    }
+
+    /**
+     * Gets the width of the layer.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the layer.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Covers a pixel.
+     *
+     * @param x   the x coordinate
+     * @param y   the y coordinate
+     * @param rgb the packed RGB color
+     * @param z   the depth
+     */
+    public void set(int x, int y, int rgb, float z) {
+        final int p = y * width + x;
+        final int o = p * TileProtocol.BYTES_PER_PIXEL;
+        color[o] = (byte) rgb;
+        color[o + 1] = (byte) (rgb >> GREEN_SHIFT);
+        color[o + 2] = (byte) (rgb >> RED_SHIFT);
+        depth[p] = z;
+        covered[p] = true;
+    }
+
+    /**
+     * Tells whether a pixel is covered.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return true if something was drawn on the pixel
+     */
+    public boolean isCovered(int x, int y) {
+        return covered[y * width + x];
+    }
+
+    /**
+     * Gets the color of a covered pixel.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the packed RGB color
+     */
+    public int getRGB(int x, int y) {
+        final int o = (y * width + x) * TileProtocol.BYTES_PER_PIXEL;
+        return (color[o + 2] & CHANNEL_MASK) << RED_SHIFT
+                | (color[o + 1] & CHANNEL_MASK) << GREEN_SHIFT
+                | color[o] & CHANNEL_MASK;
+    }
+
+    /**
+     * Gets the depth of a covered pixel.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the depth
+     */
+    public float getDepth(int x, int y) {
+        return depth[y * width + x];
+    }
+
+    /**
+     * Gets the number of pixels covered.
+     *
+     * @return the number of covered pixels
+     */
+    public int getCoveredCount() {
+        int count = 0;
+        for (boolean c : covered) {
+            if (c) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of bytes of the layer once written.
+     *
+     * @return the number of bytes written by write
+     */
+    public long getEncodedSize() {
+        long bytes = 0;
+        int p = 0;
+        while (p < covered.length) {
+            while (p < covered.length && !covered[p]) {
+                p++;
+            }
+            final int runStart = p;
+            while (p < covered.length && covered[p]) {
+                p++;
+            }
+            bytes += BYTES_PER_RUNS + (long) (p - runStart) * BYTES_PER_COVERED_PIXEL;
+        }
+        return bytes;
+    }
+
+    /**
+     * Merges a layer behind this one: the pixels of the other layer are kept
+     * where this one is not covered or is farther. On equal depths this
+     * layer wins, as the faces of the first partitions are drawn first by a
+     * single renderer.
+     *
+     * @param other the layer of a following partition, of the same size
+     */
+    public void composite(DepthLayer other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("Cannot composite a " + other.width + "x"
+                    + other.height + " layer into a " + width + "x" + height + " one");
+        }
+        for (int p = 0; p < covered.length; p++) {
+            if (other.covered[p] && (!covered[p] || other.depth[p] < depth[p])) {
+                final int o = p * TileProtocol.BYTES_PER_PIXEL;
+                System.arraycopy(other.color, o, color, o, TileProtocol.BYTES_PER_PIXEL);
+                depth[p] = other.depth[p];
+                covered[p] = true;
+            }
+        }
+    }
+
+    /**
+     * Copies the covered pixels into an image, the others being left
+     * untouched.
+     *
+     * @param image the image, of the size of the layer
+     */
+    public void resolve(ImageWrapper image) {
+        final byte[] data = image.getPixelData();
+        for (int p = 0; p < covered.length; p++) {
+            if (covered[p]) {
+                final int o = p * TileProtocol.BYTES_PER_PIXEL;
+                System.arraycopy(color, o, data, o, TileProtocol.BYTES_PER_PIXEL);
+            }
+        }
+    }
+
+    /**
+     * Writes the layer, with the uncovered pixels run-length encoded.
+     *
+     * @param out the stream
+     * @return the number of bytes written
+     * @throws IOException if the stream failed
+     */
+    public long write(DataOutputStream out) throws IOException {
+        long bytes = 0;
+        int p = 0;
+        while (p < covered.length) {
+            final int skipStart = p;
+            while (p < covered.length && !covered[p]) {
+                p++;
+            }
+            final int runStart = p;
+            while (p < covered.length && covered[p]) {
+                p++;
+            }
+            out.writeInt(runStart - skipStart);
+            out.writeInt(p - runStart);
+            for (int q = runStart; q < p; q++) {
+                out.write(color, q * TileProtocol.BYTES_PER_PIXEL,
+                        TileProtocol.BYTES_PER_PIXEL);
+                out.writeFloat(depth[q]);
+            }
+            bytes += BYTES_PER_RUNS + (long) (p - runStart) * BYTES_PER_COVERED_PIXEL;
+        }
+        return bytes;
+    }
+
+    /**
+     * Reads a layer written by write.
+     *
+     * @param in     the stream
+     * @param width  the width of the layer
+     * @param height the height of the layer
+     * @return the layer
+     * @throws IOException if the stream failed or the runs do not fit in the
+     *                     layer
+     */
+    public static DepthLayer read(DataInputStream in, int width, int height)
+            throws IOException {
+        final DepthLayer layer = new DepthLayer(width, height);
+        int p = 0;
+        while (p < layer.covered.length) {
+            final int skip = in.readInt();
+            final int run = in.readInt();
+            if (skip < 0 || run < 0 || skip + run == 0
+                    || (long) p + skip + run > layer.covered.length) {
+                throw new IOException("Invalid runs " + skip + ", " + run
+                        + " at pixel " + p);
+            }
+            p += skip;
+            for (final int end = p + run; p < end; p++) {
+                in.readFully(layer.color, p * TileProtocol.BYTES_PER_PIXEL,
+                        TileProtocol.BYTES_PER_PIXEL);
+                layer.depth[p] = in.readFloat();
+                layer.covered[p] = true;
+            }
+        }
+        return layer;
+    }
+}
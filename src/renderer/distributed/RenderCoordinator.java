@@ -0,0 +1,416 @@
+package renderer.distributed;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import renderer.controller.ImageWrapper;
+import renderer.core.mesh.Scene;
+
+/**
+ * The RenderCoordinator class manages the worker processes rendering an
+ * image together: it listens for the workers, sends them the settings of
+ * the render when they connect, and stops them when closed. The subclasses
+ * decide how the work is split between the workers and how their results
+ * make the image.
+ *
+ * The workers connect over sockets, either spawned on this machine by
+ * spawnLocalWorkers, or started elsewhere with the host and port of the
+ * coordinator: it listens on every interface unless given a bind address.
+ * Each worker loads the scene once, when it connects. A worker that does
+ * not answer a job within the job timeout is dropped, as if it had
+ * disconnected.
+ */
+public abstract class RenderCoordinator implements Closeable {
+
+    /**
+     * The time to wait for a process to exit before stopping it.
+     */
+    private static final long EXIT_WAIT_MS = 50;
+
+    /**
+     * The time to wait for a spawned worker to connect.
+     */
+    private static final int CONNECT_TIMEOUT_MS = 30_000;
+
+    /**
+     * The default time to wait for the answer of a worker to a job.
+     */
+    public static final int DEFAULT_JOB_TIMEOUT_MS = 60_000;
+
+    /**
+     * The path of the scene file.
+     */
+    private final String scenePath;
+
+    /**
+     * The scene, for the size of the image.
+     */
+    private final Scene scene;
+
+    /**
+     * The socket the workers connect to.
+     */
+    private final ServerSocket server;
+
+    /**
+     * The connected workers.
+     */
+    private final List<Connection> workers = new ArrayList<>();
+
+    /**
+     * The worker processes spawned on this machine.
+     */
+    private final List<Process> processes = new ArrayList<>();
+
+    /**
+     * The name of the shader of the workers, empty for the default one.
+     */
+    private String shader = "";
+
+    /**
+     * The render modes and lighting of the workers, as protocol flags.
+     */
+    private int flags = TileProtocol.SOLID;
+
+    /**
+     * The time to wait for the answer of a worker to a job, in milliseconds.
+     */
+    private volatile int jobTimeoutMs = DEFAULT_JOB_TIMEOUT_MS;
+
+    /**
+     * A connection to a worker.
+     */
+    protected static final class Connection {
+
+        /** The socket. */
+        private final Socket socket;
+
+        /** The stream from the worker. */
+        private final DataInputStream in;
+
+        /** The stream to the worker. */
+        private final DataOutputStream out;
+
+        /** The partition of the mesh loaded by the worker. */
+        private final int partition;
+
+        /** Whether the worker failed. */
+        private volatile boolean failed;
+
+        /**
+         * Wraps a socket.
+         *
+         * @param socket    the socket connected to the worker
+         * @param partition the partition of the mesh loaded by the worker
+         * @throws IOException if the streams cannot be opened
+         */
+        Connection(Socket socket, int partition) throws IOException {
+            this.socket = socket;
+            this.partition = partition;
+            socket.setTcpNoDelay(true);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        /**
+         * Gets the stream from the worker.
+         *
+         * @return the input stream
+         */
+        DataInputStream in() {
+            return in;
+        }
+
+        /**
+         * Gets the stream to the worker.
+         *
+         * @return the output stream
+         */
+        DataOutputStream out() {
+            return out;
+        }
+
+        /**
+         * Gets the partition of the mesh loaded by the worker.
+         *
+         * @return the index of the partition
+         */
+        int getPartition() {
+            return partition;
+        }
+
+        /**
+         * Drops the worker after an error: the socket is closed and the
+         * worker removed by the next call to removeFailedWorkers.
+         */
+        void fail() {
+            failed = true;
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Creates a coordinator listening for workers on a free port of every
+     * interface.
+     *
+     * @param scenePath the path of the scene file, readable by the workers
+     * @throws IOException if the scene cannot be read or the port opened
+     */
+    protected RenderCoordinator(String scenePath) throws IOException {
+        this(scenePath, null);
+    }
+
+    /**
+     * Creates a coordinator listening for workers on a free port of an
+     * interface.
+     *
+     * @param scenePath   the path of the scene file, readable by the workers
+     * @param bindAddress the address listened on, null for every interface
+     * @throws IOException if the scene cannot be read or the port opened
+     */
+    protected RenderCoordinator(String scenePath, InetAddress bindAddress)
+            throws IOException {
+        this.scenePath = scenePath;
+        this.scene = new Scene(scenePath);
+        this.server = new ServerSocket(0, 0, bindAddress);
+    }
+
+    /**
+     * Sets the shader of the workers connecting from now on.
+     *
+     * @param shaderName the name of the shader, as given to the ShaderFactory
+     */
+    public void setShader(String shaderName) {
+        this.shader = shaderName;
+    }
+
+    /**
+     * Sets what the workers connecting from now on render.
+     *
+     * @param vertices  whether the vertices are rendered
+     * @param wireframe whether the edges are rendered
+     * @param solid     whether the faces are rendered
+     * @param lighting  whether the lighting is enabled
+     */
+    public void setRenderModes(boolean vertices, boolean wireframe, boolean solid,
+            boolean lighting) {
+        flags = (vertices ? TileProtocol.VERTICES : 0)
+                | (wireframe ? TileProtocol.WIREFRAME : 0)
+                | (solid ? TileProtocol.SOLID : 0)
+                | (lighting ? TileProtocol.LIGHTING : 0);
+    }
+
+    /**
+     * Gets the address the workers spawned on this machine connect to: the
+     * loopback address, unless the coordinator only listens on another
+     * interface.
+     *
+     * @return the address
+     */
+    private InetAddress localAddress() {
+        final InetAddress bound = server.getInetAddress();
+        return bound.isAnyLocalAddress() ? InetAddress.getLoopbackAddress() : bound;
+    }
+
+    /**
+     * Sets the time to wait for the answer of a worker to a job, after which
+     * the worker is dropped and its job given to another one.
+     *
+     * @param timeoutMs the timeout in milliseconds, 0 to wait forever
+     * @throws IOException if the timeout cannot be set on a connected worker
+     */
+    public synchronized void setJobTimeout(int timeoutMs) throws IOException {
+        if (timeoutMs < 0) {
+            throw new IllegalArgumentException("Invalid job timeout " + timeoutMs);
+        }
+        jobTimeoutMs = timeoutMs;
+        for (Connection worker : workers) {
+            worker.socket.setSoTimeout(timeoutMs);
+        }
+    }
+
+    /**
+     * Gets the port the workers connect to.
+     *
+     * @return the port on the loopback interface
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Gets the number of workers still connected.
+     *
+     * @return the number of workers
+     */
+    public synchronized int getWorkerCount() {
+        return workers.size();
+    }
+
+    /**
+     * Starts worker processes on this machine, with the class path of this
+     * JVM, and waits for them to connect.
+     *
+     * @param count the number of workers
+     * @throws IOException if a process cannot be started or does not connect
+     */
+    public void spawnLocalWorkers(int count) throws IOException {
+        final String java = System.getProperty("java.home") + File.separator + "bin"
+                + File.separator + "java";
+        for (int i = 0; i < count; i++) {
+            final ProcessBuilder builder = new ProcessBuilder(java, "-cp",
+                    System.getProperty("java.class.path"), TileWorker.class.getName(),
+                    localAddress().getHostAddress(), String.valueOf(getPort()));
+            builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+            builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+            processes.add(builder.start());
+        }
+        acceptWorkers(count, CONNECT_TIMEOUT_MS);
+    }
+
+    /**
+     * Waits for workers to connect, and sends them the settings of the render.
+     *
+     * @param count     the number of workers to wait for
+     * @param timeoutMs the time to wait for each worker
+     * @throws IOException if a worker does not connect in time, or no
+     *                     partition of the mesh is left for it
+     */
+    public void acceptWorkers(int count, int timeoutMs) throws IOException {
+        server.setSoTimeout(timeoutMs);
+        for (int i = 0; i < count; i++) {
+            final Socket socket = server.accept();
+            final int partition;
+            try {
+                partition = nextPartition();
+            } catch (IOException e) {
+                closeQuietly(socket);
+                throw e;
+            }
+            final Connection worker = new Connection(socket, partition);
+            socket.setSoTimeout(jobTimeoutMs);
+            worker.out.writeUTF(scenePath);
+            worker.out.writeUTF(shader);
+            worker.out.writeInt(flags);
+            worker.out.writeInt(partition);
+            worker.out.writeInt(getPartitions());
+            worker.out.flush();
+            synchronized (this) {
+                workers.add(worker);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of partitions the faces of the mesh are split into,
+     * each worker loading one of them.
+     *
+     * @return the number of partitions, 1 when every worker loads the whole
+     *         mesh
+     */
+    protected int getPartitions() {
+        return 1;
+    }
+
+    /**
+     * Chooses the partition of the mesh of the next worker connecting.
+     *
+     * @return the index of the partition
+     * @throws IOException if no partition is left for the worker
+     */
+    protected int nextPartition() throws IOException {
+        return 0;
+    }
+
+    /**
+     * Gets the workers connected, for a render.
+     *
+     * @return a copy of the list of the workers
+     */
+    protected synchronized List<Connection> getWorkers() {
+        return new ArrayList<>(workers);
+    }
+
+    /**
+     * Forgets the workers that failed.
+     */
+    protected synchronized void removeFailedWorkers() {
+        workers.removeIf(worker -> worker.failed);
+    }
+
+    /**
+     * Creates an image of the size of the scene, cleared to the background.
+     *
+     * @return the image
+     */
+    protected ImageWrapper createImage() {
+        return new ImageWrapper(scene.getScreenW(), scene.getScreenH());
+    }
+
+    /**
+     * Renders the image of the scene with the connected workers.
+     *
+     * @return the image
+     * @throws IOException if the workers failed before the image is complete
+     */
+    public abstract ImageWrapper render() throws IOException;
+
+    /**
+     * Closes a socket, ignoring the errors.
+     *
+     * @param socket the socket
+     */
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // already broken
+        }
+    }
+
+    /**
+     * Says bye to the workers, stops listening and stops the spawned
+     * processes.
+     */
+    @Override
+    public synchronized void close() {
+        for (Connection worker : workers) {
+            try {
+                worker.out.writeInt(TileProtocol.BYE);
+                worker.out.flush();
+            } catch (IOException e) {
+                // the worker is gone already
+            }
+            closeQuietly(worker.socket);
+        }
+        workers.clear();
+        try {
+            server.close();
+        } catch (IOException e) {
+            // nothing left to release
+        }
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(EXIT_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                    process.destroy();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroy();
+            }
+        }
+        processes.clear();
+    }
+}
@@ -0,0 +1,184 @@
+package renderer.distributed;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import renderer.controller.ImageWrapper;
+
+/**
+ * The SortLastCoordinator class renders a mesh too large for one process:
+ * the faces of the mesh are split into as many partitions as workers, each
+ * worker loads only its partition and renders it over the whole image, and
+ * the layers they send back are merged by depth.
+ *
+ * The layers are merged as a binary tree: the layers of neighboring
+ * partitions are merged in parallel, then the results, and so on, so that
+ * compositing n layers takes log2(n) steps. The uncovered pixels of the
+ * layers are not sent, which keeps the traffic close to the number of
+ * pixels actually drawn.
+ *
+ * A partition is lost with its worker, so the render fails as soon as a
+ * worker fails. A new worker connecting then loads the lost partition.
+ */
+public class SortLastCoordinator extends RenderCoordinator {
+
+    /**
+     * The number of partitions of the mesh.
+     */
+    private final int partitions;
+
+    /**
+     * The number of bytes of the layers received by the last render.
+     */
+    private volatile long lastTrafficBytes;
+
+    /**
+     * Creates a coordinator listening for workers on a free port of every
+     * interface.
+     *
+     * @param scenePath  the path of the scene file, readable by the workers
+     * @param partitions the number of partitions of the mesh, one per worker
+     * @throws IOException if the scene cannot be read or the port opened
+     */
+    public SortLastCoordinator(String scenePath, int partitions) throws IOException {
+        this(scenePath, partitions, null);
+    }
+
+    /**
+     * Creates a coordinator listening for workers on a free port of an
+     * interface.
+     *
+     * @param scenePath   the path of the scene file, readable by the workers
+     * @param partitions  the number of partitions of the mesh, one per worker
+     * @param bindAddress the address listened on, null for every interface
+     * @throws IOException if the scene cannot be read or the port opened
+     */
+    public SortLastCoordinator(String scenePath, int partitions,
+            InetAddress bindAddress) throws IOException {
+        super(scenePath, bindAddress);
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Invalid partition count " + partitions);
+        }
+        this.partitions = partitions;
+    }
+
+    @Override
+    protected int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Gives the next worker the first partition without a worker.
+     *
+     * @return the index of the partition
+     * @throws IOException if every partition has a worker
+     */
+    @Override
+    protected int nextPartition() throws IOException {
+        final boolean[] taken = new boolean[partitions];
+        for (Connection worker : getWorkers()) {
+            taken[worker.getPartition()] = true;
+        }
+        for (int partition = 0; partition < partitions; partition++) {
+            if (!taken[partition]) {
+                return partition;
+            }
+        }
+        throw new IOException("Every one of the " + partitions
+                + " partitions has a worker already.");
+    }
+
+    /**
+     * Gets the number of bytes of the layers received by the last render.
+     *
+     * @return the number of bytes
+     */
+    public long getLastTrafficBytes() {
+        return lastTrafficBytes;
+    }
+
+    /**
+     * Renders the image of the scene with the connected workers.
+     *
+     * @return the image
+     * @throws IOException if a partition has no worker, or a worker failed
+     */
+    @Override
+    public ImageWrapper render() throws IOException {
+        final List<Connection> active = getWorkers();
+        final Connection[] byPartition = new Connection[partitions];
+        for (Connection worker : active) {
+            byPartition[worker.getPartition()] = worker;
+        }
+        for (int partition = 0; partition < partitions; partition++) {
+            if (byPartition[partition] == null) {
+                throw new IOException("No worker for partition " + partition);
+            }
+        }
+
+        final ImageWrapper image = createImage();
+        final DepthLayer[] layers = new DepthLayer[partitions];
+        final List<Thread> threads = new ArrayList<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            final int index = partition;
+            final Connection worker = byPartition[index];
+            final Thread thread = new Thread(() -> {
+                try {
+                    worker.out().writeInt(TileProtocol.LAYER);
+                    worker.out().flush();
+                    layers[index] = DepthLayer.read(worker.in(), image.getWidth(),
+                            image.getHeight());
+                } catch (IOException e) {
+                    worker.fail();
+                }
+            }, "layer-receiver");
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while rendering.", e);
+            }
+        }
+        removeFailedWorkers();
+        long traffic = 0;
+        for (int partition = 0; partition < partitions; partition++) {
+            if (layers[partition] == null) {
+                throw new IOException("The worker of partition " + partition
+                        + " failed.");
+            }
+            traffic += layers[partition].getEncodedSize();
+        }
+        lastTrafficBytes = traffic;
+
+        composite(layers).resolve(image);
+        return image;
+    }
+
+    /**
+     * Merges layers by depth, as a binary tree: at each step, every layer
+     * whose index is a multiple of twice the step absorbs the layer one step
+     * further, all in parallel.
+     *
+     * @param layers the layers, in the order of the partitions; they are
+     *               merged in place
+     * @return the merged layer, which is the first one
+     */
+    public static DepthLayer composite(DepthLayer[] layers) {
+        for (int step = 1; step < layers.length; step *= 2) {
+            final int stride = 2 * step;
+            final int offset = step;
+            final int pairs = (layers.length - step + stride - 1) / stride;
+            IntStream.range(0, pairs).parallel().forEach(
+                    i -> layers[i * stride].composite(layers[i * stride + offset]));
+        }
+        return layers[0];
+    }
+}
@@ -0,0 +1,99 @@
+package renderer.distributed;
+
+/**
+ * A rectangle of the image rendered by a worker.
+ */
+public final class Tile {
+
+    /**
+     * The index of the tile in the image.
+     */
+    private final int id;
+
+    /**
+     * The x-coordinate of the top left pixel.
+     */
+    private final int x;
+
+    /**
+     * The y-coordinate of the top left pixel.
+     */
+    private final int y;
+
+    /**
+     * The width of the tile.
+     */
+    private final int width;
+
+    /**
+     * The height of the tile.
+     */
+    private final int height;
+
+    /**
+     * Creates a tile.
+     *
+     * @param id     the index of the tile in the image
+     * @param x      the x-coordinate of the top left pixel
+     * @param y      the y-coordinate of the top left pixel
+     * @param width  the width of the tile
+     * @param height the height of the tile
+     */
+    public Tile(int id, int x, int y, int width, int height) {
+        this.id = id;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Gets the index of the tile in the image.
+     *
+     * @return the index
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the x-coordinate of the top left pixel.
+     *
+     * @return the x-coordinate
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Gets the y-coordinate of the top left pixel.
+     *
+     * @return the y-coordinate
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Gets the width of the tile.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the tile.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public String toString() {
+        return "tile " + id + " (" + width + "x" + height + " at " + x + ", " + y + ")";
+    }
+}
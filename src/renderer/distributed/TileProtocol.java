@@ -0,0 +1,104 @@
+package renderer.distributed;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * The messages exchanged between a TileRenderCoordinator and its workers.
+ *
+ * Once connected, a worker receives the settings of the render: the scene
+ * file, the shader, the render modes and the partition of the faces of the
+ * mesh it loads. It then receives jobs:
+ * - tile jobs, each made of an id and a rectangle of the image, answered
+ *   with the id and the pixels of the tile, in the TYPE_3BYTE_BGR layout,
+ *   row by row;
+ * - layer jobs, answered with the colors and depths of the whole image
+ *   rendered from the partition, as written by DepthLayer.
+ * The coordinator ends the session with a bye message.
+ */
+final class TileProtocol {
+
+    /**
+     * The message of a tile job.
+     */
+    static final int TILE = 1;
+
+    /**
+     * The message ending the session.
+     */
+    static final int BYE = 2;
+
+    /**
+     * The message of a layer job.
+     */
+    static final int LAYER = 3;
+
+    /**
+     * The flag of the rendering of the vertices.
+     */
+    static final int VERTICES = 1;
+
+    /**
+     * The flag of the rendering of the edges.
+     */
+    static final int WIREFRAME = 1 << 1;
+
+    /**
+     * The flag of the rendering of the faces.
+     */
+    static final int SOLID = 1 << 2;
+
+    /**
+     * The flag of the lighting.
+     */
+    static final int LIGHTING = 1 << 3;
+
+    /**
+     * The number of bytes per pixel of the tiles.
+     */
+    static final int BYTES_PER_PIXEL = 3;
+
+    /**
+     * This class only holds constants and helpers.
+     */
+    private TileProtocol() {
+    }
+
+    /**
+     * Writes a tile job.
+     *
+     * @param out  the stream to the worker
+     * @param tile the tile
+     * @throws IOException if the connection failed
+     */
+    static void writeJob(DataOutputStream out, Tile tile) throws IOException {
+        out.writeInt(TILE);
+        out.writeInt(tile.getId());
+        out.writeInt(tile.getX());
+        out.writeInt(tile.getY());
+        out.writeInt(tile.getWidth());
+        out.writeInt(tile.getHeight());
+        out.flush();
+    }
+
+    /**
+     * Reads the pixels of a tile answered by a worker.
+     *
+     * @param in   the stream from the worker
+     * @param tile the tile expected
+     * @return the pixels of the tile
+     * @throws IOException if the connection failed or the answer is not the
+     *                     one expected
+     */
+    static byte[] readPixels(DataInputStream in, Tile tile) throws IOException {
+        final int id = in.readInt();
+        if (id != tile.getId()) {
+            throw new IOException("Expected tile " + tile.getId() + ", got " + id);
+        }
+        final byte[] pixels = new byte[tile.getWidth() * tile.getHeight()
+                * BYTES_PER_PIXEL];
+        in.readFully(pixels);
+        return pixels;
+    }
+}
@@ -0,0 +1,192 @@
+package renderer.distributed;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import renderer.controller.ImageWrapper;
+
+/**
+ * The TileRenderCoordinator class renders an image with several worker
+ * processes: the image is split into tiles, the tiles are handed out to the
+ * workers as they become idle, and the pixels they send back are stitched
+ * into the image.
+ *
+ * Every worker loads the whole mesh. A worker failing is dropped and its
+ * tile put back in the queue for the others; the render fails only once
+ * every worker is lost.
+ */
+public class TileRenderCoordinator extends RenderCoordinator {
+
+    /**
+     * The default size of the tiles, in pixels.
+     */
+    public static final int DEFAULT_TILE_SIZE = 128;
+
+    /**
+     * The time a worker thread waits for a tile before checking whether the
+     * image is complete.
+     */
+    private static final long POLL_MS = 50;
+
+    /**
+     * The size of the tiles.
+     */
+    private final int tileSize;
+
+    /**
+     * Creates a coordinator listening for workers on a free port of every
+     * interface.
+     *
+     * @param scenePath the path of the scene file, readable by the workers
+     * @param tileSize  the size of the tiles, in pixels
+     * @throws IOException if the scene cannot be read or the port opened
+     */
+    public TileRenderCoordinator(String scenePath, int tileSize) throws IOException {
+        this(scenePath, tileSize, null);
+    }
+
+    /**
+     * Creates a coordinator listening for workers on a free port of an
+     * interface.
+     *
+     * @param scenePath   the path of the scene file, readable by the workers
+     * @param tileSize    the size of the tiles, in pixels
+     * @param bindAddress the address listened on, null for every interface
+     * @throws IOException if the scene cannot be read or the port opened
+     */
+    public TileRenderCoordinator(String scenePath, int tileSize,
+            InetAddress bindAddress) throws IOException {
+        super(scenePath, bindAddress);
+        if (tileSize < 1) {
+            throw new IllegalArgumentException("Invalid tile size " + tileSize);
+        }
+        this.tileSize = tileSize;
+    }
+
+    /**
+     * Splits the image into tiles, row by row.
+     *
+     * @param width  the width of the image
+     * @param height the height of the image
+     * @return the tiles
+     */
+    public List<Tile> split(int width, int height) {
+        final List<Tile> tiles = new ArrayList<>();
+        for (int y = 0; y < height; y += tileSize) {
+            for (int x = 0; x < width; x += tileSize) {
+                tiles.add(new Tile(tiles.size(), x, y, Math.min(tileSize, width - x),
+                        Math.min(tileSize, height - y)));
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Renders the image of the scene with the connected workers.
+     *
+     * @return the image
+     * @throws IOException if every worker failed before the image is complete
+     */
+    @Override
+    public ImageWrapper render() throws IOException {
+        final List<Connection> active = getWorkers();
+        if (active.isEmpty()) {
+            throw new IOException("No worker connected.");
+        }
+        final ImageWrapper image = createImage();
+        final List<Tile> tiles = split(image.getWidth(), image.getHeight());
+        final BlockingQueue<Tile> queue = new LinkedBlockingQueue<>(tiles);
+        final CountDownLatch remaining = new CountDownLatch(tiles.size());
+        final AtomicInteger alive = new AtomicInteger(active.size());
+
+        final List<Thread> threads = new ArrayList<>();
+        for (Connection worker : active) {
+            final Thread thread = new Thread(
+                    () -> feed(worker, queue, remaining, alive, image), "tile-feeder");
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while rendering.", e);
+            }
+        }
+        removeFailedWorkers();
+        if (remaining.getCount() > 0) {
+            throw new IOException("Every worker failed, " + remaining.getCount()
+                    + " tiles left.");
+        }
+        return image;
+    }
+
+    /**
+     * Hands out tiles to a worker until the image is complete or the worker
+     * fails, in which case its tile is put back in the queue.
+     *
+     * @param worker    the worker
+     * @param queue     the tiles not rendered yet
+     * @param remaining the number of tiles not stitched yet
+     * @param alive     the number of workers still feeding
+     * @param image     the image the tiles are stitched into
+     */
+    private void feed(Connection worker, BlockingQueue<Tile> queue,
+            CountDownLatch remaining, AtomicInteger alive, ImageWrapper image) {
+        try {
+            while (remaining.getCount() > 0) {
+                final Tile tile;
+                try {
+                    tile = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (tile == null) {
+                    // tiles in flight on other workers may still come back
+                    if (alive.get() == 0) {
+                        return;
+                    }
+                    continue;
+                }
+                try {
+                    TileProtocol.writeJob(worker.out(), tile);
+                    stitch(image, tile, TileProtocol.readPixels(worker.in(), tile));
+                    remaining.countDown();
+                } catch (IOException e) {
+                    queue.add(tile);
+                    worker.fail();
+                    return;
+                }
+            }
+        } finally {
+            alive.decrementAndGet();
+        }
+    }
+
+    /**
+     * Copies the pixels of a tile into the image.
+     *
+     * @param image  the image
+     * @param tile   the tile
+     * @param pixels the pixels of the tile, row by row
+     */
+    private static void stitch(ImageWrapper image, Tile tile, byte[] pixels) {
+        final byte[] data = image.getPixelData();
+        final int rowBytes = tile.getWidth() * TileProtocol.BYTES_PER_PIXEL;
+        for (int row = 0; row < tile.getHeight(); row++) {
+            final int target = ((tile.getY() + row) * image.getWidth() + tile.getX())
+                    * TileProtocol.BYTES_PER_PIXEL;
+            System.arraycopy(pixels, row * rowBytes, data, target, rowBytes);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package renderer.distributed;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+
+import renderer.controller.ImageWrapper;
+import renderer.controller.Renderer;
+
+/**
+ * The TileWorker class renders the jobs a RenderCoordinator sends it.
+ * It connects to the coordinator, loads the scene once with the settings it
+ * receives, then renders each tile job by setting the viewport of its
+ * Renderer to the tile, and each layer job by rendering the whole image with
+ * its partition of the mesh, until the coordinator says bye.
+ *
+ * Usage: {@code java renderer.distributed.TileWorker <host> <port>}
+ */
+public final class TileWorker {
+
+    /**
+     * The renderer of the tiles.
+     */
+    private final Renderer renderer;
+
+    /**
+     * Creates a worker from the settings sent by the coordinator.
+     *
+     * @param in the stream from the coordinator
+     * @throws IOException if the settings cannot be read or the scene loaded
+     */
+    TileWorker(DataInputStream in) throws IOException {
+        final String scene = in.readUTF();
+        final String shader = in.readUTF();
+        final int flags = in.readInt();
+        final int partition = in.readInt();
+        final int partitions = in.readInt();
+        renderer = new Renderer();
+        renderer.setMeshPartition(partition, partitions);
+        renderer.setScene(scene);
+        if (!shader.isEmpty() && !renderer.setShader(shader)) {
+            throw new IOException("Unknown shader " + shader);
+        }
+        renderer.setVertexRendered((flags & TileProtocol.VERTICES) != 0);
+        renderer.setWiredRendered((flags & TileProtocol.WIREFRAME) != 0);
+        renderer.setSolidRendered((flags & TileProtocol.SOLID) != 0);
+        renderer.setLightingEnabled((flags & TileProtocol.LIGHTING) != 0);
+    }
+
+    /**
+     * Renders the jobs until the coordinator says bye or disconnects.
+     *
+     * @param in  the stream from the coordinator
+     * @param out the stream to the coordinator
+     * @throws IOException if the connection failed
+     */
+    void serve(DataInputStream in, DataOutputStream out) throws IOException {
+        while (true) {
+            final int message;
+            try {
+                message = in.readInt();
+            } catch (EOFException e) {
+                return;
+            }
+            if (message == TileProtocol.BYE) {
+                return;
+            }
+            if (message == TileProtocol.LAYER) {
+                renderer.resetViewport();
+                final ImageWrapper image = renderer.render();
+                DepthLayer.capture(image, renderer.getDepthBuffer(),
+                        ImageWrapper.getDefaultBackgroundColor()).write(out);
+                out.flush();
+                continue;
+            }
+            if (message != TileProtocol.TILE) {
+                throw new IOException("Unknown message " + message);
+            }
+            final int id = in.readInt();
+            final int x = in.readInt();
+            final int y = in.readInt();
+            final int width = in.readInt();
+            final int height = in.readInt();
+
+            renderer.setViewport(x, y, width, height);
+            final ImageWrapper tile = renderer.render();
+            out.writeInt(id);
+            out.write(tile.getPixelData());
+            out.flush();
+        }
+    }
+
+    /**
+     * Connects to a coordinator and renders its tiles.
+     *
+     * @param args the host and the port of the coordinator
+     * @throws IOException if the connection failed
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: TileWorker <host> <port>");
+            System.exit(1);
+        }
+        try (Socket socket = new Socket(args[0], Integer.parseInt(args[1]))) {
+            socket.setTcpNoDelay(true);
+            final DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(socket.getInputStream()));
+            final DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream()));
+            new TileWorker(in).serve(in, out);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package renderer.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a cached result dropped, so that the work it
+ * saved is done again.
+ */
+@Name("renderer.CacheEviction")
+@Label("Cache Eviction")
+@Category({"Renderer"})
+@Description("A cached result dropped and computed again")
+@StackTrace(false)
+public class CacheEvictionEvent extends Event {
+
+    /** The cache the entry is evicted from. */
+    @Label("Cache")
+    public String cache;
+
+    /** The entry evicted. */
+    @Label("Key")
+    public String key;
+
+    /** Why the entry is evicted. */
+    @Label("Reason")
+    public String reason;
+
+    /** The memory held by the entry. */
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    /**
+     * Records an eviction, if the event is enabled.
+     *
+     * @param cache  the cache the entry is evicted from
+     * @param key    the entry evicted, only converted to a string if recorded
+     * @param reason why the entry is evicted
+     * @param bytes  the memory held by the entry
+     */
+    public static void emit(String cache, Object key, String reason, long bytes) {
+        final CacheEvictionEvent event = new CacheEvictionEvent();
+        if (event.shouldCommit()) {
+            event.cache = cache;
+            event.key = String.valueOf(key);
+            event.reason = reason;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package renderer.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event of a frame rendered, spanning the whole render, with
+ * the settings of the frame and the time spent in each of its stages.
+ *
+ * The renderer only times the stages while the event is enabled, without
+ * the per-fragment counters of profiling, and the event records no stack
+ * trace, so it can stay enabled in production.
+ */
+@Name("renderer.Frame")
+@Label("Frame")
+@Category({"Renderer"})
+@Description("A frame rendered, with its settings and stage timings")
+@StackTrace(false)
+public class FrameEvent extends Event {
+
+    /** The scene file. */
+    @Label("Scene")
+    public String scene;
+
+    /** The class of the shader. */
+    @Label("Shader")
+    public String shader;
+
+    /** The class of the rasterizer. */
+    @Label("Rasterizer")
+    public String rasterizer;
+
+    /** The width of the frame. */
+    @Label("Width")
+    public int width;
+
+    /** The height of the frame. */
+    @Label("Height")
+    public int height;
+
+    /** The time spent updating the shadow maps. */
+    @Label("Shadows")
+    @Timespan(Timespan.NANOSECONDS)
+    public long shadowsTime;
+
+    /** The time spent projecting and lighting the vertices. */
+    @Label("Vertices")
+    @Timespan(Timespan.NANOSECONDS)
+    public long verticesTime;
+
+    /** The time spent rasterizing the vertices as points. */
+    @Label("Points")
+    @Timespan(Timespan.NANOSECONDS)
+    public long pointsTime;
+
+    /** The time spent rasterizing the edges. */
+    @Label("Wireframe")
+    @Timespan(Timespan.NANOSECONDS)
+    public long wireframeTime;
+
+    /** The time spent rasterizing and shading the faces. */
+    @Label("Solid")
+    @Timespan(Timespan.NANOSECONDS)
+    public long solidTime;
+
+    /** The time spent rendering the normals. */
+    @Label("Normals")
+    @Timespan(Timespan.NANOSECONDS)
+    public long normalsTime;
+
+    /** The time spent in the screen-space passes. */
+    @Label("Post-process")
+    @Timespan(Timespan.NANOSECONDS)
+    public long postProcessTime;
+
+    /** The number of triangles submitted. */
+    @Label("Triangles")
+    public long triangles;
+
+    /** The number of bytes of the color of the frame. */
+    @Label("Image Size")
+    @DataAmount
+    public long imageBytes;
+}
@@ -0,0 +1,44 @@
+package renderer.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a mesh or texture read from a file, spanning the
+ * read and the parsing of the file.
+ */
+@Name("renderer.ResourceLoad")
+@Label("Resource Load")
+@Category({"Renderer"})
+@Description("A mesh or a texture read and parsed from a file")
+@StackTrace(false)
+public class ResourceLoadEvent extends Event {
+
+    /** The kind of mesh resources. */
+    public static final String MESH = "mesh";
+
+    /** The kind of texture resources. */
+    public static final String TEXTURE = "texture";
+
+    /** The kind of resource: mesh or texture. */
+    @Label("Kind")
+    public String kind;
+
+    /** The path of the file. */
+    @Label("Path")
+    public String path;
+
+    /** The size of the file. */
+    @Label("File Size")
+    @DataAmount
+    public long bytes;
+
+    /** The number of vertices of a mesh, or of pixels of a texture. */
+    @Label("Elements")
+    public long elements;
+}
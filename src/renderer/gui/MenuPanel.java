@@ -1,5 +1,6 @@
 package renderer.gui;
 
+import java.awt.Component;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
@@ -10,6 +11,7 @@ import java.io.IOException;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import javax.swing.ButtonGroup;
 import javax.swing.JButton;
@@ -20,10 +22,13 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JRadioButton;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
 
 import renderer.controller.ColorMapFactory;
+import renderer.controller.RenderExecutor;
 import renderer.controller.Renderer;
 import renderer.controller.ShaderFactory;
+import renderer.core.postprocess.FxaaPostProcess;
 
 public class MenuPanel extends JPanel {
 
@@ -56,6 +61,20 @@ public class MenuPanel extends JPanel {
      */
     private static final int TAB_SIZE_PIXEL = 30;
 
+    /**
+     * The number of samples per pixel of the MSAA rasterizer.
+     */
+    private static final int MSAA_SAMPLES = 4;
+    /**
+     * The tooltip of the MSAA rasterizer when the shader does not support it.
+     */
+    private static final String MSAA_FALLBACK_TIP =
+            "The shader does not support multisampling: one sample per pixel";
+    /**
+     * The radius of the filter softening the shadows, in shadow map pixels.
+     */
+    private static final int SHADOW_PCF_RADIUS = 1;
+
     /**
      * A Disabled constant.
      */
@@ -149,6 +168,22 @@ public class MenuPanel extends JPanel {
      * The perspective rasterizer button.
      */
     private final JRadioButton persperctiveRasterizer;
+    /**
+     * The fixed-point rasterizer button.
+     */
+    private final JRadioButton fixedPointRasterizer;
+    /**
+     * The vectorized rasterizer button.
+     */
+    private final JRadioButton vectorizedRasterizer;
+    /**
+     * The quad rasterizer button.
+     */
+    private final JRadioButton quadRasterizer;
+    /**
+     * The multisample anti-aliasing rasterizer button.
+     */
+    private final JRadioButton multisampleRasterizer;
 
     /**
      * The draw normal option check box.
@@ -158,17 +193,37 @@ public class MenuPanel extends JPanel {
      * The lighting option check box.
      */
     private final JCheckBox lightingCheckBox;
+    /**
+     * The shadows option check box.
+     */
+    private final JCheckBox shadowsCheckBox;
     /**
      * The combine texture with color check box.
      */
     private final JCheckBox combineColorCheckBox;
+    /**
+     * The deferred shading check box.
+     */
+    private final JCheckBox deferredCheckBox;
+    /**
+     * The screen-space anti-aliasing check box.
+     */
+    private final JCheckBox fxaaCheckBox;
+    /**
+     * The frame statistics check box.
+     */
+    private final JCheckBox statisticsCheckBox;
+    /**
+     * The screen-space anti-aliasing pass.
+     */
+    private final FxaaPostProcess fxaa = new FxaaPostProcess();
 
     // ===================================================================================
     // controller part
     /**
-     * The renderer used to make a render.
+     * The executor owning the renderer used to make a render.
      */
-    private final Renderer render;
+    private final RenderExecutor render;
 
     /**
      * Creates a MenuPanel from a RenderPanel.
@@ -183,16 +238,22 @@ public class MenuPanel extends JPanel {
         Renderer tmp;
         try {
             tmp = new Renderer();
+            // changing the color map or the post-processing does not rasterize again
+            tmp.setIncrementalRendering(true);
         } catch (IOException e) {
             // should not be reach
             e.printStackTrace();
             tmp = null;
             ShaderFactory.init();
         }
-        render = tmp;
+        render = new RenderExecutor(tmp);
 
         // set up the renderPanel
         this.renderPanel = renderPanel;
+        render.setStatisticsDisplay(renderPanel::setStatistics);
+
+        // move the camera with the mouse over the render
+        new OrbitCameraController(render, renderPanel);
 
         // add a grid bag layout
         setLayout(new GridBagLayout());
@@ -286,6 +347,10 @@ public class MenuPanel extends JPanel {
         rasterizerGroup = new ButtonGroup();
         simpleRasterizer = new JRadioButton("Rasterizer");
         persperctiveRasterizer = new JRadioButton("Perspective Rasterizer");
+        fixedPointRasterizer = new JRadioButton("Fixed-point Rasterizer");
+        vectorizedRasterizer = new JRadioButton("Vectorized Rasterizer");
+        quadRasterizer = new JRadioButton("Quad Rasterizer");
+        multisampleRasterizer = new JRadioButton("MSAA 4x Rasterizer");
         // set up the buttons
         rasterizerConfiguration();
 
@@ -299,9 +364,21 @@ public class MenuPanel extends JPanel {
         // check box to enable the lighting
         lightingCheckBox = new JCheckBox("Lighting");
 
+        // check box to cast the shadows of the point lights
+        shadowsCheckBox = new JCheckBox("Shadows");
+
         // check box to combine texture and origin color
         combineColorCheckBox = new JCheckBox("Combine color with texture");
 
+        // check box to light the visible pixels only
+        deferredCheckBox = new JCheckBox("Deferred shading");
+
+        // check box to anti-alias the image
+        fxaaCheckBox = new JCheckBox("FXAA");
+
+        // check box to show where the time of a frame is spent
+        statisticsCheckBox = new JCheckBox("Statistics");
+
         // set up the buttons
         optionConfiguration();
 
@@ -325,8 +402,7 @@ public class MenuPanel extends JPanel {
         colorMapComboBox.addItemListener(e -> {
             ColorMapFactory.Maps map =
                     (ColorMapFactory.Maps) colorMapComboBox.getSelectedItem();
-            render.setColorMap(map);
-            updateRender();
+            updateRender(r -> r.setColorMap(map));
         });
         constraints.gridy++;
         add(colorMapComboBox, constraints);
@@ -368,13 +444,15 @@ public class MenuPanel extends JPanel {
         textureComboBox.addActionListener(e -> {
             final String textureSelected = "data/"
                     + (String) textureComboBox.getSelectedItem();
-            if (!render.setTexture(textureSelected)) {
-                JOptionPane.showMessageDialog(textureComboBox,
-                        "Error : Texture could not been correctly loaded.",
-                        "Texture Loading",
-                        JOptionPane.ERROR_MESSAGE);
-            }
-            updateRender();
+            updateRender(r -> {
+                if (!r.setTexture(textureSelected)) {
+                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(
+                            textureComboBox,
+                            "Error : Texture could not been correctly loaded.",
+                            "Texture Loading",
+                            JOptionPane.ERROR_MESSAGE));
+                }
+            });
         });
         add(textureComboBox, constraints);
     }
@@ -383,15 +461,17 @@ public class MenuPanel extends JPanel {
         constraints.gridy++;
         shaderComboBox.addActionListener(e -> {
             final String shaderSelected = (String) shaderComboBox.getSelectedItem();
-            if (!render.setShader(shaderSelected)) {
-                JOptionPane.showMessageDialog(shaderComboBox,
-                        "Error : creating the shader using the Factory.",
-                        "Shader creation failed",
-                        JOptionPane.ERROR_MESSAGE);
-            }
             textureComboBox.setEnabled(shaderSelected.contains("Texture"));
             colorMapComboBox.setEnabled(shaderSelected.contains("Depth"));
-            updateRender();
+            updateRender(r -> {
+                if (!r.setShader(shaderSelected)) {
+                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(
+                            shaderComboBox,
+                            "Error : creating the shader using the Factory.",
+                            "Shader creation failed",
+                            JOptionPane.ERROR_MESSAGE));
+                }
+            });
         });
         add(shaderComboBox, constraints);
     }
@@ -409,13 +489,7 @@ public class MenuPanel extends JPanel {
             if (!cube.isSelected()) {
                 return;
             }
-            try {
-                render.setScene(CUBE_ENDPOINT);
-            } catch (final IOException e1) {
-                // should not be reach
-                e1.printStackTrace();
-            }
-            updateRender();
+            updateScene(CUBE_ENDPOINT, cube);
         });
         add(cube, constraints);
         meshGroup.add(cube);
@@ -427,13 +501,7 @@ public class MenuPanel extends JPanel {
             if (!rabbit.isSelected()) {
                 return;
             }
-            try {
-                render.setScene(RABBIT_ENDPOINT);
-            } catch (final IOException e1) {
-                // should not be reach
-                e1.printStackTrace();
-            }
-            updateRender();
+            updateScene(RABBIT_ENDPOINT, rabbit);
         });
         add(rabbit, constraints);
         meshGroup.add(rabbit);
@@ -445,13 +513,7 @@ public class MenuPanel extends JPanel {
             if (!suzanne.isSelected()) {
                 return;
             }
-            try {
-                render.setScene(SUZANNE_ENDPOINT);
-            } catch (final IOException e1) {
-                // should not be reach
-                e1.printStackTrace();
-            }
-            updateRender();
+            updateScene(SUZANNE_ENDPOINT, suzanne);
         });
         add(suzanne, constraints);
         meshGroup.add(suzanne);
@@ -463,13 +525,7 @@ public class MenuPanel extends JPanel {
             if (!texture.isSelected()) {
                 return;
             }
-            try {
-                render.setScene(TEXTURE_ENDPOINT);
-            } catch (final IOException e1) {
-                // should not be reach
-                e1.printStackTrace();
-            }
-            updateRender();
+            updateScene(TEXTURE_ENDPOINT, texture);
         });
         add(texture, constraints);
         meshGroup.add(texture);
@@ -479,15 +535,7 @@ public class MenuPanel extends JPanel {
         add(new JLabel("With another scene file"), constraints);
         constraints.gridy++;
         filenameTextField.addActionListener(e -> {
-            try {
-                render.setScene("data/" + filenameTextField.getText());
-            } catch (final IOException e1) {
-                JOptionPane.showMessageDialog(filenameTextField,
-                        e1.getMessage(),
-                        e1.getClass().getSimpleName(),
-                        JOptionPane.ERROR_MESSAGE);
-            }
-            updateRender();
+            updateScene("data/" + filenameTextField.getText(), filenameTextField);
         });
         add(filenameTextField, constraints);
     }
@@ -513,19 +561,19 @@ public class MenuPanel extends JPanel {
         add(drawSolidRadio, constraints);
 
         drawVertexRadio.addItemListener(e -> {
-            render.setVertexRendered(drawVertexRadio.isSelected());
-            updateRender();
+            final boolean selected = drawVertexRadio.isSelected();
+            updateRender(r -> r.setVertexRendered(selected));
         });
 
         // add the interdependant Item listener
         drawWireframeRadio.addItemListener(e -> {
-            render.setWiredRendered(drawWireframeRadio.isSelected());
-            updateRender();
+            final boolean selected = drawWireframeRadio.isSelected();
+            updateRender(r -> r.setWiredRendered(selected));
         });
 
         drawSolidRadio.addItemListener(e -> {
-            render.setSolidRendered(drawSolidRadio.isSelected());
-            updateRender();
+            final boolean selected = drawSolidRadio.isSelected();
+            updateRender(r -> r.setSolidRendered(selected));
         });
 
         renderGroup.add(drawVertexRadio);
@@ -546,8 +594,7 @@ public class MenuPanel extends JPanel {
             if (!simpleRasterizer.isSelected()) {
                 return;
             }
-            render.setRasterizer();
-            updateRender();
+            updateRender(r -> r.setRasterizer());
         });
         add(simpleRasterizer, constraints);
         rasterizerGroup.add(simpleRasterizer);
@@ -559,12 +606,59 @@ public class MenuPanel extends JPanel {
             if (!persperctiveRasterizer.isSelected()) {
                 return;
             }
-            render.setPerspectiveCorrectRasterizer();
-            updateRender();
+            updateRender(r -> r.setPerspectiveCorrectRasterizer());
         });
         add(persperctiveRasterizer, constraints);
         rasterizerGroup.add(persperctiveRasterizer);
 
+        // rasterizer
+        fixedPointRasterizer.setMargin(insetsRadio);
+        constraints.gridy++;
+        fixedPointRasterizer.addItemListener(e -> {
+            if (!fixedPointRasterizer.isSelected()) {
+                return;
+            }
+            updateRender(r -> r.setFixedPointRasterizer());
+        });
+        add(fixedPointRasterizer, constraints);
+        rasterizerGroup.add(fixedPointRasterizer);
+
+        // rasterizer
+        vectorizedRasterizer.setMargin(insetsRadio);
+        constraints.gridy++;
+        vectorizedRasterizer.addItemListener(e -> {
+            if (!vectorizedRasterizer.isSelected()) {
+                return;
+            }
+            updateRender(r -> r.setVectorizedRasterizer());
+        });
+        add(vectorizedRasterizer, constraints);
+        rasterizerGroup.add(vectorizedRasterizer);
+
+        // rasterizer
+        quadRasterizer.setMargin(insetsRadio);
+        constraints.gridy++;
+        quadRasterizer.addItemListener(e -> {
+            if (!quadRasterizer.isSelected()) {
+                return;
+            }
+            updateRender(r -> r.setQuadRasterizer());
+        });
+        add(quadRasterizer, constraints);
+        rasterizerGroup.add(quadRasterizer);
+
+        // rasterizer
+        multisampleRasterizer.setMargin(insetsRadio);
+        constraints.gridy++;
+        multisampleRasterizer.addItemListener(e -> {
+            if (!multisampleRasterizer.isSelected()) {
+                return;
+            }
+            updateRender(r -> r.setMultisampleRasterizer(MSAA_SAMPLES));
+        });
+        add(multisampleRasterizer, constraints);
+        rasterizerGroup.add(multisampleRasterizer);
+
     }
 
     /**
@@ -573,8 +667,8 @@ public class MenuPanel extends JPanel {
     private void optionConfiguration() {
         drawNormalCheckBox.addItemListener(new ItemListener() {
             public void itemStateChanged(final ItemEvent e) {
-                render.setNormalsRendered(drawNormalCheckBox.isSelected());
-                updateRender();
+                final boolean selected = drawNormalCheckBox.isSelected();
+                updateRender(r -> r.setNormalsRendered(selected));
             }
         });
 
@@ -585,8 +679,8 @@ public class MenuPanel extends JPanel {
 
         lightingCheckBox.addItemListener(new ItemListener() {
             public void itemStateChanged(final ItemEvent e) {
-                render.setLightingEnabled(lightingCheckBox.isSelected());
-                updateRender();
+                final boolean selected = lightingCheckBox.isSelected();
+                updateRender(r -> r.setLightingEnabled(selected));
             }
         });
 
@@ -595,15 +689,64 @@ public class MenuPanel extends JPanel {
         constraints.gridy++;
         add(lightingCheckBox, constraints);
 
+        shadowsCheckBox.addItemListener(e -> {
+            final boolean selected = shadowsCheckBox.isSelected();
+            updateRender(r -> {
+                r.setShadowsEnabled(selected);
+                r.setShadowPcfRadius(SHADOW_PCF_RADIUS);
+            });
+        });
+
+        // remove the border on the component
+        shadowsCheckBox.setMargin(insetsCheckBox);
+        constraints.gridy++;
+        add(shadowsCheckBox, constraints);
+
         combineColorCheckBox.addItemListener(e -> {
-            render.setCombineWithBaseColor(combineColorCheckBox.isSelected());
-            updateRender();
+            final boolean selected = combineColorCheckBox.isSelected();
+            updateRender(r -> r.setCombineWithBaseColor(selected));
         });
 
         // remove the border on the component
         combineColorCheckBox.setMargin(insetsCheckBox);
         constraints.gridy++;
         add(combineColorCheckBox, constraints);
+
+        deferredCheckBox.addItemListener(e -> {
+            final boolean selected = deferredCheckBox.isSelected();
+            updateRender(r -> r.setDeferredShading(selected));
+        });
+
+        // remove the border on the component
+        deferredCheckBox.setMargin(insetsCheckBox);
+        constraints.gridy++;
+        add(deferredCheckBox, constraints);
+
+        fxaaCheckBox.addItemListener(e -> {
+            final boolean selected = fxaaCheckBox.isSelected();
+            updateRender(r -> {
+                if (selected) {
+                    r.addPostProcess(fxaa);
+                } else {
+                    r.removePostProcess(fxaa);
+                }
+            });
+        });
+
+        // remove the border on the component
+        fxaaCheckBox.setMargin(insetsCheckBox);
+        constraints.gridy++;
+        add(fxaaCheckBox, constraints);
+
+        statisticsCheckBox.addItemListener(e -> {
+            final boolean selected = statisticsCheckBox.isSelected();
+            updateRender(r -> r.setProfilingEnabled(selected));
+        });
+
+        // remove the border on the component
+        statisticsCheckBox.setMargin(insetsCheckBox);
+        constraints.gridy++;
+        add(statisticsCheckBox, constraints);
     }
 
     /**
@@ -619,9 +762,35 @@ public class MenuPanel extends JPanel {
     }
 
     /**
-     * Update the render.
+     * Changes the renderer and updates the render in the background.
+     *
+     * @param change the change, applied on the render thread
+     */
+    private void updateRender(final Consumer<Renderer> change) {
+        render.update(change.andThen(r -> {
+            final boolean fallback = r.isMultisampleFallback();
+            SwingUtilities.invokeLater(() -> multisampleRasterizer.setToolTipText(
+                    fallback ? MSAA_FALLBACK_TIP : null));
+        }));
+        render.submit(renderPanel::setImage);
+    }
+
+    /**
+     * Loads a scene and updates the render in the background.
+     *
+     * @param path   the path to the scene file
+     * @param parent the component the errors are reported over
      */
-    private void updateRender() {
-        renderPanel.setImage(render.render());
+    private void updateScene(final String path, final Component parent) {
+        updateRender(r -> {
+            try {
+                r.setScene(path);
+            } catch (final IOException e) {
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent,
+                        e.getMessage(),
+                        e.getClass().getSimpleName(),
+                        JOptionPane.ERROR_MESSAGE));
+            }
+        });
     }
 }
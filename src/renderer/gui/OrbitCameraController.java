@@ -0,0 +1,247 @@
+package renderer.gui;
+
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import renderer.algebra.Vector;
+import renderer.controller.RenderExecutor;
+import renderer.controller.Renderer;
+
+/**
+ * The OrbitCameraController class moves the camera of a Renderer with the
+ * mouse over a RenderPanel: dragging with the left button orbits around the
+ * point looked at, dragging with the right button pans, and the wheel zooms.
+ *
+ * While the camera moves, the images are rendered at a reduced resolution,
+ * a quarter of it when a half resolution preview is too slow for the frame
+ * budget; a full resolution image is rendered once the input stops. The
+ * camera is moved and the images rendered on the thread of a RenderExecutor,
+ * each motion cancelling the preview of the previous one.
+ */
+public class OrbitCameraController extends MouseAdapter {
+
+    /**
+     * The rotation per dragged pixel, in radians.
+     */
+    private static final double ROTATE_SPEED = 0.01;
+
+    /**
+     * The translation per dragged pixel, relative to the orbit distance.
+     */
+    private static final double PAN_SPEED = 0.002;
+
+    /**
+     * The factor of the orbit distance per wheel notch.
+     */
+    private static final double ZOOM_STEP = 1.1;
+
+    /**
+     * The smallest angle between the view direction and the up direction.
+     */
+    public static final double MIN_POLAR_ANGLE = 0.05;
+
+    /**
+     * The delay without input before rendering at full resolution.
+     */
+    private static final int REFINE_DELAY_MS = 150;
+
+    /**
+     * The render time a half resolution preview must stay under, for 30 frames
+     * per second.
+     */
+    private static final long FRAME_BUDGET_NANOS = 33_000_000L;
+
+    /**
+     * The resolution divisor of the fast previews.
+     */
+    private static final int HALF_RESOLUTION = 2;
+
+    /**
+     * The resolution divisor of the previews when half resolution is too slow.
+     */
+    private static final int QUARTER_RESOLUTION = 4;
+
+    /**
+     * The executor owning the renderer whose camera is moved.
+     */
+    private final RenderExecutor executor;
+
+    /**
+     * The panel showing the renders.
+     */
+    private final RenderPanel panel;
+
+    /**
+     * The timer rendering the full resolution image once the input stops.
+     */
+    private final Timer refineTimer;
+
+    /**
+     * The resolution divisor of the next preview, only used on the event thread.
+     */
+    private int previewDivisor = HALF_RESOLUTION;
+
+    /**
+     * The last mouse x coordinate while dragging.
+     */
+    private int lastX;
+
+    /**
+     * The last mouse y coordinate while dragging.
+     */
+    private int lastY;
+
+    /**
+     * Creates a controller and listens to the mouse over the panel.
+     *
+     * @param executor the executor owning the renderer whose camera is moved
+     * @param panel    the panel showing the renders
+     */
+    public OrbitCameraController(final RenderExecutor executor, final RenderPanel panel) {
+        this.executor = executor;
+        this.panel = panel;
+        refineTimer = new Timer(REFINE_DELAY_MS, e -> refine());
+        refineTimer.setRepeats(false);
+        panel.addMouseListener(this);
+        panel.addMouseMotionListener(this);
+        panel.addMouseWheelListener(this);
+    }
+
+    @Override
+    public void mousePressed(final MouseEvent e) {
+        lastX = e.getX();
+        lastY = e.getY();
+    }
+
+    @Override
+    public void mouseDragged(final MouseEvent e) {
+        final int dx = e.getX() - lastX;
+        final int dy = e.getY() - lastY;
+        lastX = e.getX();
+        lastY = e.getY();
+        if (SwingUtilities.isRightMouseButton(e) || e.isShiftDown()) {
+            executor.update(renderer -> pan(renderer, dx, dy));
+        } else {
+            executor.update(renderer -> orbit(renderer, dx, dy));
+        }
+        preview();
+    }
+
+    @Override
+    public void mouseWheelMoved(final MouseWheelEvent e) {
+        final double zoom = Math.pow(ZOOM_STEP, e.getPreciseWheelRotation());
+        executor.update(renderer -> {
+            final Vector target = renderer.getCameraLookAt();
+            final Vector offset = renderer.getCameraPosition().subtract(target)
+                    .scale(zoom);
+            renderer.setCamera(target.add(offset), target, renderer.getCameraUp());
+        });
+        preview();
+    }
+
+    /**
+     * Turns the camera around the point looked at. The angle between the
+     * offset of the camera and the up direction stays within
+     * [MIN_POLAR_ANGLE, PI - MIN_POLAR_ANGLE], so the camera never goes over
+     * a pole.
+     *
+     * @param renderer the renderer whose camera is moved
+     * @param dx       the horizontal mouse motion, in pixels
+     * @param dy       the vertical mouse motion, in pixels
+     */
+    public static void orbit(final Renderer renderer, final int dx, final int dy) {
+        final Vector target = renderer.getCameraLookAt();
+        final Vector up = renderer.getCameraUp().normalize();
+        Vector offset = renderer.getCameraPosition().subtract(target);
+
+        offset = rotate(offset, up, -dx * ROTATE_SPEED);
+
+        // tilt, without going over the poles
+        final double distance = offset.norm();
+        final double polar = Math.acos(Math.max(-1, Math.min(1,
+                offset.dot(up) / distance)));
+        // a positive tilt turns the offset toward up, decreasing the polar angle
+        final double tilt = Math.max(polar - (Math.PI - MIN_POLAR_ANGLE),
+                Math.min(polar - MIN_POLAR_ANGLE, dy * ROTATE_SPEED));
+        final Vector right = offset.cross(up).normalize();
+        offset = rotate(offset, right, tilt);
+
+        renderer.setCamera(target.add(offset), target, renderer.getCameraUp());
+    }
+
+    /**
+     * Moves the camera and the point looked at in the image plane.
+     *
+     * @param renderer the renderer whose camera is moved
+     * @param dx       the horizontal mouse motion, in pixels
+     * @param dy       the vertical mouse motion, in pixels
+     */
+    private static void pan(final Renderer renderer, final int dx, final int dy) {
+        final Vector eye = renderer.getCameraPosition();
+        final Vector target = renderer.getCameraLookAt();
+        final Vector forward = target.subtract(eye);
+        final double step = forward.norm() * PAN_SPEED;
+        final Vector right = forward.cross(renderer.getCameraUp()).normalize();
+        final Vector down = forward.cross(right).normalize();
+        final Vector move = right.scale(-dx * step).add(down.scale(-dy * step));
+        renderer.setCamera(eye.add(move), target.add(move), renderer.getCameraUp());
+    }
+
+    /**
+     * Rotates a vector around a unit axis, with Rodrigues' formula.
+     *
+     * @param v     the vector
+     * @param axis  the unit axis
+     * @param angle the angle in radians
+     * @return the rotated vector
+     */
+    private static Vector rotate(final Vector v, final Vector axis, final double angle) {
+        final double cos = Math.cos(angle);
+        final double sin = Math.sin(angle);
+        return v.scale(cos).add(axis.cross(v).scale(sin))
+                .add(axis.scale(axis.dot(v) * (1 - cos)));
+    }
+
+    /**
+     * Requests a reduced resolution image, and schedules the full resolution
+     * one.
+     */
+    private void preview() {
+        final int divisor = previewDivisor;
+        executor.update(renderer -> renderer.setResolutionDivisor(divisor));
+        executor.submit(image -> {
+            adaptPreviewDivisor(divisor, executor.getLastFrameNanos());
+            panel.setPreviewImage(image);
+        });
+        refineTimer.restart();
+    }
+
+    /**
+     * Chooses the resolution of the next previews from the render time of a
+     * preview.
+     *
+     * @param divisor the resolution divisor of the preview
+     * @param elapsed the render time of the preview, in nanoseconds
+     */
+    private void adaptPreviewDivisor(final int divisor, final long elapsed) {
+        if (divisor == HALF_RESOLUTION && elapsed > FRAME_BUDGET_NANOS) {
+            previewDivisor = QUARTER_RESOLUTION;
+        } else if (divisor == QUARTER_RESOLUTION
+                && elapsed * QUARTER_RESOLUTION < FRAME_BUDGET_NANOS) {
+            // a half resolution preview has about four times more pixels
+            previewDivisor = HALF_RESOLUTION;
+        }
+    }
+
+    /**
+     * Requests the full resolution image.
+     */
+    private void refine() {
+        executor.update(renderer -> renderer.setResolutionDivisor(1));
+        executor.submit(panel::setImage);
+    }
+}
@@ -1,13 +1,17 @@
 package renderer.gui;
 
+import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
+import java.util.List;
 
 import javax.swing.JPanel;
 
+import renderer.controller.FrameStatistics;
 import renderer.controller.ImageWrapper;
 
 public class RenderPanel extends JPanel {
@@ -17,6 +21,16 @@ public class RenderPanel extends JPanel {
      */
     private static final int DEFAULT_PIXEL_SIZE = 1;
 
+    /**
+     * The margin of the statistics overlay, in pixels.
+     */
+    private static final int OVERLAY_MARGIN = 4;
+
+    /**
+     * The background of the statistics overlay, translucent black.
+     */
+    private static final Color OVERLAY_BACKGROUND = new Color(0, 0, 0, 160);
+
     /**
      * The rendered image.
      */
@@ -37,6 +51,11 @@ public class RenderPanel extends JPanel {
      */
     private int pixelSize;
 
+    /**
+     * The statistics drawn over the render, or null.
+     */
+    private FrameStatistics statistics;
+
     /** The gui app. */
     private final GUIApp gui;
 
@@ -91,9 +110,50 @@ public class RenderPanel extends JPanel {
         if (renderedImage == null) {
             return;
         }
-        ((Graphics2D) g).drawImage(renderedImage,
-                new AffineTransform(1f, 0f, 0f, 1f, 0, 0),
-                null);
+        if (renderedImage.getWidth() == width && renderedImage.getHeight() == height) {
+            ((Graphics2D) g).drawImage(renderedImage,
+                    new AffineTransform(1f, 0f, 0f, 1f, 0, 0),
+                    null);
+        } else {
+            // a reduced resolution preview, stretched over the screen
+            g.drawImage(renderedImage, 0, 0, width, height, null);
+        }
+        if (statistics != null) {
+            paintStatistics(g);
+        }
+    }
+
+    /**
+     * Draws the statistics of the frame in the top left corner.
+     *
+     * @param g the graphics of the panel
+     */
+    private void paintStatistics(Graphics g) {
+        final List<String> lines = statistics.describe();
+        final FontMetrics metrics = g.getFontMetrics();
+        int textWidth = 0;
+        for (String line : lines) {
+            textWidth = Math.max(textWidth, metrics.stringWidth(line));
+        }
+        g.setColor(OVERLAY_BACKGROUND);
+        g.fillRect(0, 0, textWidth + 2 * OVERLAY_MARGIN,
+                lines.size() * metrics.getHeight() + 2 * OVERLAY_MARGIN);
+        g.setColor(Color.WHITE);
+        int y = OVERLAY_MARGIN + metrics.getAscent();
+        for (String line : lines) {
+            g.drawString(line, OVERLAY_MARGIN, y);
+            y += metrics.getHeight();
+        }
+    }
+
+    /**
+     * Sets the statistics drawn over the render.
+     *
+     * @param frameStatistics the statistics, or null to hide the overlay
+     */
+    public void setStatistics(FrameStatistics frameStatistics) {
+        this.statistics = frameStatistics;
+        repaint();
     }
 
 
@@ -126,6 +186,16 @@ public class RenderPanel extends JPanel {
         gui.updateDims();
     }
 
+    /**
+     * Shows a render at reduced resolution, stretched over the screen, without
+     * changing the dimensions of the screen.
+     * @param preview the preview render
+     */
+    public void setPreviewImage(ImageWrapper preview) {
+        this.renderedImage = preview;
+        repaint();
+    }
+
     /**
      * Update the render with the given one.
      * @param render the new render.
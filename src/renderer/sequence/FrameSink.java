@@ -0,0 +1,29 @@
+package renderer.sequence;
+
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A FrameSink receives the frames of a sequence, in order, and stores them
+ * as they arrive: a frame is not referenced anymore once written, so a
+ * sequence of any length is streamed without holding its frames in memory.
+ * Closing the sink completes the output.
+ */
+public interface FrameSink extends Closeable {
+
+    /**
+     * Stores the next frame of the sequence.
+     *
+     * @param frame the frame, with the size of the first frame
+     * @throws IOException if the frame cannot be stored
+     */
+    void write(BufferedImage frame) throws IOException;
+
+    /**
+     * Gets the number of frames stored.
+     *
+     * @return the number of frames
+     */
+    int getFrameCount();
+}
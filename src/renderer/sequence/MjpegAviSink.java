@@ -0,0 +1,373 @@
+package renderer.sequence;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * The MjpegAviSink class streams the frames of a sequence into an AVI file
+ * with a single Motion JPEG video stream: each frame is compressed as a
+ * JPEG image and appended to the file as soon as it arrives. Only the index
+ * of the frames, 16 bytes per frame, is kept until the file is closed; the
+ * headers are written last, once the number of frames is known.
+ *
+ * The file is laid out as:
+ * - RIFF 'AVI ' holding the list 'hdrl' of the main header 'avih' and of the
+ *   stream headers 'strh' and 'strf';
+ * - the list 'movi' of the frames, as chunks '00dc';
+ * - the index 'idx1' of the chunks, every frame being a key frame.
+ */
+public class MjpegAviSink implements FrameSink {
+
+    /**
+     * The offset of the size of the RIFF file.
+     */
+    private static final int RIFF_SIZE = 4;
+
+    /**
+     * The size of the headers, which is the offset of the list of frames.
+     */
+    private static final int HEADERS_SIZE = 212;
+
+    /**
+     * The offset of the identifier 'movi' from which the index counts the
+     * offsets of the chunks.
+     */
+    private static final int MOVI_START = HEADERS_SIZE + 8;
+
+    /**
+     * The offset of the first frame.
+     */
+    private static final int FRAMES_START = MOVI_START + 4;
+
+    /**
+     * The size of the header of a chunk: its identifier and its size.
+     */
+    private static final int CHUNK_HEADER = 8;
+
+    /**
+     * The size of an entry of the index.
+     */
+    private static final int INDEX_ENTRY = 16;
+
+    /**
+     * The size of the main header and of the stream header.
+     */
+    private static final int AVIH_SIZE = 56;
+
+    /**
+     * The size of the bitmap header of the stream format.
+     */
+    private static final int STRF_SIZE = 40;
+
+    /**
+     * The size of the list of the stream headers.
+     */
+    private static final int STRL_SIZE = 4 + CHUNK_HEADER + AVIH_SIZE + CHUNK_HEADER
+            + STRF_SIZE;
+
+    /**
+     * The size of the list of the headers.
+     */
+    private static final int HDRL_SIZE = 4 + CHUNK_HEADER + AVIH_SIZE + CHUNK_HEADER
+            + STRL_SIZE;
+
+    /**
+     * The flag of the main header telling that the file has an index.
+     */
+    private static final int AVIF_HASINDEX = 0x10;
+
+    /**
+     * The flag of an index entry telling that the chunk is a key frame.
+     */
+    private static final int AVIIF_KEYFRAME = 0x10;
+
+    /**
+     * The number of bits per pixel of the decoded frames.
+     */
+    private static final short BITS_PER_PIXEL = 24;
+
+    /**
+     * The number of bytes per pixel of the decoded frames.
+     */
+    private static final int BYTES_PER_PIXEL = 3;
+
+    /**
+     * The number of microseconds per second.
+     */
+    private static final int MICROS_PER_SECOND = 1_000_000;
+
+    /**
+     * The quality of a stream chosen by the decoder.
+     */
+    private static final int DEFAULT_QUALITY = -1;
+
+    /**
+     * The file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The number of frames per second.
+     */
+    private final int framesPerSecond;
+
+    /**
+     * The JPEG encoder.
+     */
+    private final ImageWriter writer;
+
+    /**
+     * The quality of the JPEG compression.
+     */
+    private final ImageWriteParam param;
+
+    /**
+     * The JPEG image of the frame being written, reused across frames.
+     */
+    private final ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+
+    /**
+     * The entries of the index.
+     */
+    private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+
+    /**
+     * The offset of the next chunk.
+     */
+    private long position = FRAMES_START;
+
+    /**
+     * The width of the frames, set by the first frame.
+     */
+    private int width;
+
+    /**
+     * The height of the frames, set by the first frame.
+     */
+    private int height;
+
+    /**
+     * The size of the largest chunk.
+     */
+    private int largestChunk;
+
+    /**
+     * The number of frames written.
+     */
+    private int frames;
+
+    /**
+     * Creates a sink writing into a file, replacing it if it exists.
+     *
+     * @param file            the AVI file
+     * @param framesPerSecond the number of frames per second of the video
+     * @param quality         the quality of the JPEG compression, from 0 to 1
+     * @throws IOException              if the file cannot be created
+     * @throws IllegalArgumentException if the frame rate is not positive or
+     *                                  the quality not in [0, 1]
+     */
+    public MjpegAviSink(Path file, int framesPerSecond, float quality)
+            throws IOException {
+        if (framesPerSecond < 1) {
+            throw new IllegalArgumentException("Invalid frame rate " + framesPerSecond);
+        }
+        if (!(quality >= 0 && quality <= 1)) {
+            throw new IllegalArgumentException("Invalid quality " + quality);
+        }
+        final Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("No JPEG writer for the frames.");
+        }
+        this.framesPerSecond = framesPerSecond;
+        writer = writers.next();
+        param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    @Override
+    public void write(BufferedImage frame) throws IOException {
+        if (frames == 0) {
+            width = frame.getWidth();
+            height = frame.getHeight();
+        } else if (frame.getWidth() != width || frame.getHeight() != height) {
+            throw new IllegalArgumentException("The frames of a video have one size.");
+        }
+        jpeg.reset();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(jpeg)) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(frame, null, null), param);
+        }
+        final int size = jpeg.size();
+        // the chunks start on even offsets
+        final int padding = size & 1;
+        final ByteBuffer chunk = newBuffer(CHUNK_HEADER + size + padding);
+        putFourCC(chunk, "00dc");
+        chunk.putInt(size);
+        chunk.put(jpeg.toByteArray());
+        chunk.rewind();
+        writeFully(chunk, position);
+
+        final ByteBuffer entry = newBuffer(INDEX_ENTRY);
+        putFourCC(entry, "00dc");
+        entry.putInt(AVIIF_KEYFRAME);
+        entry.putInt((int) (position - MOVI_START));
+        entry.putInt(size);
+        index.write(entry.array());
+
+        position += CHUNK_HEADER + size + padding;
+        largestChunk = Math.max(largestChunk, size);
+        frames++;
+    }
+
+    @Override
+    public int getFrameCount() {
+        return frames;
+    }
+
+    /**
+     * Writes the index and the headers, and closes the file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            final ByteBuffer idx1 = newBuffer(CHUNK_HEADER + index.size());
+            putFourCC(idx1, "idx1");
+            idx1.putInt(index.size());
+            idx1.put(index.toByteArray());
+            idx1.flip();
+            writeFully(idx1, position);
+            final long end = position + idx1.limit();
+
+            final ByteBuffer headers = createHeaders();
+            headers.putInt(RIFF_SIZE, (int) (end - CHUNK_HEADER));
+            writeFully(headers, 0);
+        } finally {
+            writer.dispose();
+            channel.close();
+        }
+    }
+
+    /**
+     * Creates the headers of the file, up to the beginning of the first frame.
+     *
+     * @return the headers, ready to be written
+     */
+    private ByteBuffer createHeaders() {
+        final ByteBuffer b = newBuffer(FRAMES_START);
+        putFourCC(b, "RIFF");
+        b.putInt(0);
+        putFourCC(b, "AVI ");
+        putFourCC(b, "LIST");
+        b.putInt(HDRL_SIZE);
+        putFourCC(b, "hdrl");
+
+        putFourCC(b, "avih");
+        b.putInt(AVIH_SIZE);
+        b.putInt(MICROS_PER_SECOND / framesPerSecond);
+        b.putInt(largestChunk * framesPerSecond);
+        b.putInt(0);
+        b.putInt(AVIF_HASINDEX);
+        b.putInt(frames);
+        b.putInt(0);
+        b.putInt(1);
+        b.putInt(largestChunk);
+        b.putInt(width);
+        b.putInt(height);
+        b.position(b.position() + 4 * Integer.BYTES);
+
+        putFourCC(b, "LIST");
+        b.putInt(STRL_SIZE);
+        putFourCC(b, "strl");
+        putFourCC(b, "strh");
+        b.putInt(AVIH_SIZE);
+        putFourCC(b, "vids");
+        putFourCC(b, "MJPG");
+        b.putInt(0);
+        b.putInt(0);
+        b.putInt(0);
+        b.putInt(1);
+        b.putInt(framesPerSecond);
+        b.putInt(0);
+        b.putInt(frames);
+        b.putInt(largestChunk);
+        b.putInt(DEFAULT_QUALITY);
+        b.putInt(0);
+        b.putShort((short) 0);
+        b.putShort((short) 0);
+        b.putShort((short) width);
+        b.putShort((short) height);
+
+        putFourCC(b, "strf");
+        b.putInt(STRF_SIZE);
+        b.putInt(STRF_SIZE);
+        b.putInt(width);
+        b.putInt(height);
+        b.putShort((short) 1);
+        b.putShort(BITS_PER_PIXEL);
+        putFourCC(b, "MJPG");
+        b.putInt(width * height * BYTES_PER_PIXEL);
+        b.putInt(0);
+        b.putInt(0);
+        b.putInt(0);
+        b.putInt(0);
+
+        putFourCC(b, "LIST");
+        b.putInt((int) (position - MOVI_START));
+        putFourCC(b, "movi");
+        b.flip();
+        return b;
+    }
+
+    /**
+     * Creates a little-endian buffer, as every number of an AVI file.
+     *
+     * @param size the size of the buffer
+     * @return the buffer
+     */
+    private static ByteBuffer newBuffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Puts a four-character code.
+     *
+     * @param b    the buffer
+     * @param code the code, of 4 ASCII characters
+     */
+    private static void putFourCC(ByteBuffer b, String code) {
+        b.put(code.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Writes a whole buffer at an offset of the file.
+     *
+     * @param b      the buffer
+     * @param offset the offset in the file
+     * @throws IOException if the file cannot be written
+     */
+    private void writeFully(ByteBuffer b, long offset) throws IOException {
+        long at = offset;
+        while (b.hasRemaining()) {
+            at += channel.write(b, at);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package renderer.sequence;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+/**
+ * The PngSequenceSink class stores each frame of a sequence in a PNG file of
+ * its own, numbered from 0 with leading zeros so that the files sort in the
+ * order of the frames: prefix00000.png, prefix00001.png...
+ */
+public class PngSequenceSink implements FrameSink {
+
+    /**
+     * The format of the number of a frame.
+     */
+    private static final String NUMBER_FORMAT = "%05d";
+
+    /**
+     * The directory of the files.
+     */
+    private final Path directory;
+
+    /**
+     * The beginning of the names of the files.
+     */
+    private final String prefix;
+
+    /**
+     * The number of frames stored.
+     */
+    private int frames;
+
+    /**
+     * Creates a sink, and the directory of its files if needed.
+     *
+     * @param directory the directory of the files
+     * @param prefix    the beginning of the names of the files
+     * @throws IOException if the directory cannot be created
+     */
+    public PngSequenceSink(Path directory, String prefix) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.prefix = prefix;
+    }
+
+    /**
+     * Gets the file of a frame.
+     *
+     * @param index the index of the frame, from 0
+     * @return the path of the file
+     */
+    public Path getFile(int index) {
+        return directory.resolve(prefix + String.format(NUMBER_FORMAT, index) + ".png");
+    }
+
+    @Override
+    public void write(BufferedImage frame) throws IOException {
+        if (!ImageIO.write(frame, "png", getFile(frames).toFile())) {
+            throw new IOException("No PNG writer for the frames.");
+        }
+        frames++;
+    }
+
+    @Override
+    public int getFrameCount() {
+        return frames;
+    }
+
+    @Override
+    public void close() {
+        // Every frame is already complete on disk
+    }
+}
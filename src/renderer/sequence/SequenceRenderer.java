@@ -0,0 +1,235 @@
+package renderer.sequence;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import renderer.controller.FramebufferPool;
+import renderer.controller.ImageWrapper;
+import renderer.controller.Renderer;
+import renderer.core.camera.CameraPath;
+import renderer.core.camera.CameraPose;
+
+/**
+ * The SequenceRenderer class renders the frames of a camera moving along a
+ * path, and streams them into a sink. The frames are pipelined: frame k + 1
+ * is rasterized on the calling thread while frame k is encoded on the
+ * encoding thread, so a sequence takes about the longest of the two stages
+ * per frame instead of their sum.
+ *
+ * Only the frame being rendered and the frame being encoded exist at a
+ * time: the frames are rendered into a pool of framebuffers, and a
+ * framebuffer is given back to the pool once its frame is encoded.
+ */
+public class SequenceRenderer {
+
+    /**
+     * The number of framebuffers: one rendered, one encoded, and one spare.
+     */
+    private static final int FRAMEBUFFERS = 3;
+
+    /**
+     * The number of keyframes of the turntables of the command line.
+     */
+    private static final int TURNTABLE_KEYFRAMES = 72;
+
+    /**
+     * The number of frames per second of the videos of the command line.
+     */
+    private static final int FRAMES_PER_SECOND = 25;
+
+    /**
+     * The quality of the videos of the command line.
+     */
+    private static final float VIDEO_QUALITY = 0.9f;
+
+    /**
+     * The number of nanoseconds per millisecond.
+     */
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    /**
+     * The renderer, set up by the caller.
+     */
+    private final Renderer renderer;
+
+    /**
+     * The framebuffers the frames are rendered into.
+     */
+    private final FramebufferPool framebuffers = new FramebufferPool(FRAMEBUFFERS);
+
+    /**
+     * The time spent rendering the frames of the last sequence, in
+     * nanoseconds.
+     */
+    private long renderNanos;
+
+    /**
+     * The time spent encoding the frames of the last sequence, in
+     * nanoseconds, only updated by the encoding thread between two waits for
+     * the encoding.
+     */
+    private long encodeNanos;
+
+    /**
+     * Creates a sequence renderer.
+     *
+     * @param renderer the renderer, set up for the frames, and not used
+     *                 elsewhere while a sequence is rendered
+     */
+    public SequenceRenderer(Renderer renderer) {
+        this.renderer = renderer;
+    }
+
+    /**
+     * Renders a sequence and stores its frames in a sink. The sink is not
+     * closed.
+     *
+     * @param path   the path of the camera
+     * @param frames the number of frames
+     * @param sink   the sink of the frames
+     * @throws IOException if a frame cannot be stored
+     */
+    public void render(CameraPath path, int frames, FrameSink sink) throws IOException {
+        final FramebufferPool previousPool = renderer.getFramebufferPool();
+        final ExecutorService encoder = Executors.newSingleThreadExecutor(task -> {
+            final Thread thread = new Thread(task, "sequence-encoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        renderer.setFramebufferPool(framebuffers);
+        renderNanos = 0;
+        encodeNanos = 0;
+        Future<?> encoding = null;
+        try {
+            for (int frame = 0; frame < frames; frame++) {
+                final CameraPose pose = path.getPose(frame, frames);
+                final long start = System.nanoTime();
+                renderer.setCamera(pose.getEye(), pose.getLookAt(), pose.getUp());
+                final ImageWrapper image = renderer.render();
+                renderNanos += System.nanoTime() - start;
+                // the previous frame was encoded while this one was rendered
+                await(encoding);
+                encoding = encoder.submit(() -> {
+                    encode(image, sink);
+                    return null;
+                });
+            }
+            await(encoding);
+        } finally {
+            encoder.shutdownNow();
+            renderer.setFramebufferPool(previousPool);
+        }
+    }
+
+    /**
+     * Stores a frame, then gives its framebuffer back.
+     *
+     * @param image the frame
+     * @param sink  the sink of the frames
+     * @throws IOException if the frame cannot be stored
+     */
+    private void encode(ImageWrapper image, FrameSink sink) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            sink.write(image);
+        } finally {
+            framebuffers.release(image);
+            encodeNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Waits for the encoding of a frame.
+     *
+     * @param encoding the encoding, or null
+     * @throws IOException if the frame could not be stored
+     */
+    private static void await(Future<?> encoding) throws IOException {
+        if (encoding == null) {
+            return;
+        }
+        try {
+            encoding.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while encoding a frame.", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Gets the time spent rendering the frames of the last sequence.
+     *
+     * @return the time, in nanoseconds
+     */
+    public long getRenderNanos() {
+        return renderNanos;
+    }
+
+    /**
+     * Gets the time spent encoding the frames of the last sequence, mostly
+     * hidden behind the rendering of the next frames.
+     *
+     * @return the time, in nanoseconds
+     */
+    public long getEncodeNanos() {
+        return encodeNanos;
+    }
+
+    /**
+     * Gets the number of frames rendered outside the framebuffers of the
+     * pool, which should stay 0.
+     *
+     * @return the number of frames allocated
+     */
+    public int getFramebufferOverflows() {
+        return framebuffers.getOverflows();
+    }
+
+    /**
+     * Renders the turntable of a scene, into numbered PNG files or, for an
+     * output ending with .avi, into a Motion JPEG video.
+     *
+     * @param args the scene file, the number of frames and the output
+     * @throws IOException if the scene cannot be read or the frames stored
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: SequenceRenderer <scene> <frames> <dir|file.avi>");
+            return;
+        }
+        final int frames = Integer.parseInt(args[1]);
+        final Renderer renderer = new Renderer();
+        renderer.setScene(args[0]);
+        renderer.setSolidRendered(true);
+        renderer.setLightingEnabled(true);
+        renderer.setShader("SimpleShader");
+        final CameraPath path = CameraPath.turntable(new CameraPose(
+                renderer.getCameraPosition(), renderer.getCameraLookAt(),
+                renderer.getCameraUp()), TURNTABLE_KEYFRAMES);
+
+        final Path output = Paths.get(args[2]);
+        final SequenceRenderer sequence = new SequenceRenderer(renderer);
+        try (FrameSink sink = output.toString().endsWith(".avi")
+                ? new MjpegAviSink(output, FRAMES_PER_SECOND, VIDEO_QUALITY)
+                : new PngSequenceSink(output, "frame")) {
+            sequence.render(path, frames, sink);
+        }
+        System.out.println("Rendered " + frames + " frames in "
+                + sequence.getRenderNanos() / NANOS_PER_MILLI + " ms, encoded in "
+                + sequence.getEncodeNanos() / NANOS_PER_MILLI + " ms");
+    }
+}
@@ -0,0 +1,149 @@
+package renderer.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The LatencyHistogram class counts durations in buckets of exponentially
+ * growing width: bucket i holds the durations from 2^(i-1) to 2^i - 1
+ * microseconds, so that a few dozen counters cover from a microsecond to
+ * hours with a relative error under a factor of two. Recording is lock-free
+ * and may be done from any thread.
+ */
+public class LatencyHistogram {
+
+    /**
+     * The number of buckets, the last one holding every longer duration.
+     */
+    static final int BUCKETS = 40;
+
+    /**
+     * The number of nanoseconds per microsecond.
+     */
+    private static final long NANOS_PER_MICRO = 1_000L;
+
+    /**
+     * The percentile of the longest duration.
+     */
+    private static final double MAX_PERCENTILE = 100;
+
+    /**
+     * The name of the histogram, in the exposition.
+     */
+    private final String name;
+
+    /**
+     * The count of each bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * The sum of the durations recorded, in nanoseconds.
+     */
+    private final AtomicLong sumNanos = new AtomicLong();
+
+    /**
+     * Creates an empty histogram.
+     *
+     * @param name the name of the histogram, in the exposition
+     */
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the bucket of a duration.
+     *
+     * @param nanos the duration in nanoseconds
+     * @return the index of the bucket
+     */
+    static int bucketOf(long nanos) {
+        final long micros = Math.max(0, nanos) / NANOS_PER_MICRO;
+        final int bucket = Long.SIZE - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    /**
+     * Gets the upper bound of a bucket.
+     *
+     * @param bucket the index of the bucket
+     * @return the longest duration of the bucket, in microseconds
+     */
+    static long upperBoundMicros(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketOf(nanos));
+        sumNanos.addAndGet(nanos);
+    }
+
+    /**
+     * Gets the number of durations recorded.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Gets an upper bound of a percentile of the durations recorded.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound of the bucket holding the percentile, in
+     *         microseconds, or 0 if nothing was recorded
+     */
+    public long getPercentileMicros(double percentile) {
+        final long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        final long rank =
+                Math.max(1, (long) Math.ceil(count * percentile / MAX_PERCENTILE));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return upperBoundMicros(i);
+            }
+        }
+        return upperBoundMicros(BUCKETS - 1);
+    }
+
+    /**
+     * Describes the histogram in the Prometheus text format: the cumulative
+     * count of each non-empty bucket, by upper bound in microseconds, then
+     * the sum in microseconds and the count.
+     *
+     * @return the lines of the histogram
+     */
+    public String describe() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("# TYPE ").append(name).append(" histogram\n");
+        long cumulated = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            final long count = counts.get(i);
+            cumulated += count;
+            if (count > 0) {
+                sb.append(name).append("_bucket{le=\"").append(upperBoundMicros(i))
+                        .append("\"} ").append(cumulated).append('\n');
+            }
+        }
+        cumulated += counts.get(BUCKETS - 1);
+        sb.append(name).append("_bucket{le=\"+Inf\"} ").append(cumulated).append('\n');
+        sb.append(name).append("_sum ").append(sumNanos.get() / NANOS_PER_MICRO)
+                .append('\n');
+        sb.append(name).append("_count ").append(cumulated).append('\n');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,279 @@
+package renderer.server;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * The RenderRequest class holds the parameters of a render asked to the
+ * RenderServer: a scene file, and optional overrides of its camera, of the
+ * shader and of the resolution. Two requests are equal when they render
+ * the same image, whatever the order of their parameters.
+ *
+ * The parameters of the query string are:
+ * - scene: the path of the scene file, relative to the root of the server;
+ * - eye, lookAt, up: the camera, as three comma-separated coordinates;
+ * - shader: the name of the shader, SimpleShader by default;
+ * - divisor: the divisor of the resolution of the scene, 1 by default.
+ */
+public final class RenderRequest {
+
+    /**
+     * The shader used when none is asked.
+     */
+    public static final String DEFAULT_SHADER = "SimpleShader";
+
+    /**
+     * The largest divisor of the resolution.
+     */
+    static final int MAX_DIVISOR = 64;
+
+    /**
+     * The number of coordinates of a camera vector.
+     */
+    private static final int DIMENSION = 3;
+
+    /**
+     * The path of the scene file.
+     */
+    private final Path scene;
+
+    /**
+     * The position of the camera, or null for the one of the scene.
+     */
+    private final double[] eye;
+
+    /**
+     * The point the camera looks at, or null for the one of the scene.
+     */
+    private final double[] lookAt;
+
+    /**
+     * The up direction of the camera, or null for the one of the scene.
+     */
+    private final double[] up;
+
+    /**
+     * The name of the shader.
+     */
+    private final String shader;
+
+    /**
+     * The divisor of the resolution.
+     */
+    private final int divisor;
+
+    /**
+     * Creates a request.
+     *
+     * @param scene   the path of the scene file
+     * @param eye     the position of the camera, or null
+     * @param lookAt  the point the camera looks at, or null
+     * @param up      the up direction of the camera, or null
+     * @param shader  the name of the shader
+     * @param divisor the divisor of the resolution
+     */
+    private RenderRequest(Path scene, double[] eye, double[] lookAt, double[] up,
+            String shader, int divisor) {
+        this.scene = scene;
+        this.eye = eye;
+        this.lookAt = lookAt;
+        this.up = up;
+        this.shader = shader;
+        this.divisor = divisor;
+    }
+
+    /**
+     * Parses a request from a query string.
+     *
+     * @param query the raw query string, possibly null
+     * @param root  the directory the scene files are read from
+     * @return the request
+     * @throws IllegalArgumentException if a parameter is missing or invalid,
+     *                                  or the scene is not a file under the
+     *                                  root
+     */
+    public static RenderRequest parse(String query, Path root) {
+        final Map<String, String> params = parseQuery(query);
+        final String scenePath = params.get("scene");
+        if (scenePath == null || scenePath.isEmpty()) {
+            throw new IllegalArgumentException("Missing scene parameter.");
+        }
+        final Path base = root.toAbsolutePath().normalize();
+        final Path scene = base.resolve(scenePath).normalize();
+        if (!scene.startsWith(base) || !Files.isRegularFile(scene)) {
+            throw new IllegalArgumentException("No scene " + scenePath);
+        }
+        final int divisor = params.containsKey("divisor")
+                ? parseInt(params.get("divisor"), "divisor") : 1;
+        if (divisor < 1 || divisor > MAX_DIVISOR) {
+            throw new IllegalArgumentException("Invalid divisor " + divisor);
+        }
+        return new RenderRequest(scene, parseVector(params, "eye"),
+                parseVector(params, "lookAt"), parseVector(params, "up"),
+                params.getOrDefault("shader", DEFAULT_SHADER), divisor);
+    }
+
+    /**
+     * Splits a query string into decoded parameters.
+     *
+     * @param query the raw query string, possibly null
+     * @return the parameters, by name
+     */
+    private static Map<String, String> parseQuery(String query) {
+        final Map<String, String> params = new TreeMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            final int equals = pair.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Invalid parameter " + pair);
+            }
+            params.put(decode(pair.substring(0, equals)),
+                    decode(pair.substring(equals + 1)));
+        }
+        return params;
+    }
+
+    /**
+     * Decodes a URL-encoded string.
+     *
+     * @param s the encoded string
+     * @return the decoded string
+     */
+    private static String decode(String s) {
+        return URLDecoder.decode(s, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses an integer parameter.
+     *
+     * @param value the value
+     * @param name  the name of the parameter
+     * @return the integer
+     */
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + " " + value, e);
+        }
+    }
+
+    /**
+     * Parses an optional vector parameter.
+     *
+     * @param params the parameters
+     * @param name   the name of the parameter
+     * @return the coordinates, or null if the parameter is absent
+     */
+    private static double[] parseVector(Map<String, String> params, String name) {
+        final String value = params.get(name);
+        if (value == null) {
+            return null;
+        }
+        final String[] parts = value.split(",");
+        if (parts.length != DIMENSION) {
+            throw new IllegalArgumentException("Invalid " + name + " " + value);
+        }
+        final double[] v = new double[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            try {
+                v[i] = Double.parseDouble(parts[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + name + " " + value, e);
+            }
+            if (!Double.isFinite(v[i])) {
+                throw new IllegalArgumentException("Invalid " + name + " " + value);
+            }
+        }
+        return v;
+    }
+
+    /**
+     * Gets the path of the scene file.
+     *
+     * @return the absolute path, under the root of the server
+     */
+    public Path getScene() {
+        return scene;
+    }
+
+    /**
+     * Gets the position of the camera.
+     *
+     * @return the coordinates, or null for the one of the scene
+     */
+    public double[] getEye() {
+        return eye == null ? null : eye.clone();
+    }
+
+    /**
+     * Gets the point the camera looks at.
+     *
+     * @return the coordinates, or null for the one of the scene
+     */
+    public double[] getLookAt() {
+        return lookAt == null ? null : lookAt.clone();
+    }
+
+    /**
+     * Gets the up direction of the camera.
+     *
+     * @return the coordinates, or null for the one of the scene
+     */
+    public double[] getUp() {
+        return up == null ? null : up.clone();
+    }
+
+    /**
+     * Gets the name of the shader.
+     *
+     * @return the name, as given to the ShaderFactory
+     */
+    public String getShader() {
+        return shader;
+    }
+
+    /**
+     * Gets the divisor of the resolution of the scene.
+     *
+     * @return the divisor, 1 for the full resolution
+     */
+    public int getDivisor() {
+        return divisor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RenderRequest)) {
+            return false;
+        }
+        final RenderRequest other = (RenderRequest) o;
+        return scene.equals(other.scene) && Arrays.equals(eye, other.eye)
+                && Arrays.equals(lookAt, other.lookAt) && Arrays.equals(up, other.up)
+                && shader.equals(other.shader) && divisor == other.divisor;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(scene, Arrays.hashCode(eye), Arrays.hashCode(lookAt),
+                Arrays.hashCode(up), shader, divisor);
+    }
+
+    @Override
+    public String toString() {
+        return scene + " eye=" + Arrays.toString(eye) + " lookAt="
+                + Arrays.toString(lookAt) + " up=" + Arrays.toString(up) + " shader="
+                + shader + " divisor=" + divisor;
+    }
+}
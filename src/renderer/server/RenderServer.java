@@ -0,0 +1,456 @@
+package renderer.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.ImageIO;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import renderer.algebra.Vector;
+import renderer.controller.ImageWrapper;
+import renderer.controller.Renderer;
+import renderer.core.mesh.ResourceCache;
+import renderer.core.mesh.Scene;
+
+/**
+ * The RenderServer class renders scenes on demand over HTTP, in a
+ * long-running JVM, so that a request does not pay for starting a JVM nor
+ * for loading its mesh again.
+ *
+ * GET /render with the parameters of a RenderRequest answers the image as
+ * a PNG. GET /stats answers the latency histograms and the counters of the
+ * server in the Prometheus text format.
+ *
+ * The renders run on a bounded pool of Renderer instances, each used by one
+ * request at a time and keeping its last scene loaded. The meshes and the
+ * textures are shared between the renderers through a ResourceCache.
+ * Identical requests arriving while one of them is rendered wait for its
+ * image instead of rendering it again.
+ *
+ * Usage: {@code java renderer.server.RenderServer [port [renderers [root]]]}
+ */
+public class RenderServer implements Closeable {
+
+    /**
+     * The default port.
+     */
+    public static final int DEFAULT_PORT = 8080;
+
+    /**
+     * The number of meshes, and of textures, kept in the cache.
+     */
+    private static final int CACHE_CAPACITY = 16;
+
+    /**
+     * The number of request handler threads per renderer.
+     */
+    private static final int HANDLERS_PER_RENDERER = 4;
+
+    /**
+     * The time a request waits for a renderer before being refused.
+     */
+    private static final long RENDERER_TIMEOUT_MS = 30_000;
+
+    /**
+     * The HTTP status of a successful request.
+     */
+    private static final int OK = 200;
+
+    /**
+     * The HTTP status of an invalid request.
+     */
+    private static final int BAD_REQUEST = 400;
+
+    /**
+     * The HTTP status of a request with another method than GET.
+     */
+    private static final int METHOD_NOT_ALLOWED = 405;
+
+    /**
+     * The HTTP status of a failed render.
+     */
+    private static final int INTERNAL_ERROR = 500;
+
+    /**
+     * The HTTP status of a request refused because every renderer is busy.
+     */
+    private static final int UNAVAILABLE = 503;
+
+    /**
+     * A renderer of the pool, with the scene it has loaded.
+     */
+    private static final class Slot {
+
+        /** The renderer. */
+        private final Renderer renderer;
+
+        /** The path of the scene loaded, or null. */
+        private Path scene;
+
+        /**
+         * Creates a renderer drawing the faces, with lighting.
+         *
+         * @param cache the cache of the meshes and textures
+         * @throws IOException if the default scene cannot be read
+         */
+        Slot(ResourceCache cache) throws IOException {
+            renderer = new Renderer();
+            renderer.setResourceCache(cache);
+            renderer.setSolidRendered(true);
+            renderer.setLightingEnabled(true);
+        }
+    }
+
+    /**
+     * The directory the scene files are read from.
+     */
+    private final Path root;
+
+    /**
+     * The HTTP server.
+     */
+    private final HttpServer http;
+
+    /**
+     * The threads handling the requests.
+     */
+    private final ExecutorService handlers;
+
+    /**
+     * The renderers not rendering.
+     */
+    private final BlockingQueue<Slot> idle;
+
+    /**
+     * The meshes and textures shared by the renderers.
+     */
+    private final ResourceCache resources = new ResourceCache(CACHE_CAPACITY);
+
+    /**
+     * The renders in flight, shared by identical requests.
+     */
+    private final RequestCoalescer<RenderRequest, byte[]> coalescer =
+            new RequestCoalescer<>();
+
+    /**
+     * The latency of the render requests, from their arrival until their
+     * answer is ready, just before it is sent.
+     */
+    private final LatencyHistogram requestLatency =
+            new LatencyHistogram("render_request_latency_us");
+
+    /**
+     * The latency of the renders, from the renderer acquired to the image
+     * encoded.
+     */
+    private final LatencyHistogram renderLatency =
+            new LatencyHistogram("render_latency_us");
+
+    /**
+     * The number of renders.
+     */
+    private final AtomicLong renders = new AtomicLong();
+
+    /**
+     * The number of renders that reused the scene loaded in their renderer.
+     */
+    private final AtomicLong warmRenders = new AtomicLong();
+
+    /**
+     * The number of requests that failed.
+     */
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * Creates a server, not started yet.
+     *
+     * @param address   the address to listen on, port 0 for any free port
+     * @param root      the directory the scene files are read from
+     * @param renderers the number of renders run at the same time
+     * @throws IOException if the address cannot be bound or a renderer
+     *                     cannot be created
+     */
+    public RenderServer(InetSocketAddress address, Path root, int renderers)
+            throws IOException {
+        if (renderers < 1) {
+            throw new IllegalArgumentException("Invalid renderer count " + renderers);
+        }
+        this.root = root.toAbsolutePath().normalize();
+        idle = new ArrayBlockingQueue<>(renderers);
+        for (int i = 0; i < renderers; i++) {
+            idle.add(new Slot(resources));
+        }
+        final AtomicInteger threadCount = new AtomicInteger();
+        handlers = Executors.newFixedThreadPool(renderers * HANDLERS_PER_RENDERER, r -> {
+            final Thread thread =
+                    new Thread(r, "render-http-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        http = HttpServer.create(address, 0);
+        http.setExecutor(handlers);
+        http.createContext("/render", this::handleRender);
+        http.createContext("/stats", this::handleStats);
+    }
+
+    /**
+     * Starts answering the requests.
+     */
+    public void start() {
+        http.start();
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    /**
+     * Gets the cache of the meshes and the textures.
+     *
+     * @return the cache
+     */
+    public ResourceCache getResourceCache() {
+        return resources;
+    }
+
+    /**
+     * Gets the latency of the requests.
+     *
+     * @return the histogram of the requests, from arrival until the answer
+     *         is ready
+     */
+    public LatencyHistogram getRequestLatency() {
+        return requestLatency;
+    }
+
+    /**
+     * Gets the number of requests served by the render of another one.
+     *
+     * @return the number of coalesced requests
+     */
+    public long getCoalescedCount() {
+        return coalescer.getCoalescedCount();
+    }
+
+    /**
+     * Gets the number of renders.
+     *
+     * @return the number of images rendered
+     */
+    public long getRenderCount() {
+        return renders.get();
+    }
+
+    /**
+     * Answers a render request.
+     *
+     * @param exchange the request
+     * @throws IOException if the answer cannot be sent
+     */
+    private void handleRender(HttpExchange exchange) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendText(exchange, METHOD_NOT_ALLOWED, "Only GET is supported.");
+                return;
+            }
+            byte[] png = null;
+            int status = OK;
+            String error = null;
+            try {
+                final RenderRequest request =
+                        RenderRequest.parse(exchange.getRequestURI().getRawQuery(), root);
+                png = coalescer.get(request, () -> render(request));
+            } catch (IllegalArgumentException e) {
+                status = BAD_REQUEST;
+                error = e.getMessage();
+            } catch (RejectedExecutionException e) {
+                status = UNAVAILABLE;
+                error = e.getMessage();
+            } catch (IOException | RuntimeException e) {
+                status = INTERNAL_ERROR;
+                error = "Render failed: " + e;
+            }
+            // recorded before answering, so that a client having the answer
+            // finds its request in the statistics
+            requestLatency.record(System.nanoTime() - start);
+            if (png == null) {
+                failures.incrementAndGet();
+                sendText(exchange, status, error);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "image/png");
+            exchange.sendResponseHeaders(OK, png.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(png);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Answers the statistics of the server.
+     *
+     * @param exchange the request
+     * @throws IOException if the answer cannot be sent
+     */
+    private void handleStats(HttpExchange exchange) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(requestLatency.describe());
+        sb.append(renderLatency.describe());
+        sb.append("render_total ").append(renders.get()).append('\n');
+        sb.append("render_warm_total ").append(warmRenders.get()).append('\n');
+        sb.append("render_coalesced_total ").append(coalescer.getCoalescedCount())
+                .append('\n');
+        sb.append("render_failed_total ").append(failures.get()).append('\n');
+        sb.append("render_idle_renderers ").append(idle.size()).append('\n');
+        sb.append("resource_cache_hits_total ").append(resources.getHits()).append('\n');
+        sb.append("resource_cache_misses_total ").append(resources.getMisses())
+                .append('\n');
+        try {
+            sendText(exchange, OK, sb.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Renders a request on an idle renderer, and encodes the image.
+     *
+     * @param request the request
+     * @return the image, as a PNG
+     * @throws IOException if the scene cannot be loaded
+     */
+    private byte[] render(RenderRequest request) throws IOException {
+        final Slot slot;
+        try {
+            slot = idle.poll(RENDERER_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a renderer.", e);
+        }
+        if (slot == null) {
+            throw new RejectedExecutionException("Every renderer is busy.");
+        }
+        final long start = System.nanoTime();
+        final ImageWrapper image;
+        try {
+            image = renderOn(slot, request);
+        } finally {
+            idle.add(slot);
+        }
+        final ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        renders.incrementAndGet();
+        renderLatency.record(System.nanoTime() - start);
+        return png.toByteArray();
+    }
+
+    /**
+     * Sets a renderer up for a request and renders it.
+     *
+     * @param slot    the renderer, used by this thread only
+     * @param request the request
+     * @return the image
+     * @throws IOException if the scene cannot be loaded
+     */
+    private ImageWrapper renderOn(Slot slot, RenderRequest request) throws IOException {
+        final Renderer renderer = slot.renderer;
+        if (request.getScene().equals(slot.scene)) {
+            warmRenders.incrementAndGet();
+        } else {
+            // a scene that failed to load leaves the renderer unusable
+            slot.scene = null;
+            renderer.setScene(request.getScene().toString());
+            slot.scene = request.getScene();
+        }
+        final Scene scene = renderer.getScene();
+        renderer.setCamera(vector(request.getEye(), scene.getCameraPosition()),
+                vector(request.getLookAt(), scene.getCameraLookAt()),
+                vector(request.getUp(), scene.getCameraUp()));
+        if (!renderer.setShader(request.getShader())) {
+            throw new IllegalArgumentException("Unknown shader " + request.getShader());
+        }
+        renderer.setResolutionDivisor(request.getDivisor());
+        return renderer.render();
+    }
+
+    /**
+     * Converts an optional override to a vector.
+     *
+     * @param override the coordinates, or null
+     * @param fallback the vector used without override
+     * @return the vector
+     */
+    private static Vector vector(double[] override, Vector fallback) {
+        return override == null ? fallback : new Vector(override);
+    }
+
+    /**
+     * Sends a text answer.
+     *
+     * @param exchange the request
+     * @param status   the HTTP status
+     * @param text     the body
+     * @throws IOException if the answer cannot be sent
+     */
+    private static void sendText(HttpExchange exchange, int status, String text)
+            throws IOException {
+        final byte[] body = String.valueOf(text).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Stops answering the requests.
+     */
+    @Override
+    public void close() {
+        http.stop(0);
+        handlers.shutdownNow();
+    }
+
+    /**
+     * Starts a server.
+     *
+     * @param args the port, the number of renderers and the directory of the
+     *             scene files, all optional
+     * @throws IOException if the server cannot be started
+     */
+    public static void main(String[] args) throws IOException {
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        final int renderers = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        final Path root = Paths.get(args.length > 2 ? args[2] : ".");
+        final RenderServer server =
+                new RenderServer(new InetSocketAddress(port), root, renderers);
+        server.start();
+        System.out.println("Rendering on http://localhost:" + server.getPort()
+                + "/render?scene=<file> with " + renderers + " renderers");
+    }
+}
@@ -0,0 +1,119 @@
+package renderer.server;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The RequestCoalescer class computes the result of identical requests
+ * arriving at the same time only once: the first request computes it, and
+ * the requests arriving while it is computed wait for the same result.
+ * Nothing is cached once the result is delivered.
+ *
+ * @param <K> the type of the requests, with value equality
+ * @param <V> the type of the results
+ */
+public class RequestCoalescer<K, V> {
+
+    /**
+     * A computation of a result.
+     *
+     * @param <V> the type of the result
+     */
+    @FunctionalInterface
+    public interface Computation<V> {
+
+        /**
+         * Computes the result.
+         *
+         * @return the result
+         * @throws IOException if the result cannot be computed
+         */
+        V compute() throws IOException;
+    }
+
+    /**
+     * The results being computed, by request.
+     */
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight =
+            new ConcurrentHashMap<>();
+
+    /**
+     * The number of requests served by the computation of another one.
+     */
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Gets the result of a request, computing it unless an identical request
+     * is being computed.
+     *
+     * @param key         the request
+     * @param computation the computation of the result
+     * @return the result
+     * @throws IOException if the computation failed, for this request or the
+     *                     identical one it waited for
+     */
+    public V get(K key, Computation<V> computation) throws IOException {
+        final CompletableFuture<V> mine = new CompletableFuture<>();
+        final CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return await(running);
+        }
+        try {
+            final V result = computation.compute();
+            mine.complete(result);
+            return result;
+        } catch (IOException | RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Waits for the result of another request.
+     *
+     * @param running the result being computed
+     * @return the result
+     * @throws IOException if the computation failed
+     */
+    private V await(CompletableFuture<V> running) throws IOException {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a result.", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Gets the number of requests served by the computation of another one.
+     *
+     * @return the number of coalesced requests
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * Gets the number of results being computed.
+     *
+     * @return the number of requests in flight
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
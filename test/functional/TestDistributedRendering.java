@@ -0,0 +1,469 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import renderer.controller.ImageWrapper;
+import renderer.controller.Renderer;
+import renderer.distributed.DepthLayer;
+import renderer.distributed.SortLastCoordinator;
+import renderer.distributed.TileRenderCoordinator;
+
+/**
+ * Test class for the distributed tile and sort-last rendering, with workers
+ * spawned on this machine.
+ */
+public class TestDistributedRendering {
+
+    /** The scene rendered. */
+    private static final String SCENE = "data/example0.scene";
+
+    /** The size of the tiles, not dividing the size of the image. */
+    private static final int TILE_SIZE = 100;
+
+    /** The number of partitions of the mesh in sort-last mode. */
+    private static final int PARTITIONS = 3;
+
+    /** The number of bytes per pixel of an uncompressed image. */
+    private static final long BYTES_PER_PIXEL = 3;
+
+    /** The time to wait for a worker to connect. */
+    private static final int TIMEOUT_MS = 30_000;
+
+    /** The message of a tile job, as sent by the coordinator. */
+    private static final int TILE_MESSAGE = 1;
+
+    /** The job timeout of the tests with a worker that hangs. */
+    private static final int SHORT_JOB_TIMEOUT_MS = 500;
+
+    /** The message of a layer job, as sent by the coordinator. */
+    private static final int LAYER_MESSAGE = 3;
+
+    /** The size of the square covered by each partition of a known layer. */
+    private static final int SQUARE_SIZE = 100;
+
+    /** The offset between the squares of successive partitions. */
+    private static final int SQUARE_STEP = 50;
+
+    /** The colors of the partitions of the known layers. */
+    private static final int[] PARTITION_COLORS = {0xFF0000, 0x00FF00, 0x0000FF};
+
+    /** The shift of the x coordinate in the color of a pattern pixel. */
+    private static final int PATTERN_X_SHIFT = 12;
+
+    /** The mask of the RGB components of a packed color. */
+    private static final int RGB_MASK = 0xFFFFFF;
+
+    /** The shift of the green component of a packed color. */
+    private static final int GREEN_SHIFT = 8;
+
+    /** The shift of the red component of a packed color. */
+    private static final int RED_SHIFT = 16;
+
+    /**
+     * Renders the scene in a single process, as the workers do.
+     * @return the image
+     * @throws IOException if the scene cannot be read
+     */
+    private static ImageWrapper renderLocally() throws IOException {
+        final Renderer renderer = new Renderer();
+        renderer.setScene(SCENE);
+        renderer.setVertexRendered(false);
+        renderer.setWiredRendered(false);
+        renderer.setSolidRendered(true);
+        renderer.setLightingEnabled(false);
+        return renderer.render();
+    }
+
+    /**
+     * Creates a coordinator rendering the faces without lighting.
+     * @return the coordinator
+     * @throws IOException if the scene cannot be read
+     */
+    private static TileRenderCoordinator coordinator() throws IOException {
+        final TileRenderCoordinator coordinator =
+                new TileRenderCoordinator(SCENE, TILE_SIZE);
+        coordinator.setRenderModes(false, false, true, false);
+        return coordinator;
+    }
+
+    /**
+     * Connects a worker that reads its settings, then disconnects.
+     * @param port the port of the coordinator
+     * @return the thread of the worker
+     */
+    private static Thread failingWorker(int port) {
+        final Thread thread = new Thread(() -> {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                final DataInputStream in = new DataInputStream(socket.getInputStream());
+                in.readUTF();
+                in.readUTF();
+                in.readInt();
+                in.readInt();
+                in.readInt();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Gets the color a pattern worker gives to a pixel of the image, unique
+     * to the pixel.
+     * @param x the x coordinate in the image
+     * @param y the y coordinate in the image
+     * @return the packed RGB color
+     */
+    private static int pattern(int x, int y) {
+        return x << PATTERN_X_SHIFT | y;
+    }
+
+    /**
+     * Reads the settings a worker receives once connected.
+     * @param in the stream from the coordinator
+     * @return the partition of the worker
+     * @throws IOException if the settings cannot be read
+     */
+    private static int readSettings(DataInputStream in) throws IOException {
+        in.readUTF();
+        in.readUTF();
+        in.readInt();
+        final int partition = in.readInt();
+        in.readInt();
+        return partition;
+    }
+
+    /**
+     * Connects a worker that answers the tile jobs with the pattern pixels of
+     * the tiles, until the coordinator says bye or disconnects.
+     * @param port the port of the coordinator
+     * @return the thread of the worker
+     */
+    private static Thread patternWorker(int port) {
+        final Thread thread = new Thread(() -> {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                final DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(socket.getInputStream()));
+                final DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(socket.getOutputStream()));
+                readSettings(in);
+                while (in.readInt() == TILE_MESSAGE) {
+                    out.writeInt(in.readInt());
+                    final int x = in.readInt();
+                    final int y = in.readInt();
+                    final int width = in.readInt();
+                    final int height = in.readInt();
+                    for (int row = y; row < y + height; row++) {
+                        for (int col = x; col < x + width; col++) {
+                            final int rgb = pattern(col, row);
+                            out.write(rgb);
+                            out.write(rgb >> GREEN_SHIFT);
+                            out.write(rgb >> RED_SHIFT);
+                        }
+                    }
+                    out.flush();
+                }
+            } catch (EOFException e) {
+                // the coordinator closed the connection
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Gets the depth of a partition of the known layers at a pixel: each
+     * partition is nearer than the previous one, except on the diagonal of
+     * the image where partitions 0 and 1 are at the same depth.
+     * @param partition the partition
+     * @param x         the x coordinate
+     * @param y         the y coordinate
+     * @return the depth
+     */
+    private static float knownDepth(int partition, int x, int y) {
+        if (partition == 1 && x == y) {
+            return knownDepth(0, x, y);
+        }
+        return PARTITIONS - partition;
+    }
+
+    /**
+     * Tells whether a partition of the known layers covers a pixel: each one
+     * covers a square, overlapping the squares of its neighbours.
+     * @param partition the partition
+     * @param x         the x coordinate
+     * @param y         the y coordinate
+     * @return true if the pixel is covered
+     */
+    private static boolean knownCovers(int partition, int x, int y) {
+        final int from = partition * SQUARE_STEP;
+        return x >= from && x < from + SQUARE_SIZE && y >= from
+                && y < from + SQUARE_SIZE;
+    }
+
+    /**
+     * Connects a worker that answers the layer jobs with the known layer of
+     * its partition.
+     * @param port   the port of the coordinator
+     * @param width  the width of the image
+     * @param height the height of the image
+     * @return the thread of the worker
+     */
+    private static Thread layerWorker(int port, int width, int height) {
+        final Thread thread = new Thread(() -> {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                final DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(socket.getInputStream()));
+                final DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(socket.getOutputStream()));
+                final int partition = readSettings(in);
+                final DepthLayer layer = new DepthLayer(width, height);
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        if (knownCovers(partition, x, y)) {
+                            layer.set(x, y, PARTITION_COLORS[partition],
+                                    knownDepth(partition, x, y));
+                        }
+                    }
+                }
+                while (in.readInt() == LAYER_MESSAGE) {
+                    layer.write(out);
+                    out.flush();
+                }
+            } catch (EOFException e) {
+                // the coordinator closed the connection
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Connects a worker that reads its settings and its first job, then
+     * hangs without answering nor closing its socket until released.
+     * @param port     the port of the coordinator
+     * @param released counted down to release the worker
+     * @return the thread of the worker
+     */
+    private static Thread hangingWorker(int port, CountDownLatch released) {
+        final Thread thread = new Thread(() -> {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                final DataInputStream in = new DataInputStream(socket.getInputStream());
+                readSettings(in);
+                in.readInt();
+                released.await();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * The tile of a worker that hangs is given to another worker once the job
+     * timeout expires, and the hanging worker is dropped.
+     * @throws Exception if the render fails
+     */
+    @Test
+    public void testHangingWorkerTimesOut() throws Exception {
+        final CountDownLatch released = new CountDownLatch(1);
+        try (TileRenderCoordinator coordinator = coordinator()) {
+            coordinator.setJobTimeout(SHORT_JOB_TIMEOUT_MS);
+            hangingWorker(coordinator.getPort(), released);
+            coordinator.acceptWorkers(1, TIMEOUT_MS);
+            patternWorker(coordinator.getPort());
+            coordinator.acceptWorkers(1, TIMEOUT_MS);
+
+            final ImageWrapper image = coordinator.render();
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    assertEquals(pattern(x, y), image.getRGB(x, y) & RGB_MASK);
+                }
+            }
+            assertEquals(1, coordinator.getWorkerCount());
+        } finally {
+            released.countDown();
+        }
+    }
+
+    /**
+     * A coordinator bound to an address listens there, and the workers it
+     * spawns connect to it.
+     * @throws Exception if the render fails
+     */
+    @Test
+    public void testBindAddress() throws Exception {
+        try (TileRenderCoordinator coordinator = new TileRenderCoordinator(SCENE,
+                TILE_SIZE, InetAddress.getLoopbackAddress())) {
+            coordinator.setRenderModes(false, false, true, false);
+            coordinator.spawnLocalWorkers(1);
+            assertEquals(renderLocally().getWidth(), coordinator.render().getWidth());
+        }
+    }
+
+    /**
+     * The tiles answered by the workers, including the partial tiles of the
+     * last row and column, are each stitched at their place in the image.
+     * @throws Exception if the render fails
+     */
+    @Test
+    public void testStitchedTilesAtTheirPlace() throws Exception {
+        try (TileRenderCoordinator coordinator = coordinator()) {
+            patternWorker(coordinator.getPort());
+            patternWorker(coordinator.getPort());
+            coordinator.acceptWorkers(2, TIMEOUT_MS);
+            final ImageWrapper image = coordinator.render();
+            assertTrue(image.getWidth() % TILE_SIZE != 0);
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    assertEquals(pattern(x, y), image.getRGB(x, y) & RGB_MASK);
+                }
+            }
+        }
+    }
+
+    /**
+     * The stitched tiles of two workers make the image rendered locally.
+     * @throws Exception if the render fails
+     */
+    @Test
+    public void testTwoWorkers() throws Exception {
+        try (TileRenderCoordinator coordinator = coordinator()) {
+            coordinator.spawnLocalWorkers(2);
+            final ImageWrapper image = coordinator.render();
+            final ImageWrapper expected = renderLocally();
+            assertEquals(expected.getWidth(), image.getWidth());
+            assertArrayEquals(expected.getPixelData(), image.getPixelData());
+            assertEquals(2, coordinator.getWorkerCount());
+        }
+    }
+
+    /**
+     * The tiles of a failing worker are rendered by the others.
+     * @throws Exception if the render fails
+     */
+    @Test
+    public void testWorkerFailure() throws Exception {
+        try (TileRenderCoordinator coordinator = coordinator()) {
+            final Thread failing = failingWorker(coordinator.getPort());
+            coordinator.acceptWorkers(1, TIMEOUT_MS);
+            failing.join();
+            coordinator.spawnLocalWorkers(1);
+
+            final ImageWrapper image = coordinator.render();
+            assertArrayEquals(renderLocally().getPixelData(), image.getPixelData());
+            assertEquals(1, coordinator.getWorkerCount());
+        }
+    }
+
+    /**
+     * The render fails once every worker failed.
+     * @throws Exception if the worker cannot connect
+     */
+    @Test(expected = IOException.class)
+    public void testEveryWorkerFails() throws Exception {
+        try (TileRenderCoordinator coordinator = coordinator()) {
+            final Thread failing = failingWorker(coordinator.getPort());
+            coordinator.acceptWorkers(1, TIMEOUT_MS);
+            failing.join();
+            coordinator.render();
+        }
+    }
+
+    /**
+     * The layers of the partitions of the mesh, merged by depth, make the
+     * image rendered locally, for less traffic than the raw images.
+     * @throws Exception if the render fails
+     */
+    @Test
+    public void testSortLast() throws Exception {
+        try (SortLastCoordinator coordinator =
+                new SortLastCoordinator(SCENE, PARTITIONS)) {
+            coordinator.setRenderModes(false, false, true, false);
+            coordinator.spawnLocalWorkers(PARTITIONS);
+            final ImageWrapper image = coordinator.render();
+            assertArrayEquals(renderLocally().getPixelData(), image.getPixelData());
+            assertTrue(coordinator.getLastTrafficBytes() < PARTITIONS
+                    * BYTES_PER_PIXEL * image.getWidth() * image.getHeight());
+        }
+    }
+
+    /**
+     * The known layers of the partitions are merged by depth: the nearest
+     * covering partition wins, the first one on equal depths, and the pixels
+     * no partition covers keep the background.
+     * @throws Exception if the render fails
+     */
+    @Test
+    public void testSortLastCompositesKnownLayers() throws Exception {
+        try (SortLastCoordinator coordinator =
+                new SortLastCoordinator(SCENE, PARTITIONS)) {
+            final ImageWrapper reference = renderLocally();
+            final int width = reference.getWidth();
+            final int height = reference.getHeight();
+            for (int i = 0; i < PARTITIONS; i++) {
+                layerWorker(coordinator.getPort(), width, height);
+            }
+            coordinator.acceptWorkers(PARTITIONS, TIMEOUT_MS);
+            final ImageWrapper image = coordinator.render();
+
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int expected = ImageWrapper.getDefaultBackgroundColor();
+                    float nearest = Float.POSITIVE_INFINITY;
+                    for (int p = 0; p < PARTITIONS; p++) {
+                        if (knownCovers(p, x, y) && knownDepth(p, x, y) < nearest) {
+                            nearest = knownDepth(p, x, y);
+                            expected = PARTITION_COLORS[p];
+                        }
+                    }
+                    assertEquals(expected & RGB_MASK, image.getRGB(x, y) & RGB_MASK);
+                }
+            }
+            // the tie on the diagonal is won by the first partition
+            assertEquals(PARTITION_COLORS[0],
+                    image.getRGB(SQUARE_STEP, SQUARE_STEP) & RGB_MASK);
+            assertEquals(PARTITION_COLORS[1],
+                    image.getRGB(SQUARE_STEP + 1, SQUARE_STEP) & RGB_MASK);
+        }
+    }
+
+    /**
+     * A worker connecting once every partition has one is refused.
+     * @throws Exception if the worker is accepted
+     */
+    @Test(expected = IOException.class)
+    public void testSortLastRefusesExtraWorker() throws Exception {
+        try (SortLastCoordinator coordinator = new SortLastCoordinator(SCENE, 1)) {
+            coordinator.spawnLocalWorkers(1);
+            try (Socket extra = new Socket(InetAddress.getLoopbackAddress(),
+                    coordinator.getPort())) {
+                assertTrue(extra.isConnected());
+                coordinator.acceptWorkers(1, TIMEOUT_MS);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+import renderer.server.RenderServer;
+
+/**
+ * Test class for the HTTP render server.
+ */
+public class TestRenderServer {
+
+    /** The HTTP status of a successful request. */
+    private static final int OK = 200;
+
+    /** The HTTP status of an invalid request. */
+    private static final int BAD_REQUEST = 400;
+
+    /** The number of renderers of the server. */
+    private static final int RENDERERS = 2;
+
+    /** The divisor of the resolution asked. */
+    private static final int DIVISOR = 4;
+
+    /**
+     * Starts a server on a free port of the loopback interface.
+     * @return the server
+     * @throws IOException if the server cannot be started
+     */
+    private static RenderServer start() throws IOException {
+        final RenderServer server = new RenderServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                Paths.get("."), RENDERERS);
+        server.start();
+        return server;
+    }
+
+    /**
+     * Opens a request to the server.
+     * @param server the server
+     * @param path   the path and query of the request
+     * @return the connection
+     * @throws IOException if the server cannot be reached
+     */
+    private static HttpURLConnection get(RenderServer server, String path)
+            throws IOException {
+        final URL url = new URL("http", InetAddress.getLoopbackAddress().getHostAddress(),
+                server.getPort(), path);
+        return (HttpURLConnection) url.openConnection();
+    }
+
+    /**
+     * A render request answers a PNG of the scene, and the mesh is loaded
+     * once for both requests.
+     * @throws Exception if the request fails
+     */
+    @Test
+    public void testRenderPng() throws Exception {
+        try (RenderServer server = start()) {
+            for (int i = 0; i < 2; i++) {
+                final HttpURLConnection connection = get(server,
+                        "/render?scene=data/example0.scene&divisor=" + DIVISOR
+                        + "&eye=0,0,5");
+                assertEquals(OK, connection.getResponseCode());
+                assertEquals("image/png", connection.getContentType());
+                try (InputStream in = connection.getInputStream()) {
+                    final BufferedImage image = ImageIO.read(in);
+                    assertNotNull(image);
+                    assertTrue(image.getWidth() > 0);
+                }
+            }
+            assertEquals(2, server.getRenderCount());
+            assertEquals(2, server.getRequestLatency().getCount());
+            assertTrue(server.getResourceCache().getMisses() <= 1);
+        }
+    }
+
+    /**
+     * Invalid requests are refused, scenes outside the root included.
+     * @throws Exception if the request fails
+     */
+    @Test
+    public void testBadRequests() throws Exception {
+        try (RenderServer server = start()) {
+            assertEquals(BAD_REQUEST, get(server, "/render").getResponseCode());
+            assertEquals(BAD_REQUEST,
+                    get(server, "/render?scene=../etc/passwd").getResponseCode());
+            assertEquals(BAD_REQUEST, get(server,
+                    "/render?scene=data/example0.scene&eye=1,2").getResponseCode());
+            assertEquals(BAD_REQUEST, get(server,
+                    "/render?scene=data/example0.scene&shader=Nope").getResponseCode());
+            assertEquals(0, server.getRenderCount());
+        }
+    }
+
+    /**
+     * The statistics expose the latency histograms.
+     * @throws Exception if the request fails
+     */
+    @Test
+    public void testStats() throws Exception {
+        try (RenderServer server = start()) {
+            get(server, "/render?scene=data/example0.scene&divisor=" + DIVISOR)
+                    .getResponseCode();
+            final HttpURLConnection connection = get(server, "/stats");
+            assertEquals(OK, connection.getResponseCode());
+            final String text;
+            try (InputStream in = connection.getInputStream()) {
+                text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            assertTrue(text, text.contains("render_request_latency_us_count 1\n"));
+            assertTrue(text, text.contains("render_latency_us_bucket{le=\"+Inf\"} 1\n"));
+            assertTrue(text, text.contains("render_total 1\n"));
+        }
+    }
+}
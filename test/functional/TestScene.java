@@ -1,5 +1,8 @@
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.util.List;
+
 import org.junit.Test;
 
 import renderer.algebra.Vector;
@@ -77,4 +80,21 @@ public class TestScene {
         printArray("Material properties", material);
     }
 
+    /**
+     * Test a scene with additional point lights.
+     * The main source has no radius of influence, the others have one.
+     */
+    @Test
+    public void testPointLights() throws Exception {
+        final Scene scene = new Scene("data/example_lights.scene");
+        final List<double[]> lights = scene.getPointLights();
+        final int expectedLights = 25;
+        final int radius = 4;
+        assertEquals(expectedLights, lights.size());
+        assertEquals(scene.getSourceI(), lights.get(0)[3], 0);
+        assertEquals(Double.POSITIVE_INFINITY, lights.get(0)[radius], 0);
+        for (double[] light : lights.subList(1, lights.size())) {
+            assertEquals(2.5, light[radius], 0);
+        }
+    }
 }
@@ -0,0 +1,69 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+import renderer.controller.Renderer;
+import renderer.core.camera.CameraPath;
+import renderer.core.camera.CameraPose;
+import renderer.sequence.PngSequenceSink;
+import renderer.sequence.SequenceRenderer;
+
+/**
+ * Test class for the rendering of camera sequences.
+ */
+public class TestSequenceRendering {
+
+    /** The number of frames of the sequence. */
+    private static final int FRAMES = 8;
+
+    /** The number of keyframes of the turntable. */
+    private static final int KEYFRAMES = 4;
+
+    /** The divisor of the resolution, for fast renders. */
+    private static final int DIVISOR = 4;
+
+    /**
+     * A turntable streams one numbered PNG per frame, rendered within the
+     * framebuffers of the pipeline.
+     * @throws IOException if the scene cannot be read or the frames stored
+     */
+    @Test
+    public void testTurntableToPngSequence() throws IOException {
+        final Renderer renderer = new Renderer();
+        renderer.setSolidRendered(true);
+        renderer.setResolutionDivisor(DIVISOR);
+        final CameraPath path = CameraPath.turntable(new CameraPose(
+                renderer.getCameraPosition(), renderer.getCameraLookAt(),
+                renderer.getCameraUp()), KEYFRAMES);
+
+        final Path directory = Files.createTempDirectory("sequence");
+        try {
+            final SequenceRenderer sequence = new SequenceRenderer(renderer);
+            final PngSequenceSink sink = new PngSequenceSink(directory, "frame");
+            sequence.render(path, FRAMES, sink);
+            sink.close();
+
+            assertEquals(FRAMES, sink.getFrameCount());
+            assertEquals(0, sequence.getFramebufferOverflows());
+            assertTrue(sequence.getRenderNanos() > 0);
+            for (int i = 0; i < FRAMES; i++) {
+                final BufferedImage frame = ImageIO.read(sink.getFile(i).toFile());
+                assertEquals(renderer.getScreenWidth(), frame.getWidth());
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import renderer.controller.ColorMapFactory;
+import renderer.controller.ColorMapFactory.Maps;
+import renderer.core.shader.colormap.ColorMap;
+
+/**
+ * Unit tests for the ColorMapFactory class and the packed ColorMap tables.
+ */
+public class ColorMapFactoryTest {
+
+    /** The number of colors of the built-in maps. */
+    private static final int BUILT_IN_LENGTH = 256;
+
+    /** The first color of the Viridis map, as rounded by the Color class. */
+    private static final Color VIRIDIS_FIRST = new Color(0.267004f, 0.004874f, 0.329415f);
+
+    /** The last color of the magma map, as rounded by the Color class. */
+    private static final Color MAGMA_LAST = new Color(0.987053f, 0.991438f, 0.749504f);
+
+    /** A packed opaque black. */
+    private static final int BLACK = 0xFF000000;
+
+    /** A packed opaque white. */
+    private static final int WHITE = 0xFFFFFFFF;
+
+    /** The packed opaque gray halfway between black and white. */
+    private static final int GRAY = 0xFF808080;
+
+    /**
+     * Writes a color map file.
+     * @param lines the lines of the file
+     * @return the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    private static Path write(String... lines) throws IOException {
+        final Path file = Files.createTempFile("colormap", ".txt");
+        file.toFile().deleteOnExit();
+        Files.write(file, Arrays.asList(lines));
+        return file;
+    }
+
+    /**
+     * The built-in maps are built once and keep the colors of their tables.
+     */
+    @Test
+    public void testBuiltInMaps() {
+        final ColorMap viridis = ColorMapFactory.create(Maps.VERIDIS);
+        assertSame(viridis, ColorMapFactory.create(Maps.VERIDIS));
+        assertEquals(BUILT_IN_LENGTH, viridis.length());
+        assertEquals(VIRIDIS_FIRST.getRGB(), viridis.getRGB(0));
+        assertEquals(VIRIDIS_FIRST, viridis.getColor(0));
+
+        final ColorMap magma = ColorMapFactory.create(Maps.MAGMA);
+        assertEquals(BUILT_IN_LENGTH, magma.length());
+        assertEquals(MAGMA_LAST.getRGB(), magma.getRGB(BUILT_IN_LENGTH - 1));
+    }
+
+    /**
+     * The normalized lookup interpolates between the colors and clamps the
+     * positions out of the gradient.
+     */
+    @Test
+    public void testNormalizedLookup() {
+        final ColorMap map = new ColorMap(new int[] {BLACK, WHITE});
+        assertEquals(BLACK, map.getRGB(0.0));
+        assertEquals(WHITE, map.getRGB(1.0));
+        assertEquals(GRAY, map.getRGB(0.5));
+        assertEquals(BLACK, map.getRGB(-1.0));
+        assertEquals(WHITE, map.getRGB(2.0));
+        assertEquals(BLACK, map.getRGB(Double.NaN));
+
+        final ColorMap single = new ColorMap(new int[] {GRAY});
+        assertEquals(GRAY, single.getRGB(0.5));
+    }
+
+    /**
+     * A file is loaded with the rounding of the built-in maps, skipping its
+     * comments and empty lines.
+     * @throws IOException if the file cannot be read
+     */
+    @Test
+    public void testLoad() throws IOException {
+        final ColorMap map = ColorMapFactory.load(write("# black to white", "0 0 0", "",
+                "0.267004 0.004874 0.329415", "1 1 1"));
+        assertEquals(3, map.length());
+        assertEquals(BLACK, map.getRGB(0));
+        assertEquals(VIRIDIS_FIRST.getRGB(), map.getRGB(1));
+        assertEquals(WHITE, map.getRGB(2));
+    }
+
+    /**
+     * Invalid files are rejected.
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    public void testLoadInvalid() throws IOException {
+        final Path empty = write("# nothing");
+        assertThrows(IOException.class, () -> ColorMapFactory.load(empty));
+        final Path missing = write("0 0");
+        assertThrows(IOException.class, () -> ColorMapFactory.load(missing));
+        final Path text = write("0 red 0");
+        assertThrows(IOException.class, () -> ColorMapFactory.load(text));
+        final Path range = write("0 1.5 0");
+        assertThrows(IOException.class, () -> ColorMapFactory.load(range));
+    }
+}
@@ -0,0 +1,104 @@
+package controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import renderer.controller.FrameStatistics;
+import renderer.controller.FrameStatistics.Stage;
+import renderer.controller.Renderer;
+import renderer.core.mesh.Mesh;
+import renderer.core.shader.DepthBuffer;
+import renderer.core.shader.Fragment;
+
+/**
+ * Unit tests for the FrameStatistics class and the profiling of the Renderer.
+ */
+public class FrameStatisticsTest {
+
+    /** The size of the test frame. */
+    private static final int SIZE = 8;
+
+    /** A number of pixel writes. */
+    private static final int WRITES = 96;
+
+    /** The time spent in a stage, in milliseconds. */
+    private static final long SLEEP_MS = 20;
+
+    /** The number of nanoseconds in a millisecond. */
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    /**
+     * A nested stage is charged to itself only.
+     * @throws InterruptedException if the sleep is interrupted
+     */
+    @Test
+    public void testStagesAreExclusive() throws InterruptedException {
+        final FrameStatistics statistics = new FrameStatistics();
+        statistics.beginFrame(SIZE, SIZE);
+        final Stage outer = statistics.enter(Stage.SOLID);
+        final Stage inner = statistics.enter(Stage.VERTICES);
+        Thread.sleep(SLEEP_MS);
+        statistics.leave(inner);
+        statistics.leave(outer);
+        statistics.endFrame(WRITES);
+
+        assertNull(outer);
+        assertEquals(Stage.SOLID, inner);
+        assertTrue(statistics.getStageNanos(Stage.VERTICES) >= SLEEP_MS * NANOS_PER_MILLI);
+        assertTrue(statistics.getStageNanos(Stage.SOLID) < SLEEP_MS * NANOS_PER_MILLI);
+        assertTrue(statistics.getFrameNanos() >= statistics.getStageNanos(Stage.VERTICES));
+        assertEquals((double) WRITES / (SIZE * SIZE), statistics.getOverdraw(), 0);
+    }
+
+    /**
+     * Depth tests are counted only while statistics are attached.
+     */
+    @Test
+    public void testDepthTestsCounted() {
+        final FrameStatistics statistics = new FrameStatistics();
+        statistics.beginFrame(SIZE, SIZE);
+        final DepthBuffer depth = new DepthBuffer(SIZE, SIZE);
+        final Fragment fragment = new Fragment(1, 1);
+        fragment.setDepth(1.0);
+
+        depth.setStatistics(statistics);
+        final boolean passed = depth.testFragment(fragment);
+        depth.setStatistics(null);
+        depth.testFragment(fragment);
+
+        assertEquals(1, statistics.getDepthTestsPassed() + statistics.getDepthTestsFailed());
+        assertEquals(passed ? 1 : 0, statistics.getDepthTestsPassed());
+    }
+
+    /**
+     * A profiled render counts the triangles of the mesh, and disabling the
+     * profiling drops the statistics.
+     * @throws IOException if the default scene cannot be read
+     */
+    @Test
+    public void testRendererProfiling() throws IOException {
+        final Renderer renderer = new Renderer();
+        assertNull(renderer.getFrameStatistics());
+        renderer.setProfilingEnabled(true);
+        renderer.setSolidRendered(true);
+        renderer.render();
+
+        final FrameStatistics statistics = renderer.getFrameStatistics();
+        assertNotNull(statistics);
+        final Mesh mesh = new Mesh(renderer.getScene().getMeshFileName());
+        assertEquals(mesh.getNumFaces(), statistics.getTrianglesIn());
+        assertTrue(statistics.getTrianglesOut() <= statistics.getTrianglesIn());
+        assertFalse(statistics.describe().isEmpty());
+
+        renderer.setProfilingEnabled(false);
+        assertFalse(renderer.isProfilingEnabled());
+        assertNull(renderer.getFrameStatistics());
+    }
+}
@@ -0,0 +1,117 @@
+package controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import renderer.controller.Framebuffer;
+import renderer.controller.FramebufferPool;
+
+/**
+ * Unit tests for the FramebufferPool class.
+ */
+public class FramebufferPoolTest {
+
+    /** The size of the frames. */
+    private static final int SIZE = 16;
+
+    /** The background color. */
+    private static final int BACKGROUND = 0x5C5C5C;
+
+    /** The mask of the color channels. */
+    private static final int RGB_MASK = 0xFFFFFF;
+
+    /** A color drawn over the background. */
+    private static final int RED = 0xFF0000;
+
+    /** The number of framebuffers of the triple buffered pool. */
+    private static final int TRIPLE = 3;
+
+    /**
+     * Presenting frames in turn recycles the framebuffers without allocating,
+     * and never hands out the one on screen.
+     */
+    @Test
+    public void testSteadyStateRecycles() {
+        final FramebufferPool pool = new FramebufferPool(2);
+        Framebuffer front = null;
+        for (int frame = 0; frame < TRIPLE * 2; frame++) {
+            final Framebuffer back = pool.acquire(SIZE, SIZE, BACKGROUND);
+            assertTrue(front != back);
+            pool.complete(back.getImage());
+            pool.present(back.getImage());
+            front = back;
+        }
+        assertEquals(0, pool.getOverflows());
+    }
+
+    /**
+     * A recycled framebuffer is cleared, both its color and depth.
+     */
+    @Test
+    public void testRecycledFramebufferCleared() {
+        final FramebufferPool pool = new FramebufferPool(2);
+        final Framebuffer first = pool.acquire(SIZE, SIZE, BACKGROUND);
+        first.getImage().setRGB(1, 1, RED);
+        first.getDepthBuffer().setDepth(1, 1, 1.0);
+        pool.release(first.getImage());
+
+        final Framebuffer again = pool.acquire(SIZE, SIZE, BACKGROUND);
+        assertSame(first, again);
+        assertEquals(BACKGROUND, again.getImage().getRGB(1, 1) & RGB_MASK);
+        assertEquals(Double.POSITIVE_INFINITY, again.getDepthBuffer().getDepth(1, 1), 0);
+    }
+
+    /**
+     * Frames completed but not presented yet are kept, and a temporary
+     * framebuffer is allocated once the pool is exhausted.
+     */
+    @Test
+    public void testExhaustedPoolAllocates() {
+        final FramebufferPool pool = new FramebufferPool(TRIPLE);
+        final Framebuffer shown = pool.acquire(SIZE, SIZE, BACKGROUND);
+        pool.complete(shown.getImage());
+        pool.present(shown.getImage());
+        final Framebuffer pending = pool.acquire(SIZE, SIZE, BACKGROUND);
+        pool.complete(pending.getImage());
+        final Framebuffer rendering = pool.acquire(SIZE, SIZE, BACKGROUND);
+        assertEquals(0, pool.getOverflows());
+
+        final Framebuffer extra = pool.acquire(SIZE, SIZE, BACKGROUND);
+        assertEquals(1, pool.getOverflows());
+        assertTrue(shown != extra);
+        assertTrue(pending != extra);
+        assertTrue(rendering != extra);
+    }
+
+    /**
+     * A pool needs room for a frame shown and a frame rendered.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooSmall() {
+        new FramebufferPool(1);
+    }
+
+    /**
+     * A pool keeping its depth buffers off heap clears them like the others,
+     * and keeps them off heap across resizes.
+     */
+    @Test
+    public void testOffHeapDepth() {
+        final FramebufferPool pool = new FramebufferPool(2, true);
+        final Framebuffer first = pool.acquire(SIZE, SIZE, BACKGROUND);
+        assertTrue(first.getDepthBuffer().isOffHeap());
+        first.getDepthBuffer().setDepth(1, 1, 1.0);
+        pool.release(first.getImage());
+
+        final Framebuffer again = pool.acquire(SIZE * 2, SIZE, BACKGROUND);
+        assertSame(first, again);
+        assertTrue(again.getDepthBuffer().isOffHeap());
+        assertEquals(Double.POSITIVE_INFINITY, again.getDepthBuffer().getDepth(1, 1), 0);
+        assertFalse(new FramebufferPool(2).acquire(SIZE, SIZE, BACKGROUND)
+                .getDepthBuffer().isOffHeap());
+    }
+}
@@ -597,4 +597,20 @@ public class ImageWrapperTest {
         assertEquals("Blue pixel should be preserved",
                 Color.BLUE.getRGB(), loaded.getRGB(TEST_PIXEL_30, TEST_PIXEL_30));
     }
+
+    /**
+     * Tests that clearing fills every pixel, including the last one of an
+     * image whose size is not a power of two.
+     */
+    @Test
+    public void testClear() {
+        final ImageWrapper image = new ImageWrapper(TEST_PIXEL_30 + 1, TEST_PIXEL_10 + 1);
+        image.setPixel(TEST_PIXEL_10, TEST_PIXEL_10, Color.RED);
+        image.clear(CUSTOM_BACKGROUND_COLOR);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                assertEquals(CUSTOM_BACKGROUND_COLOR | ALPHA_MASK, image.getRGB(x, y));
+            }
+        }
+    }
 }
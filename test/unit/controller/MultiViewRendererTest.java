@@ -0,0 +1,191 @@
+package controller;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import renderer.algebra.Matrix;
+import renderer.algebra.Vector;
+import renderer.controller.ImageWrapper;
+import renderer.controller.MultiViewRenderer;
+import renderer.controller.Renderer;
+import renderer.controller.SceneState;
+import renderer.core.camera.CameraPose;
+import renderer.core.camera.Transformation;
+import renderer.core.light.Lighting;
+import renderer.core.mesh.Mesh;
+
+/**
+ * Unit tests for the MultiViewRenderer class.
+ */
+public class MultiViewRendererTest {
+
+    /** The scene rendered. */
+    private static final String SCENE = "data/example0.scene";
+
+    /** The number of views, more than one group of views. */
+    private static final int VIEWS = 20;
+
+    /** The number of renderers of the batch. */
+    private static final int RENDERERS = 3;
+
+    /** The distance of the cameras to the center of the scene. */
+    private static final double DISTANCE = 5;
+
+    /** The divisor of the resolution, for fast renders. */
+    private static final int DIVISOR = 4;
+
+    /** The focal length of the cameras of the prepared views. */
+    private static final double FOCAL = 100;
+
+    /** The relative tolerance of the projections, stored as floats. */
+    private static final double FLOAT_EPSILON = 1e-5;
+
+    /** The tolerance of the lit colors. */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Sets a renderer up for the tests.
+     *
+     * @param renderer the renderer
+     */
+    private static void setUp(Renderer renderer) {
+        renderer.setSolidRendered(true);
+        renderer.setLightingEnabled(true);
+        renderer.setShader("SimpleShader");
+        renderer.setResolutionDivisor(DIVISOR);
+    }
+
+    /**
+     * Gets the pixels of an image.
+     *
+     * @param image the image
+     * @return the pixels, row by row
+     */
+    private static int[] pixels(ImageWrapper image) {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0,
+                image.getWidth());
+    }
+
+    /**
+     * Creates the transformation of a camera looking along z from a distance,
+     * with its principal point at an offset.
+     *
+     * @param distance the distance of the camera to the origin
+     * @param center   the coordinates of the principal point
+     * @return the transformation
+     */
+    private static Transformation camera(double distance, double center) {
+        final Matrix w2c = Matrix.createIdentity(4);
+        w2c.set(2, 3, distance);
+        final Matrix proj = new Matrix(3, 4);
+        for (int i = 0; i < 3; i++) {
+            proj.set(i, i, 1);
+        }
+        final Matrix calib = Matrix.createIdentity(3);
+        calib.set(0, 0, FOCAL);
+        calib.set(1, 1, FOCAL);
+        calib.set(0, 2, center);
+        calib.set(1, 2, center);
+        final Transformation xform = new Transformation();
+        xform.setMatrices(w2c, proj, calib);
+        return xform;
+    }
+
+    /**
+     * The shared vertex pass projects and lights every vertex for each view
+     * as the transformation and the lighting of that view alone do.
+     * @throws IOException if the scene cannot be read
+     */
+    @Test
+    public void testPreparedViewsMatchEachView() throws IOException {
+        final SceneState state = SceneState.load(SCENE);
+        final Transformation[] xforms = {
+            camera(DISTANCE, 0), camera(2 * DISTANCE, FOCAL)
+        };
+        final Vector[] eyes = {new Vector(0, 0, -DISTANCE), new Vector(1, 2, 3)};
+        final double[][] matrices = new double[xforms.length][];
+        for (int v = 0; v < xforms.length; v++) {
+            matrices[v] = xforms[v].getProjectionMatrix();
+        }
+        final Mesh mesh = state.getMesh();
+        final int count = mesh.getNumVertices();
+        final float[][] projections = new float[xforms.length][3 * count];
+        final double[][] colors = new double[xforms.length][3 * count];
+        new MultiViewRenderer(state, RENDERERS, MultiViewRendererTest::setUp)
+                .prepareViews(matrices, eyes, projections, colors);
+
+        final Lighting lighting = new Renderer(state).getLighting();
+        final double[] material = state.getScene().getMaterial();
+        final double[] vertices = mesh.getVertexArray();
+        final double[] expected = new double[3];
+        for (int v = 0; v < xforms.length; v++) {
+            for (int i = 0; i < count; i++) {
+                xforms[v].projectPoint(vertices[3 * i], vertices[3 * i + 1],
+                        vertices[3 * i + 2], expected);
+                assertTrue(expected[2] > 0);
+                for (int k = 0; k < 3; k++) {
+                    assertEquals(expected[k], projections[v][3 * i + k],
+                            FLOAT_EPSILON * Math.max(1, Math.abs(expected[k])));
+                }
+                final double[] color = {mesh.getColors()[3 * i],
+                    mesh.getColors()[3 * i + 1], mesh.getColors()[3 * i + 2]};
+                final double[] lit = lighting.applyLights(
+                        mesh.getVertices()[i].getSubVector(0, 3), mesh.getNormals()[i],
+                        color, eyes[v], material[0], material[1], material[2],
+                        material[3]);
+                for (int k = 0; k < 3; k++) {
+                    assertEquals(lit[k], colors[v][3 * i + k], EPSILON);
+                }
+            }
+        }
+        // the views differ, so each one got its own results
+        assertTrue(projections[0][0] != projections[1][0]);
+        assertTrue(lighting.getNumLights() > 0);
+    }
+
+    /**
+     * A batch renders the images rendered one by one, in the order of the
+     * views.
+     * @throws IOException if the scene cannot be read
+     */
+    @Test
+    public void testBatchMatchesSingleRenders() throws IOException {
+        final SceneState state = SceneState.load(SCENE);
+        final List<CameraPose> views = new ArrayList<>();
+        for (int i = 0; i < VIEWS; i++) {
+            final double angle = 2 * Math.PI * i / VIEWS;
+            views.add(new CameraPose(
+                    new Vector(DISTANCE * Math.cos(angle), 1, DISTANCE * Math.sin(angle)),
+                    new Vector(0, 0, 0), new Vector(0, 1, 0)));
+        }
+
+        final List<ImageWrapper> images =
+                new MultiViewRenderer(state, RENDERERS, MultiViewRendererTest::setUp)
+                        .render(views);
+
+        assertEquals(VIEWS, images.size());
+        final Renderer single = new Renderer(state);
+        setUp(single);
+        for (int i = 0; i < VIEWS; i++) {
+            final CameraPose pose = views.get(i);
+            single.setCamera(pose.getEye(), pose.getLookAt(), pose.getUp());
+            assertArrayEquals(pixels(single.render()), pixels(images.get(i)));
+        }
+    }
+
+    /**
+     * A batch needs at least one renderer.
+     * @throws IOException if the scene cannot be read
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoRenderer() throws IOException {
+        new MultiViewRenderer(SceneState.load(SCENE), 0, MultiViewRendererTest::setUp);
+    }
+}
@@ -0,0 +1,97 @@
+package controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import renderer.controller.ImageWrapper;
+import renderer.controller.RenderCancelledException;
+import renderer.controller.RenderExecutor;
+import renderer.controller.Renderer;
+
+/**
+ * Unit tests for the RenderExecutor class.
+ */
+public class RenderExecutorTest {
+
+    /** The longest wait for the render thread, in seconds. */
+    private static final long TIMEOUT_SECONDS = 30;
+
+    /** The size of the default scene. */
+    private static final int SCENE_SIZE = 512;
+
+    /**
+     * Waits for the tasks submitted to an executor, then stops it.
+     * @param executor the executor
+     * @throws Exception if the wait fails
+     */
+    private static void awaitIdle(RenderExecutor executor) throws Exception {
+        executor.update(renderer -> { }).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        executor.shutdown();
+    }
+
+    /**
+     * A render polling a cancelled request gives up.
+     * @throws IOException if the default scene cannot be read
+     */
+    @Test(expected = RenderCancelledException.class)
+    public void testRenderCancelled() throws IOException {
+        new Renderer().render(() -> true);
+    }
+
+    /**
+     * A frame is rendered with the settings submitted before it, and
+     * published.
+     * @throws Exception if the default scene cannot be read or the render fails
+     */
+    @Test
+    public void testSubmitPublishes() throws Exception {
+        final List<ImageWrapper> published = new CopyOnWriteArrayList<>();
+        final RenderExecutor executor = new RenderExecutor(new Renderer(), Runnable::run);
+        executor.update(renderer -> renderer.setResolutionDivisor(2));
+        final ImageWrapper image = executor.submit(published::add)
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        awaitIdle(executor);
+
+        assertEquals(SCENE_SIZE / 2, image.getWidth());
+        assertEquals(1, published.size());
+        assertTrue(published.get(0) == image);
+    }
+
+    /**
+     * Only the newest of the frames requested while the render thread is busy
+     * is rendered and published.
+     * @throws Exception if the default scene cannot be read or the render fails
+     */
+    @Test
+    public void testObsoleteFrameCancelled() throws Exception {
+        final List<ImageWrapper> published = new CopyOnWriteArrayList<>();
+        final RenderExecutor executor = new RenderExecutor(new Renderer(), Runnable::run);
+        final CountDownLatch busy = new CountDownLatch(1);
+        executor.update(renderer -> {
+            try {
+                busy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        final CompletableFuture<ImageWrapper> obsolete = executor.submit(published::add);
+        final CompletableFuture<ImageWrapper> newest = executor.submit(published::add);
+        busy.countDown();
+
+        final ImageWrapper image = newest.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        awaitIdle(executor);
+
+        assertTrue(obsolete.isCancelled());
+        assertEquals(1, published.size());
+        assertTrue(published.get(0) == image);
+    }
+}
@@ -0,0 +1,92 @@
+package controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import renderer.algebra.Vector;
+import renderer.controller.ImageWrapper;
+import renderer.controller.Renderer;
+import renderer.core.camera.Transformation;
+
+/**
+ * Unit tests for the camera and resolution controls of the Renderer class.
+ */
+public class RendererCameraTest {
+
+    /** The size of the default scene. */
+    private static final int SCENE_SIZE = 512;
+
+    /** The focal length of the default scene. */
+    private static final double SCENE_FOCAL = 512;
+
+    /**
+     * Previews are rendered at a fraction of the scene resolution.
+     * @throws IOException if the default scene cannot be read
+     */
+    @Test
+    public void testResolutionDivisor() throws IOException {
+        final Renderer renderer = new Renderer();
+        final int divisor = 4;
+        renderer.setResolutionDivisor(divisor);
+        final ImageWrapper preview = renderer.render();
+        assertEquals(SCENE_SIZE / divisor, preview.getWidth());
+        assertEquals(SCENE_SIZE / divisor, preview.getHeight());
+        assertEquals(SCENE_FOCAL / divisor, renderer.getFocal(), 0);
+
+        renderer.setResolutionDivisor(1);
+        assertEquals(SCENE_SIZE, renderer.render().getWidth());
+    }
+
+    /**
+     * Moving the camera keeps the transformation and updates the camera.
+     * @throws IOException if the default scene cannot be read
+     */
+    @Test
+    public void testSetCamera() throws IOException {
+        final Renderer renderer = new Renderer();
+        final Transformation xform = renderer.getTransformation();
+        final Vector eye = new Vector(3, 2, 1);
+        final Vector target = new Vector(0, 0, 0);
+        final Vector up = new Vector(0, -1, 0);
+        renderer.setCamera(eye, target, up);
+
+        assertSame(xform, renderer.getTransformation());
+        assertSame(eye, renderer.getCameraPosition());
+        assertSame(target, renderer.getCameraLookAt());
+        assertSame(up, renderer.getCameraUp());
+    }
+
+    /**
+     * A divisor below one is rejected.
+     * @throws IOException if the default scene cannot be read
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidDivisor() throws IOException {
+        new Renderer().setResolutionDivisor(0);
+    }
+
+    /**
+     * The resolution cannot change under a viewport given in pixels of the
+     * whole image, until the viewport is reset.
+     * @throws IOException if the default scene cannot be read
+     */
+    @Test
+    public void testDivisorWithViewport() throws IOException {
+        final Renderer renderer = new Renderer();
+        final int divisor = 2;
+        renderer.setViewport(SCENE_SIZE / 2, 0, SCENE_SIZE / 2, SCENE_SIZE / 2);
+        renderer.setResolutionDivisor(1);
+        assertThrows(IllegalStateException.class,
+                () -> renderer.setResolutionDivisor(divisor));
+        assertEquals(1, renderer.getResolutionDivisor());
+
+        renderer.resetViewport();
+        renderer.setResolutionDivisor(divisor);
+        assertEquals(SCENE_SIZE / divisor, renderer.render().getWidth());
+    }
+}
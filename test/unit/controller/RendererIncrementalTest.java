@@ -0,0 +1,224 @@
+package controller;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import renderer.algebra.Matrix;
+import renderer.controller.ColorMapFactory.Maps;
+import renderer.controller.ImageWrapper;
+import renderer.controller.Renderer;
+import renderer.controller.ShaderFactory;
+import renderer.core.shader.DepthBuffer;
+import renderer.core.shader.DepthShader;
+import renderer.core.shader.Shader;
+
+/**
+ * Unit tests for the incremental rendering of the Renderer class and for the
+ * resolve pass of the DepthShader it reruns.
+ */
+public class RendererIncrementalTest {
+
+    /** The scene of a cube. */
+    private static final String CUBE_SCENE = "data/example0.scene";
+
+    /** The distance from the camera of the tests to the cube. */
+    private static final double CAMERA_DISTANCE = 5;
+
+    /** The focal length of the camera of the tests, in pixels. */
+    private static final double FOCAL = 512;
+
+    /** The principal point of the camera of the tests, at the image center. */
+    private static final double CENTER = 256;
+
+    /**
+     * The fewest pixels the edges of the cube cover, far more than the single
+     * point a zero camera projects every vertex to.
+     */
+    private static final int MIN_DRAWN_PIXELS = 100;
+
+    /** The size of the depth buffers of the resolve tests. */
+    private static final int SIZE = 4;
+
+    /** The background color of the resolve tests. */
+    private static final int BACKGROUND = Color.BLACK.getRGB();
+
+    /** The renderer under test. */
+    private Renderer renderer;
+
+    /**
+     * Sets up an incremental renderer of the cube.
+     * @throws IOException if the scene cannot be read
+     */
+    @Before
+    public void setUp() throws IOException {
+        renderer = new Renderer();
+        renderer.setScene(CUBE_SCENE);
+        renderer.setSolidRendered(true);
+        renderer.setShader("SimpleShader");
+        renderer.setIncrementalRendering(true);
+    }
+
+    /**
+     * Points the renderer at the cube from (0, 0, -5) along z. The look-at,
+     * projection and calibration setters are left to implement, so the
+     * matrices are loaded directly.
+     */
+    private void setCamera() {
+        final Matrix w2c = Matrix.createIdentity(4);
+        w2c.set(2, 3, CAMERA_DISTANCE);
+        final Matrix proj = new Matrix(3, 4);
+        for (int i = 0; i < 3; i++) {
+            proj.set(i, i, 1);
+        }
+        final Matrix calib = Matrix.createIdentity(3);
+        calib.set(0, 0, FOCAL);
+        calib.set(1, 1, FOCAL);
+        calib.set(0, 2, CENTER);
+        calib.set(1, 2, CENTER);
+        renderer.getTransformation().setMatrices(w2c, proj, calib);
+    }
+
+    /**
+     * Counts the pixels drawn over the background of an image.
+     * @param pixels the pixels of the image
+     * @return the number of pixels not of the background color
+     */
+    private static int countDrawn(int[] pixels) {
+        final int background = new Color(ImageWrapper.getDefaultBackgroundColor())
+                .getRGB();
+        int drawn = 0;
+        for (final int pixel : pixels) {
+            if (pixel != background) {
+                drawn++;
+            }
+        }
+        return drawn;
+    }
+
+    /**
+     * Gets the pixels of an image.
+     * @param image the image
+     * @return the pixels
+     */
+    private static int[] pixels(ImageWrapper image) {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0,
+                image.getWidth());
+    }
+
+    /**
+     * A frame with unchanged settings reuses the previous one, and looks the
+     * same as a frame rasterized again. The faces are left to rasterize, so
+     * the frame shows the edges of the cube.
+     */
+    @Test
+    public void testUnchangedFrameIsReused() {
+        setCamera();
+        renderer.setWiredRendered(true);
+        final int[] first = pixels(renderer.render());
+        assertTrue(countDrawn(first) >= MIN_DRAWN_PIXELS);
+        assertEquals(0, renderer.getReusedFrameCount());
+        final int[] second = pixels(renderer.render());
+        assertEquals(1, renderer.getReusedFrameCount());
+        assertArrayEquals(first, second);
+
+        renderer.setIncrementalRendering(false);
+        assertArrayEquals(first, pixels(renderer.render()));
+        assertEquals(1, renderer.getReusedFrameCount());
+    }
+
+    /**
+     * The settings of the passes drawn over the rasterized frame keep it.
+     */
+    @Test
+    public void testOverlaySettingsKeepFrame() {
+        renderer.render();
+        renderer.setColorMap(Maps.MAGMA);
+        renderer.setNormalsRendered(true);
+        renderer.render();
+        assertEquals(1, renderer.getReusedFrameCount());
+    }
+
+    /**
+     * A rejected or unchanged resolution divisor keeps the frame.
+     */
+    @Test
+    public void testRejectedDivisorKeepsFrame() {
+        renderer.render();
+        assertThrows(IllegalArgumentException.class,
+                () -> renderer.setResolutionDivisor(0));
+        renderer.setResolutionDivisor(renderer.getResolutionDivisor());
+        renderer.render();
+        assertEquals(1, renderer.getReusedFrameCount());
+    }
+
+    /**
+     * The settings of the rasterization rasterize the frame again.
+     */
+    @Test
+    public void testRasterizationSettingsInvalidate() {
+        renderer.render();
+        renderer.setCamera(renderer.getCameraPosition(), renderer.getCameraLookAt(),
+                renderer.getCameraUp());
+        renderer.render();
+        renderer.setShader("PainterShader");
+        renderer.render();
+        renderer.invalidateFrameCache();
+        renderer.render();
+        assertEquals(0, renderer.getReusedFrameCount());
+        renderer.render();
+        assertEquals(1, renderer.getReusedFrameCount());
+    }
+
+    /**
+     * The factory creates the depth shader, which uses the color maps.
+     */
+    @Test
+    public void testDepthShaderCreated() {
+        final Shader shader = ShaderFactory.create("DepthShader").get();
+        assertTrue(shader instanceof DepthShader);
+        assertTrue(shader.supportsColorMap());
+    }
+
+    /**
+     * The resolve pass maps the nearest depth to the first color of the map,
+     * the farthest to the last one, and leaves the uncovered pixels.
+     */
+    @Test
+    public void testDepthShaderResolve() {
+        final DepthBuffer depth = new DepthBuffer(SIZE, SIZE);
+        depth.clear();
+        depth.setDepth(0, 0, 1);
+        depth.setDepth(1, 0, 2);
+        depth.setDepth(2, 0, 3);
+        final ImageWrapper image = new ImageWrapper(SIZE, SIZE, BACKGROUND);
+        final DepthShader shader = new DepthShader();
+        shader.setColorMap(Maps.VERIDIS);
+        shader.resolve(image, depth);
+
+        final int near = image.getRGB(0, 0);
+        final int middle = image.getRGB(1, 0);
+        final int far = image.getRGB(2, 0);
+        assertTrue(brightness(near) < brightness(middle));
+        assertTrue(brightness(middle) < brightness(far));
+        assertEquals(BACKGROUND, image.getRGB(3, 0));
+        assertEquals(BACKGROUND, image.getRGB(0, 1));
+    }
+
+    /**
+     * Gets the brightness of a color.
+     * @param rgb the color
+     * @return the sum of its components
+     */
+    private static int brightness(int rgb) {
+        final Color color = new Color(rgb);
+        return color.getRed() + color.getGreen() + color.getBlue();
+    }
+}
@@ -0,0 +1,80 @@
+package controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import renderer.controller.Renderer;
+import renderer.core.light.Light;
+import renderer.core.light.PointLight;
+import renderer.core.shader.DepthBuffer;
+
+/**
+ * Unit tests for the shadow maps the Renderer class attaches to the point
+ * lights.
+ */
+public class RendererShadowTest {
+
+    /** The scene of a cube. */
+    private static final String CUBE_SCENE = "data/example0.scene";
+
+    /** The number of lights near the cube, more than the cast shadows. */
+    private static final int NEAR_LIGHTS = Renderer.MAX_SHADOW_LIGHTS + 2;
+
+    /** The coordinate of a light far from the cube. */
+    private static final double FAR = 1e6;
+
+    /** The intensity of the added lights. */
+    private static final double INTENSITY = 0.1;
+
+    /**
+     * Only the first lights reaching the mesh cast shadows, and their maps
+     * share one storage.
+     * @throws IOException if the scene cannot be read
+     */
+    @Test
+    public void testShadowCastersAreCapped() throws IOException {
+        final Renderer renderer = new Renderer();
+        renderer.setScene(CUBE_SCENE);
+        renderer.setSolidRendered(true);
+        renderer.setLightingEnabled(true);
+        renderer.setShadowsEnabled(true);
+        renderer.getLighting().addPointLight(FAR, FAR, FAR, INTENSITY, 1);
+        for (int i = 0; i < NEAR_LIGHTS; i++) {
+            renderer.getLighting().addPointLight(i, 2, 2, INTENSITY);
+        }
+        renderer.render();
+
+        int casters = 0;
+        DepthBuffer storage = null;
+        for (Light light : renderer.getLighting().getLights()) {
+            if (light instanceof PointLight && ((PointLight) light).getX() == FAR) {
+                assertNull(((PointLight) light).getShadowMap());
+            } else if (light instanceof PointLight
+                    && ((PointLight) light).getShadowMap() != null) {
+                final DepthBuffer mapStorage =
+                        ((PointLight) light).getShadowMap().getStorage();
+                if (storage == null) {
+                    storage = mapStorage;
+                }
+                assertSame(storage, mapStorage);
+                casters++;
+            }
+        }
+        assertEquals(Renderer.MAX_SHADOW_LIGHTS, casters);
+        assertNotNull(storage);
+
+        renderer.setShadowsEnabled(false);
+        renderer.render();
+        for (Light light : renderer.getLighting().getLights()) {
+            if (light instanceof PointLight) {
+                assertNull(((PointLight) light).getShadowMap());
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package controller;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import renderer.controller.ImageWrapper;
+import renderer.controller.Renderer;
+import renderer.controller.SceneState;
+import renderer.controller.ShaderFactory;
+import renderer.core.shader.Shader;
+
+/**
+ * Unit tests for the SceneState class and the renderers sharing it.
+ */
+public class SceneStateTest {
+
+    /** The scene of a cube. */
+    private static final String CUBE_SCENE = "data/example0.scene";
+
+    /** The scene of a monkey head. */
+    private static final String MONKEY_SCENE = "data/example2.scene";
+
+    /** The number of threads rendering at the same time. */
+    private static final int THREADS = 4;
+
+    /** The number of frames rendered by each thread. */
+    private static final int FRAMES = 3;
+
+    /**
+     * Renders a frame of a scene state with a new renderer.
+     *
+     * @param state the scene state
+     * @return the pixels of the frame
+     */
+    private static int[] renderPixels(SceneState state) {
+        final Renderer renderer = new Renderer(state);
+        renderer.setSolidRendered(true);
+        renderer.setLightingEnabled(true);
+        renderer.setShader("SimpleShader");
+        final ImageWrapper image = renderer.render();
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0,
+                image.getWidth());
+    }
+
+    /**
+     * Renderers sharing a scene state render the same frames at the same time.
+     * @throws IOException          if the scene cannot be read
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    @Test
+    public void testConcurrentFramesFromOneScene()
+            throws IOException, InterruptedException {
+        final SceneState state = SceneState.load(CUBE_SCENE);
+        final int[] expected = renderPixels(state);
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final int[][] frames = new int[THREADS][];
+        final Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int index = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int f = 0; f < FRAMES; f++) {
+                        frames[index] = renderPixels(state);
+                    }
+                } catch (Throwable e) {
+                    error.compareAndSet(null, e);
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(error.get());
+        for (int[] frame : frames) {
+            assertArrayEquals(expected, frame);
+        }
+    }
+
+    /**
+     * The length of the normals belongs to each scene, not to the last loaded.
+     * @throws IOException if a scene cannot be read
+     */
+    @Test
+    public void testNormalLengthPerScene() throws IOException {
+        final SceneState cube = SceneState.load(CUBE_SCENE);
+        final double cubeLength = cube.getNormalLength();
+        final SceneState monkey = SceneState.load(MONKEY_SCENE);
+
+        assertTrue(cubeLength > 0);
+        assertTrue(cubeLength != monkey.getNormalLength());
+        assertEquals(cubeLength, cube.getNormalLength(), 0);
+
+        final Renderer cubeRenderer = new Renderer(cube);
+        new Renderer(cube).setScene(MONKEY_SCENE);
+        assertSame(cube, cubeRenderer.getSceneState());
+        assertEquals(cubeLength, cubeRenderer.getSceneState().getNormalLength(), 0);
+    }
+
+    /**
+     * Renderers created from different threads see one complete set of
+     * shaders.
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    @Test
+    public void testConcurrentShaderFactoryInit() throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Set<Class<? extends Shader>>> sets =
+                new ArrayList<>(Collections.nCopies(THREADS, null));
+        final Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int index = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                ShaderFactory.init();
+                sets.set(index, ShaderFactory.getShaderSet());
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (Set<Class<? extends Shader>> set : sets) {
+            assertSame(sets.get(0), set);
+            assertTrue(!set.isEmpty());
+        }
+    }
+
+    /**
+     * The lights and the material of a shared scene cannot be modified
+     * through their getters.
+     * @throws IOException if the scene cannot be read
+     */
+    @Test
+    public void testSceneIsNotModifiable() throws IOException {
+        final SceneState state = SceneState.load(CUBE_SCENE);
+        final double[] material = state.getScene().getMaterial();
+        final double ka = material[0];
+        material[0] = ka + 1;
+        assertEquals(ka, state.getScene().getMaterial()[0], 0);
+
+        final List<double[]> lights = state.getScene().getPointLights();
+        final double x = lights.get(0)[0];
+        lights.get(0)[0] = x + 1;
+        assertEquals(x, state.getScene().getPointLights().get(0)[0], 0);
+        assertThrows(UnsupportedOperationException.class, () -> lights.clear());
+    }
+}
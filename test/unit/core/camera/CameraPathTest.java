@@ -0,0 +1,99 @@
+package core.camera;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import renderer.algebra.Vector;
+import renderer.core.camera.CameraPath;
+import renderer.core.camera.CameraPose;
+
+/**
+ * Unit tests for the CameraPath and CameraPose classes.
+ */
+public class CameraPathTest {
+
+    /** The tolerance on coordinates. */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Creates a pose looking at the origin with y up.
+     *
+     * @param x the x coordinate of the camera
+     * @param y the y coordinate of the camera
+     * @param z the z coordinate of the camera
+     * @return the pose
+     */
+    private static CameraPose at(double x, double y, double z) {
+        return new CameraPose(new Vector(x, y, z), new Vector(0, 0, 0),
+                new Vector(0, 1, 0));
+    }
+
+    /**
+     * Checks the position of a camera.
+     *
+     * @param x    the expected x coordinate
+     * @param y    the expected y coordinate
+     * @param z    the expected z coordinate
+     * @param pose the pose
+     */
+    private static void assertEye(double x, double y, double z, CameraPose pose) {
+        assertEquals(x, pose.getEye().get(0), EPSILON);
+        assertEquals(y, pose.getEye().get(1), EPSILON);
+        assertEquals(z, pose.getEye().get(2), EPSILON);
+    }
+
+    /**
+     * An open path goes from the first keyframe on the first frame to the
+     * last one on the last frame.
+     */
+    @Test
+    public void testOpenPath() {
+        final CameraPath path = new CameraPath(
+                Arrays.asList(at(0, 0, 4), at(4, 0, 4), at(4, 4, 4)), false);
+        final int frames = 5;
+        assertEye(0, 0, 4, path.getPose(0, frames));
+        assertEye(2, 0, 4, path.getPose(1, frames));
+        assertEye(4, 0, 4, path.getPose(2, frames));
+        assertEye(4, 2, 4, path.getPose(3, frames));
+        assertEye(4, 4, 4, path.getPose(4, frames));
+    }
+
+    /**
+     * A closed path comes back towards its first keyframe without reaching
+     * it, so that the sequence loops.
+     */
+    @Test
+    public void testClosedPath() {
+        final CameraPath path =
+                new CameraPath(Arrays.asList(at(0, 0, 4), at(4, 0, 4)), true);
+        final int frames = 4;
+        assertEye(0, 0, 4, path.getPose(0, frames));
+        assertEye(4, 0, 4, path.getPose(2, frames));
+        assertEye(2, 0, 4, path.getPose(3, frames));
+    }
+
+    /**
+     * The keyframes of a turntable turn around the point looked at, about
+     * the up direction.
+     */
+    @Test
+    public void testTurntable() {
+        final CameraPath path = CameraPath.turntable(at(0, 1, 4), 4);
+        assertEye(0, 1, 4, path.getKeyframes().get(0));
+        assertEye(4, 1, 0, path.getKeyframes().get(1));
+        assertEye(0, 1, -4, path.getKeyframes().get(2));
+        assertEye(-4, 1, 0, path.getKeyframes().get(3));
+        assertEquals(0, path.getKeyframes().get(1).getLookAt().norm(), EPSILON);
+    }
+
+    /**
+     * A frame outside the sequence has no pose.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testFrameOutOfSequence() {
+        new CameraPath(Arrays.asList(at(0, 0, 4)), false).getPose(3, 3);
+    }
+}
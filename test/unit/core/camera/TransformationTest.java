@@ -0,0 +1,188 @@
+package core.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import renderer.algebra.Matrix;
+import renderer.algebra.SizeMismatchException;
+import renderer.algebra.Vector;
+import renderer.core.camera.Transformation;
+
+/**
+ * Unit tests for the cached paths of the Transformation class.
+ */
+public class TransformationTest {
+
+    /** The tolerance on coordinates. */
+    private static final double EPSILON = 1e-5;
+
+    /** The distance of the test camera to the origin. */
+    private static final double CAMERA_DISTANCE = 5;
+
+    /** The focal length of the test camera, in pixels. */
+    private static final double FOCAL = 100;
+
+    /** The x-coordinate of the principal point of the test camera. */
+    private static final double CENTER_X = 320;
+
+    /** The y-coordinate of the principal point of the test camera. */
+    private static final double CENTER_Y = 240;
+
+    /** The x-coordinate of the test viewport in the whole image. */
+    private static final double VIEWPORT_X = 64;
+
+    /** The y-coordinate of the test viewport in the whole image. */
+    private static final double VIEWPORT_Y = 32;
+
+    /**
+     * The rotation cached at construction is the identity.
+     */
+    @Test
+    public void testTransformVectorIdentity() {
+        final Transformation xform = new Transformation();
+        final Vector v = xform.transformVector(new Vector(1, -2, 3));
+        assertEquals(1, v.get(0), 0);
+        assertEquals(-2, v.get(1), 0);
+        assertEquals(3, v.get(2), 0);
+    }
+
+    /**
+     * Creates a camera at (0, 0, -5) looking along z, with a focal of 100
+     * pixels and its principal point at (320, 240).
+     * @return the transformation
+     */
+    private static Transformation createCamera() {
+        final Matrix w2c = Matrix.createIdentity(4);
+        w2c.set(2, 3, CAMERA_DISTANCE);
+        final Matrix proj = new Matrix(3, 4);
+        for (int i = 0; i < 3; i++) {
+            proj.set(i, i, 1);
+        }
+        final Matrix calib = Matrix.createIdentity(3);
+        calib.set(0, 0, FOCAL);
+        calib.set(1, 1, FOCAL);
+        calib.set(0, 2, CENTER_X);
+        calib.set(1, 2, CENTER_Y);
+        final Transformation xform = new Transformation();
+        xform.setMatrices(w2c, proj, calib);
+        return xform;
+    }
+
+    /**
+     * The point projection applies K.P.W, then the viewport offset.
+     */
+    @Test
+    public void testPointProjection() {
+        final Transformation xform = createCamera();
+        final double[] out = new double[3];
+        xform.projectPoint(1, -2, 5, out);
+        // depth 5 + 5, pixel f x / depth + c
+        assertEquals(CENTER_X + FOCAL / 10, out[0], EPSILON);
+        assertEquals(CENTER_Y - 2 * FOCAL / 10, out[1], EPSILON);
+        assertEquals(10, out[2], EPSILON);
+
+        xform.setViewportOffset(VIEWPORT_X, VIEWPORT_Y);
+        xform.projectPoint(1, -2, 5, out);
+        assertEquals(CENTER_X + FOCAL / 10 - VIEWPORT_X, out[0], EPSILON);
+        assertEquals(CENTER_Y - 2 * FOCAL / 10 - VIEWPORT_Y, out[1], EPSILON);
+        assertEquals(10, out[2], EPSILON);
+    }
+
+    /**
+     * The bulk projection gives the same results as the point projection,
+     * with and without a viewport offset.
+     */
+    @Test
+    public void testBulkProjectionMatchesPointProjection() {
+        final Transformation xform = createCamera();
+        final double[] points = {0.5, -1, 2, 3, 4, 5, -0.25, 0.75, 10};
+        final int count = points.length / 3;
+        for (int pass = 0; pass < 2; pass++) {
+            if (pass == 1) {
+                xform.setViewportOffset(VIEWPORT_X, VIEWPORT_Y);
+            }
+            final float[] bulk = new float[points.length];
+            xform.projectPoints(points, bulk, count);
+
+            final double[] single = new double[3];
+            for (int i = 0; i < count; i++) {
+                xform.projectPoint(points[3 * i], points[3 * i + 1], points[3 * i + 2],
+                        single);
+                assertTrue(single[2] > 0);
+                for (int c = 0; c < 3; c++) {
+                    assertEquals(single[c], bulk[3 * i + c],
+                            EPSILON * Math.abs(single[c]));
+                }
+            }
+        }
+    }
+
+    /**
+     * The unprojection inverts the projection, viewport offset included.
+     */
+    @Test
+    public void testUnprojectInvertsProjection() {
+        final Transformation xform = createCamera();
+        xform.setViewportOffset(VIEWPORT_X, VIEWPORT_Y);
+        final double[] pixel = new double[3];
+        xform.projectPoint(1.5, -0.5, 2, pixel);
+        final double[] world = new double[3];
+        xform.unprojectPoint(pixel[0], pixel[1], pixel[2], world);
+        assertEquals(1.5, world[0], EPSILON);
+        assertEquals(-0.5, world[1], EPSILON);
+        assertEquals(2, world[2], EPSILON);
+    }
+
+    /**
+     * Matrices of the wrong size are rejected.
+     */
+    @Test(expected = SizeMismatchException.class)
+    public void testSetMatricesChecksSizes() {
+        new Transformation().setMatrices(Matrix.createIdentity(3),
+                new Matrix(3, 4), Matrix.createIdentity(3));
+    }
+
+    /**
+     * The multi-view projection applies each camera to every point of the
+     * range only.
+     */
+    @Test
+    public void testMultiViewProjection() {
+        final double[][] matrices = {
+            {1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0},
+            {2, 0, 0, 1, 0, 2, 0, -1, 0, 0, 1, 1},
+        };
+        final double[] points = {1, 2, 4, 3, -3, 2, 5, 5, 5};
+        final float[][] out = new float[matrices.length][points.length];
+        Transformation.projectPoints(matrices, points, out, 1, 3);
+
+        for (int c = 0; c < 3; c++) {
+            assertEquals(0, out[0][c], 0);
+            assertEquals(0, out[1][c], 0);
+        }
+        // first camera: (x / z, y / z, z)
+        assertEquals(1.5, out[0][3], EPSILON);
+        assertEquals(-1.5, out[0][4], EPSILON);
+        assertEquals(2, out[0][5], EPSILON);
+        // second camera: ((2x + 1) / (z + 1), (2y - 1) / (z + 1), z + 1)
+        assertEquals(7.0 / 3, out[1][3], EPSILON);
+        assertEquals(-7.0 / 3, out[1][4], EPSILON);
+        assertEquals(3, out[1][5], EPSILON);
+        assertEquals(11.0 / 6, out[1][6], EPSILON);
+        assertEquals(6, out[1][8], EPSILON);
+    }
+
+    /**
+     * The projection matrix is returned as a copy.
+     */
+    @Test
+    public void testProjectionMatrixIsCopied() {
+        final Transformation xform = new Transformation();
+        final double[] m = xform.getProjectionMatrix();
+        final double before = m[0];
+        m[0] = before + 1;
+        assertEquals(before, xform.getProjectionMatrix()[0], 0);
+    }
+}
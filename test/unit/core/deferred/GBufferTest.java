@@ -0,0 +1,98 @@
+package core.deferred;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import renderer.controller.ImageWrapper;
+import renderer.core.deferred.DeferredShadingPass;
+import renderer.core.deferred.GBuffer;
+import renderer.core.shader.Fragment;
+
+/**
+ * Unit tests for the GBuffer and DeferredShadingPass classes.
+ */
+public class GBufferTest {
+
+    /** The size of the test buffer. */
+    private static final int SIZE = 40;
+
+    /** The tolerance on decoded normals. */
+    private static final double EPSILON = 1e-3;
+
+    /** The packed RGB white color. */
+    private static final int WHITE = 0xFFFFFF;
+
+    /**
+     * Creates a fragment.
+     * @param x     the x coordinate
+     * @param y     the y coordinate
+     * @param depth the depth
+     * @return the fragment
+     */
+    private static Fragment fragment(int x, int y, double depth) {
+        final Fragment f = new Fragment(x, y);
+        f.setDepth(depth);
+        f.setColor(1, 1, 1);
+        return f;
+    }
+
+    /**
+     * Only the nearest fragment of a pixel is kept.
+     */
+    @Test
+    public void testDepthTest() {
+        final GBuffer gbuffer = new GBuffer(SIZE, SIZE);
+        final int index = 3 * SIZE + 2;
+        assertFalse(gbuffer.isCovered(index));
+
+        assertTrue(gbuffer.write(fragment(2, 3, 2.0)));
+        assertTrue(gbuffer.write(fragment(2, 3, 1.0)));
+        assertFalse(gbuffer.write(fragment(2, 3, 1.5)));
+        assertFalse(gbuffer.write(fragment(SIZE, 0, 1.0)));
+        assertEquals(1.0, gbuffer.getDepth(index), 0);
+        assertEquals(WHITE, gbuffer.getBaseColor(index));
+
+        gbuffer.clear();
+        assertFalse(gbuffer.isCovered(index));
+    }
+
+    /**
+     * Normals survive the octahedron encoding, in both hemispheres.
+     */
+    @Test
+    public void testNormalEncoding() {
+        final double[][] normals = {
+            {0, 0, 1}, {0, 0, -1}, {1, 0, 0}, {0.48, -0.6, -0.64}, {-0.36, 0.48, 0.8}
+        };
+        final GBuffer gbuffer = new GBuffer(SIZE, SIZE);
+        final double[] decoded = new double[3];
+        for (int i = 0; i < normals.length; i++) {
+            final Fragment f = fragment(i, 0, 1.0);
+            f.setNormal(normals[i][0], normals[i][1], normals[i][2]);
+            gbuffer.write(f);
+            gbuffer.getNormal(i, decoded);
+            for (int c = 0; c < 3; c++) {
+                assertEquals(normals[i][c], decoded[c], EPSILON);
+            }
+        }
+    }
+
+    /**
+     * Without lighting nor texture, the pass writes the base colors of the
+     * covered pixels and leaves the others untouched.
+     */
+    @Test
+    public void testUnlitPassWritesCoveredPixels() {
+        final GBuffer gbuffer = new GBuffer(SIZE, SIZE);
+        gbuffer.write(fragment(SIZE - 1, SIZE - 1, 1.0));
+        final ImageWrapper image = new ImageWrapper(SIZE, SIZE, 0);
+
+        new DeferredShadingPass().apply(gbuffer, null, image);
+
+        assertEquals(WHITE, image.getRGB(SIZE - 1, SIZE - 1) & WHITE);
+        assertEquals(0, image.getRGB(0, 0) & WHITE);
+    }
+}
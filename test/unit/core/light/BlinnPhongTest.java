@@ -0,0 +1,100 @@
+package core.light;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import renderer.core.light.BlinnPhong;
+
+/**
+ * Unit tests for the BlinnPhong class.
+ */
+public class BlinnPhongTest {
+
+    /** The diffuse coefficient of the test material. */
+    private static final double KD = 0.6;
+
+    /** The specular coefficient of the test material. */
+    private static final double KS = 0.3;
+
+    /** The shininess of the test material. */
+    private static final double SHININESS = 20;
+
+    /** The intensity of the test light. */
+    private static final double INTENSITY = 2;
+
+    /** The tolerance on intensities. */
+    private static final double EPSILON = 1e-3;
+
+    /** The origin, with a normal along z. */
+    private static final double[] ORIGIN = {0, 0, 0};
+
+    /** The normal along z. */
+    private static final double[] UP = {0, 0, 1};
+
+    /**
+     * The tabulated power matches Math.pow.
+     */
+    @Test
+    public void testSpecularPower() {
+        final BlinnPhong model = new BlinnPhong(KD, KS, SHININESS);
+        final double[] values = {0, 0.1, 0.5, 0.9, 0.97, 1};
+        for (double x : values) {
+            assertEquals(Math.pow(x, SHININESS), model.specularPower(x), EPSILON);
+        }
+    }
+
+    /**
+     * A light and an eye along the normal give the full diffuse and specular terms.
+     */
+    @Test
+    public void testFacingLight() {
+        final BlinnPhong model = new BlinnPhong(KD, KS, SHININESS);
+        final double[] light = {0, 0, 2, Double.POSITIVE_INFINITY};
+        final double[] eye = {0, 0, 5};
+        assertEquals(INTENSITY * (KD + KS),
+                model.pointLight(ORIGIN, UP, eye, light, 0, INTENSITY), EPSILON);
+    }
+
+    /**
+     * A light behind the surface does not contribute.
+     */
+    @Test
+    public void testLightBehind() {
+        final BlinnPhong model = new BlinnPhong(KD, KS, SHININESS);
+        final double[] lights = {0, 0, 2, 1, 1, 1, -1, 1};
+        final double[] eye = {0, 0, 5};
+        assertEquals(0, model.pointLight(ORIGIN, UP, eye, lights, 4, INTENSITY), 0);
+    }
+
+    /**
+     * An oblique light follows the cosine and the half-vector laws.
+     */
+    @Test
+    public void testObliqueLight() {
+        final BlinnPhong model = new BlinnPhong(KD, KS, SHININESS);
+        final double[] light = {1, 0, 1, Double.POSITIVE_INFINITY};
+        final double[] eye = {0, 0, 1};
+        final double cosL = Math.sqrt(0.5);
+        final double cosH = Math.cos(Math.PI / 8);
+        final double expected = INTENSITY * (KD * cosL + KS * Math.pow(cosH, SHININESS));
+        assertEquals(expected, model.pointLight(ORIGIN, UP, eye, light, 0, INTENSITY),
+                EPSILON);
+    }
+
+    /**
+     * A light fades out smoothly and does not reach beyond its radius.
+     */
+    @Test
+    public void testRadiusOfInfluence() {
+        final BlinnPhong model = new BlinnPhong(KD, KS, SHININESS);
+        final double[] eye = {0, 0, 5};
+        final double[] near = {0, 0, 1, 2};
+        final double[] far = {0, 0, 3, 2};
+        assertEquals(INTENSITY * (KD + KS) * BlinnPhong.attenuation(1, 2),
+                model.pointLight(ORIGIN, UP, eye, near, 0, INTENSITY), EPSILON);
+        assertEquals(0, model.pointLight(ORIGIN, UP, eye, far, 0, INTENSITY), 0);
+        assertEquals(1, BlinnPhong.attenuation(0, 2), 0);
+        assertEquals(0, BlinnPhong.attenuation(2, 2), 0);
+    }
+}
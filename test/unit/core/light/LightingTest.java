@@ -0,0 +1,87 @@
+package core.light;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import renderer.algebra.Vector;
+import renderer.core.light.Lighting;
+
+/**
+ * Unit tests for the lighting split into terms computed once per point and
+ * terms computed for each camera.
+ */
+public class LightingTest {
+
+    /** The intensity of the ambient light. */
+    private static final double AMBIENT = 0.3;
+
+    /** The intensity of the point lights. */
+    private static final double INTENSITY = 1.5;
+
+    /** The radius of influence of the near point light. */
+    private static final double RADIUS = 4;
+
+    /** The material: ka, kd, ks and shininess. */
+    private static final double[] MATERIAL = {1, 0.6, 0.3, 20};
+
+    /** The tolerance on colors. */
+    private static final double EPSILON = 1e-12;
+
+    /**
+     * Creates the lights of the tests: an ambient light, a point light
+     * reaching the point and a point light out of reach.
+     *
+     * @return the lighting
+     */
+    private static Lighting createLighting() {
+        final Lighting lighting = new Lighting();
+        lighting.addAmbientLight(AMBIENT);
+        lighting.addPointLight(0, 0, 2, INTENSITY, RADIUS);
+        lighting.addPointLight(0, 0, 100, INTENSITY, RADIUS);
+        return lighting;
+    }
+
+    /**
+     * The terms of the ambient light and of the fading of the point lights do
+     * not depend on the camera.
+     */
+    @Test
+    public void testViewIndependentTerms() {
+        final Lighting lighting = createLighting();
+        final double[] terms = new double[1 + lighting.getNumLights()];
+        lighting.computeViewIndependentTerms(new Vector(0, 0, 0), new Vector(0, 0, 1),
+                new double[] {1, 1, 1}, MATERIAL[0], MATERIAL[1], MATERIAL[2],
+                MATERIAL[3], terms, 1);
+
+        assertEquals(0, terms[0], 0);
+        assertEquals(AMBIENT, terms[1], EPSILON);
+        // the near light fades by (1 - (d / r)^2)^2 at distance d = 2
+        assertEquals(0.5625, terms[2], EPSILON);
+        assertEquals(0, terms[3], 0);
+    }
+
+    /**
+     * The colors lit from the terms computed once are the ones lit directly,
+     * for every camera.
+     */
+    @Test
+    public void testSplitLightingMatchesDirectLighting() {
+        final Lighting lighting = createLighting();
+        final Vector position = new Vector(0.5, -0.25, 0);
+        final Vector normal = new Vector(0, 0, 1);
+        final double[] color = {0.8, 0.4, 0.2};
+        final double[] terms = new double[lighting.getNumLights()];
+        lighting.computeViewIndependentTerms(position, normal, color, MATERIAL[0],
+                MATERIAL[1], MATERIAL[2], MATERIAL[3], terms, 0);
+
+        final double[] lit = new double[3];
+        for (Vector eye : new Vector[] {new Vector(0, 0, 5), new Vector(3, 1, 2)}) {
+            lighting.applyLights(position, normal, color, eye, MATERIAL[0],
+                    MATERIAL[1], MATERIAL[2], MATERIAL[3], terms, 0, lit);
+            assertArrayEquals(lighting.applyLights(position, normal, color, eye,
+                    MATERIAL[0], MATERIAL[1], MATERIAL[2], MATERIAL[3]), lit, EPSILON);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package core.light;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import renderer.algebra.Matrix;
+import renderer.core.camera.Transformation;
+import renderer.core.light.TiledLightCulling;
+
+/**
+ * Unit tests for the TiledLightCulling class.
+ */
+public class TiledLightCullingTest {
+
+    /** The width of the test screen. */
+    private static final int WIDTH = 64;
+
+    /** The height of the test screen. */
+    private static final int HEIGHT = 40;
+
+    /** The width of the whole image of the bounds tests. */
+    private static final int IMAGE_WIDTH = 640;
+
+    /** The height of the whole image of the bounds tests. */
+    private static final int IMAGE_HEIGHT = 480;
+
+    /** The distance of the camera of the bounds tests to the origin. */
+    private static final double CAMERA_DISTANCE = 5;
+
+    /** The focal length of the camera of the bounds tests, in pixels. */
+    private static final double FOCAL = 100;
+
+    /** The x-coordinate of the tile of the bounds tests in the whole image. */
+    private static final int VIEWPORT_X = 320;
+
+    /** The y-coordinate of the tile of the bounds tests in the whole image. */
+    private static final int VIEWPORT_Y = 240;
+
+    /** The tolerance on the bounds. */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Gets the lights of the tile of a pixel.
+     * @param culling the culling
+     * @param x       the x coordinate of the pixel
+     * @param y       the y coordinate of the pixel
+     * @return the light indices
+     */
+    private static List<Integer> lightsAt(TiledLightCulling culling, int x, int y) {
+        final List<Integer> lights = new ArrayList<>();
+        final int tile = culling.getTile(x, y);
+        for (int e = culling.getStart(tile); e < culling.getEnd(tile); e++) {
+            lights.add(culling.getLight(e));
+        }
+        return lights;
+    }
+
+    /**
+     * Each tile lists exactly the lights whose bounds overlap it.
+     */
+    @Test
+    public void testTileLists() {
+        final double inf = Double.POSITIVE_INFINITY;
+        final double[] bounds = {
+            // light 0: top left tile only
+            2, 3, 10, 12,
+            // light 1: straddles the four central tiles
+            30, 14, 34, 18,
+            // light 2: everywhere
+            -inf, -inf, inf, inf,
+            // light 3: off screen on the right, in no tile
+            100, 0, 120, 5,
+            // light 4: empty
+            0, 0, -1, -1,
+            // light 5: off screen above, in no tile
+            0, -30, 20, -1,
+        };
+        final TiledLightCulling culling = new TiledLightCulling();
+        culling.resize(WIDTH, HEIGHT);
+        culling.build(bounds, bounds.length / TiledLightCulling.BOUNDS_STRIDE);
+
+        final int tiles = 4 * 3;
+        assertEquals(tiles, culling.getNumTiles());
+        assertEquals(List.of(0, 2), lightsAt(culling, 0, 0));
+        assertEquals(List.of(1, 2), lightsAt(culling, 16, 0));
+        assertEquals(List.of(1, 2), lightsAt(culling, 47, 31));
+        assertEquals(List.of(2), lightsAt(culling, 63, 0));
+        assertEquals(List.of(2), lightsAt(culling, 63, 39));
+        for (int e = 0; e < culling.getEnd(tiles - 1); e++) {
+            assertNotEquals(3, culling.getLight(e));
+            assertNotEquals(5, culling.getLight(e));
+        }
+        assertEquals(2, culling.getMaxLightsPerTile());
+        final double entries = 1 + 4 + tiles;
+        assertEquals(entries / tiles, culling.getAverageLightsPerTile(), 1e-12);
+    }
+
+    /**
+     * The bounds of a light in a tile are its bounds in the whole image,
+     * shifted by the position of the tile.
+     */
+    @Test
+    public void testBoundsInViewport() {
+        final Matrix w2c = Matrix.createIdentity(4);
+        w2c.set(2, 3, CAMERA_DISTANCE);
+        final Matrix proj = new Matrix(3, 4);
+        for (int i = 0; i < 3; i++) {
+            proj.set(i, i, 1);
+        }
+        final Matrix calib = Matrix.createIdentity(3);
+        calib.set(0, 0, FOCAL);
+        calib.set(1, 1, FOCAL);
+        calib.set(0, 2, IMAGE_WIDTH / 2.0);
+        calib.set(1, 2, IMAGE_HEIGHT / 2.0);
+        final Transformation xform = new Transformation();
+        xform.setMatrices(w2c, proj, calib);
+        // x, y, z, radius
+        final double[] light = {1, 0.5, 0, 0.5};
+
+        final double[] whole = new double[TiledLightCulling.BOUNDS_STRIDE];
+        TiledLightCulling.computeBounds(xform, FOCAL, IMAGE_WIDTH, IMAGE_HEIGHT, light,
+                0, whole);
+        assertTrue(whole[0] > IMAGE_WIDTH / 2.0);
+        assertTrue(whole[0] < whole[2]);
+
+        xform.setViewportOffset(VIEWPORT_X, VIEWPORT_Y);
+        final double[] tile = new double[TiledLightCulling.BOUNDS_STRIDE];
+        TiledLightCulling.computeBounds(xform, FOCAL, IMAGE_WIDTH, IMAGE_HEIGHT, light,
+                0, tile);
+        for (int i = 0; i < TiledLightCulling.BOUNDS_STRIDE; i += 2) {
+            assertEquals(whole[i] - VIEWPORT_X, tile[i], EPSILON);
+            assertEquals(whole[i + 1] - VIEWPORT_Y, tile[i + 1], EPSILON);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package core.postprocess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import renderer.controller.ImageWrapper;
+import renderer.core.postprocess.FxaaPostProcess;
+
+/**
+ * Unit tests for the FxaaPostProcess class.
+ */
+public class FxaaPostProcessTest {
+
+    /** The size of the test image. */
+    private static final int SIZE = 16;
+
+    /** The white color. */
+    private static final int WHITE = 0xFFFFFF;
+
+    /** The mask of the blue channel. */
+    private static final int CHANNEL_MASK = 0xFF;
+
+    /**
+     * Pixels along a hard edge are blended, flat areas are untouched.
+     */
+    @Test
+    public void testBlendsEdgesOnly() {
+        final ImageWrapper image = new ImageWrapper(SIZE, SIZE, 0);
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = SIZE / 2; x < SIZE; x++) {
+                image.setRGB(x, y, WHITE);
+            }
+        }
+
+        new FxaaPostProcess().apply(image);
+
+        final int left = image.getRGB(SIZE / 2 - 1, SIZE / 2) & CHANNEL_MASK;
+        final int right = image.getRGB(SIZE / 2, SIZE / 2) & CHANNEL_MASK;
+        assertTrue("edge pixel not blended", left > 0 && left < CHANNEL_MASK);
+        assertTrue("edge pixel not blended", right > 0 && right < CHANNEL_MASK);
+        assertEquals(0, image.getRGB(1, 1) & WHITE);
+        assertEquals(WHITE, image.getRGB(SIZE - 2, 1) & WHITE);
+    }
+
+    /**
+     * A uniform image is left unchanged.
+     */
+    @Test
+    public void testUniformImageUnchanged() {
+        final int gray = 0x5C5C5C;
+        final ImageWrapper image = new ImageWrapper(SIZE, SIZE, gray);
+        new FxaaPostProcess().apply(image);
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                assertEquals(gray, image.getRGB(x, y) & WHITE);
+            }
+        }
+    }
+}
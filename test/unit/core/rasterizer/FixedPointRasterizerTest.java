@@ -0,0 +1,140 @@
+package core.rasterizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import renderer.controller.ImageWrapper;
+import renderer.core.rasterizer.FixedPointRasterizer;
+import renderer.core.shader.Fragment;
+import renderer.core.shader.Shader;
+
+/**
+ * Unit tests for the FixedPointRasterizer class.
+ */
+public class FixedPointRasterizerTest {
+
+    /** The size of the test screen. */
+    private static final int SIZE = 100;
+
+    /**
+     * A shader counting how many times each pixel is shaded.
+     */
+    private static final class CountingShader extends Shader {
+
+        /** The number of times each pixel has been shaded. */
+        private final int[] counts = new int[SIZE * SIZE];
+
+        @Override
+        public void shade(Fragment fragment) {
+            counts[fragment.getY() * SIZE + fragment.getX()]++;
+        }
+
+        @Override
+        public void reset() {
+            java.util.Arrays.fill(counts, 0);
+        }
+
+        /**
+         * Gets the shading count of a pixel.
+         * @param x the x coordinate
+         * @param y the y coordinate
+         * @return the number of times the pixel was shaded
+         */
+        int count(int x, int y) {
+            return counts[y * SIZE + x];
+        }
+    }
+
+    /** The shader under test. */
+    private CountingShader shader;
+
+    /** The rasterizer under test. */
+    private FixedPointRasterizer rasterizer;
+
+    /**
+     * Creates the rasterizer and the counting shader.
+     */
+    @Before
+    public void setUp() {
+        shader = new CountingShader();
+        shader.init(null, new ImageWrapper(SIZE, SIZE));
+        rasterizer = new FixedPointRasterizer(shader);
+    }
+
+    /**
+     * Creates a vertex at a sub-pixel position.
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the vertex
+     */
+    private static Fragment vertex(double x, double y) {
+        final Fragment f = new Fragment((int) Math.round(x), (int) Math.round(y));
+        f.setSubPixelPosition(x, y);
+        f.setDepth(1.0);
+        return f;
+    }
+
+    /**
+     * Two triangles sharing a diagonal shade every pixel of the quad once.
+     */
+    @Test
+    public void testSharedEdgeShadedOnce() {
+        final Fragment a = vertex(10.3, 10.7);
+        final Fragment b = vertex(60.2, 12.1);
+        final Fragment c = vertex(58.9, 70.4);
+        final Fragment d = vertex(11.6, 66.5);
+
+        rasterizer.rasterizeFace(a, b, c);
+        rasterizer.rasterizeFace(a, c, d);
+
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                final int count = shader.count(x, y);
+                assertTrue("pixel (" + x + "," + y + ") shaded " + count + " times",
+                        count <= 1);
+            }
+        }
+        // pixels along the shared diagonal are covered
+        assertEquals(1, shader.count(35, 40));
+        assertEquals(1, shader.count(20, 20));
+    }
+
+    /**
+     * A fan of triangles around a vertex lying exactly on a pixel center
+     * covers that pixel once, whatever the winding of each triangle.
+     */
+    @Test
+    public void testFanCenterShadedOnce() {
+        final Fragment center = vertex(50, 50);
+        final Fragment[] ring = {
+            vertex(70, 50), vertex(50, 30), vertex(30, 50), vertex(50, 70)
+        };
+        for (int i = 0; i < ring.length; i++) {
+            final Fragment next = ring[(i + 1) % ring.length];
+            if (i % 2 == 0) {
+                rasterizer.rasterizeFace(center, ring[i], next);
+            } else {
+                rasterizer.rasterizeFace(center, next, ring[i]);
+            }
+        }
+        assertEquals(1, shader.count(50, 50));
+        assertEquals(1, shader.count(60, 50));
+        assertEquals(1, shader.count(50, 40));
+    }
+
+    /**
+     * A degenerate triangle does not generate any fragment.
+     */
+    @Test
+    public void testDegenerateTriangle() {
+        rasterizer.rasterizeFace(vertex(10, 10), vertex(20, 20), vertex(30, 30));
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                assertEquals(0, shader.count(x, y));
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package core.rasterizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import renderer.controller.ImageWrapper;
+import renderer.controller.Renderer;
+import renderer.core.rasterizer.MultisampleRasterizer;
+import renderer.core.shader.DepthBuffer;
+import renderer.core.shader.DepthShader;
+import renderer.core.shader.Fragment;
+import renderer.core.shader.MultisampleBuffer;
+import renderer.core.shader.PhongShader;
+import renderer.core.shader.Shader;
+import renderer.core.shader.SimpleShader;
+import renderer.core.shader.TextureShader;
+
+/**
+ * Unit tests for the MultisampleRasterizer class.
+ */
+public class MultisampleRasterizerTest {
+
+    /** The size of the test screen. */
+    private static final int SIZE = 32;
+
+    /** The number of samples per pixel. */
+    private static final int SAMPLES = 4;
+
+    /** The white color. */
+    private static final int WHITE = 0xFFFFFF;
+
+    /** The mask of the blue channel. */
+    private static final int CHANNEL_MASK = 0xFF;
+
+    /**
+     * A shader counting its calls.
+     */
+    private static final class CountingShader extends Shader {
+
+        /** The number of colors computed. */
+        private int calls;
+
+        @Override
+        public void shade(Fragment fragment) {
+            throw new AssertionError("the multisample pass must not shade directly");
+        }
+
+        @Override
+        public int computeColor(Fragment fragment) {
+            calls++;
+            return WHITE;
+        }
+
+        @Override
+        public void reset() {
+            calls = 0;
+        }
+    }
+
+    /**
+     * Creates a vertex at a sub-pixel position.
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the vertex
+     */
+    private static Fragment vertex(double x, double y) {
+        final Fragment f = new Fragment((int) Math.round(x), (int) Math.round(y));
+        f.setSubPixelPosition(x, y);
+        f.setDepth(1.0);
+        return f;
+    }
+
+    /**
+     * Edge pixels are partially covered, interior pixels fully covered, and
+     * each pixel is shaded at most once.
+     */
+    @Test
+    public void testResolveAntiAliasesEdges() {
+        final CountingShader shader = new CountingShader();
+        final ImageWrapper image = new ImageWrapper(SIZE, SIZE, 0);
+        shader.init(null, image);
+        final MultisampleBuffer buffer = new MultisampleBuffer(SIZE, SIZE, SAMPLES);
+        final MultisampleRasterizer rasterizer =
+                new MultisampleRasterizer(shader, SAMPLES);
+        rasterizer.setTarget(buffer);
+
+        rasterizer.rasterizeFace(vertex(0, 0), vertex(SIZE - 1, 0),
+                vertex(0, SIZE - 1));
+        buffer.resolve(image);
+
+        int partial = 0;
+        int shadedPixels = 0;
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                final int blue = image.getRGB(x, y) & CHANNEL_MASK;
+                if (blue != 0) {
+                    shadedPixels++;
+                }
+                if (blue != 0 && blue != CHANNEL_MASK) {
+                    partial++;
+                }
+            }
+        }
+        assertEquals(WHITE, image.getRGB(2, 2) & WHITE);
+        assertEquals(0, image.getRGB(SIZE - 2, SIZE - 2) & WHITE);
+        assertTrue("no anti-aliased pixel along the diagonal", partial > 0);
+        assertEquals(shadedPixels, shader.calls);
+    }
+
+    /**
+     * Samples hidden by a nearer face are not overwritten.
+     */
+    @Test
+    public void testDepthTestPerSample() {
+        final MultisampleBuffer buffer = new MultisampleBuffer(SIZE, SIZE, SAMPLES);
+        final double[] near = {1, 1, 1, 1};
+        final double[] far = {2, 2, 2, 2};
+        final int all = (1 << SAMPLES) - 1;
+        assertEquals(all, buffer.testAndWriteDepth(1, 1, all, near));
+        assertEquals(0, buffer.testAndWriteDepth(1, 1, all, far));
+    }
+
+    /**
+     * The depth resolve keeps the nearest sample of the written pixels,
+     * unless the depth buffer already holds a nearer depth.
+     */
+    @Test
+    public void testResolveDepth() {
+        final MultisampleBuffer buffer = new MultisampleBuffer(SIZE, SIZE, SAMPLES);
+        final double[] depths = {3, 2, 4, 5};
+        final int all = (1 << SAMPLES) - 1;
+        buffer.testAndWriteDepth(1, 2, all, depths);
+        buffer.writeColor(1, 2, all, WHITE);
+        buffer.testAndWriteDepth(3, 2, all, depths);
+        buffer.writeColor(3, 2, all, WHITE);
+
+        final DepthBuffer depth = new DepthBuffer(SIZE, SIZE);
+        depth.setDepth(3, 2, 1);
+        buffer.resolveDepth(depth);
+        assertEquals(2, depth.getDepth(1, 2), 0);
+        assertEquals(1, depth.getDepth(3, 2), 0);
+        assertEquals(Double.POSITIVE_INFINITY, depth.getDepth(2, 2), 0);
+    }
+
+    /**
+     * Only the shaders whose colors survive multisampling support it.
+     */
+    @Test
+    public void testShadersSupportingMultisampling() {
+        assertTrue(new SimpleShader().supportsMultisampling());
+        assertTrue(new PhongShader().supportsMultisampling());
+        assertTrue(new DepthShader().supportsMultisampling());
+        assertFalse(new TextureShader().supportsMultisampling());
+    }
+
+    /**
+     * The renderer reports the fallback to one sample per pixel only for a
+     * multisample rasterizer with a shader not supporting it.
+     * @throws IOException if the default scene cannot be read
+     */
+    @Test
+    public void testRendererReportsFallback() throws IOException {
+        final Renderer renderer = new Renderer();
+        renderer.setShader(new TextureShader());
+        assertFalse(renderer.isMultisampleFallback());
+        renderer.setMultisampleRasterizer(SAMPLES);
+        assertTrue(renderer.isMultisampleFallback());
+        renderer.setShader(new SimpleShader());
+        assertFalse(renderer.isMultisampleFallback());
+    }
+}
@@ -0,0 +1,120 @@
+package core.rasterizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import renderer.controller.ImageWrapper;
+import renderer.core.rasterizer.FixedPointRasterizer;
+import renderer.core.rasterizer.QuadRasterizer;
+import renderer.core.shader.Fragment;
+import renderer.core.shader.Quad;
+import renderer.core.shader.Shader;
+
+/**
+ * Unit tests for the QuadRasterizer class.
+ */
+public class QuadRasterizerTest {
+
+    /** The size of the test screen. */
+    private static final int SIZE = 64;
+
+    /** The scale from pixels to texture coordinates. */
+    private static final double UV_SCALE = 0.01;
+
+    /** The tolerance on derivatives. */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * A shader recording the shaded pixels and checking the quads.
+     */
+    private static final class RecordingShader extends Shader {
+
+        /** The shaded pixels. */
+        private final Set<Integer> pixels = new HashSet<>();
+
+        /** The number of quads received. */
+        private int quads;
+
+        @Override
+        public void shade(Fragment fragment) {
+            assertTrue("pixel shaded twice",
+                    pixels.add(fragment.getY() * SIZE + fragment.getX()));
+        }
+
+        @Override
+        public void shadeQuad(Quad quad) {
+            quads++;
+            assertTrue("empty quad", quad.getCoverage() != 0);
+            assertEquals(UV_SCALE, quad.getDuDx(), EPSILON);
+            assertEquals(0, quad.getDuDy(), EPSILON);
+            assertEquals(0, quad.getDvDx(), EPSILON);
+            assertEquals(2 * UV_SCALE, quad.getDvDy(), EPSILON);
+            assertEquals(0, quad.getFragment(0).getX() % 2);
+            assertEquals(0, quad.getFragment(0).getY() % 2);
+            super.shadeQuad(quad);
+        }
+
+        @Override
+        public void reset() {
+            pixels.clear();
+        }
+    }
+
+    /**
+     * Creates a vertex whose texture coordinates are an affine function of
+     * its screen position.
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the vertex
+     */
+    private static Fragment vertex(double x, double y) {
+        final Fragment f = new Fragment((int) Math.round(x), (int) Math.round(y));
+        f.setSubPixelPosition(x, y);
+        f.setDepth(1.0);
+        f.setAttribute(Fragment.TEXTURE_U, x * UV_SCALE);
+        f.setAttribute(Fragment.TEXTURE_V, y * 2 * UV_SCALE);
+        return f;
+    }
+
+    /**
+     * The quads cover the same pixels as the fixed-point rasterizer and
+     * carry the screen-space derivatives of the texture coordinates.
+     */
+    @Test
+    public void testQuadsMatchScalarCoverage() {
+        // positions on the 1/16 pixel grid, so that snapping is exact
+        final Fragment a = vertex(3.375, 5.125);
+        final Fragment b = vertex(50.6875, 9.875);
+        final Fragment c = vertex(21.25, 47.3125);
+
+        final RecordingShader scalarShader = new RecordingShader();
+        scalarShader.init(null, new ImageWrapper(SIZE, SIZE));
+        new FixedPointRasterizer(scalarShader).rasterizeFace(a, b, c);
+
+        final RecordingShader quadShader = new RecordingShader();
+        quadShader.init(null, new ImageWrapper(SIZE, SIZE));
+        new QuadRasterizer(quadShader).rasterizeFace(a, b, c);
+
+        assertEquals(scalarShader.pixels, quadShader.pixels);
+        assertTrue(quadShader.quads * Quad.SIZE >= quadShader.pixels.size());
+    }
+
+    /**
+     * The level of detail grows with the texture footprint of a pixel.
+     */
+    @Test
+    public void testTextureLod() {
+        final Quad quad = new Quad();
+        quad.setPosition(0, 0);
+        quad.getFragment(1).setAttribute(Fragment.TEXTURE_U, 1.0 / 256);
+        quad.getFragment(2).setAttribute(Fragment.TEXTURE_V, 1.0 / 256);
+        quad.computeDerivatives();
+        final int textureSize = 1024;
+        assertEquals(2, quad.getTextureLod(textureSize, textureSize), EPSILON);
+    }
+}
@@ -0,0 +1,119 @@
+package core.rasterizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import renderer.controller.ImageWrapper;
+import renderer.core.rasterizer.FixedPointRasterizer;
+import renderer.core.rasterizer.Rasterizer;
+import renderer.core.rasterizer.VectorizedRasterizer;
+import renderer.core.shader.Fragment;
+import renderer.core.shader.Shader;
+
+/**
+ * Unit tests for the VectorizedRasterizer class.
+ */
+public class VectorizedRasterizerTest {
+
+    /** The size of the test screen. */
+    private static final int SIZE = 120;
+
+    /** The number of random triangles. */
+    private static final int NUM_TRIANGLES = 200;
+
+    /** The tolerance on interpolated attributes. */
+    private static final double EPSILON = 1e-9;
+
+    /** The seed of the random triangles. */
+    private static final long SEED = 42;
+
+    /**
+     * A shader recording the shaded fragments.
+     */
+    private static final class RecordingShader extends Shader {
+
+        /** The shaded fragments by pixel index. */
+        private final Map<Integer, Fragment> fragments = new HashMap<>();
+
+        @Override
+        public void shade(Fragment fragment) {
+            final Fragment previous = fragments.put(
+                    fragment.getY() * SIZE + fragment.getX(), fragment.clone());
+            assertTrue("pixel shaded twice", previous == null);
+        }
+
+        @Override
+        public void reset() {
+            fragments.clear();
+        }
+    }
+
+    /**
+     * Creates a random vertex, partially off screen.
+     * @param random the random generator
+     * @return the vertex
+     */
+    private static Fragment randomVertex(Random random) {
+        final double x = random.nextDouble() * (SIZE + 40) - 20;
+        final double y = random.nextDouble() * (SIZE + 40) - 20;
+        final Fragment f = new Fragment((int) Math.round(x), (int) Math.round(y));
+        f.setSubPixelPosition(x, y);
+        f.setDepth(1 + random.nextDouble());
+        f.setColor(random.nextDouble(), random.nextDouble(), random.nextDouble());
+        f.setAttribute(Fragment.TEXTURE_U, random.nextDouble());
+        f.setAttribute(Fragment.TEXTURE_V, random.nextDouble());
+        return f;
+    }
+
+    /**
+     * Rasterizes a triangle with the given rasterizer.
+     * @param rasterizer the rasterizer
+     * @param shader the shader of the rasterizer
+     * @param v the vertices
+     * @return the shaded fragments
+     */
+    private static Map<Integer, Fragment> rasterize(Rasterizer rasterizer,
+            RecordingShader shader, Fragment[] v) {
+        shader.reset();
+        rasterizer.rasterizeFace(v[0], v[1], v[2]);
+        return new HashMap<>(shader.fragments);
+    }
+
+    /**
+     * The vectorized rasterizer covers the same pixels, with the same
+     * attributes, as the scalar one.
+     */
+    @Test
+    public void testSameAsScalar() {
+        final RecordingShader scalarShader = new RecordingShader();
+        scalarShader.init(null, new ImageWrapper(SIZE, SIZE));
+        final RecordingShader vectorShader = new RecordingShader();
+        vectorShader.init(null, new ImageWrapper(SIZE, SIZE));
+        final Rasterizer scalar = new FixedPointRasterizer(scalarShader);
+        final Rasterizer vectorized = new VectorizedRasterizer(vectorShader);
+
+        final Random random = new Random(SEED);
+        for (int t = 0; t < NUM_TRIANGLES; t++) {
+            final Fragment[] v = {
+                randomVertex(random), randomVertex(random), randomVertex(random)
+            };
+            final Map<Integer, Fragment> expected = rasterize(scalar, scalarShader, v);
+            final Map<Integer, Fragment> actual = rasterize(vectorized, vectorShader, v);
+
+            assertEquals(expected.keySet(), actual.keySet());
+            for (Map.Entry<Integer, Fragment> entry : expected.entrySet()) {
+                final Fragment e = entry.getValue();
+                final Fragment a = actual.get(entry.getKey());
+                for (int i = 0; i < e.getNumAttributes(); i++) {
+                    assertEquals(e.getAttribute(i), a.getAttribute(i), EPSILON);
+                }
+            }
+        }
+    }
+}
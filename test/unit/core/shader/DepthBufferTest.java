@@ -0,0 +1,130 @@
+package core.shader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import renderer.core.shader.DepthBuffer;
+
+/**
+ * Unit tests for the depth range reduction of the DepthBuffer class.
+ */
+public class DepthBufferTest {
+
+    /** The width of the buffer, wide enough to span several bands. */
+    private static final int WIDTH = 320;
+
+    /** The height of the buffer, tall enough to span several bands. */
+    private static final int HEIGHT = 240;
+
+    /** The tolerance of the comparisons. */
+    private static final double EPSILON = 1e-12;
+
+    /**
+     * A cleared buffer has no range.
+     */
+    @Test
+    public void testClearedBufferHasNoRange() {
+        final DepthBuffer depth = new DepthBuffer(WIDTH, HEIGHT);
+        assertNull(depth.getDepthRange());
+    }
+
+    /**
+     * The range covers the written depths of every band and ignores the
+     * cleared and undefined depths.
+     */
+    @Test
+    public void testRangeOfWrittenDepths() {
+        final DepthBuffer depth = new DepthBuffer(WIDTH, HEIGHT);
+        for (int y = 0; y < HEIGHT; y += 7) {
+            for (int x = 0; x < WIDTH; x += 5) {
+                depth.setDepth(x, y, 1 + (double) (x + y) / (WIDTH + HEIGHT));
+            }
+        }
+        depth.setDepth(WIDTH - 1, HEIGHT - 1, Double.NaN);
+        depth.setDepth(WIDTH / 2, 0, 0.25);
+        depth.setDepth(0, HEIGHT - 2, 3);
+        assertArrayEquals(new double[] {0.25, 3}, depth.getDepthRange(), EPSILON);
+    }
+
+    /**
+     * A single written depth is both ends of the range.
+     */
+    @Test
+    public void testSingleDepth() {
+        final DepthBuffer depth = new DepthBuffer(WIDTH, HEIGHT);
+        depth.setDepth(1, HEIGHT - 1, 2);
+        final double[] range = depth.getDepthRange();
+        assertEquals(2, range[0], EPSILON);
+        assertEquals(2, range[1], EPSILON);
+    }
+
+    /**
+     * The bands never outnumber the rows.
+     */
+    @Test
+    public void testBandCount() {
+        assertEquals(0, DepthBuffer.getBandCount(0));
+        assertEquals(1, DepthBuffer.getBandCount(1));
+    }
+
+    /**
+     * A buffer off heap stores, clears and copies the depths as one in the
+     * heap.
+     */
+    @Test
+    public void testOffHeap() {
+        final DepthBuffer offHeap = new DepthBuffer(WIDTH, HEIGHT, true);
+        assertTrue(offHeap.isOffHeap());
+        assertFalse(new DepthBuffer(WIDTH, HEIGHT).isOffHeap());
+        assertEquals(Double.POSITIVE_INFINITY,
+                offHeap.getDepth(WIDTH - 1, HEIGHT - 1), 0);
+        offHeap.setDepth(WIDTH - 1, 1, 2);
+        offHeap.setDepth(1, HEIGHT - 1, 0.5);
+        assertEquals(2, offHeap.getDepth(WIDTH - 1, 1), EPSILON);
+        assertArrayEquals(new double[] {0.5, 2}, offHeap.getDepthRange(), EPSILON);
+
+        final DepthBuffer heap = new DepthBuffer(WIDTH, HEIGHT);
+        heap.copyFrom(offHeap);
+        assertEquals(0.5, heap.getDepth(1, HEIGHT - 1), EPSILON);
+
+        offHeap.resize(HEIGHT, WIDTH);
+        assertTrue(offHeap.isOffHeap());
+        assertNull(offHeap.getDepthRange());
+    }
+
+    /**
+     * A buffer off heap larger than a block of the bulk clear is cleared to
+     * its last depth, and clearing rows leaves the other rows.
+     */
+    @Test
+    public void testOffHeapClear() {
+        final DepthBuffer offHeap = new DepthBuffer(WIDTH, HEIGHT, true);
+        for (int y = 0; y < HEIGHT; y++) {
+            offHeap.setDepth(0, y, 1);
+            offHeap.setDepth(WIDTH - 1, y, 1);
+        }
+        offHeap.clearRows(1, 2);
+        assertEquals(1, offHeap.getDepth(WIDTH - 1, 0), 0);
+        assertEquals(Double.POSITIVE_INFINITY, offHeap.getDepth(0, 1), 0);
+        assertEquals(Double.POSITIVE_INFINITY, offHeap.getDepth(WIDTH - 1, 2), 0);
+        assertEquals(1, offHeap.getDepth(0, 3), 0);
+
+        offHeap.clear();
+        assertNull(offHeap.getDepthRange());
+        assertEquals(Double.POSITIVE_INFINITY,
+                offHeap.getDepth(WIDTH - 1, HEIGHT - 1), 0);
+    }
+
+    /**
+     * A buffer too large for a direct buffer is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testOffHeapTooLarge() {
+        new DepthBuffer(Integer.MAX_VALUE, 2, true);
+    }
+}
@@ -0,0 +1,162 @@
+package core.shadow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import renderer.core.rasterizer.FixedPointRasterizer;
+import renderer.core.shader.DepthBuffer;
+import renderer.core.shader.Fragment;
+import renderer.core.shadow.ShadowDepthShader;
+import renderer.core.shadow.ShadowMap;
+
+/**
+ * Unit tests for the ShadowMap and ShadowDepthShader classes.
+ */
+public class ShadowMapTest {
+
+    /** The size of a test face. */
+    private static final int SIZE = 16;
+
+    /** The tolerance on visibilities. */
+    private static final double EPSILON = 1e-12;
+
+    /** The tolerance on interpolated depths. */
+    private static final double DEPTH_EPSILON = 1e-9;
+
+    /**
+     * Creates a vertex at a sub-pixel position.
+     * @param x     the x coordinate
+     * @param y     the y coordinate
+     * @param depth the depth
+     * @return the vertex
+     */
+    private static Fragment vertex(double x, double y, double depth) {
+        final Fragment f = new Fragment((int) Math.round(x), (int) Math.round(y));
+        f.setSubPixelPosition(x, y);
+        f.setDepth(depth);
+        return f;
+    }
+
+    /**
+     * The depth shader keeps the nearest depth, and the rasterizer only
+     * walks the viewport of a face projecting far outside of it.
+     */
+    @Test
+    public void testDepthPass() {
+        final DepthBuffer depth = new DepthBuffer(SIZE, SIZE);
+        final ShadowDepthShader shader = new ShadowDepthShader();
+        shader.setTarget(depth);
+        final FixedPointRasterizer rasterizer = new FixedPointRasterizer(shader);
+        rasterizer.setViewport(SIZE, SIZE);
+
+        final double huge = 1e6;
+        rasterizer.rasterizeFace(vertex(-huge, -huge, 2), vertex(huge, -huge, 2),
+                vertex(0, huge, 2));
+        rasterizer.rasterizeFace(vertex(0, 0, 1), vertex(SIZE / 2.0, 0, 1),
+                vertex(0, SIZE / 2.0, 1));
+
+        assertEquals(1, depth.getDepth(1, 1), DEPTH_EPSILON);
+        assertEquals(2, depth.getDepth(SIZE - 1, SIZE - 1), DEPTH_EPSILON);
+    }
+
+    /**
+     * The lookup compares depths with a bias, and the filter returns the
+     * fraction of lit samples.
+     */
+    @Test
+    public void testVisibilityWithFilter() {
+        final ShadowMap map = new ShadowMap(SIZE);
+        final DepthBuffer face = map.getStorage();
+        // an occluder at depth 1 on the left half of the face
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE / 2; x++) {
+                face.setDepth(x, map.getFaceRow(0) + y, 1);
+            }
+        }
+        map.setBias(0.01);
+
+        assertEquals(0, map.visibility(0, 2, 2, 2), EPSILON);
+        assertEquals(1, map.visibility(0, SIZE - 3, 2, 2), EPSILON);
+        // the occluder itself is not shadowed
+        assertEquals(1, map.visibility(0, 2, 2, 1), EPSILON);
+
+        map.setPcfRadius(1);
+        assertEquals(1.0 / 3, map.visibility(0, SIZE / 2 - 1, 2, 2), EPSILON);
+        // samples are clamped to the face
+        assertEquals(0, map.visibility(0, 0, 0, 2), EPSILON);
+    }
+
+    /**
+     * The maps sharing a storage own disjoint faces, and the depth shader
+     * only writes and clears the face it targets.
+     */
+    @Test
+    public void testSharedStorage() {
+        final DepthBuffer storage = ShadowMap.createStorage(SIZE, 2);
+        assertEquals(2, ShadowMap.getSlotCount(storage));
+        final ShadowMap first = new ShadowMap(storage, 0);
+        final ShadowMap second = new ShadowMap(storage, 1);
+        assertSame(storage, second.getStorage());
+        assertEquals(ShadowMap.FACES * SIZE, second.getFaceRow(0));
+        assertEquals(SIZE, first.getFaceRow(1));
+
+        final ShadowDepthShader shader = new ShadowDepthShader();
+        shader.setTarget(storage, second.getFaceRow(1), SIZE);
+        final FixedPointRasterizer rasterizer = new FixedPointRasterizer(shader);
+        rasterizer.setViewport(SIZE, SIZE);
+        storage.setDepth(0, first.getFaceRow(1), 1);
+        rasterizer.rasterizeFace(vertex(0, 0, 2), vertex(2 * SIZE, 0, 2),
+                vertex(0, 2 * SIZE, 2));
+        assertEquals(2, storage.getDepth(1, second.getFaceRow(1) + 1), DEPTH_EPSILON);
+        assertEquals(Double.POSITIVE_INFINITY,
+                storage.getDepth(1, second.getFaceRow(2)), 0);
+        assertEquals(1, storage.getDepth(0, first.getFaceRow(1)), 0);
+
+        shader.reset();
+        assertEquals(Double.POSITIVE_INFINITY,
+                storage.getDepth(1, second.getFaceRow(1) + 1), 0);
+        assertEquals(1, storage.getDepth(0, first.getFaceRow(1)), 0);
+        // the lookups of a map read its own faces
+        assertEquals(0, first.visibility(1, 0, 0, 2), EPSILON);
+        assertEquals(1, second.visibility(1, 0, 0, 2), EPSILON);
+    }
+
+    /**
+     * A map is rejected in a slot its storage does not have.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingSlot() {
+        new ShadowMap(ShadowMap.createStorage(SIZE, 1), 1);
+    }
+
+    /**
+     * A face crossing the near plane is clipped, not dropped: the part in
+     * front of the light is rasterized with the depths of its vertices.
+     */
+    @Test
+    public void testNearPlaneClipping() {
+        final DepthBuffer depth = new DepthBuffer(SIZE, SIZE);
+        final ShadowDepthShader shader = new ShadowDepthShader();
+        shader.setTarget(depth);
+        final FixedPointRasterizer rasterizer = new FixedPointRasterizer(shader);
+        rasterizer.setViewport(SIZE, SIZE);
+
+        // two vertices at depth 1 on the top edge, the third one behind the light
+        ShadowMap.rasterizeClipped(rasterizer, new double[] {0, 0, 1},
+                new double[] {SIZE / 2.0, 0, 1}, new double[] {0, SIZE, -1});
+        assertTrue(depth.getDepth(1, 1) <= 1 + DEPTH_EPSILON);
+        // the clipped part projects beyond the bottom of the face
+        assertTrue(depth.getDepth(1, SIZE - 1) <= 1 + DEPTH_EPSILON);
+        // right of the edge toward the light, the face is uncovered
+        assertEquals(Double.POSITIVE_INFINITY, depth.getDepth(SIZE - 1, 1), 0);
+
+        // a face entirely behind the light is dropped
+        depth.clear();
+        ShadowMap.rasterizeClipped(rasterizer, new double[] {0, 0, -1},
+                new double[] {SIZE, 0, -1}, new double[] {0, SIZE, -1});
+        assertEquals(Double.POSITIVE_INFINITY, depth.getDepth(1, 1), 0);
+    }
+}
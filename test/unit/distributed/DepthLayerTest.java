@@ -0,0 +1,132 @@
+package distributed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import renderer.controller.ImageWrapper;
+import renderer.distributed.DepthLayer;
+import renderer.distributed.SortLastCoordinator;
+
+/**
+ * Unit tests for the DepthLayer class and the sort-last compositing.
+ */
+public class DepthLayerTest {
+
+    /** The size of the test layers. */
+    private static final int SIZE = 16;
+
+    /** A red color. */
+    private static final int RED = 0xFF0000;
+
+    /** A green color. */
+    private static final int GREEN = 0x00FF00;
+
+    /** A blue color. */
+    private static final int BLUE = 0x0000FF;
+
+    /** The mask of the RGB channels. */
+    private static final int RGB_MASK = 0xFFFFFF;
+
+    /** The number of bytes per pixel of an uncompressed image. */
+    private static final long BYTES_PER_PIXEL = 3;
+
+    /**
+     * Writes a layer and reads it back.
+     * @param layer the layer
+     * @return the layer read
+     * @throws IOException never, the streams are in memory
+     */
+    private static DepthLayer roundTrip(DepthLayer layer) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final long written = layer.write(new DataOutputStream(bytes));
+        assertEquals(bytes.size(), written);
+        assertEquals(written, layer.getEncodedSize());
+        return DepthLayer.read(new DataInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())), SIZE, SIZE);
+    }
+
+    /**
+     * Only the covered pixels are sent, and they come back unchanged.
+     * @throws IOException never
+     */
+    @Test
+    public void testRunLengthRoundTrip() throws IOException {
+        final DepthLayer layer = new DepthLayer(SIZE, SIZE);
+        for (int x = 2; x < SIZE - 2; x++) {
+            layer.set(x, SIZE / 2, RED, x);
+        }
+        layer.set(SIZE - 1, SIZE - 1, GREEN, 1);
+
+        final DepthLayer read = roundTrip(layer);
+        assertEquals(layer.getCoveredCount(), read.getCoveredCount());
+        assertEquals(RED, read.getRGB(3, SIZE / 2));
+        assertEquals(3, read.getDepth(3, SIZE / 2), 0);
+        assertEquals(GREEN, read.getRGB(SIZE - 1, SIZE - 1));
+        assertFalse(read.isCovered(0, 0));
+        assertTrue("the empty pixels are not compressed",
+                layer.getEncodedSize() < SIZE * SIZE * BYTES_PER_PIXEL);
+    }
+
+    /**
+     * An empty layer is written as a single run.
+     * @throws IOException never
+     */
+    @Test
+    public void testEmptyLayer() throws IOException {
+        final DepthLayer read = roundTrip(new DepthLayer(SIZE, SIZE));
+        assertEquals(0, read.getCoveredCount());
+        assertEquals(2 * Integer.BYTES, new DepthLayer(SIZE, SIZE).getEncodedSize());
+    }
+
+    /**
+     * The nearest pixel wins, ties going to the first partition, and the
+     * uncovered pixels of the result are left to the background.
+     */
+    @Test
+    public void testTreeCompositing() {
+        final DepthLayer[] layers = new DepthLayer[3];
+        for (int i = 0; i < layers.length; i++) {
+            layers[i] = new DepthLayer(SIZE, SIZE);
+        }
+        layers[0].set(0, 0, RED, 2);
+        layers[1].set(0, 0, GREEN, 1);
+        layers[2].set(0, 0, BLUE, 3);
+        layers[1].set(1, 0, GREEN, 1);
+        layers[2].set(1, 0, BLUE, 1);
+        layers[2].set(2, 0, BLUE, 5);
+
+        final DepthLayer merged = SortLastCoordinator.composite(layers);
+        assertEquals(GREEN, merged.getRGB(0, 0));
+        assertEquals(GREEN, merged.getRGB(1, 0));
+        assertEquals(BLUE, merged.getRGB(2, 0));
+        assertEquals(3, merged.getCoveredCount());
+
+        final ImageWrapper image = new ImageWrapper(SIZE, SIZE, 0);
+        merged.resolve(image);
+        assertEquals(GREEN, image.getRGB(0, 0) & RGB_MASK);
+        assertEquals(0, image.getRGB(SIZE - 1, SIZE - 1) & RGB_MASK);
+    }
+
+    /**
+     * Runs running past the end of the layer are rejected.
+     * @throws IOException always
+     */
+    @Test(expected = IOException.class)
+    public void testInvalidRuns() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(SIZE * SIZE);
+        out.writeInt(1);
+        DepthLayer.read(new DataInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())), SIZE, SIZE);
+    }
+}
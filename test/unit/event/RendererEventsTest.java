@@ -0,0 +1,122 @@
+package event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import renderer.controller.Renderer;
+import renderer.core.mesh.Mesh;
+import renderer.core.shadow.ShadowMap;
+
+/**
+ * Unit tests for the flight recorder events of the renderer.
+ */
+public class RendererEventsTest {
+
+    /** The size of the shadow maps of the test. */
+    private static final int SHADOW_SIZE = 8;
+
+    /** The position of the light of the test. */
+    private static final double LIGHT = 10;
+
+    /**
+     * Records the events of an action.
+     * @param action the action
+     * @return the events recorded
+     * @throws IOException if the recording cannot be written
+     */
+    private static List<RecordedEvent> record(Action action) throws IOException {
+        final Path file = Files.createTempFile("renderer", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("renderer.Frame");
+            recording.enable("renderer.ResourceLoad");
+            recording.enable("renderer.CacheEviction");
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * An action throwing IOException.
+     */
+    private interface Action {
+        /**
+         * Runs the action.
+         * @throws IOException if a file cannot be read
+         */
+        void run() throws IOException;
+    }
+
+    /**
+     * Counts the events of a type.
+     * @param events the events
+     * @param name   the name of the type
+     * @return the number of events of the type
+     */
+    private static long count(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(e -> e.getEventType().getName().equals(name)).count();
+    }
+
+    /**
+     * A frame is recorded with its settings, and the loads of the meshes.
+     * @throws IOException if the default scene cannot be read
+     */
+    @Test
+    public void testFrameAndLoadEvents() throws IOException {
+        final Renderer[] renderer = new Renderer[1];
+        final List<RecordedEvent> events = record(() -> {
+            renderer[0] = new Renderer();
+            renderer[0].setSolidRendered(true);
+            renderer[0].render();
+        });
+
+        assertEquals(1, count(events, "renderer.Frame"));
+        assertTrue(count(events, "renderer.ResourceLoad") >= 1);
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals("renderer.Frame")) {
+                assertEquals(renderer[0].getScreenWidth(), event.getInt("width"));
+                assertTrue(event.getLong("triangles") > 0);
+                // the frame is timed, without the per-fragment counters
+                assertTrue(event.getDuration("solidTime").toNanos() > 0);
+                assertFalse(event.hasField("fragments"));
+            } else if (event.getEventType().getName().equals("renderer.ResourceLoad")) {
+                assertEquals("mesh", event.getString("kind"));
+                assertTrue(event.getLong("bytes") > 0);
+            }
+        }
+        // the statistics are only published when profiling is requested
+        assertEquals(null, renderer[0].getFrameStatistics());
+    }
+
+    /**
+     * Moving a light evicts its shadow map.
+     * @throws IOException if the mesh cannot be read
+     */
+    @Test
+    public void testShadowMapEviction() throws IOException {
+        final Mesh mesh = new Mesh("data/cube_trigs_color.off");
+        final ShadowMap map = new ShadowMap(SHADOW_SIZE);
+        final List<RecordedEvent> events = record(() -> {
+            map.update(mesh, LIGHT, LIGHT, LIGHT);
+            map.update(mesh, LIGHT, LIGHT, LIGHT);
+            map.update(mesh, -LIGHT, LIGHT, LIGHT);
+        });
+        assertEquals(1, count(events, "renderer.CacheEviction"));
+    }
+}
@@ -0,0 +1,85 @@
+package gui;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import renderer.algebra.Vector;
+import renderer.controller.Renderer;
+import renderer.gui.OrbitCameraController;
+
+/**
+ * Unit tests for the orbit of the OrbitCameraController class.
+ */
+public class OrbitCameraControllerTest {
+
+    /** A vertical drag long enough to go over a pole many times. */
+    private static final int LONG_DRAG = 100_000;
+
+    /** The number of one-pixel steps of a drag, enough to reach a pole. */
+    private static final int STEPS = 400;
+
+    /** The tolerance on the polar angle. */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Gets the angle between the offset of the camera and its up direction.
+     * @param renderer the renderer
+     * @return the polar angle in radians
+     */
+    private static double polar(Renderer renderer) {
+        final Vector offset = renderer.getCameraPosition()
+                .subtract(renderer.getCameraLookAt());
+        final Vector up = renderer.getCameraUp().normalize();
+        return Math.acos(Math.max(-1, Math.min(1, offset.dot(up) / offset.norm())));
+    }
+
+    /**
+     * Asserts the polar angle of the camera is within the allowed range.
+     * @param renderer the renderer
+     */
+    private static void assertWithinPoles(Renderer renderer) {
+        final double polar = polar(renderer);
+        assertTrue("polar angle " + polar,
+                polar >= OrbitCameraController.MIN_POLAR_ANGLE - EPSILON);
+        assertTrue("polar angle " + polar,
+                polar <= Math.PI - OrbitCameraController.MIN_POLAR_ANGLE + EPSILON);
+    }
+
+    /**
+     * Dragging past each pole, at once or pixel by pixel, stops the camera at
+     * the smallest polar angle from that pole, on the side it came from.
+     * @throws IOException if the default scene cannot be read
+     */
+    @Test
+    public void testTiltStopsAtThePoles() throws IOException {
+        for (int direction : new int[] {1, -1}) {
+            final Renderer renderer = new Renderer();
+            renderer.setCamera(new Vector(1, 0, 0), new Vector(0, 0, 0),
+                    new Vector(0, 0, 1));
+            OrbitCameraController.orbit(renderer, 0, direction * LONG_DRAG);
+            assertWithinPoles(renderer);
+            for (int i = 0; i < STEPS; i++) {
+                OrbitCameraController.orbit(renderer, 0, direction);
+                assertWithinPoles(renderer);
+                // without horizontal motion the camera stays on the side of +x
+                assertTrue(renderer.getCameraPosition().get(0) > 0);
+            }
+        }
+    }
+
+    /**
+     * Dragging toward up turns the camera toward up.
+     * @throws IOException if the default scene cannot be read
+     */
+    @Test
+    public void testTiltDirection() throws IOException {
+        final Renderer renderer = new Renderer();
+        renderer.setCamera(new Vector(1, 0, 0), new Vector(0, 0, 0),
+                new Vector(0, 0, 1));
+        OrbitCameraController.orbit(renderer, 0, 1);
+        assertTrue(polar(renderer) < Math.PI / 2);
+    }
+}
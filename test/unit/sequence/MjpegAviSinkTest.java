@@ -0,0 +1,126 @@
+package sequence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+import renderer.sequence.MjpegAviSink;
+
+/**
+ * Unit tests for the MjpegAviSink class.
+ */
+public class MjpegAviSinkTest {
+
+    /** The width of the frames. */
+    private static final int WIDTH = 33;
+
+    /** The height of the frames. */
+    private static final int HEIGHT = 17;
+
+    /** The number of frames. */
+    private static final int FRAMES = 5;
+
+    /** The frame rate. */
+    private static final int FPS = 10;
+
+    /** The offset of the number of frames in the main header. */
+    private static final int TOTAL_FRAMES = 48;
+
+    /** The offset of the width in the main header. */
+    private static final int AVIH_WIDTH = 64;
+
+    /** The offset of the list of frames. */
+    private static final int MOVI_LIST = 212;
+
+    /** The size of an index entry. */
+    private static final int INDEX_ENTRY = 16;
+
+    /**
+     * Reads a four-character code.
+     *
+     * @param b      the file
+     * @param offset the offset of the code
+     * @return the code
+     */
+    private static String fourCC(ByteBuffer b, int offset) {
+        final byte[] code = new byte[4];
+        for (int i = 0; i < code.length; i++) {
+            code[i] = b.get(offset + i);
+        }
+        return new String(code, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * The file holds the headers, one JPEG chunk per frame and an index
+     * pointing at the chunks.
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    public void testLayout() throws IOException {
+        final Path file = Files.createTempFile("sequence", ".avi");
+        try {
+            try (MjpegAviSink sink = new MjpegAviSink(file, FPS, 0.8f)) {
+                for (int i = 0; i < FRAMES; i++) {
+                    final BufferedImage frame = new BufferedImage(WIDTH, HEIGHT,
+                            BufferedImage.TYPE_3BYTE_BGR);
+                    frame.setRGB(i, i, Color.WHITE.getRGB());
+                    sink.write(frame);
+                }
+                assertEquals(FRAMES, sink.getFrameCount());
+            }
+            final ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(file))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals("RIFF", fourCC(b, 0));
+            assertEquals(b.capacity() - 8, b.getInt(4));
+            assertEquals("AVI ", fourCC(b, 8));
+            assertEquals(FRAMES, b.getInt(TOTAL_FRAMES));
+            assertEquals(WIDTH, b.getInt(AVIH_WIDTH));
+            assertEquals("movi", fourCC(b, MOVI_LIST + 8));
+
+            final int idx1 = MOVI_LIST + 8 + b.getInt(MOVI_LIST + 4);
+            assertEquals("idx1", fourCC(b, idx1));
+            assertEquals(FRAMES * INDEX_ENTRY, b.getInt(idx1 + 4));
+            for (int i = 0; i < FRAMES; i++) {
+                final int entry = idx1 + 8 + i * INDEX_ENTRY;
+                final int chunk = MOVI_LIST + 8 + b.getInt(entry + 8);
+                final int size = b.getInt(entry + 12);
+                assertEquals("00dc", fourCC(b, chunk));
+                assertEquals(size, b.getInt(chunk + 4));
+                final BufferedImage decoded = ImageIO.read(
+                        new ByteArrayInputStream(b.array(), chunk + 8, size));
+                assertNotNull(decoded);
+                assertEquals(WIDTH, decoded.getWidth());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * The frames of a video have the size of the first one.
+     * @throws IOException if the file cannot be written
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testFrameSizeChange() throws IOException {
+        final Path file = Files.createTempFile("sequence", ".avi");
+        try (MjpegAviSink sink = new MjpegAviSink(file, FPS, 1)) {
+            sink.write(new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_3BYTE_BGR));
+            sink.write(new BufferedImage(HEIGHT, WIDTH, BufferedImage.TYPE_3BYTE_BGR));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import renderer.server.LatencyHistogram;
+
+/**
+ * Unit tests for the LatencyHistogram class.
+ */
+public class LatencyHistogramTest {
+
+    /** The number of nanoseconds per microsecond. */
+    private static final long MICROS = 1_000L;
+
+    /** The number of nanoseconds per millisecond. */
+    private static final long MILLIS = 1_000_000L;
+
+    /** The number of fast durations recorded. */
+    private static final int FAST = 99;
+
+    /**
+     * The percentiles are bounded by the bucket holding them.
+     */
+    @Test
+    public void testPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram("test");
+        assertEquals(0, histogram.getPercentileMicros(50));
+        for (int i = 0; i < FAST; i++) {
+            histogram.record(100 * MICROS);
+        }
+        histogram.record(100 * MILLIS);
+
+        assertEquals(FAST + 1, histogram.getCount());
+        // 100 us falls in [64, 127]
+        assertEquals(127, histogram.getPercentileMicros(50));
+        assertEquals(127, histogram.getPercentileMicros(FAST));
+        final long max = histogram.getPercentileMicros(100);
+        assertTrue(max >= 100_000 && max < 2 * 100_000);
+    }
+
+    /**
+     * The exposition is cumulative and ends with the sum and the count.
+     */
+    @Test
+    public void testDescribe() {
+        final LatencyHistogram histogram = new LatencyHistogram("test");
+        histogram.record(MICROS);
+        histogram.record(3 * MICROS);
+        final String text = histogram.describe();
+        assertTrue(text, text.contains("test_bucket{le=\"1\"} 1\n"));
+        assertTrue(text, text.contains("test_bucket{le=\"3\"} 2\n"));
+        assertTrue(text, text.contains("test_bucket{le=\"+Inf\"} 2\n"));
+        assertTrue(text, text.contains("test_sum 4\n"));
+        assertTrue(text, text.endsWith("test_count 2\n"));
+    }
+}
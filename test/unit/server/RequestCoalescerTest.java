@@ -0,0 +1,86 @@
+package server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import renderer.server.RequestCoalescer;
+
+/**
+ * Unit tests for the RequestCoalescer class.
+ */
+public class RequestCoalescerTest {
+
+    /** The time to wait for the other threads. */
+    private static final long TIMEOUT_S = 10;
+
+    /**
+     * Identical requests in flight share one computation; the next request
+     * computes again.
+     * @throws Exception if a thread fails
+     */
+    @Test
+    public void testCoalescesInFlightRequests() throws Exception {
+        final RequestCoalescer<String, Object> coalescer = new RequestCoalescer<>();
+        final AtomicInteger computations = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CompletableFuture<Object> release = new CompletableFuture<>();
+        final ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            final Future<Object> first = threads.submit(() -> coalescer.get("a", () -> {
+                computations.incrementAndGet();
+                started.countDown();
+                return release.join();
+            }));
+            started.await(TIMEOUT_S, TimeUnit.SECONDS);
+            final Future<Object> second = threads.submit(() -> coalescer.get("a", () -> {
+                computations.incrementAndGet();
+                return new Object();
+            }));
+            while (coalescer.getCoalescedCount() == 0) {
+                Thread.yield();
+            }
+            final Object result = new Object();
+            release.complete(result);
+
+            assertSame(result, first.get(TIMEOUT_S, TimeUnit.SECONDS));
+            assertSame(result, second.get(TIMEOUT_S, TimeUnit.SECONDS));
+            assertEquals(1, computations.get());
+            assertEquals(0, coalescer.getInFlightCount());
+
+            coalescer.get("a", () -> computations.incrementAndGet());
+            assertEquals(2, computations.get());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    /**
+     * A failed computation is reported, and not remembered.
+     * @throws Exception if the second computation fails
+     */
+    @Test
+    public void testFailureIsNotCached() throws Exception {
+        final RequestCoalescer<String, String> coalescer = new RequestCoalescer<>();
+        String error = null;
+        try {
+            coalescer.get("a", () -> {
+                throw new IOException("failed");
+            });
+        } catch (IOException e) {
+            error = e.getMessage();
+        }
+        assertEquals("failed", error);
+        assertEquals("ok", coalescer.get("a", () -> "ok"));
+    }
+}